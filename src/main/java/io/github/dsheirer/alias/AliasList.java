@@ -101,6 +101,28 @@ public class AliasList
      * Adds the alias to this list
      */
     public void addAlias(Alias alias)
+    {
+        addAliases(Collections.singletonList(alias));
+    }
+
+    /**
+     * Adds the aliases to this list and publishes the updated talkgroup and radio lookup indexes once, after all
+     * aliases are added.
+     */
+    public void addAliases(Collection<Alias> aliases)
+    {
+        for(Alias alias: aliases)
+        {
+            add(alias);
+        }
+
+        publishLookupIndexes();
+    }
+
+    /**
+     * Adds the alias to the internal mappings without publishing the lookup indexes.
+     */
+    private void add(Alias alias)
     {
         if(alias != null)
         {
@@ -118,6 +140,15 @@ public class AliasList
         }
     }
 
+    /**
+     * Rebuilds and publishes the lookup index for each talkgroup and radio alias list that changed.
+     */
+    private void publishLookupIndexes()
+    {
+        mTalkgroupProtocolMap.values().forEach(TalkgroupAliasList::publish);
+        mRadioProtocolMap.values().forEach(RadioAliasList::publish);
+    }
+
     /**
      * Adds the alias and alias identifier to the internal type mapping.
      */
@@ -304,7 +335,8 @@ public class AliasList
             }
         }
 
-        overlapAliases.stream().forEach(alias -> addAlias(alias));
+        overlapAliases.stream().forEach(alias -> add(alias));
+        publishLookupIndexes();
     }
 
     /**
@@ -362,6 +394,11 @@ public class AliasList
 
     /**
      * Returns an optional alias that is associated with the identifier
+     *
+     * Talkgroup and radio identifiers are resolved directly against the compiled per-protocol lookup index.  The
+     * index lookup is cheaper than memoizing the resolution, so identifiers that are resolved repeatedly during a call
+     * are not cached.
+     *
       * @param identifier to alias
      * @return list of alias or empty list
      */
@@ -595,33 +632,48 @@ public class AliasList
     {
         private Map<Integer,Alias> mTalkgroupAliasMap = new TreeMap<>();
         private Map<TalkgroupRange, Alias> mTalkgroupRangeAliasMap = new HashMap<>();
+        private volatile AliasLookupIndex mLookupIndex = AliasLookupIndex.EMPTY;
+        private boolean mChanged;
 
         public TalkgroupAliasList()
         {
         }
 
-        public Alias getAlias(TalkgroupIdentifier identifier)
+        /**
+         * Rebuilds the lookup index from the talkgroup and talkgroup range maps when they have changed since the
+         * last publish and publishes the new immutable index to the lookup threads.  Invoked on the mutating thread.
+         */
+        public synchronized void publish()
         {
-            int value = identifier.getValue();
-
-            Alias mapValue = mTalkgroupAliasMap.get(value);
-            if (mapValue != null)
+            if(mChanged)
             {
-                return mapValue;
-            }
+                AliasLookupIndex.Builder builder = new AliasLookupIndex.Builder();
 
-            for(Map.Entry<TalkgroupRange, Alias> entry : mTalkgroupRangeAliasMap.entrySet())
-            {
-                if(entry.getKey().contains(value))
+                for(Map.Entry<Integer,Alias> entry: mTalkgroupAliasMap.entrySet())
+                {
+                    builder.add(entry.getKey(), entry.getValue());
+                }
+
+                for(Map.Entry<TalkgroupRange,Alias> entry: mTalkgroupRangeAliasMap.entrySet())
                 {
-                    return entry.getValue();
+                    builder.addRange(entry.getKey().getMinTalkgroup(), entry.getKey().getMaxTalkgroup(),
+                        entry.getValue());
                 }
+
+                mLookupIndex = builder.build();
+                mChanged = false;
             }
+        }
 
-            return null;
+        /**
+         * Alias for the talkgroup from the most recently published lookup index.  This method doesn't lock.
+         */
+        public Alias getAlias(TalkgroupIdentifier identifier)
+        {
+            return mLookupIndex.getAlias(identifier.getValue());
         }
 
-        public void add(Talkgroup talkgroup, Alias alias)
+        public synchronized void add(Talkgroup talkgroup, Alias alias)
         {
             //Detect talkgroup collisions and set overlap flag for both
             if(mTalkgroupAliasMap.containsKey(talkgroup.getValue()))
@@ -643,9 +695,10 @@ public class AliasList
             }
 
             mTalkgroupAliasMap.put(talkgroup.getValue(), alias);
+            mChanged = true;
         }
 
-        public void add(TalkgroupRange talkgroupRange, Alias alias)
+        public synchronized void add(TalkgroupRange talkgroupRange, Alias alias)
         {
             //Log warning if the new talkgroup range overlaps with any existing ranges
             for(Map.Entry<TalkgroupRange,Alias> entry: mTalkgroupRangeAliasMap.entrySet())
@@ -658,15 +711,17 @@ public class AliasList
             }
 
             mTalkgroupRangeAliasMap.put(talkgroupRange, alias);
+            mChanged = true;
         }
 
         /**
          * Removes the alias from both the talkgroup and the talkgroup range maps.
          */
-        public void remove(Alias alias)
+        public synchronized void remove(Alias alias)
         {
             mTalkgroupAliasMap.values().removeAll(Collections.singleton(alias));
             mTalkgroupRangeAliasMap.values().removeAll(Collections.singleton(alias));
+            mChanged = true;
         }
     }
 
@@ -677,33 +732,47 @@ public class AliasList
     {
         private Map<Integer,Alias> mRadioAliasMap = new TreeMap<>();
         private Map<RadioRange, Alias> mRadioRangeAliasMap = new HashMap<>();
+        private volatile AliasLookupIndex mLookupIndex = AliasLookupIndex.EMPTY;
+        private boolean mChanged;
 
         public RadioAliasList()
         {
         }
 
-        public Alias getAlias(RadioIdentifier identifier)
+        /**
+         * Rebuilds the lookup index from the radio and radio range maps when they have changed since the last
+         * publish and publishes the new immutable index to the lookup threads.  Invoked on the mutating thread.
+         */
+        public synchronized void publish()
         {
-            int value = identifier.getValue();
-
-            Alias mapValue = mRadioAliasMap.get(value);
-            if(mapValue != null)
+            if(mChanged)
             {
-                return mapValue;
-            }
+                AliasLookupIndex.Builder builder = new AliasLookupIndex.Builder();
 
-            for(Map.Entry<RadioRange, Alias> entry : mRadioRangeAliasMap.entrySet())
-            {
-                if(entry.getKey().contains(value))
+                for(Map.Entry<Integer,Alias> entry: mRadioAliasMap.entrySet())
+                {
+                    builder.add(entry.getKey(), entry.getValue());
+                }
+
+                for(Map.Entry<RadioRange,Alias> entry: mRadioRangeAliasMap.entrySet())
                 {
-                    return entry.getValue();
+                    builder.addRange(entry.getKey().getMinRadio(), entry.getKey().getMaxRadio(), entry.getValue());
                 }
+
+                mLookupIndex = builder.build();
+                mChanged = false;
             }
+        }
 
-            return null;
+        /**
+         * Alias for the radio from the most recently published lookup index.  This method doesn't lock.
+         */
+        public Alias getAlias(RadioIdentifier identifier)
+        {
+            return mLookupIndex.getAlias(identifier.getValue());
         }
 
-        public void add(Radio radio, Alias alias)
+        public synchronized void add(Radio radio, Alias alias)
         {
             //Detect collisions
             if(mRadioAliasMap.containsKey(radio.getValue()))
@@ -725,9 +794,10 @@ public class AliasList
             }
 
             mRadioAliasMap.put(radio.getValue(), alias);
+            mChanged = true;
         }
 
-        public void add(RadioRange radioRange, Alias alias)
+        public synchronized void add(RadioRange radioRange, Alias alias)
         {
             //Log warning if the new range overlaps with any existing ranges
             for(Map.Entry<RadioRange,Alias> entry: mRadioRangeAliasMap.entrySet())
@@ -740,15 +810,17 @@ public class AliasList
             }
 
             mRadioRangeAliasMap.put(radioRange, alias);
+            mChanged = true;
         }
 
         /**
          * Removes the alias from both the radio and the radio range maps.
          */
-        public void remove(Alias alias)
+        public synchronized void remove(Alias alias)
         {
             mRadioAliasMap.values().removeAll(Collections.singleton(alias));
             mRadioRangeAliasMap.values().removeAll(Collections.singleton(alias));
+            mChanged = true;
         }
     }
 }
@@ -0,0 +1,382 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.alias;
+
+import io.github.dsheirer.alias.id.talkgroup.Talkgroup;
+import io.github.dsheirer.alias.id.talkgroup.TalkgroupRange;
+import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.protocol.Protocol;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compiled, immutable alias lookup index for integer valued identifiers (e.g. talkgroups or radio IDs) of a single
+ * protocol.
+ *
+ * Exact identifier values are stored in an open-addressing hash table keyed by primitive int values, avoiding the
+ * boxing and tree traversal costs of a map lookup.  Identifier ranges are sorted by minimum value and augmented with
+ * a running maximum of the range end values, so that a range lookup is a binary search followed by a short backward
+ * scan over only those ranges that could contain the value, instead of a scan across every range.
+ *
+ * Exact identifier matches take precedence over range matches.  When ranges overlap, the containing range with the
+ * largest minimum value (ie the closest range) is returned.
+ *
+ * Instances are immutable and thread safe.  Use the Builder to create a new index whenever the aliases change.
+ */
+public class AliasLookupIndex
+{
+    public static final AliasLookupIndex EMPTY = new Builder().build();
+
+    private final int[] mKeys;
+    private final Alias[] mValues;
+    private final int mMask;
+    private final int[] mRangeMinimums;
+    private final int[] mRangeMaximums;
+    private final int[] mRangePrefixMaximums;
+    private final Alias[] mRangeAliases;
+
+    /**
+     * Constructs an instance from the builder.
+     */
+    private AliasLookupIndex(Builder builder)
+    {
+        //Size the hash table to a power of two with a load factor of 0.5 or less
+        int capacity = Integer.highestOneBit(Math.max(builder.mIdentifierCount, 2) * 2 - 1) << 1;
+        mKeys = new int[capacity];
+        mValues = new Alias[capacity];
+        mMask = capacity - 1;
+
+        for(int x = 0; x < builder.mIdentifierCount; x++)
+        {
+            int slot = slot(builder.mIdentifiers[x]);
+
+            while(mValues[slot] != null && mKeys[slot] != builder.mIdentifiers[x])
+            {
+                slot = (slot + 1) & mMask;
+            }
+
+            //Last value added for an identifier wins, matching map put() behavior
+            mKeys[slot] = builder.mIdentifiers[x];
+            mValues[slot] = builder.mIdentifierAliases.get(x);
+        }
+
+        List<Range> ranges = new ArrayList<>(builder.mRanges);
+        ranges.sort(Comparator.comparingInt((Range range) -> range.mMinimum).thenComparingInt(range -> range.mMaximum));
+
+        int rangeCount = ranges.size();
+        mRangeMinimums = new int[rangeCount];
+        mRangeMaximums = new int[rangeCount];
+        mRangePrefixMaximums = new int[rangeCount];
+        mRangeAliases = new Alias[rangeCount];
+
+        int prefixMaximum = Integer.MIN_VALUE;
+
+        for(int x = 0; x < rangeCount; x++)
+        {
+            Range range = ranges.get(x);
+            mRangeMinimums[x] = range.mMinimum;
+            mRangeMaximums[x] = range.mMaximum;
+            mRangeAliases[x] = range.mAlias;
+            prefixMaximum = Math.max(prefixMaximum, range.mMaximum);
+            mRangePrefixMaximums[x] = prefixMaximum;
+        }
+    }
+
+    /**
+     * Hash table slot for the value.
+     */
+    private int slot(int value)
+    {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mMask;
+    }
+
+    /**
+     * Alias for the identifier value, checking exact identifier values first and then identifier ranges.
+     * @param value to lookup
+     * @return matching alias or null
+     */
+    public Alias getAlias(int value)
+    {
+        int slot = slot(value);
+        Alias alias;
+
+        while((alias = mValues[slot]) != null)
+        {
+            if(mKeys[slot] == value)
+            {
+                return alias;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        return getRangeAlias(value);
+    }
+
+    /**
+     * Alias for the range that contains the identifier value.
+     * @param value to lookup
+     * @return matching range alias or null
+     */
+    public Alias getRangeAlias(int value)
+    {
+        //Find the last range with a minimum value less than or equal to the value
+        int index = Arrays.binarySearch(mRangeMinimums, value);
+
+        if(index < 0)
+        {
+            index = -index - 2;
+        }
+        else
+        {
+            //Advance past any duplicate minimum values
+            while(index + 1 < mRangeMinimums.length && mRangeMinimums[index + 1] == value)
+            {
+                index++;
+            }
+        }
+
+        //Scan backward while any earlier range could still extend far enough to contain the value
+        while(index >= 0 && mRangePrefixMaximums[index] >= value)
+        {
+            if(value <= mRangeMaximums[index])
+            {
+                return mRangeAliases[index];
+            }
+
+            index--;
+        }
+
+        return null;
+    }
+
+    /**
+     * Number of identifier ranges in this index
+     */
+    public int getRangeCount()
+    {
+        return mRangeAliases.length;
+    }
+
+    /**
+     * Builder for creating an alias lookup index.
+     */
+    public static class Builder
+    {
+        private int[] mIdentifiers = new int[16];
+        private List<Alias> mIdentifierAliases = new ArrayList<>();
+        private int mIdentifierCount;
+        private List<Range> mRanges = new ArrayList<>();
+
+        /**
+         * Adds an exact identifier value
+         * @param value of the identifier
+         * @param alias for the identifier
+         * @return this builder
+         */
+        public Builder add(int value, Alias alias)
+        {
+            if(mIdentifierCount == mIdentifiers.length)
+            {
+                mIdentifiers = Arrays.copyOf(mIdentifiers, mIdentifiers.length * 2);
+            }
+
+            mIdentifiers[mIdentifierCount++] = value;
+            mIdentifierAliases.add(alias);
+            return this;
+        }
+
+        /**
+         * Adds an identifier range
+         * @param minimum value of the range (inclusive)
+         * @param maximum value of the range (inclusive)
+         * @param alias for the range
+         * @return this builder
+         */
+        public Builder addRange(int minimum, int maximum, Alias alias)
+        {
+            mRanges.add(new Range(minimum, maximum, alias));
+            return this;
+        }
+
+        /**
+         * Creates the lookup index
+         */
+        public AliasLookupIndex build()
+        {
+            return new AliasLookupIndex(this);
+        }
+    }
+
+    /**
+     * Identifier range and alias
+     */
+    private static class Range
+    {
+        private final int mMinimum;
+        private final int mMaximum;
+        private final Alias mAlias;
+
+        public Range(int minimum, int maximum, Alias alias)
+        {
+            mMinimum = minimum;
+            mMaximum = maximum;
+            mAlias = alias;
+        }
+    }
+
+    /**
+     * Benchmarks talkgroup alias lookups against a 50,000 alias playlist (45,000 talkgroups and 5,000 talkgroup
+     * ranges) using the compiled index versus the previous boxed map and linear range scan lookup.
+     */
+    public static void main(String[] args)
+    {
+        DecimalFormat df = new DecimalFormat("0.000");
+        Random random = new Random();
+        int talkgroupCount = 45_000;
+        int rangeCount = 5_000;
+        int lookups = 2_000_000;
+
+        AliasList aliasList = new AliasList("Benchmark");
+        List<Alias> aliases = new ArrayList<>();
+        Map<Integer,Alias> referenceMap = new TreeMap<>();
+        Map<TalkgroupRange,Alias> referenceRangeMap = new HashMap<>();
+
+        //Talkgroups occupy 0 - 44,999 and ranges of 4 values each occupy 45,000 - 64,999
+        for(int x = 0; x < talkgroupCount; x++)
+        {
+            Alias alias = new Alias("Talkgroup " + x);
+            Talkgroup talkgroup = new Talkgroup(Protocol.APCO25, x);
+            alias.addAliasID(talkgroup);
+            aliases.add(alias);
+            referenceMap.put(x, alias);
+        }
+
+
+        for(int x = 0; x < rangeCount; x++)
+        {
+            int minimum = talkgroupCount + (x * 4);
+            Alias alias = new Alias("Range " + x);
+            TalkgroupRange talkgroupRange = new TalkgroupRange(Protocol.APCO25, minimum, minimum + 3);
+            alias.addAliasID(talkgroupRange);
+            aliases.add(alias);
+            referenceRangeMap.put(talkgroupRange, alias);
+        }
+
+        //The lookup index is built and published once for the batch
+        long start = System.nanoTime();
+        aliasList.addAliases(aliases);
+        System.out.println("Aliases loaded and index built in [" + df.format((System.nanoTime() - start) / 1E6) +
+            " ms]");
+
+        TalkgroupIdentifier[] identifiers = new TalkgroupIdentifier[1024];
+
+        for(int x = 0; x < identifiers.length; x++)
+        {
+            //Half exact talkgroups, half range members or misses
+            identifiers[x] = APCO25Talkgroup.create(x % 2 == 0 ? random.nextInt(talkgroupCount) :
+                talkgroupCount + random.nextInt(rangeCount * 4 + 500));
+        }
+
+        int mismatches = 0;
+
+        for(TalkgroupIdentifier identifier: identifiers)
+        {
+            Alias expected = referenceMap.get(identifier.getValue());
+
+            if(expected == null)
+            {
+                for(Map.Entry<TalkgroupRange,Alias> entry: referenceRangeMap.entrySet())
+                {
+                    if(entry.getKey().contains(identifier.getValue()))
+                    {
+                        expected = entry.getValue();
+                        break;
+                    }
+                }
+            }
+
+            List<Alias> resolved = aliasList.getAliases(identifier);
+
+            if(!(expected == null ? resolved.isEmpty() : resolved.size() == 1 && resolved.get(0) == expected))
+            {
+                mismatches++;
+            }
+        }
+
+        for(int iteration = 0; iteration < 3; iteration++)
+        {
+            int referenceLookups = lookups / 100;
+            int hits = 0;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < referenceLookups; x++)
+            {
+                int value = identifiers[x & 1023].getValue();
+                Alias alias = referenceMap.get(value);
+
+                if(alias == null)
+                {
+                    for(Map.Entry<TalkgroupRange,Alias> entry: referenceRangeMap.entrySet())
+                    {
+                        if(entry.getKey().contains(value))
+                        {
+                            alias = entry.getValue();
+                            break;
+                        }
+                    }
+                }
+
+                if(alias != null)
+                {
+                    hits++;
+                }
+            }
+
+            double referenceElapsed = (System.nanoTime() - start) / (double)referenceLookups;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < lookups; x++)
+            {
+                if(!aliasList.getAliases(identifiers[x & 1023]).isEmpty())
+                {
+                    hits++;
+                }
+            }
+
+            double indexElapsed = (System.nanoTime() - start) / (double)lookups;
+
+            System.out.println("Map/Scan [" + df.format(referenceElapsed) + " ns/lookup] Index [" +
+                df.format(indexElapsed) + " ns/lookup] Speedup [" + df.format(referenceElapsed / indexElapsed) +
+                "x] Mismatches [" + mismatches + "] Hits [" + hits + "]");
+        }
+    }
+}
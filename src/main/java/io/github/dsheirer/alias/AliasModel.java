@@ -35,6 +35,8 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -140,15 +142,18 @@ public class AliasModel
         }
 
         AliasList aliasList = new AliasList(name);
+        List<Alias> aliases = new ArrayList<>();
 
         for(Alias alias : mAliases)
         {
             if(alias.hasList() && alias.getAliasListName().equalsIgnoreCase(name))
             {
-                aliasList.addAlias(alias);
+                aliases.add(alias);
             }
         }
 
+        aliasList.addAliases(aliases);
+
         mAliasListMap.put(name, aliasList);
 
         return aliasList;
@@ -183,14 +188,22 @@ public class AliasModel
     }
 
     /**
-     * Bulk loading of aliases
+     * Bulk loading of aliases.  The aliases are added to the model as a single change so that each alias list
+     * rebuilds its lookup indexes once for the batch instead of once per alias.
      */
     public void addAliases(List<Alias> aliases)
     {
-        for(Alias alias : aliases)
+        List<Alias> toAdd = new ArrayList<>(new LinkedHashSet<>(aliases));
+
+        for(Alias alias : toAdd)
         {
-            addAlias(alias);
+            if(mAliases.contains(alias))
+            {
+                removeAlias(alias);
+            }
         }
+
+        mAliases.addAll(toAdd);
     }
 
     /**
@@ -341,15 +354,22 @@ public class AliasModel
             {
                 if(change.wasAdded())
                 {
+                    Map<String,List<Alias>> added = new LinkedHashMap<>();
+
                     for(Alias alias: change.getAddedSubList())
                     {
                         addAliasList(alias.getAliasListName());
 
                         if(hasAliasList(alias.getAliasListName()))
                         {
-                            getAliasList(alias.getAliasListName()).addAlias(alias);
+                            added.computeIfAbsent(alias.getAliasListName(), name -> new ArrayList<>()).add(alias);
                         }
                     }
+
+                    for(Map.Entry<String,List<Alias>> entry: added.entrySet())
+                    {
+                        getAliasList(entry.getKey()).addAliases(entry.getValue());
+                    }
                 }
                 else if(change.wasRemoved())
                 {
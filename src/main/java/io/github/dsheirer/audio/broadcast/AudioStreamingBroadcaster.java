@@ -28,9 +28,11 @@ import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
@@ -124,7 +126,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
         {
             if(mRecordingQueueProcessorFuture == null)
             {
-                mRecordingQueueProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mRecordingQueueProcessor,
+                mRecordingQueueProcessorFuture = ThreadPool.IO.scheduleAtFixedRate(mRecordingQueueProcessor,
                     0, PROCESSOR_RUN_INTERVAL_MS, TimeUnit.MILLISECONDS);
             }
         }
@@ -137,12 +139,15 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     {
         if(mStreaming.compareAndSet(true, false))
         {
+            //Don't interrupt the processor - it may be reading from the recording or writing to the server
             if(mRecordingQueueProcessorFuture != null)
             {
-                mRecordingQueueProcessorFuture.cancel(true);
+                mRecordingQueueProcessorFuture.cancel(false);
                 mRecordingQueueProcessorFuture = null;
             }
 
+            mRecordingQueueProcessor.stop();
+
             disconnect();
         }
     }
@@ -259,11 +264,20 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     /**
      * Audio recording queue processor.  Fetches recordings from the queue and chunks the recording byte content
      * to subclass implementations for broadcast in the appropriate manner.
+     *
+     * Recordings are streamed directly from the temporary recording file, reading only the bytes required for each
+     * processing interval, so that memory usage is bounded regardless of the recording length.  The recording's
+     * pending replay is released once the recording has been fully streamed and the file is closed.
+     *
+     * The recording input stream is only accessed by the thread that holds the processing flag, so a stop request
+     * never closes the input stream while it is being read.
      */
     public class RecordingQueueProcessor implements Runnable
     {
         private AtomicBoolean mProcessing = new AtomicBoolean();
-        private ByteArrayInputStream mInputStream;
+        private AtomicBoolean mCloseRequested = new AtomicBoolean();
+        private InputStream mInputStream;
+        private AudioRecording mCurrentRecording;
         private long mFinalSilencePadding = 0;
         private int mBytesStreamedActual = 0;
         private int mBytesStreamedRequired = 0;
@@ -273,6 +287,12 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
         {
             if(mProcessing.compareAndSet(false, true))
             {
+                if(mCloseRequested.get())
+                {
+                    releaseProcessing();
+                    return;
+                }
+
                 try
                 {
                     if(mInputStream == null || mInputStream.available() <= 0)
@@ -301,13 +321,15 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
                         try
                         {
-                            mBytesStreamedActual += mInputStream.read(audio);
+                            int read = mInputStream.readNBytes(audio, 0, length);
+                            mBytesStreamedActual += read;
 
-                            broadcastAudio(audio);
+                            broadcastAudio(read == length ? audio : Arrays.copyOf(audio, read));
                         }
                         catch(IOException ioe)
                         {
-                            mLog.error("Error reading from in-memory audio recording input stream", ioe);
+                            mLog.error("Error reading from audio recording input stream", ioe);
+                            closeRecording();
                         }
                     }
                     else
@@ -320,14 +342,74 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                     mLog.error("Error while processing audio streaming queue", t);
                 }
 
+                releaseProcessing();
+            }
+        }
+
+        /**
+         * Requests that the current recording is closed.  The recording is closed immediately when the processor is
+         * idle, otherwise the processor closes the recording when it completes the current processing interval.
+         */
+        public void stop()
+        {
+            mCloseRequested.set(true);
+
+            if(mProcessing.compareAndSet(false, true))
+            {
+                releaseProcessing();
+            }
+        }
+
+        /**
+         * Closes the current recording if a close was requested and then releases the processing flag.  Repeats when
+         * a close is requested after the check but before the flag is released, since that request could not acquire
+         * the processing flag to close the recording itself.
+         */
+        private void releaseProcessing()
+        {
+            do
+            {
+                if(mCloseRequested.getAndSet(false))
+                {
+                    closeRecording();
+                }
+
                 mProcessing.set(false);
             }
+            while(mCloseRequested.get() && mProcessing.compareAndSet(false, true));
+        }
+
+        /**
+         * Closes the input stream for the current recording and releases the recording's pending replay so that the
+         * temporary recording file can be deleted.
+         */
+        private synchronized void closeRecording()
+        {
+            if(mInputStream != null)
+            {
+                try
+                {
+                    mInputStream.close();
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error closing audio recording input stream", ioe);
+                }
+
+                mInputStream = null;
+            }
+
+            if(mCurrentRecording != null)
+            {
+                mCurrentRecording.removePendingReplay();
+                mCurrentRecording = null;
+            }
         }
 
         /**
          * Loads the next recording for broadcast
          */
-        private void nextRecording()
+        private synchronized void nextRecording()
         {
             mBytesStreamedActual = 0;
             mBytesStreamedRequired = 0;
@@ -342,7 +424,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                 metadataUpdateRequired = true;
             }
 
-            mInputStream = null;
+            closeRecording();
 
             //Peek at the next recording but don't remove it from the queue yet, so we can inspect the start time for
             //age limits and/or delay elapsed
@@ -366,29 +448,25 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
                 try
                 {
-                    if(Files.exists(nextRecording.getPath()))
+                    if(Files.exists(nextRecording.getPath()) && Files.size(nextRecording.getPath()) > 0)
                     {
-                        byte[] audio = Files.readAllBytes(nextRecording.getPath());
+                        mInputStream = new BufferedInputStream(Files.newInputStream(nextRecording.getPath()));
+                        mCurrentRecording = nextRecording;
 
-                        if(audio != null && audio.length > 0)
-                        {
-                            mInputStream = new ByteArrayInputStream(audio);
+                        mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
+                            (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
 
-                            mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
-                                (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
-
-                            while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
-                            {
-                                mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
-                            }
-
-                            if(connected())
-                            {
-                                broadcastMetadata(nextRecording.getIdentifierCollection());
-                            }
+                        while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
+                        {
+                            mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
+                        }
 
-                            metadataUpdateRequired = false;
+                        if(connected())
+                        {
+                            broadcastMetadata(nextRecording.getIdentifierCollection());
                         }
+
+                        metadataUpdateRequired = false;
                     }
                 }
                 catch(IOException ioe)
@@ -396,11 +474,15 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                     mLog.error("Stream [" + getBroadcastConfiguration().getName() + "] error reading temporary audio " +
                         "stream recording [" + nextRecording.getPath().toString() + "] - skipping recording - ", ioe);
 
-                    mInputStream = null;
+                    closeRecording();
                     metadataUpdateRequired = false;
                 }
 
-                nextRecording.removePendingReplay();
+                //Release the recording now if it wasn't opened for streaming, otherwise release it once it's closed
+                if(mCurrentRecording != nextRecording)
+                {
+                    nextRecording.removePendingReplay();
+                }
 
                 broadcast(new BroadcastEvent(AudioStreamingBroadcaster.this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
             }
@@ -20,17 +20,20 @@
 package io.github.dsheirer.audio.broadcast;
 
 import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.convert.IncrementalMP3Encoder;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.AudioSegmentRecorder;
-import io.github.dsheirer.record.RecordFormat;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.util.ThreadPool;
 import io.github.dsheirer.util.TimeStamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -42,12 +45,21 @@ import java.util.concurrent.TimeUnit;
 /**
  * Audio streaming manager monitors audio segments through completion and creates temporary streaming recordings on
  * disk and enqueues the temporary recording for streaming.
+ *
+ * Audio is encoded incrementally as each audio buffer arrives in the audio segment and the encoded MP3 frames are
+ * written directly to the temporary recording file.  This spreads the encoding workload across the life of the audio
+ * segment, so that only the final audio buffers need to be encoded once the segment completes, and avoids holding
+ * the complete encoded recording in memory.
+ *
+ * Note: the encoded frames are not forwarded to the broadcasters while the audio segment is in progress.  The
+ * temporary recording is only nominated for broadcast once the audio segment completes, because the broadcasters
+ * apply the configured delay and maximum recording age to each complete recording and stream one recording at a time.
  */
 public class AudioStreamingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioStreamingManager.class);
     private LinkedTransferQueue<AudioSegment> mNewAudioSegments = new LinkedTransferQueue<>();
-    private List<AudioSegment> mAudioSegments = new ArrayList<>();
+    private List<IncrementalRecording> mIncrementalRecordings = new ArrayList<>();
     private Listener<AudioRecording> mAudioRecordingListener;
     private BroadcastFormat mBroadcastFormat;
     private UserPreferences mUserPreferences;
@@ -79,23 +91,25 @@ public class AudioStreamingManager implements Listener<AudioSegment>
     /**
      * Starts the scheduled audio segment processor
      */
-    public void start()
+    public synchronized void start()
     {
         if(mAudioSegmentProcessorFuture == null)
         {
-            mAudioSegmentProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioSegmentProcessor(),
+            mAudioSegmentProcessorFuture = ThreadPool.IO.scheduleAtFixedRate(new AudioSegmentProcessor(),
                 0, 250, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Stops the scheduled audio segment processor
+     * Stops the scheduled audio segment processor and discards the streaming recordings.  Waits for an in-progress
+     * processing run to complete so that a recording is not closed while it is being encoded.
      */
-    public void stop()
+    public synchronized void stop()
     {
+        //Don't interrupt the processor - an interrupt closes the recording file channel mid-write
         if(mAudioSegmentProcessorFuture != null)
         {
-            mAudioSegmentProcessorFuture.cancel(true);
+            mAudioSegmentProcessorFuture.cancel(false);
             mAudioSegmentProcessorFuture = null;
         }
 
@@ -106,65 +120,75 @@ public class AudioStreamingManager implements Listener<AudioSegment>
 
         mNewAudioSegments.clear();
 
-        for(AudioSegment audioSegment: mAudioSegments)
+        for(IncrementalRecording incrementalRecording: mIncrementalRecordings)
         {
-            audioSegment.decrementConsumerCount();
+            incrementalRecording.discard();
         }
 
-        mAudioSegments.clear();
+        mIncrementalRecordings.clear();
     }
 
     /**
      * Main processing method to process audio segments
      */
-    private void processAudioSegments()
+    private synchronized void processAudioSegments()
     {
-        mNewAudioSegments.drainTo(mAudioSegments);
+        AudioSegment audioSegment = mNewAudioSegments.poll();
+
+        while(audioSegment != null)
+        {
+            mIncrementalRecordings.add(new IncrementalRecording(audioSegment));
+            audioSegment = mNewAudioSegments.poll();
+        }
+
+        Iterator<IncrementalRecording> it = mIncrementalRecordings.iterator();
+        IncrementalRecording incrementalRecording;
 
-        Iterator<AudioSegment> it = mAudioSegments.iterator();
-        AudioSegment audioSegment;
         while(it.hasNext())
         {
-            audioSegment = it.next();
+            incrementalRecording = it.next();
+            audioSegment = incrementalRecording.getAudioSegment();
 
             if(audioSegment.isDuplicate() && mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateStreamingSuppressionEnabled())
             {
                 it.remove();
-                audioSegment.decrementConsumerCount();
+                incrementalRecording.discard();
             }
-            else if(audioSegment.completeProperty().get())
+            else
             {
-                it.remove();
+                //Capture the complete flag before encoding so that we don't miss any final audio buffers
+                boolean complete = audioSegment.completeProperty().get();
 
                 if(mAudioRecordingListener != null && audioSegment.hasBroadcastChannels())
                 {
-                    Path path = getTemporaryRecordingPath();
-                    long length = 0;
-
-                    for(float[] audioBuffer: audioSegment.getAudioBuffers())
-                    {
-                        length += audioBuffer.length;
-                    }
-
-                    length /= 8; //Sample rate is 8000 samples per second, or 8 samples per millisecond.
-
                     try
                     {
-                        AudioSegmentRecorder.record(audioSegment, path, RecordFormat.MP3);
-                        IdentifierCollection identifierCollectionCopy =
-                            new IdentifierCollection(audioSegment.getIdentifierCollection().getIdentifiers());
+                        incrementalRecording.encode();
+
+                        if(complete)
+                        {
+                            AudioRecording audioRecording = incrementalRecording.close();
 
-                        AudioRecording audioRecording = new AudioRecording(path, audioSegment.getBroadcastChannels(),
-                            identifierCollectionCopy, audioSegment.getStartTimestamp(), length);
-                        mAudioRecordingListener.receive(audioRecording);
+                            if(audioRecording != null)
+                            {
+                                mAudioRecordingListener.receive(audioRecording);
+                            }
+                        }
                     }
                     catch(IOException ioe)
                     {
                         mLog.error("Error recording temporary stream MP3");
+                        it.remove();
+                        incrementalRecording.discard();
+                        continue;
                     }
                 }
 
-                audioSegment.decrementConsumerCount();
+                if(complete)
+                {
+                    it.remove();
+                    incrementalRecording.discard();
+                }
             }
         }
     }
@@ -212,4 +236,113 @@ public class AudioStreamingManager implements Listener<AudioSegment>
             }
         }
     }
+
+    /**
+     * Temporary recording that incrementally encodes the audio buffers of an audio segment to an MP3 file.
+     * Encoding starts once the audio segment has at least one broadcast channel and catches up with any audio buffers
+     * that were received before that point.
+     */
+    private class IncrementalRecording
+    {
+        private AudioSegment mAudioSegment;
+        private IncrementalMP3Encoder mEncoder;
+        private OutputStream mOutputStream;
+        private Path mPath;
+        private int mAudioBufferPointer = 0;
+
+        /**
+         * Constructs an instance
+         * @param audioSegment to record
+         */
+        public IncrementalRecording(AudioSegment audioSegment)
+        {
+            mAudioSegment = audioSegment;
+        }
+
+        /**
+         * Audio segment for this recording
+         */
+        public AudioSegment getAudioSegment()
+        {
+            return mAudioSegment;
+        }
+
+        /**
+         * Encodes any audio buffers that have arrived since the previous invocation and writes the MP3 frames to the
+         * temporary recording file, creating the file on the first invocation.
+         * @throws IOException if there is an error writing to the temporary recording file
+         */
+        public void encode() throws IOException
+        {
+            if(mOutputStream == null)
+            {
+                mPath = getTemporaryRecordingPath();
+                mOutputStream = new BufferedOutputStream(Files.newOutputStream(mPath));
+                mEncoder = new IncrementalMP3Encoder(AudioSegmentRecorder.MP3_BIT_RATE,
+                    AudioSegmentRecorder.CONSTANT_BIT_RATE);
+            }
+
+            int audioBufferCount = mAudioSegment.getAudioBufferCount();
+
+            while(mAudioBufferPointer < audioBufferCount)
+            {
+                mEncoder.encode(mAudioSegment.getAudioBuffer(mAudioBufferPointer++), mOutputStream);
+            }
+        }
+
+        /**
+         * Flushes the encoder and closes the temporary recording file.
+         * @return audio recording for the completed file or null if the audio segment doesn't contain any audio
+         * @throws IOException if there is an error writing to the temporary recording file
+         */
+        public AudioRecording close() throws IOException
+        {
+            if(mOutputStream == null)
+            {
+                return null;
+            }
+
+            mEncoder.flush(mOutputStream);
+            mOutputStream.close();
+            mOutputStream = null;
+
+            if(mEncoder.getSampleCount() == 0)
+            {
+                Files.deleteIfExists(mPath);
+                return null;
+            }
+
+            //Sample rate is 8000 samples per second, or 8 samples per millisecond.
+            long length = mEncoder.getSampleCount() / 8;
+
+            IdentifierCollection identifierCollectionCopy =
+                new IdentifierCollection(mAudioSegment.getIdentifierCollection().getIdentifiers());
+
+            return new AudioRecording(mPath, mAudioSegment.getBroadcastChannels(), identifierCollectionCopy,
+                mAudioSegment.getStartTimestamp(), length);
+        }
+
+        /**
+         * Releases the audio segment and deletes any partially written temporary recording file.
+         */
+        public void discard()
+        {
+            if(mOutputStream != null)
+            {
+                try
+                {
+                    mOutputStream.close();
+                    Files.deleteIfExists(mPath);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error deleting partial temporary stream MP3 [" + mPath + "]", ioe);
+                }
+
+                mOutputStream = null;
+            }
+
+            mAudioSegment.decrementConsumerCount();
+        }
+    }
 }
@@ -164,7 +164,7 @@ public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
                 }
             };
 
-            ThreadPool.SCHEDULED.schedule(runnable, 0l, TimeUnit.SECONDS);
+            ThreadPool.IO.schedule(runnable, 0l, TimeUnit.SECONDS);
 
         }
 
@@ -225,7 +225,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                 }
             };
 
-            ThreadPool.SCHEDULED.schedule(runnable, 0l, TimeUnit.SECONDS);
+            ThreadPool.IO.schedule(runnable, 0l, TimeUnit.SECONDS);
         }
 
         return connected();
@@ -0,0 +1,134 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.convert;
+
+import io.github.dsheirer.audio.AudioFormats;
+import net.sourceforge.lame.lowlevel.LameEncoder;
+import net.sourceforge.lame.mp3.MPEGMode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Incremental MP3 encoder that converts PCM 8kHz audio buffers to MP3 frames as each buffer arrives and writes the
+ * encoded frames directly to an output stream.
+ *
+ * Unlike the MP3AudioConverter, which converts a complete list of audio buffers into a single byte array, this
+ * encoder only holds reusable PCM and MP3 scratch buffers sized to the largest audio buffer, so memory usage is
+ * bounded regardless of the length of the audio being encoded.
+ *
+ * Note: this class is not thread safe.  Each audio stream should use a separate encoder instance.
+ */
+public class IncrementalMP3Encoder
+{
+    private LameEncoder mEncoder;
+    private byte[] mPCMBuffer = new byte[0];
+    private byte[] mMP3Buffer;
+    private long mSampleCount;
+
+    /**
+     * Constructs an instance
+     * @param bitRate for converted MP3 audio
+     * @param variableBitRate (VBR) true or false for constant bit rate (CBR)
+     */
+    public IncrementalMP3Encoder(int bitRate, boolean variableBitRate)
+    {
+        mEncoder = new LameEncoder(AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO, bitRate, MPEGMode.MONO,
+            MP3AudioConverter.AUDIO_QUALITY, variableBitRate);
+        mMP3Buffer = new byte[Math.max(mEncoder.getPCMBufferSize(), mEncoder.getMP3BufferSize())];
+    }
+
+    /**
+     * Encodes the audio buffer and writes any completed MP3 frames to the output stream.  The encoder retains any
+     * partial frame audio until the next audio buffer arrives or the encoder is flushed.
+     *
+     * @param audioBuffer containing PCM samples in range -1.0 to 1.0
+     * @param outputStream to receive encoded MP3 frames
+     * @return number of MP3 bytes written to the output stream
+     * @throws IOException if there is an error writing to the output stream
+     */
+    public int encode(float[] audioBuffer, OutputStream outputStream) throws IOException
+    {
+        int pcmLength = audioBuffer.length * 2;
+
+        if(mPCMBuffer.length < pcmLength)
+        {
+            mPCMBuffer = new byte[pcmLength];
+        }
+
+        //Convert 32-bit floats to signed 16-bit little endian samples
+        short sample;
+        int pointer = 0;
+
+        for(float value: audioBuffer)
+        {
+            sample = (short)(value * Short.MAX_VALUE);
+            mPCMBuffer[pointer++] = (byte)(sample & 0xFF);
+            mPCMBuffer[pointer++] = (byte)((sample >> 8) & 0xFF);
+        }
+
+        mSampleCount += audioBuffer.length;
+
+        int chunkSize = mEncoder.getPCMBufferSize();
+        int written = 0;
+        int encoded;
+
+        for(int offset = 0; offset < pcmLength; offset += chunkSize)
+        {
+            encoded = mEncoder.encodeBuffer(mPCMBuffer, offset, Math.min(chunkSize, pcmLength - offset), mMP3Buffer);
+
+            if(encoded > 0)
+            {
+                outputStream.write(mMP3Buffer, 0, encoded);
+                written += encoded;
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * Finalizes encoding by converting any partial frame audio retained by the encoder and writing the final MP3
+     * frame(s) to the output stream.
+     *
+     * @param outputStream to receive the final MP3 frame(s)
+     * @return number of MP3 bytes written to the output stream
+     * @throws IOException if there is an error writing to the output stream
+     */
+    public int flush(OutputStream outputStream) throws IOException
+    {
+        int encoded = mEncoder.encodeFinish(mMP3Buffer);
+
+        if(encoded > 0)
+        {
+            outputStream.write(mMP3Buffer, 0, encoded);
+            return encoded;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Number of PCM samples that have been submitted to this encoder.
+     */
+    public long getSampleCount()
+    {
+        return mSampleCount;
+    }
+}
@@ -146,7 +146,7 @@ public class ThumbDv implements AutoCloseable
                         mLog.info("Creating Serial Port Reader");
                         final Runnable r = new SerialPortReader(mSerialPort.getInputStream());
                         mLog.info("Starting Serial Port Reader");
-                        mSerialPortReaderHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(r, 0,
+                        mSerialPortReaderHandle = ThreadPool.IO.scheduleAtFixedRate(r, 0,
                                 5, TimeUnit.MILLISECONDS);
 
                         mStarted = true;
@@ -252,7 +252,7 @@ public class ThumbDv implements AutoCloseable
             {
                 mLog.info("Audio vocoder parameters configured for " + mAudioProtocol);
                 //Start the audio frame decode processor
-                mAudioDecodeProcessorHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioDecodeProcessor(), 0,
+                mAudioDecodeProcessorHandle = ThreadPool.DECODE.scheduleAtFixedRate(new AudioDecodeProcessor(), 0,
                         10, TimeUnit.MILLISECONDS);
             }
         }
@@ -127,9 +127,36 @@ public class BinaryMessage extends BitSet
      */
     public BinaryMessage getSubMessage(int start, int end)
     {
-        BitSet subset = this.get(start, end);
+        BinaryMessage subMessage = new BinaryMessage(end - start);
+        subMessage.loadRange(this, start, end);
+        return subMessage;
+    }
 
-        return new BinaryMessage(subset, end - start);
+    /**
+     * Loads the bits from the source message range start (inclusive) to end (exclusive) into this message starting
+     * at index zero and sets the pointer to the final bit, without creating an intermediate bitset.  Only the set
+     * bits in the source range are visited.
+     *
+     * @param source message to copy from
+     * @param start bit index (inclusive)
+     * @param end bit index (exclusive)
+     */
+    protected void loadRange(BitSet source, int start, int end)
+    {
+        for(int x = source.nextSetBit(start); x >= 0 && x < end; x = source.nextSetBit(x + 1))
+        {
+            set(x - start);
+        }
+
+        mPointer = end - start - 1;
+    }
+
+    /**
+     * Creates a word-packed copy of this message for fast field extraction
+     */
+    public PackedBinaryMessage toPackedBinaryMessage()
+    {
+        return PackedBinaryMessage.from(this);
     }
 
     public CRC getCRC()
@@ -311,7 +338,7 @@ public class BinaryMessage extends BitSet
     @Override
     public BinaryMessage get(int from, int to)
     {
-        return new BinaryMessage(super.get(from, to), (to - from));
+        return getSubMessage(from, to);
     }
 
     /**
@@ -720,6 +747,28 @@ public class BinaryMessage extends BitSet
         return value;
     }
 
+    /**
+     * Returns the integer value of the field described by the precompiled field extractor
+     *
+     * @param field extractor
+     * @return integer value of the field
+     */
+    public int getInt(FieldExtractor field)
+    {
+        return field.getInt(this);
+    }
+
+    /**
+     * Returns the long value of the field described by the precompiled field extractor
+     *
+     * @param field extractor
+     * @return long value of the field
+     */
+    public long getLong(FieldExtractor field)
+    {
+        return field.getLong(this);
+    }
+
     /**
      * Returns the bit values between start and end (inclusive) bit indices.  If the overall length of the bit sequence
      * is not a multiple of 8 bits, the value is zero padded with least significant bits to make it a multiple of 8.
@@ -804,7 +853,15 @@ public class BinaryMessage extends BitSet
 
         int value = 0;
 
-        if(start < end)
+        if(start < end && end - start < 32)
+        {
+            //Visit only the set bits in the field using the word-based set bit search
+            for(int x = nextSetBit(start); x >= 0 && x <= end; x = nextSetBit(x + 1))
+            {
+                value |= 1 << (end - x);
+            }
+        }
+        else if(start < end)
         {
             for(int x = start; x <= end; x++)
             {
@@ -874,7 +931,15 @@ public class BinaryMessage extends BitSet
 
         long value = 0;
 
-        if(start < end)
+        if(start < end && end - start < 64)
+        {
+            //Visit only the set bits in the field using the word-based set bit search
+            for(int x = nextSetBit(start); x >= 0 && x <= end; x = nextSetBit(x + 1))
+            {
+                value |= 1L << (end - x);
+            }
+        }
+        else if(start < end)
         {
             for(int x = start; x <= end; x++)
             {
@@ -90,7 +90,8 @@ public class CorrectedBinaryMessage extends BinaryMessage
      */
     public CorrectedBinaryMessage getSubMessage(int start, int end)
     {
-        BitSet subset = this.get(start, end);
-        return new CorrectedBinaryMessage(subset, end - start);
+        CorrectedBinaryMessage subMessage = new CorrectedBinaryMessage(end - start);
+        subMessage.loadRange(this, start, end);
+        return subMessage;
     }
 }
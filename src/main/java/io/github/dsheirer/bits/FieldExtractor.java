@@ -0,0 +1,171 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.bits;
+
+/**
+ * Precompiled field extractor for a binary message field that is described by an array of bit indexes.
+ *
+ * The bit index array is compiled once into runs of contiguous, ascending bit indexes so that each run can be read
+ * from the message as a single range with shift and mask operations, instead of reading one bit at a time.  Field
+ * definitions in message parsers are normally fully contiguous and compile to a single run.
+ *
+ * Usage: declare the field as a static constant alongside the existing index array definitions:
+ *
+ *     private static final FieldExtractor TALKGROUP = new FieldExtractor(new int[]{16, 17, ... 31});
+ *
+ * and access it with message.getInt(TALKGROUP).
+ */
+public class FieldExtractor
+{
+    private int[] mBits;
+    private int[] mRunStarts;
+    private int[] mRunEnds;
+    private int[] mRunShifts;
+
+    /**
+     * Constructs an instance
+     * @param bits array of bit positions where index 0 is the MSB and index length - 1 is the LSB of the value
+     */
+    public FieldExtractor(int[] bits)
+    {
+        if(bits.length == 0 || bits.length > 64)
+        {
+            throw new IllegalArgumentException("Field must contain between 1 and 64 bits");
+        }
+
+        mBits = bits.clone();
+
+        int runCount = 1;
+
+        for(int x = 1; x < bits.length; x++)
+        {
+            if(bits[x] != bits[x - 1] + 1)
+            {
+                runCount++;
+            }
+        }
+
+        mRunStarts = new int[runCount];
+        mRunEnds = new int[runCount];
+        mRunShifts = new int[runCount];
+
+        int run = 0;
+        mRunStarts[0] = bits[0];
+
+        for(int x = 1; x <= bits.length; x++)
+        {
+            if(x == bits.length || bits[x] != bits[x - 1] + 1)
+            {
+                mRunEnds[run] = bits[x - 1];
+                mRunShifts[run] = bits.length - x;
+
+                if(x < bits.length)
+                {
+                    mRunStarts[++run] = bits[x];
+                }
+            }
+        }
+    }
+
+    /**
+     * Bit positions for this field
+     */
+    public int[] getBits()
+    {
+        return mBits.clone();
+    }
+
+    /**
+     * Number of bits in this field
+     */
+    public int getLength()
+    {
+        return mBits.length;
+    }
+
+    /**
+     * Number of contiguous bit runs in this field
+     */
+    public int getRunCount()
+    {
+        return mRunStarts.length;
+    }
+
+    /**
+     * Extracts the field value from the message
+     */
+    public long getLong(BinaryMessage message)
+    {
+        return getLong(message, 0);
+    }
+
+    /**
+     * Extracts the field value from the message where each bit index is offset by the offset argument.
+     */
+    public long getLong(BinaryMessage message, int offset)
+    {
+        long value = 0;
+
+        for(int x = 0; x < mRunStarts.length; x++)
+        {
+            value |= message.getLong(mRunStarts[x] + offset, mRunEnds[x] + offset) << mRunShifts[x];
+        }
+
+        return value;
+    }
+
+    /**
+     * Extracts the field value from the message
+     */
+    public int getInt(BinaryMessage message)
+    {
+        return (int)getLong(message, 0);
+    }
+
+    /**
+     * Extracts the field value from the message where each bit index is offset by the offset argument.
+     */
+    public int getInt(BinaryMessage message, int offset)
+    {
+        return (int)getLong(message, offset);
+    }
+
+    /**
+     * Extracts the field value from the packed message
+     */
+    public long getLong(PackedBinaryMessage message)
+    {
+        long value = 0;
+
+        for(int x = 0; x < mRunStarts.length; x++)
+        {
+            value |= message.getLong(mRunStarts[x], mRunEnds[x]) << mRunShifts[x];
+        }
+
+        return value;
+    }
+
+    /**
+     * Extracts the field value from the packed message
+     */
+    public int getInt(PackedBinaryMessage message)
+    {
+        return (int)getLong(message);
+    }
+}
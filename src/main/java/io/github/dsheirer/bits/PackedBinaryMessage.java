@@ -0,0 +1,375 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.bits;
+
+import java.util.Arrays;
+
+/**
+ * Binary message with bits packed into an array of long words, most significant bit first, so that contiguous field
+ * values can be extracted with shift and mask operations instead of reading one bit at a time.
+ *
+ * Bit index 0 is the most significant bit of word 0 and bit index 63 is the least significant bit of word 0.
+ *
+ * This class supports the field access methods of BinaryMessage that are used by message parsers, so that existing
+ * message classes can adopt it incrementally by converting a BinaryMessage with from(BinaryMessage) and converting
+ * back with toBinaryMessage() where an API still requires a BinaryMessage.
+ */
+public class PackedBinaryMessage
+{
+    private static final long MSB = 0x8000000000000000L;
+
+    private long[] mWords;
+    private int mSize;
+
+    /**
+     * Constructs an instance
+     * @param size of the message in bits
+     */
+    public PackedBinaryMessage(int size)
+    {
+        mSize = size;
+        mWords = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Constructs an instance from the packed words.
+     * @param words packed most significant bit first
+     * @param size of the message in bits
+     */
+    private PackedBinaryMessage(long[] words, int size)
+    {
+        mWords = words;
+        mSize = size;
+    }
+
+    /**
+     * Creates a packed binary message from the binary message.
+     * @param message to convert
+     * @return packed message
+     */
+    public static PackedBinaryMessage from(BinaryMessage message)
+    {
+        PackedBinaryMessage packed = new PackedBinaryMessage(message.size());
+
+        for(int x = message.nextSetBit(0); x >= 0 && x < message.size(); x = message.nextSetBit(x + 1))
+        {
+            packed.set(x);
+        }
+
+        return packed;
+    }
+
+    /**
+     * Creates a binary message from this packed binary message.
+     */
+    public BinaryMessage toBinaryMessage()
+    {
+        BinaryMessage message = new BinaryMessage(mSize);
+
+        for(int x = nextSetBit(0); x >= 0; x = nextSetBit(x + 1))
+        {
+            message.set(x);
+        }
+
+        return message;
+    }
+
+    /**
+     * Size of this message in bits
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Value of the bit at the index
+     */
+    public boolean get(int index)
+    {
+        return (mWords[index >>> 6] & (MSB >>> (index & 63))) != 0;
+    }
+
+    /**
+     * Sets the bit at the index
+     */
+    public void set(int index)
+    {
+        mWords[index >>> 6] |= (MSB >>> (index & 63));
+    }
+
+    /**
+     * Clears the bit at the index
+     */
+    public void clear(int index)
+    {
+        mWords[index >>> 6] &= ~(MSB >>> (index & 63));
+    }
+
+    /**
+     * Sets or clears the bit at the index
+     */
+    public void set(int index, boolean value)
+    {
+        if(value)
+        {
+            set(index);
+        }
+        else
+        {
+            clear(index);
+        }
+    }
+
+    /**
+     * Clears all bits in this message
+     */
+    public void clear()
+    {
+        Arrays.fill(mWords, 0);
+    }
+
+    /**
+     * Index of the next set bit at or after the from index, or -1 if there are no more set bits in this message.
+     */
+    public int nextSetBit(int fromIndex)
+    {
+        if(fromIndex >= mSize)
+        {
+            return -1;
+        }
+
+        int wordIndex = fromIndex >>> 6;
+        long word = mWords[wordIndex] & (-1L >>> (fromIndex & 63));
+
+        while(true)
+        {
+            if(word != 0)
+            {
+                int index = (wordIndex << 6) + Long.numberOfLeadingZeros(word);
+                return index < mSize ? index : -1;
+            }
+
+            if(++wordIndex >= mWords.length)
+            {
+                return -1;
+            }
+
+            word = mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Number of set bits in this message
+     */
+    public int cardinality()
+    {
+        int count = 0;
+
+        for(long word: mWords)
+        {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the value of the contiguous bit field from start to end (inclusive) where start is the most significant
+     * bit of the value.
+     *
+     * @param start index of the most significant bit
+     * @param end index of the least significant bit
+     * @return field value
+     */
+    public long getLong(int start, int end)
+    {
+        int length = end - start + 1;
+
+        if(length < 1 || length > 64)
+        {
+            throw new IllegalArgumentException("Field must be between 1 and 64 bits - start:" + start + " end:" + end);
+        }
+
+        int wordIndex = start >>> 6;
+        int offset = start & 63;
+        long value = mWords[wordIndex] << offset;
+
+        if(offset + length > 64)
+        {
+            value |= mWords[wordIndex + 1] >>> (64 - offset);
+        }
+
+        return value >>> (64 - length);
+    }
+
+    /**
+     * Returns the value of the contiguous bit field from start to end (inclusive) where start is the most significant
+     * bit of the value.
+     *
+     * @param start index of the most significant bit
+     * @param end index of the least significant bit
+     * @return field value
+     */
+    public int getInt(int start, int end)
+    {
+        if(end - start >= 32)
+        {
+            throw new IllegalArgumentException("Overflow - must be 32 bits or less to fit into a primitive " +
+                "integer value");
+        }
+
+        return (int)getLong(start, end);
+    }
+
+    /**
+     * Returns the value represented by the bit array where index 0 is the MSB and index length - 1 is the LSB.
+     *
+     * Note: message parsers that access the same field repeatedly should use a FieldExtractor, which reads each
+     * contiguous run of bit indexes with a single shift and mask.
+     */
+    public int getInt(int[] bits)
+    {
+        if(bits.length > 32)
+        {
+            throw new IllegalArgumentException("Overflow - must be 32 bits or less to fit into a primitive " +
+                "integer value");
+        }
+
+        return (int)getLong(bits);
+    }
+
+    /**
+     * Returns the value represented by the bit array where index 0 is the MSB and index length - 1 is the LSB.
+     */
+    public long getLong(int[] bits)
+    {
+        if(bits.length > 64)
+        {
+            throw new IllegalArgumentException("Overflow - must be 64 bits or less to fit into a primitive long value");
+        }
+
+        long value = 0;
+
+        for(int index: bits)
+        {
+            value <<= 1;
+
+            if(get(index))
+            {
+                value++;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the value of the field described by the field extractor
+     */
+    public int getInt(FieldExtractor field)
+    {
+        return field.getInt(this);
+    }
+
+    /**
+     * Returns the value of the field described by the field extractor
+     */
+    public long getLong(FieldExtractor field)
+    {
+        return field.getLong(this);
+    }
+
+    /**
+     * Loads the value into this message with the most significant bit of the value at the offset index.
+     *
+     * @param offset bit index for the MSB of the value
+     * @param width of the value in bits (1 - 64)
+     * @param value to load
+     */
+    public void load(int offset, int width, long value)
+    {
+        for(int x = 0; x < width; x++)
+        {
+            set(offset + x, ((value >>> (width - x - 1)) & 1) == 1);
+        }
+    }
+
+    /**
+     * Returns a new message containing the bits from start (inclusive) to end (exclusive).  Bits are copied a word at
+     * a time.
+     */
+    public PackedBinaryMessage getSubMessage(int start, int end)
+    {
+        PackedBinaryMessage subMessage = new PackedBinaryMessage(end - start);
+
+        for(int x = 0; x < subMessage.mWords.length; x++)
+        {
+            int wordStart = start + (x << 6);
+            int length = Math.min(64, end - wordStart);
+            subMessage.mWords[x] = getLong(wordStart, wordStart + length - 1) << (64 - length);
+        }
+
+        return subMessage;
+    }
+
+    /**
+     * Returns a new copy of this message
+     */
+    public PackedBinaryMessage copy()
+    {
+        return new PackedBinaryMessage(Arrays.copyOf(mWords, mWords.length), mSize);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(this == o)
+        {
+            return true;
+        }
+
+        if(!(o instanceof PackedBinaryMessage))
+        {
+            return false;
+        }
+
+        PackedBinaryMessage other = (PackedBinaryMessage)o;
+        return mSize == other.mSize && Arrays.equals(mWords, other.mWords);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * mSize + Arrays.hashCode(mWords);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int x = 0; x < mSize; x++)
+        {
+            sb.append(get(x) ? "1" : "0");
+        }
+
+        return sb.toString();
+    }
+}
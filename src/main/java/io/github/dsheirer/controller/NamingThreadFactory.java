@@ -22,11 +22,26 @@ public class NamingThreadFactory implements ThreadFactory
     
     private final String mNamePrefix;
 
+    private final int mPriority;
+
     public NamingThreadFactory( String prefix ) 
+    {
+        this(prefix, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Constructs a thread factory that creates threads with the specified priority
+     *
+     * @param prefix for thread names
+     * @param priority for each thread (Thread.MIN_PRIORITY to Thread.MAX_PRIORITY)
+     */
+    public NamingThreadFactory(String prefix, int priority)
     {
         mThreadGroup = Thread.currentThread().getThreadGroup();
-        
+
         mNamePrefix = prefix + " pool-" + mPoolNumber.getAndIncrement() + "-thread-";
+
+        mPriority = priority;
     }
 
     public Thread newThread( Runnable runnable ) 
@@ -39,9 +54,9 @@ public class NamingThreadFactory implements ThreadFactory
             thread.setDaemon( false );
         }
         
-        if( thread.getPriority() != Thread.NORM_PRIORITY )
+        if( thread.getPriority() != mPriority )
         {
-            thread.setPriority( Thread.NORM_PRIORITY );
+            thread.setPriority( mPriority );
         }
 
         thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler()
@@ -37,10 +37,15 @@ import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.identifier.decoder.DecoderLogicalChannelNameIdentifier;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.dsp.filter.channelizer.PipelineStageMetrics;
 import io.github.dsheirer.module.decode.DecoderFactory;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.event.DecodeEventHistory;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.record.RecorderFactory;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
@@ -56,25 +61,48 @@ import javafx.application.Platform;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Channel processing manager handles all starting and stopping of channel decoding.  A processing chain is created
  * for each channel that is enabled.  The processing chain contains all of the components needed to decode a specific
  * channel and protocol along with all logging and baseband or bitstream recording.  Audio recording is handled outside
  * of this class by the RecorderManager.
+ *
+ * Processing chains for traffic channels that are managed by a traffic channel manager are retained in an idle pool
+ * when the traffic channel stops and are reused for the next channel grant, so that only the sample source, loggers,
+ * recorders and grant specific identifiers are bound on the grant path.
  */
 public class ChannelProcessingManager implements Listener<ChannelEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelProcessingManager.class);
     private static final String TUNER_UNAVAILABLE_DESCRIPTION = "TUNER UNAVAILABLE";
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+
+    /**
+     * System property for the number of idle traffic channel processing chains to pre-build for each traffic channel
+     * decoder type when a traffic channel manager starts.  Set to 0 to build traffic channel processing chains on the
+     * first channel grant.
+     */
+    public static final String PROPERTY_TRAFFIC_CHAIN_PREWARM_COUNT = "traffic.channel.prewarm.count";
+    private static final int DEFAULT_TRAFFIC_CHAIN_PREWARM_COUNT = 2;
     private Map<Channel,ProcessingChain> mProcessingChains = new ConcurrentHashMap<>();
+    private Map<Channel,ProcessingChain> mIdleTrafficChains = new ConcurrentHashMap<>();
+    private Map<Channel,TrafficChannelBinding> mTrafficChannelBindings = new ConcurrentHashMap<>();
+    private Set<Channel> mPooledTrafficChannels = ConcurrentHashMap.newKeySet();
+    private Map<String,PipelineStageMetrics> mGrantLatencyMetrics = new ConcurrentHashMap<>();
 
     private List<Listener<AudioSegment>> mAudioSegmentListeners = new CopyOnWriteArrayList<>();
     private List<Listener<IDecodeEvent>> mDecodeEventListeners = new CopyOnWriteArrayList<>();
@@ -265,7 +293,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             {
                 if(request.isPersistentAttempt())
                 {
-                    ScheduledFuture<?> future = ThreadPool.SCHEDULED
+                    ScheduledFuture<?> future = ThreadPool.DECODE
                         .schedule(new DelayedChannelStartTask(request), 500, TimeUnit.MILLISECONDS);
                     mDelayedChannelStartTasks.add(future);
                 }
@@ -324,7 +352,21 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             throw new ChannelException("No Tuner Available");
         }
 
-        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+        ProcessingChain processingChain = null;
+
+        //Traffic channels managed by a traffic channel manager reuse an idle (pre-built) processing chain when one is
+        //available so that we avoid constructing the decoder modules on the channel grant path.
+        boolean pooled = isPooledTrafficChannel(request);
+
+        if(pooled)
+        {
+            processingChain = mIdleTrafficChains.remove(channel);
+        }
+
+        if(processingChain == null)
+        {
+            processingChain = createProcessingChain(channel, request.getTrafficChannelManager());
+        }
 
         //Certain decoders aggregate the decode events in the parent channel that also includes any events produced
         //by the traffic channels.  Establish listener registration depending on if this channel is a traffic channel
@@ -339,9 +381,6 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             request.getChildDecodeEventHistory().addListener(processingChain.getDecodeEventHistory());
         }
 
-        //Register to receive event bus requests/notifications
-        processingChain.getEventBus().register(ChannelProcessingManager.this);
-
         mChannelEventBroadcaster.addListener(processingChain);
 
         /* Register global listeners */
@@ -355,50 +394,17 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             processingChain.addDecodeEventListener(listener);
         }
 
-        //Add a listener to detect source error state that indicates the channel should be shutdown
-        processingChain.addSourceEventListener(sourceEvent ->
-        {
-            if(sourceEvent.getEvent() == SourceEvent.Event.NOTIFICATION_ERROR_STATE && sourceEvent.getSource() != null)
-            {
-                Channel toShutdown = null;
-
-                for(Map.Entry<Channel,ProcessingChain> entry: mProcessingChains.entrySet())
-                {
-                    if(entry.getValue().hasSource(sourceEvent.getSource()))
-                    {
-                        toShutdown = entry.getKey();
-                        break;
-                    }
-                }
-
-                if(toShutdown != null)
-                {
-                    mLog.warn("Channel source error detected - stopping channel [" + toShutdown.getName() + "]");
-
-                    try
-                    {
-                        stopProcessing(toShutdown);
-                    }
-                    catch(ChannelException ce)
-                    {
-                        mLog.error("Error stopping channel [" + channel.getName() + "] with source error - " +
-                            ce.getMessage());
-                    }
-                }
-            }
-        });
-
-        //Register this manager to receive channel events from traffic channel manager modules within
-        //the processing chain
-        processingChain.addChannelEventListener(this);
-
         //Register channel to receive frequency correction events to show in the spectral display (hack!)
         processingChain.addFrequencyChangeListener(channel);
 
-        /* Processing Modules */
-        List<Module> modules = DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel, mUserPreferences,
-            request.getTrafficChannelManager());
-        processingChain.addModules(modules);
+        TrafficChannelBinding binding = null;
+
+        if(pooled)
+        {
+            binding = new TrafficChannelBinding(channel, request);
+            binding.bind(processingChain);
+            mTrafficChannelBindings.put(channel, binding);
+        }
 
         //Post preload data from the request to the event bus.  Modules that can handle preload data will annotate
         //their processor method with @Subscribe to receive each specific preload data content class.
@@ -433,7 +439,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                             request.getChannelDescriptor().getProtocol());
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(identifier,
                         IdentifierUpdateNotification.Operation.ADD, timeslot);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    updateGrantIdentifier(processingChain, binding, notification);
 
                     //Inject scramble parameters
                     for(Identifier scrambleParameters: request.getIdentifierCollection()
@@ -442,7 +448,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                         //Broadcast scramble parameters to both timeslots
                         IdentifierUpdateNotification scrambleNotification = new IdentifierUpdateNotification(scrambleParameters,
                             IdentifierUpdateNotification.Operation.ADD, timeslot);
-                        processingChain.getChannelState().updateChannelStateIdentifiers(scrambleNotification);
+                        updateGrantIdentifier(processingChain, binding, scrambleNotification);
                     }
                 }
             }
@@ -454,14 +460,14 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                     //Only broadcast an identifier update for the timeslot specified in the originating collection
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
                         IdentifierUpdateNotification.Operation.ADD, request.getIdentifierCollection().getTimeslot());
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    updateGrantIdentifier(processingChain, binding, notification);
                 }
                 else
                 {
                     //Only broadcast an identifier update for the timeslot specified in the originating collection
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
                         IdentifierUpdateNotification.Operation.ADD, 0);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    updateGrantIdentifier(processingChain, binding, notification);
                 }
             }
 
@@ -470,6 +476,13 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         mProcessingChains.put(channel, processingChain);
         processingChain.start();
 
+        TrafficChannelManager trafficChannelManager = processingChain.getTrafficChannelManager();
+
+        if(trafficChannelManager != null)
+        {
+            registerTrafficChannelManager(trafficChannelManager);
+        }
+
         //This has to be done on the FX event thread when the playlist editor is constructed
         if (!SDRTrunk.mHeadlessMode) {
             Platform.runLater(() -> channel.setProcessing(true));
@@ -482,6 +495,208 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_START));
     }
 
+    /**
+     * Injects a channel grant identifier into the channel state of the processing chain.  When the processing chain is
+     * pooled, the binding retains the identifier so that it can be removed when the chain returns to the idle pool.
+     *
+     * @param processingChain to update
+     * @param binding for a pooled traffic channel or null
+     * @param notification with the identifier to add
+     */
+    private static void updateGrantIdentifier(ProcessingChain processingChain, TrafficChannelBinding binding,
+                                              IdentifierUpdateNotification notification)
+    {
+        processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+
+        if(binding != null)
+        {
+            binding.addGrantIdentifier(notification);
+        }
+    }
+
+    /**
+     * Creates a processing chain for the channel with the decoder modules and the registrations that persist for the
+     * lifetime of the processing chain.  Request specific registrations, loggers, recorders and the sample source are
+     * added when the processing chain is started.
+     *
+     * @param channel for the processing chain
+     * @param trafficChannelManager (optional) to reuse in the processing chain
+     * @return constructed processing chain
+     */
+    private ProcessingChain createProcessingChain(Channel channel, TrafficChannelManager trafficChannelManager)
+    {
+        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+
+        //Register to receive event bus requests/notifications
+        processingChain.getEventBus().register(ChannelProcessingManager.this);
+
+        //Add a listener to detect source error state that indicates the channel should be shutdown
+        processingChain.addSourceEventListener(sourceEvent ->
+        {
+            if(sourceEvent.getEvent() == SourceEvent.Event.NOTIFICATION_ERROR_STATE && sourceEvent.getSource() != null)
+            {
+                Channel toShutdown = null;
+
+                for(Map.Entry<Channel,ProcessingChain> entry: mProcessingChains.entrySet())
+                {
+                    if(entry.getValue().hasSource(sourceEvent.getSource()))
+                    {
+                        toShutdown = entry.getKey();
+                        break;
+                    }
+                }
+
+                if(toShutdown != null)
+                {
+                    mLog.warn("Channel source error detected - stopping channel [" + toShutdown.getName() + "]");
+
+                    try
+                    {
+                        stopProcessing(toShutdown);
+                    }
+                    catch(ChannelException ce)
+                    {
+                        mLog.error("Error stopping channel [" + channel.getName() + "] with source error - " +
+                            ce.getMessage());
+                    }
+                }
+            }
+        });
+
+        //Register this manager to receive channel events from traffic channel manager modules within
+        //the processing chain
+        processingChain.addChannelEventListener(this);
+
+        /* Processing Modules */
+        List<Module> modules = DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel, mUserPreferences,
+            trafficChannelManager);
+        processingChain.addModules(modules);
+
+        return processingChain;
+    }
+
+    /**
+     * Disposes the processing chain and deregisters it from the event bus.
+     */
+    private void disposeProcessingChain(ProcessingChain processingChain)
+    {
+        //Unregister for event bus requests and notifications
+        processingChain.getEventBus().unregister(ChannelProcessingManager.this);
+        processingChain.dispose();
+    }
+
+    /**
+     * Indicates if the channel in the request is a traffic channel that is managed by a currently processing traffic
+     * channel manager, meaning that the processing chain for the channel can be retained and reused across grants.
+     */
+    private boolean isPooledTrafficChannel(ChannelStartProcessingRequest request)
+    {
+        return request.getChannel().isTrafficChannel() && request.getTrafficChannelManager() == null &&
+            mPooledTrafficChannels.contains(request.getChannel());
+    }
+
+    /**
+     * Registers the traffic channels managed by the traffic channel manager for processing chain reuse and schedules
+     * a background task to pre-build idle processing chains for the first few traffic channels of each decoder type.
+     *
+     * @param trafficChannelManager that is starting
+     */
+    private void registerTrafficChannelManager(TrafficChannelManager trafficChannelManager)
+    {
+        List<Channel> trafficChannels = trafficChannelManager.getManagedTrafficChannels();
+
+        if(trafficChannels.isEmpty())
+        {
+            return;
+        }
+
+        mPooledTrafficChannels.addAll(trafficChannels);
+
+        int prewarmCount = SystemProperties.getInstance().get(PROPERTY_TRAFFIC_CHAIN_PREWARM_COUNT,
+            DEFAULT_TRAFFIC_CHAIN_PREWARM_COUNT);
+
+        if(prewarmCount <= 0)
+        {
+            return;
+        }
+
+        ThreadPool.DECODE.submit(() ->
+        {
+            Map<DecoderType,Integer> prewarmedCounts = new EnumMap<>(DecoderType.class);
+
+            for(Channel trafficChannel : trafficChannels)
+            {
+                DecoderType decoderType = trafficChannel.getDecodeConfiguration().getDecoderType();
+                int count = prewarmedCounts.getOrDefault(decoderType, 0);
+
+                if(count < prewarmCount && mPooledTrafficChannels.contains(trafficChannel) &&
+                    !mProcessingChains.containsKey(trafficChannel) && !mIdleTrafficChains.containsKey(trafficChannel))
+                {
+                    try
+                    {
+                        ProcessingChain processingChain = createProcessingChain(trafficChannel, null);
+
+                        //The channel may have been granted or released while we were building the chain
+                        if(!mPooledTrafficChannels.contains(trafficChannel) ||
+                            mIdleTrafficChains.putIfAbsent(trafficChannel, processingChain) != null)
+                        {
+                            disposeProcessingChain(processingChain);
+                        }
+                    }
+                    catch(Exception e)
+                    {
+                        mLog.error("Error pre-building processing chain for traffic channel", e);
+                    }
+
+                    prewarmedCounts.put(decoderType, count + 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deregisters the traffic channels managed by the traffic channel manager and disposes any idle processing chains
+     * that were retained for those channels.
+     *
+     * @param trafficChannelManager that is stopping
+     */
+    private void deregisterTrafficChannelManager(TrafficChannelManager trafficChannelManager)
+    {
+        for(Channel trafficChannel : trafficChannelManager.getManagedTrafficChannels())
+        {
+            mPooledTrafficChannels.remove(trafficChannel);
+
+            ProcessingChain idle = mIdleTrafficChains.remove(trafficChannel);
+
+            if(idle != null)
+            {
+                disposeProcessingChain(idle);
+            }
+        }
+    }
+
+    /**
+     * Grant to first audio latency metrics for each system that has traffic channel processing chain reuse.
+     */
+    public Collection<PipelineStageMetrics> getGrantLatencyMetrics()
+    {
+        return Collections.unmodifiableCollection(mGrantLatencyMetrics.values());
+    }
+
+    /**
+     * Logs the traffic channel grant to first audio latency metrics for each system.
+     */
+    public void logGrantLatencyMetrics()
+    {
+        for(PipelineStageMetrics metrics : mGrantLatencyMetrics.values())
+        {
+            mLog.info("Traffic channel grant to first audio latency - System [" + metrics.getName() + "] Grants [" +
+                metrics.getProcessedCount() + "] Avg [" +
+                DECIMAL_FORMAT.format(metrics.getAverageLatencyMicroseconds() / 1000.0) + " ms] Max [" +
+                DECIMAL_FORMAT.format(metrics.getMaximumLatencyMicroseconds() / 1000.0) + " ms]");
+        }
+    }
+
     /**
      * Stops the channel/processing chain.
      *
@@ -515,9 +730,40 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_STOP));
             mChannelEventBroadcaster.removeListener(processingChain);
 
-            //Unregister for event bus requests and notifications
-            processingChain.getEventBus().unregister(ChannelProcessingManager.this);
-            processingChain.dispose();
+            TrafficChannelBinding binding = mTrafficChannelBindings.remove(channel);
+
+            if(binding != null)
+            {
+                //Return the traffic channel processing chain to the idle pool for reuse on the next channel grant
+                binding.unbind(processingChain);
+
+                for(Listener<AudioSegment> listener : mAudioSegmentListeners)
+                {
+                    processingChain.removeAudioSegmentListener(listener);
+                }
+
+                for(Listener<IDecodeEvent> listener : mDecodeEventListeners)
+                {
+                    processingChain.removeDecodeEventListener(listener);
+                }
+
+                if(!mPooledTrafficChannels.contains(channel) ||
+                    mIdleTrafficChains.putIfAbsent(channel, processingChain) != null)
+                {
+                    disposeProcessingChain(processingChain);
+                }
+            }
+            else
+            {
+                TrafficChannelManager trafficChannelManager = processingChain.getTrafficChannelManager();
+
+                if(trafficChannelManager != null)
+                {
+                    deregisterTrafficChannelManager(trafficChannelManager);
+                }
+
+                disposeProcessingChain(processingChain);
+            }
         }
         else
         {
@@ -551,6 +797,22 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                 mLog.error("Error stopping channel [" + channel.getName() + "] - " + ce.getMessage());
             }
         }
+
+        mPooledTrafficChannels.clear();
+
+        List<Channel> idleChannels = new ArrayList<>(mIdleTrafficChains.keySet());
+
+        for(Channel channel : idleChannels)
+        {
+            ProcessingChain idle = mIdleTrafficChains.remove(channel);
+
+            if(idle != null)
+            {
+                disposeProcessingChain(idle);
+            }
+        }
+
+        logGrantLatencyMetrics();
     }
 
     /**
@@ -664,4 +926,80 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             }
         }
     }
+    /**
+     * Grant specific state for a reusable traffic channel processing chain.  Tracks the registrations that are removed
+     * when the processing chain is returned to the idle pool and measures the elapsed time from the channel start
+     * request (ie channel grant) until the processing chain produces the first audio segment.
+     */
+    private class TrafficChannelBinding implements Listener<AudioSegment>
+    {
+        private final PipelineStageMetrics mLatencyMetrics;
+        private final DecodeEventHistory mParentDecodeEventHistory;
+        private final long mRequestTimestamp;
+        private final AtomicBoolean mAudioReceived = new AtomicBoolean();
+        private final List<IdentifierUpdateNotification> mGrantIdentifiers = new ArrayList<>();
+
+        /**
+         * Constructs an instance
+         * @param channel for the traffic channel
+         * @param request that started the traffic channel
+         */
+        public TrafficChannelBinding(Channel channel, ChannelStartProcessingRequest request)
+        {
+            String system = channel.getSystem() != null ? channel.getSystem() : "(none)";
+            mLatencyMetrics = mGrantLatencyMetrics.computeIfAbsent(system, key -> new PipelineStageMetrics(key, null));
+            mParentDecodeEventHistory = request.getParentDecodeEventHistory();
+            mRequestTimestamp = request.getTimestamp();
+        }
+
+        /**
+         * Registers to receive audio segments from the processing chain
+         */
+        public void bind(ProcessingChain processingChain)
+        {
+            processingChain.addAudioSegmentListener(this);
+        }
+
+        /**
+         * Retains a grant specific identifier that was injected into the channel state
+         */
+        public void addGrantIdentifier(IdentifierUpdateNotification notification)
+        {
+            mGrantIdentifiers.add(notification);
+        }
+
+        /**
+         * Removes the grant specific registrations and identifiers from the processing chain
+         */
+        public void unbind(ProcessingChain processingChain)
+        {
+            processingChain.removeAudioSegmentListener(this);
+
+            //The channel state only clears user identifiers on reset, so remove everything injected for this grant
+            for(IdentifierUpdateNotification notification : mGrantIdentifiers)
+            {
+                processingChain.getChannelState().updateChannelStateIdentifiers(new IdentifierUpdateNotification(
+                    notification.getIdentifier(), IdentifierUpdateNotification.Operation.REMOVE,
+                    notification.getTimeslot()));
+            }
+
+            mGrantIdentifiers.clear();
+
+            if(mParentDecodeEventHistory != null)
+            {
+                processingChain.getDecodeEventHistory().removeListener(mParentDecodeEventHistory);
+            }
+        }
+
+        @Override
+        public void receive(AudioSegment audioSegment)
+        {
+            if(mAudioReceived.compareAndSet(false, true))
+            {
+                mLatencyMetrics.record(System.nanoTime() - mRequestTimestamp);
+            }
+
+            audioSegment.decrementConsumerCount();
+        }
+    }
 }
@@ -42,6 +42,7 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
     private DecodeEventHistory mParentDecodeEventHistory;
     private DecodeEventHistory mChildDecodeEventHistory;
     private boolean mPersistentAttempt;
+    private final long mTimestamp = System.nanoTime();
 
     /**
      * Constructs an instance
@@ -109,6 +110,15 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
         return mPersistentAttempt;
     }
 
+    /**
+     * Time that this request was created, in System.nanoTime() units, for measuring the elapsed time from a channel
+     * grant until the traffic channel produces audio.
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
     /**
      * Channel to start processing
      * @return channel to start
@@ -231,7 +231,7 @@ public class AFSK1200Decoder implements Listener<ReusableFloatBuffer>
 
             int y;
 
-            for(int x = 0; x < samples.length; x++)
+            for(int x = 0; x < reusableFloatBuffer.getLength(); x++)
             {
                 //Note: we're using array copy and dot product structures that the JRE can promote to SIMD intrinsics
                 //when the host processor supports SIMD instructions
@@ -71,7 +71,7 @@ public class AMDemodulator
         float[] output = reusableFloatBuffer.getSamples();
         mOutputBufferPointer = 0;
 
-        for(int x= 0; x < complexBuffer.getSamples().length; x += 2)
+        for(int x= 0; x < complexBuffer.getLength(); x += 2)
         {
             output[mOutputBufferPointer++] = demodulate(input[x], input[x + 1]);
         }
@@ -18,9 +18,9 @@
  */
 package io.github.dsheirer.dsp.filter;
 
+import io.github.dsheirer.dsp.filter.design.FilterDesignCache;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.remez.RemezFIRFilterDesigner;
 import io.github.dsheirer.dsp.filter.fir.remez.RemezFIRFilterDesignerWithLagrange;
 import org.apache.commons.math3.util.FastMath;
 import org.jtransforms.fft.FloatFFT_1D;
@@ -662,22 +662,17 @@ public class FilterFactory
     }
 
     /**
-     * Creates a filter from the filter specification using the remez exchange design algorithm
+     * Creates a filter from the filter specification using the remez exchange design algorithm.  Designs are cached
+     * globally by the FilterDesignCache, so repeated requests for the same specification return the same (read-only)
+     * filter coefficients without redesigning the filter.
      *
      * @param specification
-     * @return filter coefficients
+     * @return filter coefficients or null if the designer could not produce a valid filter
      * @throws FilterDesignException if the filter cannot be designed
      */
     public static float[] getTaps(FIRFilterSpecification specification) throws FilterDesignException
     {
-        RemezFIRFilterDesigner designer = new RemezFIRFilterDesigner(specification);
-
-        if(designer.isValid())
-        {
-            return designer.getImpulseResponse();
-        }
-
-        return null;
+        return FilterDesignCache.getTaps(specification);
     }
 
     /**
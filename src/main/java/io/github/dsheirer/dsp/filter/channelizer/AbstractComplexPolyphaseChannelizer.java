@@ -144,6 +144,14 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         }
     }
 
+    /**
+     * Polyphase channel sources registered to receive processed output channel samples
+     */
+    protected List<PolyphaseChannelSource> getChannels()
+    {
+        return mChannels;
+    }
+
     /**
      * Number of polyphase channels registered to receive sample streams
      */
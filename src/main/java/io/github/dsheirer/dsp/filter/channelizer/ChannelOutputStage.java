@@ -0,0 +1,93 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Channel output stage of the polyphase channelizer processing pipeline.  Provides a bounded pool of worker threads
+ * for processing polyphase channel source outputs (frequency correction mixing, decimation and buffer assembly) in
+ * parallel once the IFFT stage has distributed each channel results buffer.
+ *
+ * Each polyphase channel source submits at most one processing task at a time, so the work queue depth is bounded
+ * by the number of channel sources and per-channel output ordering is preserved.
+ */
+public class ChannelOutputStage
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelOutputStage.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLISECONDS = 2000;
+    private ThreadPoolExecutor mExecutor;
+    private PipelineStageMetrics mMetrics;
+
+    /**
+     * Constructs an instance
+     * @param threadCount for the worker pool
+     */
+    public ChannelOutputStage(int threadCount)
+    {
+        mExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), new NamingThreadFactory("sdrtrunk channel output"));
+        mMetrics = new PipelineStageMetrics("Channel Output", () -> mExecutor.getQueue().size());
+        mLog.info("Polyphase channel output stage created with [" + threadCount + "] worker threads");
+    }
+
+    /**
+     * Submits the channel output processing task for execution on the worker pool
+     * @param task to execute
+     */
+    public void execute(Runnable task)
+    {
+        mExecutor.execute(task);
+    }
+
+    /**
+     * Queue depth and latency metrics for this stage
+     */
+    public PipelineStageMetrics getMetrics()
+    {
+        return mMetrics;
+    }
+
+    /**
+     * Shuts down the worker pool and waits for any queued or currently executing tasks to complete.
+     */
+    public void shutdown()
+    {
+        mExecutor.shutdown();
+
+        try
+        {
+            if(!mExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS))
+            {
+                mLog.warn("Polyphase channel output stage workers did not terminate within [" +
+                    SHUTDOWN_TIMEOUT_MILLISECONDS + "ms]");
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,6 +24,8 @@ import io.github.dsheirer.sample.IOverflowListener;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 import org.apache.commons.math3.util.FastMath;
 import org.jtransforms.fft.FloatFFT_1D;
 import org.slf4j.Logger;
@@ -57,6 +59,9 @@ import java.util.List;
  *   -Rearrange the sub-channel results to correctly order the sub-channels
  *   -Perform IFFT
  *
+ * The multiply and accumulate steps are fused and can use either a scalar or a JDK Vector API (SIMD) implementation.
+ * The vector implementation is used by default when the Vector API is available to the JVM.
+ *
  * Note: design the prototype filter as a Nyquist windowed filter with a -6.02 db attenuation at the channel edge
  * frequency if you need Perfect Reconstruction where you'll later re-join two or more channels to form a wider
  * bandwidth channel or to isolate a signal that located between two channels.
@@ -72,6 +77,12 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
     private FloatFFT_1D mFFT;
     private float[] mInlineSamples;
     private float[] mInlineFilter;
+    private float[] mFilterAccumulator;
+    private Implementation mImplementation = VectorUtilities.getPreferredImplementation();
+    private PipelineStageMetrics mIFFTStageMetrics = new PipelineStageMetrics("IFFT",
+        () -> mIFFTProcessor.getQueueSize());
+    private volatile ChannelOutputStage mChannelOutputStage;
+    private boolean mPipelineMode;
     private boolean mTopBlockIndicator = true;
     private int[] mTopBlockMap;
     private int[] mMiddleBlockMap;
@@ -128,6 +139,16 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
      */
     public void start()
     {
+        if(mPipelineMode && mChannelOutputStage == null)
+        {
+            mChannelOutputStage = new ChannelOutputStage(getChannelOutputThreadCount());
+
+            for(PolyphaseChannelSource channel: getChannels())
+            {
+                channel.setChannelOutputStage(mChannelOutputStage);
+            }
+        }
+
         mIFFTProcessor.start();
     }
 
@@ -137,6 +158,91 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
     public void stop()
     {
         mIFFTProcessor.stop();
+
+        if(mChannelOutputStage != null)
+        {
+            for(PolyphaseChannelSource channel: getChannels())
+            {
+                channel.setChannelOutputStage(null);
+            }
+
+            mChannelOutputStage.shutdown();
+            mChannelOutputStage = null;
+        }
+    }
+
+    /**
+     * Enables or disables pipeline mode.  In pipeline mode, the IFFT processor thread only performs the IFFT and
+     * distributes each channel results buffer, and the output processing (mixing, decimation and buffer assembly)
+     * for each polyphase channel source is performed on a bounded pool of channel output worker threads.  When
+     * disabled, each polyphase channel source processes its output on its own scheduled interval.
+     *
+     * Note: changes take effect the next time this channelizer is started.
+     *
+     * @param pipelineMode true to enable
+     */
+    public void setPipelineMode(boolean pipelineMode)
+    {
+        mPipelineMode = pipelineMode;
+    }
+
+    /**
+     * Indicates if pipeline mode is enabled
+     */
+    public boolean isPipelineMode()
+    {
+        return mPipelineMode;
+    }
+
+    /**
+     * Queue depth and latency metrics for the IFFT stage.  Latency is measured from the time the channel results
+     * buffer is enqueued until the IFFT completes and the buffer is distributed to the channel sources.
+     */
+    public PipelineStageMetrics getIFFTStageMetrics()
+    {
+        return mIFFTStageMetrics;
+    }
+
+    /**
+     * Queue depth and latency metrics for the channel output stage, or null if pipeline mode is not enabled or this
+     * channelizer is not started.  Latency is measured from the time a channel source receives a channel results
+     * buffer until the channel source completes output processing.
+     */
+    public PipelineStageMetrics getChannelOutputStageMetrics()
+    {
+        ChannelOutputStage stage = mChannelOutputStage;
+        return stage != null ? stage.getMetrics() : null;
+    }
+
+    /**
+     * Number of worker threads for the channel output stage.  Leaves at least one core available for the tuner
+     * sample stream, the channelizer filter and the IFFT stage.
+     */
+    private static int getChannelOutputThreadCount()
+    {
+        return FastMath.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    }
+
+    @Override
+    public void addChannel(PolyphaseChannelSource polyphaseChannelSource)
+    {
+        super.addChannel(polyphaseChannelSource);
+
+        if(polyphaseChannelSource != null)
+        {
+            polyphaseChannelSource.setChannelOutputStage(mChannelOutputStage);
+        }
+    }
+
+    @Override
+    public void removeChannel(PolyphaseChannelSource polyphaseChannelSource)
+    {
+        super.removeChannel(polyphaseChannelSource);
+
+        if(polyphaseChannelSource != null)
+        {
+            polyphaseChannelSource.setChannelOutputStage(null);
+        }
     }
 
     /**
@@ -193,17 +299,18 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         channelResultsBuffer.setTimestamp(reusableComplexBuffer.getTimestamp());
 
         float[] samples = reusableComplexBuffer.getSamples();
+        int length = reusableComplexBuffer.getLength();
 
         int samplesPointer = 0;
         int samplesToCopy;
 
-        while(samplesPointer < samples.length)
+        while(samplesPointer < length)
         {
             if(mSampleBufferPointer < mSamplesPerBlock)
             {
                 samplesToCopy = mSamplesPerBlock - mSampleBufferPointer;
 
-                int samplesDiff = samples.length - samplesPointer;
+                int samplesDiff = length - samplesPointer;
                 if(samplesDiff < samplesToCopy)
                 {
                     samplesToCopy = samplesDiff;
@@ -228,6 +335,7 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         }
 
         //Enqueue the channel results buffer for IFFT processing and distribution on a different thread
+        channelResultsBuffer.setPipelineTimestamp(System.nanoTime());
         mIFFTProcessor.receive(channelResultsBuffer);
 
         //Decrement the user count to let the originator know we're done with their buffer
@@ -336,50 +444,77 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
      */
     private void process(ReusableChannelResultsBuffer channelResultsBuffer)
     {
-        int bufferLength = getSubChannelCount() * mTapsPerChannel;
-        float[] inlineInterimOutput = new float[bufferLength];
-
-        //Multiply each of the samples by the corresponding filter tap
-        for(int x = 0; x < mInlineSamples.length; x++)
+        //Multiply each of the samples by the corresponding filter tap and accumulate the results into each sub-channel
+        if(mImplementation == Implementation.VECTOR)
         {
-            inlineInterimOutput[x] = mInlineSamples[x] * mInlineFilter[x];
+            VectorPolyphaseAccumulator.accumulate(mInlineSamples, mInlineFilter, mFilterAccumulator, mTapsPerChannel);
         }
-
-        float[] filterAccumulator = new float[getSubChannelCount()];
-
-        int tapOffset = 0;
-
-        //Accumulate the sample/filter product results into each of the I/Q sub-channels
-        for(int tap = 0; tap < mTapsPerChannel; tap++)
+        else
         {
-            tapOffset = tap * getSubChannelCount();
-
-            for(int channel = 0; channel < getSubChannelCount(); channel++)
-            {
-                filterAccumulator[channel] += inlineInterimOutput[tapOffset + channel];
-            }
+            accumulate(mInlineSamples, mInlineFilter, mFilterAccumulator, mTapsPerChannel);
         }
 
+        //Rearrange the accumulated sub-channel results once per block using the top or middle block map
+        int[] blockMap = mTopBlockIndicator ? mTopBlockMap : mMiddleBlockMap;
         float[] processed = channelResultsBuffer.getEmptyBuffer(getSubChannelCount());
 
-        if(mTopBlockIndicator)
+        for(int x = 0; x < processed.length; x++)
         {
-            for(int x = 0; x < getSubChannelCount(); x++)
-            {
-                processed[x] = filterAccumulator[mTopBlockMap[x]];
-            }
+            processed[x] = mFilterAccumulator[blockMap[x]];
         }
-        else
+
+        channelResultsBuffer.addChannelResults(processed);
+
+        mTopBlockIndicator = !mTopBlockIndicator;
+    }
+
+    /**
+     * Scalar implementation that multiplies the inline samples by the inline filter and accumulates the products for
+     * each of the I/Q sub-channels.
+     *
+     * @param samples inline sample buffer of length (subChannelCount * tapsPerChannel)
+     * @param filter inline filter aligned to the sample buffer
+     * @param accumulator to receive the accumulated product for each sub-channel (length = subChannelCount)
+     * @param tapsPerChannel number of filter taps per sub-channel
+     */
+    public static void accumulate(float[] samples, float[] filter, float[] accumulator, int tapsPerChannel)
+    {
+        int subChannelCount = accumulator.length;
+
+        Arrays.fill(accumulator, 0.0f);
+
+        for(int tapOffset = 0; tapOffset < samples.length; tapOffset += subChannelCount)
         {
-            for(int x = 0; x < getSubChannelCount(); x++)
+            for(int channel = 0; channel < subChannelCount; channel++)
             {
-                processed[x] = filterAccumulator[mMiddleBlockMap[x]];
+                accumulator[channel] += samples[tapOffset + channel] * filter[tapOffset + channel];
             }
         }
+    }
 
-        channelResultsBuffer.addChannelResults(processed);
+    /**
+     * Current multiply and accumulate implementation
+     */
+    public Implementation getImplementation()
+    {
+        return mImplementation;
+    }
 
-        mTopBlockIndicator = !mTopBlockIndicator;
+    /**
+     * Sets the multiply and accumulate implementation.  If the vector implementation is requested and the Vector API
+     * is not available in this runtime, the scalar implementation is used instead.
+     *
+     * @param implementation to use
+     */
+    public void setImplementation(Implementation implementation)
+    {
+        mImplementation = VectorUtilities.resolve(implementation);
+
+        if(mImplementation != implementation)
+        {
+            mLog.warn("Requested channelizer implementation [" + implementation + "] is not available - using [" +
+                mImplementation + "]");
+        }
     }
 
     /**
@@ -397,6 +532,7 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         mMiddleBlockMap = getMiddleBlockMap(channelCount);
         mInlineFilter = getAlignedFilter(coefficients, channelCount, mTapsPerChannel);
         mInlineSamples = new float[bufferLength];
+        mFilterAccumulator = new float[getSubChannelCount()];
     }
 
     /**
@@ -423,6 +559,10 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
                         mFFT.complexInverse(channelResults, true);
                     }
 
+                    long now = System.nanoTime();
+                    mIFFTStageMetrics.record(now - buffer.getPipelineTimestamp());
+                    buffer.setPipelineTimestamp(now);
+
                     dispatch(buffer);
                 }
             });
@@ -134,7 +134,7 @@ public class ContinuousBufferProcessor<E> implements Listener<E>
     {
         if(mRunning.compareAndSet(false, true))
         {
-            mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new Processor(), 0, mProcessingPeriod, TimeUnit.MILLISECONDS);
+            mScheduledFuture = ThreadPool.REALTIME.scheduleAtFixedRate(new Processor(), 0, mProcessingPeriod, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -205,6 +205,22 @@ public class ContinuousBufferProcessor<E> implements Listener<E>
         return clearedElements;
     }
 
+    /**
+     * Current number of buffers waiting in the queue for processing
+     */
+    public int getQueueSize()
+    {
+        return mQueue.size();
+    }
+
+    /**
+     * Number of buffers that were dropped because the queue was in an overflow state
+     */
+    public long getOverflowCount()
+    {
+        return mQueue.getOverflowCount();
+    }
+
     /**
      * Indicates if this processor is currently running
      */
@@ -0,0 +1,124 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Queue depth and latency metrics for a single stage of the polyphase channelizer processing pipeline.  Latency is
+ * measured from the time that work is handed to the stage until the stage completes processing of that work.
+ */
+public class PipelineStageMetrics
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private String mName;
+    private IntSupplier mQueueDepthSupplier;
+    private AtomicLong mProcessedCount = new AtomicLong();
+    private AtomicLong mTotalLatency = new AtomicLong();
+    private AtomicLong mMaxLatency = new AtomicLong();
+
+    /**
+     * Constructs an instance
+     * @param name of the pipeline stage
+     * @param queueDepthSupplier to provide the current queue depth for the stage
+     */
+    public PipelineStageMetrics(String name, IntSupplier queueDepthSupplier)
+    {
+        mName = name;
+        mQueueDepthSupplier = queueDepthSupplier;
+    }
+
+    /**
+     * Name of the pipeline stage
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Records the latency for a completed unit of work.
+     * @param latencyNanos elapsed nanoseconds from hand-off to completion
+     */
+    public void record(long latencyNanos)
+    {
+        mProcessedCount.incrementAndGet();
+        mTotalLatency.addAndGet(latencyNanos);
+
+        long max = mMaxLatency.get();
+
+        while(latencyNanos > max && !mMaxLatency.compareAndSet(max, latencyNanos))
+        {
+            max = mMaxLatency.get();
+        }
+    }
+
+    /**
+     * Current queue depth for this stage
+     */
+    public int getQueueDepth()
+    {
+        return mQueueDepthSupplier != null ? mQueueDepthSupplier.getAsInt() : 0;
+    }
+
+    /**
+     * Number of work units processed by this stage since the last reset
+     */
+    public long getProcessedCount()
+    {
+        return mProcessedCount.get();
+    }
+
+    /**
+     * Average latency in microseconds since the last reset
+     */
+    public double getAverageLatencyMicroseconds()
+    {
+        long count = mProcessedCount.get();
+        return count > 0 ? (mTotalLatency.get() / (double)count) / 1000.0 : 0.0;
+    }
+
+    /**
+     * Maximum latency in microseconds since the last reset
+     */
+    public double getMaximumLatencyMicroseconds()
+    {
+        return mMaxLatency.get() / 1000.0;
+    }
+
+    /**
+     * Resets the processed count and latency statistics
+     */
+    public void reset()
+    {
+        mProcessedCount.set(0);
+        mTotalLatency.set(0);
+        mMaxLatency.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Stage [" + mName + "] Queue Depth [" + getQueueDepth() + "] Processed [" + getProcessedCount() +
+            "] Latency Avg [" + DECIMAL_FORMAT.format(getAverageLatencyMicroseconds()) + " us] Max [" +
+            DECIMAL_FORMAT.format(getMaximumLatencyMicroseconds()) + " us]";
+    }
+}
@@ -38,6 +38,8 @@ import io.github.dsheirer.source.tuner.TunerController;
 import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
 import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +86,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     private BufferSourceEventMonitor mBufferSourceEventMonitor = new BufferSourceEventMonitor();
     private ContinuousBufferProcessor<ReusableComplexBuffer> mBufferProcessor;
     private Map<Integer,float[]> mOutputProcessorFilters = new HashMap<>();
+    private Implementation mChannelizerImplementation = VectorUtilities.getPreferredImplementation();
+    private boolean mChannelizerPipelineMode;
 
     /**
      * Creates a polyphase channel manager instance.
@@ -127,6 +131,55 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         this(tunerController, tunerController.getFrequency(), tunerController.getSampleRate());
     }
 
+    /**
+     * Sets the multiply and accumulate implementation used by the polyphase channelizer.  The change is applied to
+     * the current channelizer immediately and to any channelizer that is created following a sample rate change.
+     *
+     * @param implementation to use (SCALAR or VECTOR)
+     */
+    public void setChannelizerImplementation(Implementation implementation)
+    {
+        mChannelizerImplementation = VectorUtilities.resolve(implementation);
+
+        if(mPolyphaseChannelizer != null)
+        {
+            mPolyphaseChannelizer.setImplementation(mChannelizerImplementation);
+        }
+    }
+
+    /**
+     * Enables or disables polyphase channelizer pipeline mode where channel output processing is distributed across
+     * a pool of worker threads.  The change is applied the next time the channelizer is started.
+     *
+     * @param pipelineMode true to enable
+     */
+    public void setChannelizerPipelineMode(boolean pipelineMode)
+    {
+        mChannelizerPipelineMode = pipelineMode;
+
+        if(mPolyphaseChannelizer != null)
+        {
+            mPolyphaseChannelizer.setPipelineMode(pipelineMode);
+        }
+    }
+
+    /**
+     * Queue depth and latency metrics for the channelizer IFFT stage, or null if the channelizer is not created.
+     */
+    public PipelineStageMetrics getIFFTStageMetrics()
+    {
+        return mPolyphaseChannelizer != null ? mPolyphaseChannelizer.getIFFTStageMetrics() : null;
+    }
+
+    /**
+     * Queue depth and latency metrics for the channelizer channel output stage, or null if the channelizer is not
+     * running in pipeline mode.
+     */
+    public PipelineStageMetrics getChannelOutputStageMetrics()
+    {
+        return mPolyphaseChannelizer != null ? mPolyphaseChannelizer.getChannelOutputStageMetrics() : null;
+    }
+
     /**
      * Signals to all provisioned tuner channel sources that the source complex buffer provider has an error and can
      * no longer provide channels, so that the tuner channel source can notify the consumer of the error state.
@@ -345,6 +398,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             {
                 mPolyphaseChannelizer = new ComplexPolyphaseChannelizerM2(tunerSampleRate,
                     POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL);
+                mPolyphaseChannelizer.setImplementation(mChannelizerImplementation);
+                mPolyphaseChannelizer.setPipelineMode(mChannelizerPipelineMode);
             }
             catch(IllegalArgumentException iae)
             {
@@ -19,10 +19,10 @@
 package io.github.dsheirer.dsp.filter.channelizer;
 
 import io.github.dsheirer.dsp.filter.channelizer.output.IPolyphaseChannelOutputProcessor;
+import io.github.dsheirer.dsp.filter.design.FilterDesignCache;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
 import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.filter.fir.remez.RemezFIRFilterDesigner;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
@@ -32,8 +32,9 @@ import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
 import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PolyphaseChannelSource extends TunerChannelSource
 {
@@ -45,11 +46,16 @@ public class PolyphaseChannelSource extends TunerChannelSource
     private IPolyphaseChannelOutputProcessor mReplacementPolyphaseChannelOutputProcessor;
     private long mReplacementFrequency;
     private ComplexFIRFilter2 mLowPassFilter;
-    private static Map<Integer,float[]> sLowPassFilters = new HashMap();
 
     private double mChannelSampleRate;
     private long mIndexCenterFrequency;
     private long mChannelFrequencyCorrection;
+    private volatile ChannelOutputStage mChannelOutputStage;
+    private ReentrantLock mOutputLock = new ReentrantLock();
+    private boolean mDisposed;
+    private AtomicInteger mPendingOutputRequests = new AtomicInteger();
+    private long mOutputRequestTimestamp;
+    private Runnable mChannelOutputTask = this::processPendingChannelResults;
 
     /**
      * Polyphase channelizer tuner channel source implementation.  Adapts the channel array output samples from the
@@ -172,6 +178,88 @@ public class PolyphaseChannelSource extends TunerChannelSource
 
         mReusableComplexBufferAssembler.updateTimestamp(channelResultsBuffer.getTimestamp());
         mPolyphaseChannelOutputProcessor.receiveChannelResults(channelResultsBuffer);
+
+        ChannelOutputStage stage = mChannelOutputStage;
+
+        if(stage == null)
+        {
+            signalSamplesAvailable(channelResultsBuffer.getTimestamp());
+        }
+        //Only one output processing task per channel is submitted at a time to preserve output ordering
+        else if(mPendingOutputRequests.getAndIncrement() == 0)
+        {
+            mOutputRequestTimestamp = channelResultsBuffer.getPipelineTimestamp();
+
+            try
+            {
+                stage.execute(mChannelOutputTask);
+            }
+            catch(RejectedExecutionException ree)
+            {
+                //Stage is shutting down - satisfy the pending requests on this thread so that the count is
+                //consistent when the scheduled interval processor resumes processing
+                processPendingChannelResults();
+            }
+        }
+    }
+
+    /**
+     * Sets the channel output stage to use for processing channel results when the polyphase channelizer is in
+     * pipeline mode, or null to process channel results on the scheduled interval processor.
+     *
+     * When the stage is removed, this method blocks until any output processing that is currently executing on a
+     * stage worker thread completes, so that the output processor is never accessed by two threads at once.
+     *
+     * @param channelOutputStage to use or null
+     */
+    public void setChannelOutputStage(ChannelOutputStage channelOutputStage)
+    {
+        mChannelOutputStage = channelOutputStage;
+
+        if(channelOutputStage == null)
+        {
+            //Acquire and release the output lock to wait for an in-progress stage worker to finish
+            mOutputLock.lock();
+            mOutputLock.unlock();
+        }
+    }
+
+    /**
+     * Processes queued channel results on a channel output stage worker thread.  Continues processing until all
+     * output requests that arrive while processing are satisfied, so that this channel is never processed by more
+     * than one worker thread at a time.
+     */
+    private void processPendingChannelResults()
+    {
+        int pending = mPendingOutputRequests.get();
+
+        while(pending > 0)
+        {
+            mOutputLock.lock();
+
+            try
+            {
+                if(!mDisposed)
+                {
+                    mPolyphaseChannelOutputProcessor.processChannelResults(mReusableComplexBufferAssembler);
+                }
+            }
+            finally
+            {
+                mOutputLock.unlock();
+            }
+
+            ChannelOutputStage stage = mChannelOutputStage;
+
+            if(stage != null)
+            {
+                long now = System.nanoTime();
+                stage.getMetrics().record(now - mOutputRequestTimestamp);
+                mOutputRequestTimestamp = now;
+            }
+
+            pending = mPendingOutputRequests.addAndGet(-pending);
+        }
     }
 
     /**
@@ -198,14 +286,25 @@ public class PolyphaseChannelSource extends TunerChannelSource
     @Override
     public void dispose()
     {
-        if(mReusableComplexBufferAssembler != null)
+        mOutputLock.lock();
+
+        try
         {
-            mReusableComplexBufferAssembler.dispose();
-        }
+            mDisposed = true;
+
+            if(mReusableComplexBufferAssembler != null)
+            {
+                mReusableComplexBufferAssembler.dispose();
+            }
 
-        if(mPolyphaseChannelOutputProcessor != null)
+            if(mPolyphaseChannelOutputProcessor != null)
+            {
+                mPolyphaseChannelOutputProcessor.dispose();
+            }
+        }
+        finally
         {
-            mPolyphaseChannelOutputProcessor.dispose();
+            mOutputLock.unlock();
         }
     }
 
@@ -245,7 +344,24 @@ public class PolyphaseChannelSource extends TunerChannelSource
     @Override
     protected void processSamples()
     {
-        mPolyphaseChannelOutputProcessor.processChannelResults(mReusableComplexBufferAssembler);
+        //When a channel output stage is assigned, samples are processed by the stage as channel results arrive.  The
+        //output lock ensures that a stage worker still draining requests for this channel is never run concurrently.
+        if(mChannelOutputStage == null)
+        {
+            mOutputLock.lock();
+
+            try
+            {
+                if(!mDisposed)
+                {
+                    mPolyphaseChannelOutputProcessor.processChannelResults(mReusableComplexBufferAssembler);
+                }
+            }
+            finally
+            {
+                mOutputLock.unlock();
+            }
+        }
     }
 
     /**
@@ -285,13 +401,6 @@ public class PolyphaseChannelSource extends TunerChannelSource
      */
     private float[] getLowPassFilter(double sampleRate, double passFrequency, double stopFrequency) throws FilterDesignException
     {
-        //Use existing filter if we've already designed one
-        float[] filter = sLowPassFilters.get((int) sampleRate);
-        if(filter != null)
-        {
-            return filter;
-        }
-
         FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
             .sampleRate(sampleRate)
             .gridDensity(16)
@@ -303,12 +412,13 @@ public class PolyphaseChannelSource extends TunerChannelSource
             .stopBandRipple(0.01)
             .build();
 
-        RemezFIRFilterDesigner designer = new RemezFIRFilterDesigner(specification);
-
-        //This will throw an exception if the filter cannot be designed
-        float[] taps = designer.getImpulseResponse();
+        //Use existing filter if we've already designed one
+        float[] taps = FilterDesignCache.getTaps(specification);
 
-        sLowPassFilters.put((int)sampleRate, taps);
+        if(taps == null)
+        {
+            throw new FilterDesignException("Couldn't design channel low pass filter for sample rate: " + sampleRate);
+        }
 
         return taps;
     }
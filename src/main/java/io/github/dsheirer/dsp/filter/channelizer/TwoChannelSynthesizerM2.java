@@ -89,20 +89,21 @@ public class TwoChannelSynthesizerM2
      */
     public ReusableComplexBuffer process(ReusableComplexBuffer channelBuffer1, ReusableComplexBuffer channelBuffer2)
     {
-        if(channelBuffer1.getSamples().length != channelBuffer1.getSamples().length)
+        if(channelBuffer1.getLength() != channelBuffer2.getLength())
         {
             throw new IllegalArgumentException("Channel 1 and 2 array length must be equal");
         }
 
         float[] channel1 = channelBuffer1.getSamples();
         float[] channel2 = channelBuffer2.getSamples();
+        int length = channelBuffer1.getLength();
 
-        ReusableComplexBuffer synthesizedComplexBuffer = mReusableComplexBufferQueue.getBuffer(channel1.length);
+        ReusableComplexBuffer synthesizedComplexBuffer = mReusableComplexBufferQueue.getBuffer(length);
 
         float[] output = synthesizedComplexBuffer.getSamples();
         float[] IFFTBuffer = new float[4];
 
-        for(int x = 0; x < channel1.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             //Load samples from each channel into buffer for IFFT
             IFFTBuffer[0] = channel1[x];     //i
@@ -0,0 +1,149 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.vector.VectorUtilities;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * JDK Vector API (SIMD) implementation of the polyphase channelizer multiply and accumulate operation.
+ *
+ * Each vector covers a contiguous run of I/Q sub-channels and the products for every tap of those sub-channels are
+ * accumulated in a register before a single store to the accumulator array.  Products are added in the same tap order
+ * as the scalar implementation so that both implementations produce identical results.
+ *
+ * Note: do not reference this class unless VectorUtilities.isVectorApiAvailable() returns true.
+ */
+public class VectorPolyphaseAccumulator
+{
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * Multiplies the inline samples by the inline filter and accumulates the products for each sub-channel.
+     *
+     * @param samples inline sample buffer of length (subChannelCount * tapsPerChannel)
+     * @param filter inline filter aligned to the sample buffer
+     * @param accumulator to receive the accumulated product for each sub-channel (length = subChannelCount)
+     * @param tapsPerChannel number of filter taps per sub-channel
+     */
+    public static void accumulate(float[] samples, float[] filter, float[] accumulator, int tapsPerChannel)
+    {
+        int subChannelCount = accumulator.length;
+        int bound = SPECIES.loopBound(subChannelCount);
+        int channel = 0;
+
+        for(; channel < bound; channel += SPECIES.length())
+        {
+            FloatVector sum = FloatVector.zero(SPECIES);
+
+            for(int tapOffset = channel; tapOffset < samples.length; tapOffset += subChannelCount)
+            {
+                FloatVector sampleVector = FloatVector.fromArray(SPECIES, samples, tapOffset);
+                FloatVector filterVector = FloatVector.fromArray(SPECIES, filter, tapOffset);
+                sum = sum.add(sampleVector.mul(filterVector));
+            }
+
+            sum.intoArray(accumulator, channel);
+        }
+
+        //Scalar processing for any sub-channels that don't fill a complete vector
+        for(; channel < subChannelCount; channel++)
+        {
+            float sum = 0.0f;
+
+            for(int tapOffset = channel; tapOffset < samples.length; tapOffset += subChannelCount)
+            {
+                sum += samples[tapOffset] * filter[tapOffset];
+            }
+
+            accumulator[channel] = sum;
+        }
+    }
+
+    /**
+     * Benchmark comparing the scalar and vector multiply and accumulate implementations across channel counts.
+     */
+    public static void main(String[] args)
+    {
+        if(!VectorUtilities.isVectorApiAvailable())
+        {
+            System.out.println("Vector API is not available - start the JVM with --add-modules=jdk.incubator.vector");
+            return;
+        }
+
+        DecimalFormat df = new DecimalFormat("0.000");
+        Random random = new Random();
+        int tapsPerChannel = 9;
+        int iterations = 200_000;
+
+        System.out.println("Preferred Species: " + SPECIES);
+
+        for(int channelCount: new int[]{40, 80, 120, 160, 200, 240, 280, 320, 360, 400})
+        {
+            int subChannelCount = channelCount * 2;
+            float[] samples = new float[subChannelCount * tapsPerChannel];
+            float[] filter = new float[subChannelCount * tapsPerChannel];
+
+            for(int x = 0; x < samples.length; x++)
+            {
+                samples[x] = (2.0f * random.nextFloat()) - 1.0f;
+                filter[x] = (2.0f * random.nextFloat()) - 1.0f;
+            }
+
+            float[] scalarAccumulator = new float[subChannelCount];
+            float[] vectorAccumulator = new float[subChannelCount];
+
+            //Warm-up both implementations
+            for(int x = 0; x < iterations / 10; x++)
+            {
+                ComplexPolyphaseChannelizerM2.accumulate(samples, filter, scalarAccumulator, tapsPerChannel);
+                accumulate(samples, filter, vectorAccumulator, tapsPerChannel);
+            }
+
+            long start = System.nanoTime();
+
+            for(int x = 0; x < iterations; x++)
+            {
+                ComplexPolyphaseChannelizerM2.accumulate(samples, filter, scalarAccumulator, tapsPerChannel);
+            }
+
+            long scalarElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < iterations; x++)
+            {
+                accumulate(samples, filter, vectorAccumulator, tapsPerChannel);
+            }
+
+            long vectorElapsed = System.nanoTime() - start;
+
+            System.out.println("Channels [" + channelCount + "] Scalar [" +
+                df.format(scalarElapsed / (double)iterations) + " ns/op] Vector [" +
+                df.format(vectorElapsed / (double)iterations) + " ns/op] Speedup [" +
+                df.format(scalarElapsed / (double)vectorElapsed) + "x] Identical [" +
+                Arrays.equals(scalarAccumulator, vectorAccumulator) + "]");
+        }
+    }
+}
@@ -89,7 +89,7 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
 
                 if(hasFrequencyCorrection())
                 {
-                    getFrequencyCorrectionMixer().mixComplex(channelBuffer.getSamples());
+                    getFrequencyCorrectionMixer().mixComplex(channelBuffer.getSamples(), channelBuffer.getLength());
                 }
 
                 channelBuffer.applyGain(getGain());
@@ -107,10 +107,10 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
             ReusableComplexBuffer synthesized = mSynthesizer.process(channel1, channel2);
 
             //The synthesized channels are centered at +FS/4 ... downconvert to center the spectrum
-            mFS4DownConverter.mixComplex(synthesized.getSamples());
+            mFS4DownConverter.mixComplex(synthesized.getSamples(), synthesized.getLength());
 
             //Apply offset and frequency correction to center the signal of interest within the synthesized channel
-            getFrequencyCorrectionMixer().mixComplex(synthesized.getSamples());
+            getFrequencyCorrectionMixer().mixComplex(synthesized.getSamples(), synthesized.getLength());
 
             synthesized.applyGain(getGain());
 
@@ -170,7 +170,7 @@ public class ComplexPrimeCICDecimate implements Listener<ReusableComplexBuffer>
         {
             float[] samples = buffer.getSamples();
 
-            for(int x = 0; x < samples.length; x += 2)
+            for(int x = 0; x < buffer.getLength(); x += 2)
             {
                 mFirstDecimatingStage.receive(samples[x], samples[x + 1]);
             }
@@ -137,9 +137,11 @@ public class RealPrimeCICDecimate
     {
         if(mFirstDecimatingStage != null)
         {
-            for(float sample : buffer.getSamples())
+            float[] samples = buffer.getSamples();
+
+            for(int x = 0; x < buffer.getLength(); x++)
             {
-                mFirstDecimatingStage.receive(sample);
+                mFirstDecimatingStage.receive(samples[x]);
             }
         }
 
@@ -40,11 +40,12 @@ public class IQCorrectionFilter
     public ReusableComplexBuffer filter(ReusableComplexBuffer buffer)
     {
         float[] samples = buffer.getSamples();
+        int length = buffer.getLength();
 
-        ReusableComplexBuffer filtered = mReusableComplexBufferQueue.getBuffer(samples.length);
+        ReusableComplexBuffer filtered = mReusableComplexBufferQueue.getBuffer(length);
         float[] filteredSamples = filtered.getSamples();
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             mAverageInphase = mAverageInphase + (mRatio * (samples[x] - mAverageInphase));
             filteredSamples[x] = samples[x] - mAverageInphase;
@@ -31,7 +31,7 @@ public class BufferDCFilter
      */
     public void filterReal(float[] samples)
     {
-        float adjustment = getOffset(samples);
+        float adjustment = getOffset(samples, samples.length);
 
         for(int x = 0; x < samples.length; x++)
         {
@@ -39,15 +39,16 @@ public class BufferDCFilter
         }
     }
 
-    private float getOffset(float[] samples)
+    private float getOffset(float[] samples, int length)
     {
         mAccumulator = 0.0;
 
-        for (float sample : samples) {
-            mAccumulator += sample;
+        for(int x = 0; x < length; x++)
+        {
+            mAccumulator += samples[x];
         }
 
-        return (float)(mAccumulator / (double)samples.length);
+        return (float)(mAccumulator / (double)length);
     }
 
     /**
@@ -79,13 +80,14 @@ public class BufferDCFilter
     public ReusableFloatBuffer filter(ReusableFloatBuffer unfilteredBuffer)
     {
         float[] unfilteredSamples = unfilteredBuffer.getSamples();
+        int length = unfilteredBuffer.getLength();
 
-        ReusableFloatBuffer filteredBuffer = mReusableBufferQueue.getBuffer(unfilteredSamples.length);
+        ReusableFloatBuffer filteredBuffer = mReusableBufferQueue.getBuffer(length);
         float[] filteredSamples = filteredBuffer.getSamples();
 
-        float offset = getOffset(unfilteredSamples);
+        float offset = getOffset(unfilteredSamples, length);
 
-        for(int x = 0; x < unfilteredSamples.length; x++)
+        for(int x = 0; x < length; x++)
         {
             filteredSamples[x] = unfilteredSamples[x] - offset;
         }
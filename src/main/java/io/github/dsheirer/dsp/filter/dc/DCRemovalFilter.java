@@ -84,7 +84,7 @@ public class DCRemovalFilter
         float[] unfilteredSamples = unfilteredBuffer.getSamples();
         float[] filteredSamples = filteredBuffer.getSamples();
 
-        for(int x = 0; x < unfilteredSamples.length; x++)
+        for(int x = 0; x < unfilteredBuffer.getLength(); x++)
         {
             filteredSamples[x] = filter(unfilteredSamples[x]);
         }
@@ -73,7 +73,7 @@ public class IIRSinglePoleDCRemovalFilter implements RealSampleListener
         float[] inputSamples = inputBuffer.getSamples();
         float[] outputSamples = outputBuffer.getSamples();
 
-        for(int x = 0; x < inputSamples.length; x++)
+        for(int x = 0; x < inputBuffer.getLength(); x++)
         {
             outputSamples[x] = filter(inputSamples[x]);
         }
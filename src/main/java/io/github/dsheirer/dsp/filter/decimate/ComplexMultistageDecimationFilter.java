@@ -0,0 +1,59 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.decimate;
+
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+
+/**
+ * Multistage polyphase decimation filter for interleaved complex sample buffers.
+ */
+public class ComplexMultistageDecimationFilter extends MultistageDecimationFilter implements IComplexDecimationFilter
+{
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue =
+        new ReusableComplexBufferQueue("ComplexMultistageDecimationFilter");
+
+    /**
+     * Constructs an instance
+     * @param stages in processing order, each constructed with a stride of 2
+     */
+    public ComplexMultistageDecimationFilter(DecimationStage[] stages)
+    {
+        super(stages, 2);
+    }
+
+    @Override
+    public float[] decimateComplex(float[] samples)
+    {
+        float[] decimated = new float[samples.length / getDecimationRate()];
+        decimate(samples, decimated);
+        return decimated;
+    }
+
+    @Override
+    public ReusableComplexBuffer decimate(ReusableComplexBuffer buffer)
+    {
+        ReusableComplexBuffer decimatedBuffer = mReusableComplexBufferQueue.getBuffer(buffer.getLength() /
+            getDecimationRate());
+        decimatedBuffer.setTimestamp(buffer.getTimestamp());
+        decimate(buffer.getSamples(), buffer.getLength(), decimatedBuffer.getSamples());
+        buffer.decrementUserCount();
+        return decimatedBuffer;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.decimate;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Benchmark for the multistage polyphase complex decimation filters versus the legacy cascaded half-band decimation
+ * filters at each supported decimation rate.  Also measures the gain of an in-band tone and the attenuation of a
+ * tone that aliases into the pass band to verify the planned filter response.
+ */
+public class DecimationFilterBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.000");
+    private static final DecimalFormat DB_FORMAT = new DecimalFormat("0.0");
+    private static final int SAMPLE_COUNT = 16384;
+    private static final int ITERATIONS = 500;
+    private static final double IN_BAND_FREQUENCY = 0.3;
+    private static final double ALIAS_FREQUENCY = 0.9;
+
+    /**
+     * Creates an interleaved complex tone
+     * @param frequency normalized to the sample rate
+     * @param sampleCount number of complex samples
+     */
+    private static float[] getTone(double frequency, int sampleCount)
+    {
+        float[] samples = new float[sampleCount * 2];
+
+        for(int x = 0; x < sampleCount; x++)
+        {
+            double angle = 2.0 * Math.PI * frequency * x;
+            samples[2 * x] = (float)Math.cos(angle);
+            samples[2 * x + 1] = (float)Math.sin(angle);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Measures the average power (dB) of the second half of the decimated tone, after the filter transient.
+     */
+    private static double getToneLevel(IComplexDecimationFilter filter, int rate, double outputFrequency)
+    {
+        float[] decimated = filter.decimateComplex(getTone(outputFrequency / rate,
+            Math.max(SAMPLE_COUNT, rate * 512)));
+        double power = 0.0;
+        int count = 0;
+
+        for(int x = decimated.length / 2; x < decimated.length; x += 2)
+        {
+            power += decimated[x] * decimated[x] + decimated[x + 1] * decimated[x + 1];
+            count++;
+        }
+
+        return 10.0 * Math.log10(power / count + 1E-30);
+    }
+
+    private static long time(IComplexDecimationFilter filter, float[] samples)
+    {
+        for(int x = 0; x < ITERATIONS / 10; x++)
+        {
+            filter.decimateComplex(samples);
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < ITERATIONS; x++)
+        {
+            filter.decimateComplex(samples);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static String format(long elapsed)
+    {
+        return DECIMAL_FORMAT.format(elapsed / (double)ITERATIONS / 1000.0);
+    }
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(1234);
+        float[] samples = new float[SAMPLE_COUNT * 2];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        for(int rate = 2; rate <= 1024; rate *= 2)
+        {
+            ComplexMultistageDecimationFilter multistage = (ComplexMultistageDecimationFilter)DecimationFilterFactory
+                .getComplexDecimationFilter(rate);
+
+            long legacyElapsed = time(DecimationFilterFactory.getLegacyComplexDecimationFilter(rate), samples);
+            long multistageElapsed = time(multistage, samples);
+
+            double legacyPass = getToneLevel(DecimationFilterFactory.getLegacyComplexDecimationFilter(rate), rate,
+                IN_BAND_FREQUENCY);
+            double legacyAlias = getToneLevel(DecimationFilterFactory.getLegacyComplexDecimationFilter(rate), rate,
+                ALIAS_FREQUENCY);
+            double pass = getToneLevel(DecimationFilterFactory.getComplexDecimationFilter(rate), rate,
+                IN_BAND_FREQUENCY);
+            double alias = getToneLevel(DecimationFilterFactory.getComplexDecimationFilter(rate), rate,
+                ALIAS_FREQUENCY);
+
+            System.out.println(multistage);
+            System.out.println("    us/buffer - Legacy: " + format(legacyElapsed) + " Multistage: " +
+                format(multistageElapsed) + " Speedup: " +
+                DECIMAL_FORMAT.format(legacyElapsed / (double)multistageElapsed) + "x | In-Band dB Legacy: " +
+                DB_FORMAT.format(legacyPass) + " Multistage: " + DB_FORMAT.format(pass) + " | Alias dB Legacy: " +
+                DB_FORMAT.format(legacyAlias) + " Multistage: " + DB_FORMAT.format(alias));
+        }
+    }
+}
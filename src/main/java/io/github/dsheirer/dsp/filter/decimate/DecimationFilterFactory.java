@@ -19,12 +19,35 @@
 
 package io.github.dsheirer.dsp.filter.decimate;
 
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Factory for creating real and complex decimation filters.
+ *
+ * Decimation filters are constructed as multistage polyphase filters.  The factory plans the stage decimation factors
+ * by evaluating each ordered split of the decimation rate into stage factors, estimating the Kaiser window filter
+ * length required by each stage to meet the pass band and attenuation requirements, and selecting the split that
+ * requires the fewest multiplies per output sample.
  */
 public class DecimationFilterFactory
 {
     private static final int[] SUPPORTED_RATES = new int[]{0,2,4,8,16,32,64,128,256,512,1024};
+    private static final int[] STAGE_FACTORS = new int[]{2,4,8};
+
+    /**
+     * Default pass band as a fraction of the decimated output Nyquist bandwidth.
+     */
+    public static final double DEFAULT_PASS_BAND = 0.8;
+
+    /**
+     * Default out of band alias attenuation in dB.
+     */
+    public static final double DEFAULT_ATTENUATION = 100.0;
 
     /**
      * Creates a real-valued decimation filter for float array sample buffers providing greater than 100 dB of
@@ -34,6 +57,43 @@ public class DecimationFilterFactory
      * @return constructed decimation filter
      */
     public static IRealDecimationFilter getRealDecimationFilter(int decimationRate)
+    {
+        if(decimationRate == 0)
+        {
+            return new RealDecimateX0Filter();
+        }
+
+        validate(decimationRate);
+        return new RealMultistageDecimationFilter(getDecimationStages(decimationRate, 1, DEFAULT_PASS_BAND,
+            DEFAULT_ATTENUATION));
+    }
+
+    /**
+     * Creates a complex-valued decimation filter for float array sample buffers providing greater than 100 dB of
+     * attenuation for out of band signal aliases.  Supports power of 2 decimation rates up to 1024.
+     *
+     * @param decimationRate requested @see SUPPORTED_RATES
+     * @return constructed decimation filter
+     */
+    public static IComplexDecimationFilter getComplexDecimationFilter(int decimationRate)
+    {
+        if(decimationRate == 0)
+        {
+            return new ComplexDecimateX0Filter();
+        }
+
+        validate(decimationRate);
+        return new ComplexMultistageDecimationFilter(getDecimationStages(decimationRate, 2, DEFAULT_PASS_BAND,
+            DEFAULT_ATTENUATION));
+    }
+
+    /**
+     * Creates the legacy cascaded half-band real-valued decimation filter.
+     *
+     * @param decimationRate requested @see SUPPORTED_RATES
+     * @return constructed decimation filter
+     */
+    public static IRealDecimationFilter getLegacyRealDecimationFilter(int decimationRate)
     {
         switch(decimationRate)
         {
@@ -61,18 +121,17 @@ public class DecimationFilterFactory
                 return new RealDecimateX1024Filter();
             default:
                 throw new IllegalArgumentException("Unsupported decimation rate: " + decimationRate +
-                        ".  Supported decimation rates are:" + SUPPORTED_RATES);
+                        ".  Supported decimation rates are:" + Arrays.toString(SUPPORTED_RATES));
         }
     }
 
     /**
-     * Creates a complex-valued decimation filter for float array sample buffers providing greater than 100 dB of
-     * attenuation for out of band signal aliases.  Supports power of 2 decimation rates up to 1024.
+     * Creates the legacy cascaded half-band complex-valued decimation filter.
      *
      * @param decimationRate requested @see SUPPORTED_RATES
      * @return constructed decimation filter
      */
-    public static IComplexDecimationFilter getComplexDecimationFilter(int decimationRate)
+    public static IComplexDecimationFilter getLegacyComplexDecimationFilter(int decimationRate)
     {
         switch(decimationRate)
         {
@@ -100,7 +159,176 @@ public class DecimationFilterFactory
                 return new ComplexDecimateX1024Filter();
             default:
                 throw new IllegalArgumentException("Unsupported decimation rate: " + decimationRate +
-                        ".  Supported decimation rates are:" + SUPPORTED_RATES);
+                        ".  Supported decimation rates are:" + Arrays.toString(SUPPORTED_RATES));
+        }
+    }
+
+    /**
+     * Validates that the decimation rate is one of the supported rates
+     */
+    private static void validate(int decimationRate)
+    {
+        for(int rate : SUPPORTED_RATES)
+        {
+            if(rate == decimationRate)
+            {
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported decimation rate: " + decimationRate +
+            ".  Supported decimation rates are:" + Arrays.toString(SUPPORTED_RATES));
+    }
+
+    /**
+     * Plans and designs the decimation stages for the requested decimation rate.
+     *
+     * @param decimationRate overall decimation rate
+     * @param stride of the samples: 1 for real or 2 for interleaved complex samples
+     * @param passBand as a fraction (0.0 - 1.0) of the decimated output Nyquist bandwidth
+     * @param attenuation for out of band aliases in dB
+     * @return stages in processing order
+     */
+    public static DecimationStage[] getDecimationStages(int decimationRate, int stride, double passBand,
+                                                        double attenuation)
+    {
+        int[] factors = getStageFactors(decimationRate, passBand, attenuation);
+        DecimationStage[] stages = new DecimationStage[factors.length];
+
+        //Sample rates are normalized to the final output sample rate
+        double inputRate = decimationRate;
+        double passEdge = passBand * 0.5;
+
+        for(int x = 0; x < factors.length; x++)
+        {
+            int tapCount = getStageTapCount(inputRate, factors[x], passEdge, attenuation);
+
+            try
+            {
+                float[] coefficients = FilterFactory.getKaiserSinc(tapCount, 0.5 / factors[x], attenuation);
+                stages[x] = new DecimationStage(coefficients, factors[x], stride);
+            }
+            catch(FilterDesignException fde)
+            {
+                throw new IllegalArgumentException("Unable to design decimation stage filter", fde);
+            }
+
+            inputRate /= factors[x];
+        }
+
+        return stages;
+    }
+
+    /**
+     * Determines the ordered stage decimation factors that require the fewest multiplies per output sample.
+     *
+     * @param decimationRate overall decimation rate
+     * @param passBand as a fraction (0.0 - 1.0) of the decimated output Nyquist bandwidth
+     * @param attenuation for out of band aliases in dB
+     * @return stage factors in processing order
+     */
+    public static int[] getStageFactors(int decimationRate, double passBand, double attenuation)
+    {
+        List<int[]> candidates = new ArrayList<>();
+        getStageFactorCandidates(decimationRate, new int[0], candidates);
+
+        if(candidates.isEmpty())
+        {
+            throw new IllegalArgumentException("Unsupported decimation rate: " + decimationRate);
+        }
+
+        int[] best = null;
+        double bestCost = Double.MAX_VALUE;
+
+        for(int[] candidate : candidates)
+        {
+            double cost = getMultipliesPerOutput(candidate, passBand, attenuation);
+
+            if(cost < bestCost)
+            {
+                bestCost = cost;
+                best = candidate;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Estimated multiplies per output sample (per rail) for the ordered stage factors.
+     */
+    public static double getMultipliesPerOutput(int[] factors, double passBand, double attenuation)
+    {
+        double inputRate = 1.0;
+
+        for(int factor : factors)
+        {
+            inputRate *= factor;
         }
+
+        double passEdge = passBand * 0.5;
+        double multiplies = 0.0;
+
+        for(int factor : factors)
+        {
+            int tapCount = getStageTapCount(inputRate, factor, passEdge, attenuation);
+            int half = tapCount / 2;
+
+            //Folded symmetrical taps plus the center tap, where half-band stages skip the zero-valued taps
+            int stageMultiplies = (factor == 2 ? (half + 1) / 2 : half) + 1;
+            inputRate /= factor;
+            multiplies += stageMultiplies * inputRate;
+        }
+
+        return multiplies;
+    }
+
+    /**
+     * Recursively enumerates each ordered split of the remaining rate into stage factors.
+     */
+    private static void getStageFactorCandidates(int remaining, int[] factors, List<int[]> candidates)
+    {
+        if(remaining == 1)
+        {
+            candidates.add(factors);
+            return;
+        }
+
+        for(int factor : STAGE_FACTORS)
+        {
+            if(remaining % factor == 0)
+            {
+                int[] next = Arrays.copyOf(factors, factors.length + 1);
+                next[factors.length] = factor;
+                getStageFactorCandidates(remaining / factor, next, candidates);
+            }
+        }
+    }
+
+    /**
+     * Estimates the odd-length Kaiser window filter tap count for a decimation stage.  Rates are normalized to the
+     * final output sample rate.  The stage protects the final pass band from aliases that fold back into it and
+     * leaves the remaining bandwidth as transition band for the following stages.
+     *
+     * @param inputRate for the stage
+     * @param factor to decimate
+     * @param passEdge frequency of the final output pass band
+     * @param attenuation in dB
+     * @return odd tap count
+     */
+    private static int getStageTapCount(double inputRate, int factor, double passEdge, double attenuation)
+    {
+        double outputRate = inputRate / factor;
+        double stopEdge = outputRate - passEdge;
+        double transition = (stopEdge - passEdge) / inputRate;
+
+        int tapCount = (int)Math.ceil((attenuation - 7.95) / (14.36 * transition)) + 1;
+
+        if(tapCount % 2 == 0)
+        {
+            tapCount++;
+        }
+
+        return tapCount;
     }
 }
@@ -0,0 +1,290 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.decimate;
+
+/**
+ * Single stage of a multistage polyphase decimation filter.  Filters and decimates real or interleaved complex
+ * samples by an integer factor, computing only the retained (decimated) outputs.
+ *
+ * The filter must be odd-length and symmetrical.  Mirrored samples are added before the multiply so that each
+ * coefficient is applied once.  When every other coefficient is zero-valued (half-band filter), the zero-valued
+ * coefficients are skipped.
+ */
+public class DecimationStage
+{
+    private static final float ZERO_COEFFICIENT_THRESHOLD = 1E-9f;
+    private int mFactor;
+    private int mStride;
+    private int mTapCount;
+    private int mHistoryLength;
+    private float mCenterCoefficient;
+    private int mCenterOffset;
+    private float[] mCoefficients;
+    private int mFirstOffset;
+    private int mLastOffset;
+    private int mTapMultiplies;
+    private boolean mHalfBand;
+    private float[] mBuffer = new float[0];
+
+    /**
+     * Constructs an instance
+     * @param coefficients for an odd-length, symmetrical filter
+     * @param factor to decimate by
+     * @param stride between consecutive samples: 1 for real samples or 2 for interleaved complex samples
+     */
+    public DecimationStage(float[] coefficients, int factor, int stride)
+    {
+        if(coefficients.length % 2 == 0)
+        {
+            throw new IllegalArgumentException("Decimation stage filter must be odd-length");
+        }
+
+        mFactor = factor;
+        mStride = stride;
+        mTapCount = coefficients.length;
+        mHistoryLength = (mTapCount - 1) * stride;
+
+        int half = mTapCount / 2;
+        mCenterCoefficient = coefficients[half];
+        mCenterOffset = half * stride;
+
+        //Detect a half-band filter where the coefficients at even distances from the center are zero-valued
+        boolean halfBand = half > 1;
+
+        for(int x = half - 2; x >= 0; x -= 2)
+        {
+            if(Math.abs(coefficients[x]) > ZERO_COEFFICIENT_THRESHOLD)
+            {
+                halfBand = false;
+            }
+        }
+
+        int first = halfBand ? (half % 2 == 0 ? 1 : 0) : 0;
+        int spacing = halfBand ? 2 : 1;
+
+        //Coefficients are indexed by sample offset so that the filter loop uses a single index for the coefficients
+        //and the samples.
+        mCoefficients = new float[mCenterOffset];
+        mTapMultiplies = 1;
+
+        for(int x = first; x < half; x += spacing)
+        {
+            mCoefficients[x * stride] = coefficients[x];
+            mTapMultiplies++;
+        }
+
+        mFirstOffset = first * stride;
+        mLastOffset = mHistoryLength;
+        mHalfBand = halfBand;
+    }
+
+    /**
+     * Decimation factor for this stage
+     */
+    public int getFactor()
+    {
+        return mFactor;
+    }
+
+    /**
+     * Number of filter taps for this stage
+     */
+    public int getTapCount()
+    {
+        return mTapCount;
+    }
+
+    /**
+     * Number of multiplies performed per output sample (per rail)
+     */
+    public int getMultipliesPerOutput()
+    {
+        return mTapMultiplies;
+    }
+
+    /**
+     * Filters and decimates the samples.
+     *
+     * @param input samples
+     * @param inputOffset to the first sample to process
+     * @param length of the samples to process - must be an integer multiple of the factor times the stride
+     * @param output array to receive the decimated samples
+     * @param outputOffset to the first output position
+     * @return number of array elements written to the output array
+     */
+    public int process(float[] input, int inputOffset, int length, float[] output, int outputOffset)
+    {
+        if(mBuffer.length < mHistoryLength + length)
+        {
+            float[] buffer = new float[mHistoryLength + length];
+
+            if(mBuffer.length >= mHistoryLength)
+            {
+                System.arraycopy(mBuffer, 0, buffer, 0, mHistoryLength);
+            }
+
+            mBuffer = buffer;
+        }
+
+        //The history (filter length - 1 samples) precedes the new samples
+        System.arraycopy(input, inputOffset, mBuffer, mHistoryLength, length);
+
+        int written;
+
+        if(mStride == 2)
+        {
+            written = mHalfBand ? filterComplexHalfBand(length, output, outputOffset) :
+                filterComplex(length, output, outputOffset);
+        }
+        else
+        {
+            written = mHalfBand ? filterRealHalfBand(length, output, outputOffset) :
+                filterReal(length, output, outputOffset);
+        }
+
+        //Move the most recent samples to the beginning of the buffer as history for the next invocation
+        System.arraycopy(mBuffer, length, mBuffer, 0, mHistoryLength);
+
+        return written;
+    }
+
+    /*
+     * The filter methods below are specialized by sample stride and half-band structure so that each inner loop
+     * uses a constant index increment, allowing the compiler to unroll the loop and eliminate array bounds checks.
+     * Coefficients are indexed by sample offset and mirrored samples are added before the multiply.
+     */
+
+    /**
+     * Filters interleaved complex samples with a half-band filter, skipping the zero-valued coefficients.
+     */
+    private int filterComplexHalfBand(int length, float[] output, int pointer)
+    {
+        float[] buffer = mBuffer;
+        float[] coefficients = mCoefficients;
+        int step = mFactor * 2;
+        int start = pointer;
+        float iAccumulator, qAccumulator, coefficient;
+        int mirror;
+
+        for(int offset = 0; offset < length; offset += step)
+        {
+            iAccumulator = buffer[offset + mCenterOffset] * mCenterCoefficient;
+            qAccumulator = buffer[offset + mCenterOffset + 1] * mCenterCoefficient;
+            mirror = offset + mLastOffset;
+
+            for(int tap = mFirstOffset; tap < coefficients.length; tap += 4)
+            {
+                coefficient = coefficients[tap];
+                iAccumulator += coefficient * (buffer[offset + tap] + buffer[mirror - tap]);
+                qAccumulator += coefficient * (buffer[offset + tap + 1] + buffer[mirror - tap + 1]);
+            }
+
+            output[pointer++] = iAccumulator;
+            output[pointer++] = qAccumulator;
+        }
+
+        return pointer - start;
+    }
+
+    /**
+     * Filters interleaved complex samples.
+     */
+    private int filterComplex(int length, float[] output, int pointer)
+    {
+        float[] buffer = mBuffer;
+        float[] coefficients = mCoefficients;
+        int step = mFactor * 2;
+        int start = pointer;
+        float iAccumulator, qAccumulator, coefficient;
+        int mirror;
+
+        for(int offset = 0; offset < length; offset += step)
+        {
+            iAccumulator = buffer[offset + mCenterOffset] * mCenterCoefficient;
+            qAccumulator = buffer[offset + mCenterOffset + 1] * mCenterCoefficient;
+            mirror = offset + mLastOffset;
+
+            for(int tap = 0; tap < coefficients.length; tap += 2)
+            {
+                coefficient = coefficients[tap];
+                iAccumulator += coefficient * (buffer[offset + tap] + buffer[mirror - tap]);
+                qAccumulator += coefficient * (buffer[offset + tap + 1] + buffer[mirror - tap + 1]);
+            }
+
+            output[pointer++] = iAccumulator;
+            output[pointer++] = qAccumulator;
+        }
+
+        return pointer - start;
+    }
+
+    /**
+     * Filters real samples with a half-band filter, skipping the zero-valued coefficients.
+     */
+    private int filterRealHalfBand(int length, float[] output, int pointer)
+    {
+        float[] buffer = mBuffer;
+        float[] coefficients = mCoefficients;
+        int start = pointer;
+        float accumulator;
+        int mirror;
+
+        for(int offset = 0; offset < length; offset += mFactor)
+        {
+            accumulator = buffer[offset + mCenterOffset] * mCenterCoefficient;
+            mirror = offset + mLastOffset;
+
+            for(int tap = mFirstOffset; tap < coefficients.length; tap += 2)
+            {
+                accumulator += coefficients[tap] * (buffer[offset + tap] + buffer[mirror - tap]);
+            }
+
+            output[pointer++] = accumulator;
+        }
+
+        return pointer - start;
+    }
+
+    /**
+     * Filters real samples.
+     */
+    private int filterReal(int length, float[] output, int pointer)
+    {
+        float[] buffer = mBuffer;
+        float[] coefficients = mCoefficients;
+        int start = pointer;
+        float accumulator;
+        int mirror;
+
+        for(int offset = 0; offset < length; offset += mFactor)
+        {
+            accumulator = buffer[offset + mCenterOffset] * mCenterCoefficient;
+            mirror = offset + mLastOffset;
+
+            for(int tap = 0; tap < coefficients.length; tap++)
+            {
+                accumulator += coefficients[tap] * (buffer[offset + tap] + buffer[mirror - tap]);
+            }
+
+            output[pointer++] = accumulator;
+        }
+
+        return pointer - start;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.decimate;
+
+import java.util.Arrays;
+
+/**
+ * Multistage polyphase decimation filter.  Input samples are processed in cache-sized chunks that are carried
+ * through every decimation stage before the next chunk is loaded, so the stages operate as one fused pass over the
+ * sample buffer without allocating intermediate arrays.  Each stage only computes its retained outputs.
+ *
+ * Use the DecimationFilterFactory to plan the stage factors and design the stage filters.
+ */
+public abstract class MultistageDecimationFilter
+{
+    private static final int CHUNK_SAMPLES = 1024;
+    private DecimationStage[] mStages;
+    private float[][] mIntermediateBuffers;
+    private int mDecimationRate = 1;
+    private int mStride;
+    private int mChunkLength;
+
+    /**
+     * Constructs an instance
+     * @param stages in processing order
+     * @param stride of the samples: 1 for real samples or 2 for interleaved complex samples
+     */
+    public MultistageDecimationFilter(DecimationStage[] stages, int stride)
+    {
+        mStages = stages;
+        mStride = stride;
+
+        for(DecimationStage stage : stages)
+        {
+            mDecimationRate *= stage.getFactor();
+        }
+
+        int chunkSamples = Math.max(CHUNK_SAMPLES, mDecimationRate);
+        chunkSamples -= chunkSamples % mDecimationRate;
+        mChunkLength = chunkSamples * stride;
+
+        mIntermediateBuffers = new float[stages.length][];
+
+        int length = mChunkLength;
+
+        for(int x = 0; x < stages.length; x++)
+        {
+            length /= stages[x].getFactor();
+            mIntermediateBuffers[x] = new float[length];
+        }
+    }
+
+    /**
+     * Overall decimation rate for all stages
+     */
+    public int getDecimationRate()
+    {
+        return mDecimationRate;
+    }
+
+    /**
+     * Decimation stages in processing order
+     */
+    public DecimationStage[] getStages()
+    {
+        return mStages;
+    }
+
+    /**
+     * Total multiplies per (final) output sample across all stages, per rail.
+     */
+    public int getMultipliesPerOutput()
+    {
+        int multiplies = 0;
+        int rate = mDecimationRate;
+
+        for(DecimationStage stage : mStages)
+        {
+            rate /= stage.getFactor();
+            multiplies += stage.getMultipliesPerOutput() * rate;
+        }
+
+        return multiplies;
+    }
+
+    /**
+     * Decimates the samples into the output array
+     * @param samples to decimate with a length that is an integer multiple of the decimation rate times the stride
+     * @param output array with a length of at least samples.length / decimation rate
+     */
+    protected void decimate(float[] samples, float[] output)
+    {
+        decimate(samples, samples.length, output);
+    }
+
+    /**
+     * Decimates the first length samples of the array into the output array
+     * @param samples to decimate
+     * @param length of samples to decimate, an integer multiple of the decimation rate times the stride
+     * @param output array with a length of at least length / decimation rate
+     */
+    protected void decimate(float[] samples, int length, float[] output)
+    {
+        if(length % (mDecimationRate * mStride) != 0)
+        {
+            throw new IllegalArgumentException("Sample buffer length [" + length +
+                "] must be an integer multiple of " + (mDecimationRate * mStride));
+        }
+
+        int outputOffset = 0;
+        int last = mStages.length - 1;
+
+        for(int offset = 0; offset < length; offset += mChunkLength)
+        {
+            float[] input = samples;
+            int inputOffset = offset;
+            int chunkLength = Math.min(mChunkLength, length - offset);
+
+            for(int x = 0; x <= last; x++)
+            {
+                if(x == last)
+                {
+                    chunkLength = mStages[x].process(input, inputOffset, chunkLength, output, outputOffset);
+                }
+                else
+                {
+                    chunkLength = mStages[x].process(input, inputOffset, chunkLength, mIntermediateBuffers[x], 0);
+                    input = mIntermediateBuffers[x];
+                    inputOffset = 0;
+                }
+            }
+
+            outputOffset += chunkLength;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        int[] factors = new int[mStages.length];
+        int[] taps = new int[mStages.length];
+
+        for(int x = 0; x < mStages.length; x++)
+        {
+            factors[x] = mStages[x].getFactor();
+            taps[x] = mStages[x].getTapCount();
+        }
+
+        return "Decimation [" + mDecimationRate + "] Stage Factors " + Arrays.toString(factors) + " Taps " +
+            Arrays.toString(taps) + " Multiplies/Output [" + getMultipliesPerOutput() + "]";
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.decimate;
+
+/**
+ * Multistage polyphase decimation filter for real sample buffers.
+ */
+public class RealMultistageDecimationFilter extends MultistageDecimationFilter implements IRealDecimationFilter
+{
+    /**
+     * Constructs an instance
+     * @param stages in processing order, each constructed with a stride of 1
+     */
+    public RealMultistageDecimationFilter(DecimationStage[] stages)
+    {
+        super(stages, 1);
+    }
+
+    @Override
+    public float[] decimateReal(float[] samples)
+    {
+        float[] decimated = new float[samples.length / getDecimationRate()];
+        decimate(samples, decimated);
+        return decimated;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.design;
+
+import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
+import io.github.dsheirer.dsp.filter.fir.remez.RemezFIRFilterDesigner;
+import io.github.dsheirer.properties.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.DecimalFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global, thread-safe cache of Remez FIR filter designs keyed by the complete filter specification.
+ *
+ * Remez filter design is computationally expensive and decoders and channel sources request the same handful of
+ * filter designs each time a channel is started.  This cache ensures that each unique filter specification is only
+ * designed once per application run.  When persistence is enabled (default), the cached designs are saved to disk at
+ * shutdown and reloaded at startup, so that channel starts skip filter design entirely across application runs.
+ *
+ * Note: cached filter tap arrays are shared across all requesters and must be treated as read-only.
+ */
+public class FilterDesignCache
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FilterDesignCache.class);
+
+    public static final String PROPERTY_PERSISTENCE_ENABLED = "filter.design.cache.persist";
+    private static final String CACHE_FOLDER = "cache";
+    private static final String CACHE_FILE = "filter_design_cache.bin";
+
+    //Increment the version whenever filter design algorithms change to discard previously persisted designs
+    private static final int CACHE_FILE_VERSION = 1;
+
+    private static final Map<String,float[]> sFilterMap = new ConcurrentHashMap<>();
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+    private static final AtomicLong sDesignTimeNanos = new AtomicLong();
+    private static final AtomicLong sLoadedCount = new AtomicLong();
+
+    /**
+     * Returns the filter taps for the specification, designing and caching the filter if it has not previously been
+     * designed.
+     *
+     * @param specification for the filter
+     * @return filter taps (read-only) or null if the Remez designer could not produce a valid filter
+     * @throws FilterDesignException if there is an error while designing the filter
+     */
+    public static float[] getTaps(FIRFilterSpecification specification) throws FilterDesignException
+    {
+        String key = specification.getDesignKey();
+
+        float[] taps = sFilterMap.get(key);
+
+        if(taps != null)
+        {
+            sHitCount.incrementAndGet();
+            return taps;
+        }
+
+        sMissCount.incrementAndGet();
+
+        long start = System.nanoTime();
+        RemezFIRFilterDesigner designer = new RemezFIRFilterDesigner(specification);
+        taps = designer.isValid() ? designer.getImpulseResponse() : null;
+        sDesignTimeNanos.addAndGet(System.nanoTime() - start);
+
+        if(taps != null)
+        {
+            //If another thread designed the same filter concurrently, use the first filter that was cached
+            float[] existing = sFilterMap.putIfAbsent(key, taps);
+
+            if(existing != null)
+            {
+                return existing;
+            }
+        }
+
+        return taps;
+    }
+
+    /**
+     * Number of filter designs currently cached
+     */
+    public static int size()
+    {
+        return sFilterMap.size();
+    }
+
+    /**
+     * Removes all cached filter designs.
+     */
+    public static void clear()
+    {
+        sFilterMap.clear();
+    }
+
+    /**
+     * Indicates if the cached designs should be persisted to disk between application runs.
+     */
+    public static boolean isPersistenceEnabled()
+    {
+        return SystemProperties.getInstance().get(PROPERTY_PERSISTENCE_ENABLED, true);
+    }
+
+    /**
+     * Path to the persisted cache file
+     */
+    private static Path getCachePath()
+    {
+        return SystemProperties.getInstance().getApplicationFolder(CACHE_FOLDER).resolve(CACHE_FILE);
+    }
+
+    /**
+     * Loads persisted filter designs from disk into the cache, when persistence is enabled.  Corrupt or out of date
+     * cache files are ignored.
+     */
+    public static void load()
+    {
+        if(!isPersistenceEnabled())
+        {
+            return;
+        }
+
+        Path path = getCachePath();
+
+        if(!Files.exists(path))
+        {
+            return;
+        }
+
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+        {
+            if(input.readInt() != CACHE_FILE_VERSION)
+            {
+                mLog.info("Ignoring filter design cache file with an outdated version");
+                return;
+            }
+
+            int count = input.readInt();
+
+            for(int x = 0; x < count; x++)
+            {
+                String key = input.readUTF();
+                float[] taps = new float[input.readInt()];
+
+                for(int y = 0; y < taps.length; y++)
+                {
+                    taps[y] = input.readFloat();
+                }
+
+                if(sFilterMap.putIfAbsent(key, taps) == null)
+                {
+                    sLoadedCount.incrementAndGet();
+                }
+            }
+
+            mLog.info("Loaded [" + count + "] filter designs from the filter design cache");
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error loading filter design cache file [" + path + "] - ignoring cache file", e);
+        }
+    }
+
+    /**
+     * Saves the cached filter designs to disk, when persistence is enabled.
+     */
+    public static void save()
+    {
+        if(!isPersistenceEnabled() || sFilterMap.isEmpty())
+        {
+            return;
+        }
+
+        Path path = getCachePath();
+        Path temporary = path.resolveSibling(CACHE_FILE + ".tmp");
+
+        //Take a snapshot so that the entry count matches the entries written
+        Map<String,float[]> snapshot = Map.copyOf(sFilterMap);
+
+        try
+        {
+            try(DataOutputStream output =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+            {
+                output.writeInt(CACHE_FILE_VERSION);
+                output.writeInt(snapshot.size());
+
+                for(Map.Entry<String,float[]> entry: snapshot.entrySet())
+                {
+                    output.writeUTF(entry.getKey());
+                    output.writeInt(entry.getValue().length);
+
+                    for(float tap: entry.getValue())
+                    {
+                        output.writeFloat(tap);
+                    }
+                }
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error saving filter design cache file [" + path + "]", ioe);
+        }
+    }
+
+    /**
+     * Cache statistics summary
+     */
+    public static String getStatistics()
+    {
+        DecimalFormat df = new DecimalFormat("0.0");
+        return "Filter Design Cache - designs [" + size() + "] loaded from disk [" + sLoadedCount.get() + "] hits [" +
+            sHitCount.get() + "] misses [" + sMissCount.get() + "] design time [" +
+            df.format(sDesignTimeNanos.get() / 1E6) + " ms]";
+    }
+
+    /**
+     * Logs the cache statistics
+     */
+    public static void logStatistics()
+    {
+        mLog.info(getStatistics());
+    }
+}
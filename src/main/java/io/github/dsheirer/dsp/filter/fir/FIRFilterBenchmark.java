@@ -0,0 +1,244 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.fir;
+
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
+import io.github.dsheirer.dsp.filter.fir.real.RealFIRFilter2;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
+
+import java.text.DecimalFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark for the real and complex FIR filters using the filter designs that are used by the decoders, the audio
+ * module and the polyphase channel sources.  Compares the legacy shifting delay line filter against the single
+ * sample, scalar block and vector block filter methods and verifies that each produces identical output.
+ *
+ * Run with: --add-modules=jdk.incubator.vector
+ */
+public class FIRFilterBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.000");
+    private static final int BUFFER_LENGTH = 4096;
+    private static final int ITERATIONS = 2000;
+
+    /**
+     * Designs the filters that are used at runtime
+     */
+    private static Map<String,float[]> getFilters() throws FilterDesignException
+    {
+        Map<String,float[]> filters = new LinkedHashMap<>();
+
+        filters.put("Audio High Pass 8 kHz", FilterFactory.getTaps(FIRFilterSpecification.highPassBuilder()
+            .sampleRate(8000).stopBandCutoff(200).stopBandAmplitude(0.0).stopBandRipple(0.025)
+            .passBandStart(300).passBandAmplitude(1.0).passBandRipple(0.01).build()));
+
+        filters.put("P25 C4FM Baseband 50 kHz", FilterFactory.getTaps(FIRFilterSpecification.lowPassBuilder()
+            .sampleRate(50000).passBandCutoff(5100).passBandAmplitude(1.0).passBandRipple(0.01)
+            .stopBandAmplitude(0.0).stopBandStart(6500).stopBandRipple(0.01).build()));
+
+        filters.put("P25 Phase 1 Channel 50 kHz", getChannelFilter(50000, 5750, 6500));
+        filters.put("P25 Phase 2/DMR Channel 50 kHz", getChannelFilter(50000, 6500, 7200));
+        filters.put("NBFM Channel 25 kHz", getChannelFilter(25000, 6000, 7000));
+
+        filters.put("FM Demodulator 50 kHz", FilterFactory.getTaps(FIRFilterSpecification.lowPassBuilder()
+            .sampleRate(50000).gridDensity(16).oddLength(true).passBandCutoff(12000).passBandAmplitude(1.0)
+            .passBandRipple(0.01).stopBandStart(13000).stopBandAmplitude(0.0).stopBandRipple(0.028).build()));
+
+        return filters;
+    }
+
+    /**
+     * Designs a polyphase channel source low pass filter
+     */
+    private static float[] getChannelFilter(double sampleRate, double pass, double stop) throws FilterDesignException
+    {
+        return FilterFactory.getTaps(FIRFilterSpecification.lowPassBuilder().sampleRate(sampleRate).gridDensity(16)
+            .passBandCutoff(pass).passBandAmplitude(1.0).passBandRipple(0.01).stopBandStart(stop)
+            .stopBandAmplitude(0.0).stopBandRipple(0.01).build());
+    }
+
+    /**
+     * Legacy filter implementation that shifts the delay line for each sample, used as the reference.
+     */
+    private static void legacyFilter(float[] coefficients, float[] data, float[] input, float[] output)
+    {
+        for(int x = 0; x < input.length; x++)
+        {
+            System.arraycopy(data, 0, data, 1, data.length - 1);
+            data[0] = input[x];
+
+            float accumulator = 0.0f;
+
+            for(int tap = 0; tap < coefficients.length; tap++)
+            {
+                accumulator = Math.fma(data[tap], coefficients[tap], accumulator);
+            }
+
+            output[x] = accumulator;
+        }
+    }
+
+    private static String format(long elapsed)
+    {
+        return DECIMAL_FORMAT.format(elapsed / (double)ITERATIONS / 1000.0);
+    }
+
+    public static void main(String[] args) throws FilterDesignException
+    {
+        Random random = new Random(1234);
+        float[] samples = new float[BUFFER_LENGTH];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        boolean vector = VectorUtilities.isVectorApiAvailable();
+
+        if(!vector)
+        {
+            System.out.println("Vector API is not available - vector results will use the scalar kernel");
+        }
+
+        for(Map.Entry<String,float[]> entry : getFilters().entrySet())
+        {
+            float[] coefficients = entry.getValue();
+            float[] reference = new float[BUFFER_LENGTH];
+            float[] output = new float[BUFFER_LENGTH];
+
+            //Equivalence check over several consecutive buffers to exercise the delay line hand-off
+            float[] legacyData = new float[coefficients.length];
+            RealFIRFilter2 single = new RealFIRFilter2(coefficients);
+            RealFIRFilter2 scalarBlock = new RealFIRFilter2(coefficients);
+            scalarBlock.setImplementation(Implementation.SCALAR);
+            RealFIRFilter2 vectorBlock = new RealFIRFilter2(coefficients);
+            vectorBlock.setImplementation(Implementation.VECTOR);
+            ComplexFIRFilter2 complexBlock = new ComplexFIRFilter2(coefficients);
+            float[] complexOutput = new float[BUFFER_LENGTH];
+            long mismatches = 0;
+
+            for(int buffer = 0; buffer < 4; buffer++)
+            {
+                legacyFilter(coefficients, legacyData, samples, reference);
+
+                for(int x = 0; x < BUFFER_LENGTH; x++)
+                {
+                    mismatches += Float.compare(reference[x], single.filter(samples[x])) != 0 ? 1 : 0;
+                }
+
+                scalarBlock.filter(samples, output, BUFFER_LENGTH);
+                mismatches += countMismatches(reference, output, 0, 1);
+                vectorBlock.filter(samples, output, BUFFER_LENGTH);
+                mismatches += countMismatches(reference, output, 0, 1);
+            }
+
+            //Treat the samples as interleaved I/Q and compare the complex block filter to the single sample methods
+
+            ComplexFIRFilter2 complexSingle = new ComplexFIRFilter2(coefficients);
+            ComplexFIRFilter2 complexCheck = new ComplexFIRFilter2(coefficients);
+            float[] complexReference = new float[BUFFER_LENGTH];
+
+            for(int x = 0; x < BUFFER_LENGTH; x += 2)
+            {
+                complexReference[x] = complexSingle.filterInphase(samples[x]);
+                complexReference[x + 1] = complexSingle.filterQuadrature(samples[x + 1]);
+            }
+
+            complexCheck.filter(samples, complexOutput, BUFFER_LENGTH);
+            mismatches += countMismatches(complexReference, complexOutput, 0, 1);
+
+            long start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                legacyFilter(coefficients, legacyData, samples, reference);
+            }
+
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                for(int y = 0; y < BUFFER_LENGTH; y++)
+                {
+                    output[y] = single.filter(samples[y]);
+                }
+            }
+
+            long singleElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                scalarBlock.filter(samples, output, BUFFER_LENGTH);
+            }
+
+            long scalarElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                vectorBlock.filter(samples, output, BUFFER_LENGTH);
+            }
+
+            long vectorElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                complexBlock.filter(samples, complexOutput, BUFFER_LENGTH);
+            }
+
+            long complexElapsed = System.nanoTime() - start;
+
+            System.out.println(entry.getKey() + " [" + coefficients.length + " taps] us/buffer - Legacy: " +
+                format(legacy) + " Single: " + format(singleElapsed) + " Block Scalar: " + format(scalarElapsed) +
+                " Block Vector: " + format(vectorElapsed) + " Complex Block (" + (BUFFER_LENGTH / 2) +
+                " I/Q): " + format(complexElapsed) + " Mismatches: " + mismatches);
+        }
+    }
+
+    /**
+     * Counts the number of values that are not identical between the two arrays
+     */
+    private static long countMismatches(float[] a, float[] b, int offset, int step)
+    {
+        long mismatches = 0;
+
+        for(int x = offset; x < a.length; x += step)
+        {
+            if(Float.compare(a[x], b[x]) != 0)
+            {
+                mismatches++;
+            }
+        }
+
+        return mismatches;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.fir;
+
+import io.github.dsheirer.vector.Implementation;
+
+/**
+ * Block convolution kernel shared by the real and complex FIR filters.
+ *
+ * Samples are provided in time order with the filter history (tapCount - 1 samples per rail) preceding the block of
+ * new samples.  Each output value is accumulated in tap order using fused multiply-add so that the block kernel, the
+ * vector kernel and the single-sample filter methods all produce identical results.
+ *
+ * Interleaved complex samples are supported with a stride of 2, where the inphase and quadrature rails are filtered
+ * independently by the same taps.
+ */
+public class FIRFilterKernel
+{
+    /**
+     * Filters a block of samples.
+     *
+     * @param implementation to use - VECTOR must only be requested when the Vector API is available.
+     * @param samples in time order: (tapCount - 1) * stride history samples followed by the new samples.
+     * @param coefficients filter taps in normal order.
+     * @param stride between consecutive samples of a rail: 1 for real samples or 2 for interleaved complex samples.
+     * @param gain to apply to each filtered value.
+     * @param output array to receive the filtered values.
+     * @param length number of filtered values to produce (new sample count times stride).
+     */
+    public static void filter(Implementation implementation, float[] samples, float[] coefficients, int stride,
+                              float gain, float[] output, int length)
+    {
+        if(implementation == Implementation.VECTOR)
+        {
+            VectorFIRFilterKernel.filter(samples, coefficients, stride, gain, output, length);
+        }
+        else
+        {
+            filter(samples, coefficients, stride, gain, output, 0, length);
+        }
+    }
+
+    /**
+     * Scalar implementation of the block filter.
+     *
+     * @param samples in time order: (tapCount - 1) * stride history samples followed by the new samples.
+     * @param coefficients filter taps in normal order.
+     * @param stride between consecutive samples of a rail.
+     * @param gain to apply to each filtered value.
+     * @param output array to receive the filtered values.
+     * @param start index of the first filtered value to produce.
+     * @param end index (exclusive) of the last filtered value to produce.
+     */
+    public static void filter(float[] samples, float[] coefficients, int stride, float gain, float[] output,
+                              int start, int end)
+    {
+        int base = (coefficients.length - 1) * stride;
+        float accumulator;
+
+        for(int x = start; x < end; x++)
+        {
+            accumulator = 0.0f;
+
+            for(int tap = 0, index = base + x; tap < coefficients.length; tap++, index -= stride)
+            {
+                accumulator = Math.fma(samples[index], coefficients[tap], accumulator);
+            }
+
+            output[x] = accumulator * gain;
+        }
+    }
+}
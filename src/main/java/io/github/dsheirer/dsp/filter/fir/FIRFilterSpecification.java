@@ -61,6 +61,26 @@ public class FIRFilterSpecification
         return sb.toString();
     }
 
+    /**
+     * Creates a key that uniquely identifies this filter specification, including the filter type, order, grid
+     * density and every frequency band parameter, for use with filter design caches.  Floating point values are
+     * represented exactly so that specifications that differ only slightly produce different keys.
+     */
+    public String getDesignKey()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mRemezFilterType.name()).append("|").append(mOrder).append("|").append(mGridDensity);
+
+        for(FrequencyBand band : mFrequencyBands)
+        {
+            sb.append("|").append(band.getStart()).append(",").append(band.getEnd());
+            sb.append(",").append(band.getAmplitude()).append(",").append(band.getRippleDB());
+            sb.append(",").append(band.mWeight);
+        }
+
+        return sb.toString();
+    }
+
     public void addFrequencyBand(FrequencyBand band)
     {
         mFrequencyBands.add(band);
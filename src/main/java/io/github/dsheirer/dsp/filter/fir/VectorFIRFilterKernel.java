@@ -0,0 +1,68 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.fir;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * JDK Vector API (SIMD) implementation of the FIR filter block kernel.
+ *
+ * Each vector lane produces a different output value, so the products for each output are accumulated in the same
+ * tap order and with the same fused multiply-add rounding as the scalar kernel, producing identical results.
+ *
+ * Note: do not reference this class unless VectorUtilities.isVectorApiAvailable() returns true.
+ */
+public class VectorFIRFilterKernel
+{
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * Filters a block of samples.
+     *
+     * @param samples in time order: (tapCount - 1) * stride history samples followed by the new samples.
+     * @param coefficients filter taps in normal order.
+     * @param stride between consecutive samples of a rail: 1 for real samples or 2 for interleaved complex samples.
+     * @param gain to apply to each filtered value.
+     * @param output array to receive the filtered values.
+     * @param length number of filtered values to produce (new sample count times stride).
+     */
+    public static void filter(float[] samples, float[] coefficients, int stride, float gain, float[] output, int length)
+    {
+        int base = (coefficients.length - 1) * stride;
+        int bound = SPECIES.loopBound(length);
+        int x = 0;
+
+        for(; x < bound; x += SPECIES.length())
+        {
+            FloatVector accumulator = FloatVector.zero(SPECIES);
+
+            for(int tap = 0, index = base + x; tap < coefficients.length; tap++, index -= stride)
+            {
+                accumulator = FloatVector.fromArray(SPECIES, samples, index)
+                    .fma(FloatVector.broadcast(SPECIES, coefficients[tap]), accumulator);
+            }
+
+            accumulator.mul(gain).intoArray(output, x);
+        }
+
+        //Scalar processing for any outputs that don't fill a complete vector
+        FIRFilterKernel.filter(samples, coefficients, stride, gain, output, x, length);
+    }
+}
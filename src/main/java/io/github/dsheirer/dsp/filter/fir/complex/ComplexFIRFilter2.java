@@ -16,33 +16,50 @@
 package io.github.dsheirer.dsp.filter.fir.complex;
 
 import io.github.dsheirer.dsp.filter.fir.FIRFilter;
-import io.github.dsheirer.dsp.filter.fir.real.RealFIRFilter2;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterKernel;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
 import io.github.dsheirer.sample.complex.Complex;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 
+/**
+ * Complex FIR filter for filtering complex samples or interleaved complex sample buffers.
+ *
+ * Single samples are filtered using a doubled (mirrored) delay line for each of the inphase and quadrature rails.
+ * Complex sample buffers are filtered as a block in a single pass over the interleaved samples, using the JDK Vector
+ * API (SIMD) kernel when it is available.  Both methods produce identical results.
+ */
 public class ComplexFIRFilter2 extends FIRFilter
 {
     private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("Complex FIR Filter");
-    private RealFIRFilter2 mIFilter;
-    private RealFIRFilter2 mQFilter;
+    private float[] mCoefficients;
+    private float mGain;
+    private float[] mInphaseDelayLine;
+    private float[] mQuadratureDelayLine;
+    private int mInphasePointer;
+    private int mQuadraturePointer;
+    private float mInphaseValue;
+    private float mQuadratureValue;
+    private float[] mBlockSamples = new float[0];
+    private Implementation mImplementation = VectorUtilities.getPreferredImplementation();
 
     /**
-     * Complex FIR Filter for processing complex sample pairs that internally uses two RealFIRFilter
-     * instances.
+     * Complex FIR Filter for processing complex sample pairs.
      *
      * @param coefficients - filter taps
      * @param gain - gain to apply to filtered outputs - use 1.0f for no gain
      */
     public ComplexFIRFilter2(float[] coefficients, float gain)
     {
-        mIFilter = new RealFIRFilter2(coefficients, gain);
-        mQFilter = new RealFIRFilter2(coefficients, gain);
+        mCoefficients = coefficients;
+        mGain = gain;
+        mInphaseDelayLine = new float[coefficients.length * 2];
+        mQuadratureDelayLine = new float[coefficients.length * 2];
     }
 
     /**
-     * Complex FIR Filter for processing complex sample pairs that internally uses two RealFIRFilter
-     * instances.  This constructor uses a default gain of 1.0f.
+     * Complex FIR Filter for processing complex sample pairs.  This constructor uses a default gain of 1.0f.
      *
      * @param coefficients - filter taps
      */
@@ -51,6 +68,15 @@ public class ComplexFIRFilter2 extends FIRFilter
         this(coefficients, 1.0f);
     }
 
+    /**
+     * Sets the implementation to use for filtering complex sample buffers.
+     * @param implementation to use.  VECTOR reverts to SCALAR when the Vector API is not available.
+     */
+    public void setImplementation(Implementation implementation)
+    {
+        mImplementation = VectorUtilities.resolve(implementation);
+    }
+
     /**
      * Filters the inphase sample value.
      * @param sample to filter
@@ -58,7 +84,9 @@ public class ComplexFIRFilter2 extends FIRFilter
      */
     public float filterInphase(float sample)
     {
-        return mIFilter.filter(sample);
+        mInphasePointer = load(mInphaseDelayLine, mInphasePointer, sample);
+        mInphaseValue = convolve(mInphaseDelayLine, mInphasePointer);
+        return mInphaseValue;
     }
 
     /**
@@ -66,7 +94,7 @@ public class ComplexFIRFilter2 extends FIRFilter
      */
     public float currentInphaseValue()
     {
-        return mIFilter.currentValue();
+        return mInphaseValue;
     }
 
     /**
@@ -76,7 +104,9 @@ public class ComplexFIRFilter2 extends FIRFilter
      */
     public float filterQuadrature(float sample)
     {
-        return mQFilter.filter(sample);
+        mQuadraturePointer = load(mQuadratureDelayLine, mQuadraturePointer, sample);
+        mQuadratureValue = convolve(mQuadratureDelayLine, mQuadraturePointer);
+        return mQuadratureValue;
     }
 
     /**
@@ -84,7 +114,35 @@ public class ComplexFIRFilter2 extends FIRFilter
      */
     public float currentQuadratureValue()
     {
-        return mQFilter.currentValue();
+        return mQuadratureValue;
+    }
+
+    /**
+     * Stores the sample in both halves of the doubled delay line
+     * @return updated delay line pointer to the newest sample
+     */
+    private int load(float[] delayLine, int pointer, float sample)
+    {
+        int tapCount = mCoefficients.length;
+        pointer = (pointer == 0 ? tapCount : pointer) - 1;
+        delayLine[pointer] = sample;
+        delayLine[pointer + tapCount] = sample;
+        return pointer;
+    }
+
+    /**
+     * Convolves the filter coefficients with the delay line window starting at the pointer
+     */
+    private float convolve(float[] delayLine, int pointer)
+    {
+        float accumulator = 0.0f;
+
+        for(int x = 0; x < mCoefficients.length; x++)
+        {
+            accumulator = Math.fma(delayLine[pointer + x], mCoefficients[x], accumulator);
+        }
+
+        return accumulator * mGain;
     }
 
     /**
@@ -100,6 +158,57 @@ public class ComplexFIRFilter2 extends FIRFilter
         return new Complex(i, q);
     }
 
+    /**
+     * Filters a block of interleaved complex samples in a single pass.  The input and output arrays can be the same
+     * array to filter in place.
+     *
+     * @param input interleaved complex samples to filter
+     * @param output array to receive the interleaved filtered samples
+     * @param length number of array elements to filter (twice the complex sample count)
+     */
+    public void filter(float[] input, float[] output, int length)
+    {
+        if(length < 2)
+        {
+            return;
+        }
+
+        int tapCount = mCoefficients.length;
+        int historyLength = (tapCount - 1) * 2;
+
+        if(mBlockSamples.length < historyLength + length)
+        {
+            mBlockSamples = new float[historyLength + length];
+        }
+
+        //Interleave the history for each rail in time order (oldest first) ahead of the new samples
+        for(int x = 1; x < tapCount; x++)
+        {
+            mBlockSamples[historyLength - 2 * x] = mInphaseDelayLine[mInphasePointer + x - 1];
+            mBlockSamples[historyLength - 2 * x + 1] = mQuadratureDelayLine[mQuadraturePointer + x - 1];
+        }
+
+        System.arraycopy(input, 0, mBlockSamples, historyLength, length);
+
+        FIRFilterKernel.filter(mImplementation, mBlockSamples, mCoefficients, 2, mGain, output, length);
+
+        //Reload the delay lines with the most recent samples, newest first
+        int newest = historyLength + length - 2;
+
+        for(int x = 0; x < tapCount; x++)
+        {
+            mInphaseDelayLine[x] = mBlockSamples[newest - 2 * x];
+            mInphaseDelayLine[x + tapCount] = mBlockSamples[newest - 2 * x];
+            mQuadratureDelayLine[x] = mBlockSamples[newest - 2 * x + 1];
+            mQuadratureDelayLine[x + tapCount] = mBlockSamples[newest - 2 * x + 1];
+        }
+
+        mInphasePointer = 0;
+        mQuadraturePointer = 0;
+        mInphaseValue = output[length - 2];
+        mQuadratureValue = output[length - 1];
+    }
+
     /**
      * Filters the complex samples from the reusable buffer and returns a new complex buffer with the filtered output
      *
@@ -111,17 +220,12 @@ public class ComplexFIRFilter2 extends FIRFilter
      */
     public ReusableComplexBuffer filter(ReusableComplexBuffer originalBuffer)
     {
-        ReusableComplexBuffer filteredBuffer = mReusableComplexBufferQueue.getBuffer(originalBuffer.getSamples().length);
-        filteredBuffer.setTimestamp(originalBuffer.getTimestamp());
-
         float[] samples = originalBuffer.getSamples();
-        float[] filteredSamples = filteredBuffer.getSamples();
 
-        for(int x = 0; x < originalBuffer.getSamples().length; x += 2)
-        {
-            filteredSamples[x] = filterInphase(samples[x]);
-            filteredSamples[x + 1] = filterQuadrature(samples[x + 1]);
-        }
+        ReusableComplexBuffer filteredBuffer = mReusableComplexBufferQueue.getBuffer(originalBuffer.getLength());
+        filteredBuffer.setTimestamp(originalBuffer.getTimestamp());
+
+        filter(samples, filteredBuffer.getSamples(), originalBuffer.getLength());
 
         originalBuffer.decrementUserCount();
 
@@ -131,8 +235,10 @@ public class ComplexFIRFilter2 extends FIRFilter
     @Override
     public void dispose()
     {
-        mIFilter.dispose();
-        mQFilter.dispose();
+        mCoefficients = null;
+        mInphaseDelayLine = null;
+        mQuadratureDelayLine = null;
+        mBlockSamples = null;
         mReusableComplexBufferQueue.dispose();
     }
 }
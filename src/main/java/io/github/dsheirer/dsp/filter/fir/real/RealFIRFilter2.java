@@ -16,23 +16,30 @@
 package io.github.dsheirer.dsp.filter.fir.real;
 
 import io.github.dsheirer.dsp.filter.fir.FIRFilter;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterKernel;
 import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
 import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 
 /**
  * Finite Impulse Response (FIR) filter for filtering individual float samples or float sample arrays.
  *
- * Note: filtering operations in this class are structured to leverage SIMD processor intrinsics when
- * available to the Java runtime.
+ * Single samples are filtered using a doubled (mirrored) delay line so that the convolution reads a contiguous window
+ * without shifting the delay line or using modulo indexing.  Sample arrays are filtered as a block, using the JDK
+ * Vector API (SIMD) kernel when it is available.  Both methods produce identical results.
  */
 public class RealFIRFilter2 extends FIRFilter
 {
     private ReusableBufferQueue mReusableBufferQueue = new ReusableBufferQueue("RealFIRFilter2");
 
-    private float[] mData;
+    private float[] mDelayLine;
+    private int mDelayLinePointer;
+    private float[] mBlockSamples = new float[0];
     private float[] mCoefficients;
     private float mGain;
     private float mAccumulator;
+    private Implementation mImplementation = VectorUtilities.getPreferredImplementation();
 
     /**
      * Float sample FIR filter base class.
@@ -44,7 +51,7 @@ public class RealFIRFilter2 extends FIRFilter
     {
         mGain = gain;
         mCoefficients = coefficients;
-        mData = new float[coefficients.length];
+        mDelayLine = new float[coefficients.length * 2];
     }
 
     /**
@@ -57,6 +64,15 @@ public class RealFIRFilter2 extends FIRFilter
         this(coefficients, 1.0f);
     }
 
+    /**
+     * Sets the implementation to use for filtering sample arrays.
+     * @param implementation to use.  VECTOR reverts to SCALAR when the Vector API is not available.
+     */
+    public void setImplementation(Implementation implementation)
+    {
+        mImplementation = VectorUtilities.resolve(implementation);
+    }
+
     /**
      * Disposes this filter to prepare for garbage collection.
      */
@@ -64,7 +80,8 @@ public class RealFIRFilter2 extends FIRFilter
     public void dispose()
     {
         mCoefficients = null;
-        mData = null;
+        mDelayLine = null;
+        mBlockSamples = null;
     }
 
     /**
@@ -76,16 +93,19 @@ public class RealFIRFilter2 extends FIRFilter
      */
     public float filter(float sample)
     {
-        //Use array copy to leverage SIMD intrinsics
-        System.arraycopy(mData, 0, mData, 1, mData.length - 1);
-        mData[0] = sample;
+        int tapCount = mCoefficients.length;
+
+        //Store the sample in both halves of the delay line so that [pointer, pointer + tapCount) is always the most
+        //recent samples, newest to oldest
+        mDelayLinePointer = (mDelayLinePointer == 0 ? tapCount : mDelayLinePointer) - 1;
+        mDelayLine[mDelayLinePointer] = sample;
+        mDelayLine[mDelayLinePointer + tapCount] = sample;
 
         mAccumulator = 0.0f;
 
-        //Use vector dot product to leverage SIMD intrinsics
-        for(int x = 0; x < mCoefficients.length; x++)
+        for(int x = 0; x < tapCount; x++)
         {
-            mAccumulator = Math.fma(mData[x], mCoefficients[x], mAccumulator);
+            mAccumulator = Math.fma(mDelayLine[mDelayLinePointer + x], mCoefficients[x], mAccumulator);
         }
 
         /* Apply gain and return the filtered value */
@@ -102,6 +122,50 @@ public class RealFIRFilter2 extends FIRFilter
         return mAccumulator;
     }
 
+    /**
+     * Filters a block of samples.  The input and output arrays can be the same array to filter in place.
+     *
+     * @param input samples to filter
+     * @param output array to receive the filtered samples
+     * @param length number of samples to filter
+     */
+    public void filter(float[] input, float[] output, int length)
+    {
+        if(length <= 0)
+        {
+            return;
+        }
+
+        int tapCount = mCoefficients.length;
+        int historyLength = tapCount - 1;
+
+        if(mBlockSamples.length < historyLength + length)
+        {
+            mBlockSamples = new float[historyLength + length];
+        }
+
+        //Load the history in time order (oldest first) ahead of the new samples
+        for(int x = 1; x < tapCount; x++)
+        {
+            mBlockSamples[historyLength - x] = mDelayLine[mDelayLinePointer + x - 1];
+        }
+
+        System.arraycopy(input, 0, mBlockSamples, historyLength, length);
+
+        FIRFilterKernel.filter(mImplementation, mBlockSamples, mCoefficients, 1, mGain, output, length);
+
+        //Reload the delay line with the most recent samples, newest first
+        int newest = historyLength + length - 1;
+
+        for(int x = 0; x < tapCount; x++)
+        {
+            mDelayLine[x] = mBlockSamples[newest - x];
+            mDelayLine[x + tapCount] = mBlockSamples[newest - x];
+        }
+
+        mDelayLinePointer = 0;
+        mAccumulator = output[length - 1];
+    }
 
     /**
      * Filters the samples contained in the unfilteredBuffer and returns a new reusable buffer with the
@@ -117,16 +181,12 @@ public class RealFIRFilter2 extends FIRFilter
     {
         float[] unfilteredSamples = unfilteredBuffer.getSamples();
 
-        ReusableFloatBuffer filteredBuffer = mReusableBufferQueue.getBuffer(unfilteredSamples.length);
-        float[] filteredSamples = filteredBuffer.getSamples();
+        ReusableFloatBuffer filteredBuffer = mReusableBufferQueue.getBuffer(unfilteredBuffer.getLength());
 
-        for(int x = 0; x < unfilteredSamples.length; x++)
-        {
-            filteredSamples[x] = filter(unfilteredSamples[x]);
-        }
+        filter(unfilteredSamples, filteredBuffer.getSamples(), unfilteredBuffer.getLength());
 
         unfilteredBuffer.decrementUserCount();
 
         return filteredBuffer;
     }
-}
\ No newline at end of file
+}
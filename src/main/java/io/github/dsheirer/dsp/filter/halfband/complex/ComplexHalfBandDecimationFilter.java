@@ -65,12 +65,23 @@ public class ComplexHalfBandDecimationFilter implements IComplexDecimationFilter
 
     public float[] decimateComplex(float[] samples)
     {
-        if(samples.length % 4 != 0)
+        return decimateComplex(samples, samples.length);
+    }
+
+    /**
+     * Decimates the first length samples of the interleaved complex sample array by a factor of two.
+     * @param samples to decimate
+     * @param length of samples to decimate, an integer multiple of 4
+     * @return decimated samples
+     */
+    private float[] decimateComplex(float[] samples, int length)
+    {
+        if(length % 4 != 0)
         {
             throw new IllegalArgumentException("Samples array length must be an integer multiple of 4");
         }
 
-        int bufferLength = samples.length + mCoefficientsLengthMinus2;
+        int bufferLength = length + mCoefficientsLengthMinus2;
 
         if(mBuffer == null)
         {
@@ -86,15 +97,15 @@ public class ComplexHalfBandDecimationFilter implements IComplexDecimationFilter
         else
         {
             //Move residual samples from end of buffer to the beginning of the buffer
-            System.arraycopy(mBuffer, samples.length, mBuffer, 0, mCoefficientsLengthMinus2);
+            System.arraycopy(mBuffer, length, mBuffer, 0, mCoefficientsLengthMinus2);
         }
 
         //Copy new sample array into end of buffer
-        System.arraycopy(samples, 0, mBuffer, mCoefficientsLengthMinus2, samples.length);
+        System.arraycopy(samples, 0, mBuffer, mCoefficientsLengthMinus2, length);
 
-        float[] filtered = new float[samples.length / 2];
+        float[] filtered = new float[length / 2];
 
-        for(mBufferPointer = 0; mBufferPointer < samples.length; mBufferPointer += 4)
+        for(mBufferPointer = 0; mBufferPointer < length; mBufferPointer += 4)
         {
             mIAccumulator = 0.0f;
             mQAccumulator = 0.0f;
@@ -130,7 +141,7 @@ public class ComplexHalfBandDecimationFilter implements IComplexDecimationFilter
     @Override
     public ReusableComplexBuffer decimate(ReusableComplexBuffer buffer)
     {
-        float[] decimated = decimateComplex(buffer.getSamples());
+        float[] decimated = decimateComplex(buffer.getSamples(), buffer.getLength());
         buffer.decrementUserCount();
         return mReusableComplexBufferQueue.getBuffer(decimated, buffer.getTimestamp());
     }
@@ -49,8 +49,9 @@ public class ComplexHalfBandFilter
     {
         mSamples = originalBuffer.getSamples();
         mSamplesPointer = 0;
+        int length = originalBuffer.getLength();
 
-        mOutputBufferLength = (mHasResidual ? (mSamples.length + 2) : mSamples.length) / 4 * 2;
+        mOutputBufferLength = (mHasResidual ? (length + 2) : length) / 4 * 2;
 
         ReusableComplexBuffer filteredBuffer = mBufferQueue.getBuffer(mOutputBufferLength);
         mFilteredSamples = filteredBuffer.getSamples();
@@ -63,14 +64,14 @@ public class ComplexHalfBandFilter
             mHasResidual = false;
         }
 
-        while(mSamplesPointer + 3 < mSamples.length)
+        while(mSamplesPointer + 3 < length)
         {
             mFilteredSamples[mFilteredSamplesPointer++] = mIFilter.filter(mSamples[mSamplesPointer], mSamples[mSamplesPointer + 2]);
             mFilteredSamples[mFilteredSamplesPointer++] = mQFilter.filter(mSamples[mSamplesPointer + 1], mSamples[mSamplesPointer + 3]);
             mSamplesPointer += 4;
         }
 
-        if(mSamplesPointer < mSamples.length)
+        if(mSamplesPointer < length)
         {
             mHasResidual = true;
             mResidualISample = mSamples[mSamplesPointer++];
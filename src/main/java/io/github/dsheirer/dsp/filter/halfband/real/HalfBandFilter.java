@@ -89,10 +89,10 @@ public class HalfBandFilter
     public ReusableFloatBuffer filter(ReusableFloatBuffer input)
     {
         float[] inputSamples = input.getSamples();
-		ReusableFloatBuffer output = mReusableBufferQueue.getBuffer(inputSamples.length);
+		ReusableFloatBuffer output = mReusableBufferQueue.getBuffer(input.getLength());
 		float[] outputSamples = output.getSamples();
 
-		for(int x = 0; x < inputSamples.length; x++)
+		for(int x = 0; x < input.getLength(); x++)
         {
             outputSamples[x] = filter(inputSamples[x]);
         }
@@ -87,10 +87,20 @@ public class HilbertTransform
      * applying a sequence of 1,-1 (sign change) to each I/Q output sample.
      */
     public float[] filter(float[] samples)
+    {
+        return filter(samples, samples.length);
+    }
+
+    /**
+     * Filters the first length real samples in place, producing length / 2 complex samples (see filter(float[]))
+     * @param samples to filter
+     * @param length of samples to filter
+     */
+    public float[] filter(float[] samples, int length)
     {
         float accumulator;
 
-        for(int y = 0; y < samples.length; y += 2)
+        for(int y = 0; y < length; y += 2)
         {
             insert(samples[y]);
             insert(samples[y + 1]);
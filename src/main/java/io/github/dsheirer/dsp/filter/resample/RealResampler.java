@@ -91,7 +91,7 @@ public class RealResampler
          */
         public void load(ReusableFloatBuffer reusableFloatBuffer)
         {
-            mInputBuffer.put(reusableFloatBuffer.getSamples());
+            mInputBuffer.put(reusableFloatBuffer.getSamples(), 0, reusableFloatBuffer.getLength());
             reusableFloatBuffer.decrementUserCount();
         }
 
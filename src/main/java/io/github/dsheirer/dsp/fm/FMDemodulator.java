@@ -17,6 +17,7 @@
  ******************************************************************************/
 package io.github.dsheirer.dsp.fm;
 
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
@@ -25,12 +26,20 @@ import org.apache.commons.math3.util.FastMath;
 
 /**
  * FM Demodulator for demodulating complex samples and producing demodulated floating point samples.
+ *
+ * The phase discriminator arc tangent implementation is selectable (see FMDiscriminator) and defaults to the value of
+ * the fm.demodulator.discriminator system property, or the double precision implementation when not set.  The float
+ * approximations are opt-in.  The system property is read once, when the class is loaded.
  */
 public class FMDemodulator
 {
+    public static final String PROPERTY_DISCRIMINATOR = "fm.demodulator.discriminator";
+    private static final FMDiscriminator DEFAULT_DISCRIMINATOR = FMDiscriminator.DOUBLE;
+    private static final FMDiscriminator CONFIGURED_DISCRIMINATOR = getConfiguredDiscriminator();
     private ReusableBufferQueue mReusableBufferQueue = new ReusableBufferQueue("FMDemodulator");
     private float mPreviousI = 0.0f;
     private float mPreviousQ = 0.0f;
+    private FMDiscriminator mDiscriminator = CONFIGURED_DISCRIMINATOR;
     protected float mGain;
 
     /**
@@ -67,23 +76,8 @@ public class FMDemodulator
          *
          * Negating the previous sample quadrature produces the conjugate
          */
-        double inphase = (currentI * mPreviousI) - (currentQ * -mPreviousQ);
-        double quadrature = (currentQ * mPreviousI) + (currentI * -mPreviousQ);
-
-        double angle = 0.0f;
-
-        //Check for divide by zero
-        if(inphase != 0)
-        {
-            /**
-             * Use the arc-tangent of quadrature divided by inphase to
-             * get the phase angle (+/-) which was directly manipulated by the
-             * original message waveform during the modulation.  This value now
-             * serves as the instantaneous amplitude of the demodulated signal
-             */
-            double denominator = 1.0d / inphase;
-            angle = FastMath.atan((double)quadrature * denominator);
-        }
+        float inphase = (currentI * mPreviousI) - (currentQ * -mPreviousQ);
+        float quadrature = (currentQ * mPreviousI) + (currentI * -mPreviousQ);
 
         /**
          * Store the current sample to use during the next iteration
@@ -91,7 +85,77 @@ public class FMDemodulator
         mPreviousI = currentI;
         mPreviousQ = currentQ;
 
-        return (float)(angle * mGain);
+        return mDiscriminator.discriminate(quadrature, inphase, mGain);
+    }
+
+    /**
+     * Demodulates a buffer of interleaved I/Q samples.  Produces one demodulated sample for each complex sample.
+     *
+     * The demodulated array can be the same array as the samples array to demodulate in place, where the demodulated
+     * samples occupy the first half of the array.
+     *
+     * @param samples of interleaved I/Q
+     * @param demodulated array to receive the demodulated samples, with length of at least samples.length / 2
+     */
+    public void demodulate(float[] samples, float[] demodulated)
+    {
+        demodulate(samples, samples.length, demodulated);
+    }
+
+    /**
+     * Demodulates the first length values of a buffer of interleaved I/Q samples.  Produces one demodulated sample for
+     * each complex sample.
+     *
+     * @param samples of interleaved I/Q
+     * @param length of interleaved I/Q values to demodulate
+     * @param demodulated array to receive the demodulated samples, with length of at least length / 2
+     */
+    public void demodulate(float[] samples, int length, float[] demodulated)
+    {
+        FMDiscriminator discriminator = mDiscriminator;
+        float previousI = mPreviousI;
+        float previousQ = mPreviousQ;
+        float gain = mGain;
+        float currentI, currentQ, inphase, quadrature;
+
+        for(int x = 0; x < length; x += 2)
+        {
+            currentI = samples[x];
+            currentQ = samples[x + 1];
+            inphase = (currentI * previousI) + (currentQ * previousQ);
+            quadrature = (currentQ * previousI) - (currentI * previousQ);
+            previousI = currentI;
+            previousQ = currentQ;
+            demodulated[x / 2] = discriminator.discriminate(quadrature, inphase, gain);
+        }
+
+        mPreviousI = previousI;
+        mPreviousQ = previousQ;
+    }
+
+    /**
+     * Sets the arc tangent implementation used by the phase discriminator.
+     */
+    public void setDiscriminator(FMDiscriminator discriminator)
+    {
+        mDiscriminator = discriminator != null ? discriminator : DEFAULT_DISCRIMINATOR;
+    }
+
+    /**
+     * Arc tangent implementation used by the phase discriminator.
+     */
+    public FMDiscriminator getDiscriminator()
+    {
+        return mDiscriminator;
+    }
+
+    /**
+     * Configured discriminator from the system properties.
+     */
+    private static FMDiscriminator getConfiguredDiscriminator()
+    {
+        return FMDiscriminator.fromValue(SystemProperties.getInstance().get(PROPERTY_DISCRIMINATOR,
+            DEFAULT_DISCRIMINATOR.name()), DEFAULT_DISCRIMINATOR);
     }
 
     /**
@@ -134,13 +198,7 @@ public class FMDemodulator
     {
         ReusableFloatBuffer demodulatedBuffer = mReusableBufferQueue.getBuffer(basebandSampleBuffer.getSampleCount());
 
-        float[] basebandSamples = basebandSampleBuffer.getSamples();
-        float[] demodulatedSamples = demodulatedBuffer.getSamples();
-
-        for(int x = 0; x < basebandSamples.length; x += 2)
-        {
-            demodulatedSamples[x / 2] = demodulate(basebandSamples[x], basebandSamples[x + 1]);
-        }
+        demodulate(basebandSampleBuffer.getSamples(), basebandSampleBuffer.getLength(), demodulatedBuffer.getSamples());
 
         basebandSampleBuffer.decrementUserCount();
 
@@ -0,0 +1,145 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.fm;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Benchmark for the FM demodulator phase discriminator implementations.  Measures demodulation throughput for each
+ * discriminator.  The accuracy of the float arc tangent approximations is verified by ArcTangentTest and the NBFM and
+ * LTR decode equivalence against the double precision reference is verified by FMDiscriminatorTest.
+ */
+public class FMDemodulatorBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.000");
+    private static final int BUFFER_LENGTH = 8192;
+    private static final int ITERATIONS = 2000;
+    private static final double NBFM_SAMPLE_RATE = 25000.0;
+
+    /**
+     * Creates interleaved complex samples for an FM modulated signal.
+     *
+     * @param modulation instantaneous frequency deviation (Hz) for each sample
+     * @param amplitudes of each sample
+     * @param sampleRate in Hertz
+     * @param noise amplitude of additive gaussian noise
+     * @param random generator
+     */
+    private static float[] modulate(double[] modulation, double[] amplitudes, double sampleRate, double noise,
+                                    Random random)
+    {
+        float[] samples = new float[modulation.length * 2];
+        double phase = 0.0;
+
+        for(int x = 0; x < modulation.length; x++)
+        {
+            phase += 2.0 * Math.PI * modulation[x] / sampleRate;
+            samples[2 * x] = (float)(amplitudes[x] * Math.cos(phase) + random.nextGaussian() * noise);
+            samples[2 * x + 1] = (float)(amplitudes[x] * Math.sin(phase) + random.nextGaussian() * noise);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Synthetic NBFM voice signal: two tones with 2.5 kHz peak deviation, alternating between one second of signal
+     * and one half-second of noise-only squelch gaps.
+     */
+    private static float[] getNBFMSignal(int sampleCount, Random random)
+    {
+        double[] modulation = new double[sampleCount];
+        double[] amplitudes = new double[sampleCount];
+
+        for(int x = 0; x < sampleCount; x++)
+        {
+            double t = x / NBFM_SAMPLE_RATE;
+            modulation[x] = 1500.0 * Math.sin(2.0 * Math.PI * 440.0 * t) + 1000.0 * Math.sin(2.0 * Math.PI * 1230.0 * t);
+            amplitudes[x] = (x % 37500) < 25000 ? 0.01 : 0.0;
+        }
+
+        return modulate(modulation, amplitudes, NBFM_SAMPLE_RATE, 0.00001, random);
+    }
+
+    /**
+     * Measures the block demodulation throughput for each discriminator and the legacy per-sample method.
+     */
+    private static void checkThroughput()
+    {
+        float[] samples = getNBFMSignal(BUFFER_LENGTH / 2, new Random(3));
+        float[] demodulated = new float[BUFFER_LENGTH / 2];
+        FMDemodulator demodulator = new FMDemodulator();
+        demodulator.setDiscriminator(FMDiscriminator.DOUBLE);
+
+        for(int x = 0; x < ITERATIONS / 10; x++)
+        {
+            for(int y = 0; y < samples.length; y += 2)
+            {
+                demodulated[y / 2] = demodulator.demodulate(samples[y], samples[y + 1]);
+            }
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < ITERATIONS; x++)
+        {
+            for(int y = 0; y < samples.length; y += 2)
+            {
+                demodulated[y / 2] = demodulator.demodulate(samples[y], samples[y + 1]);
+            }
+        }
+
+        long legacy = System.nanoTime() - start;
+        System.out.println("Per-Sample " + FMDiscriminator.DOUBLE + " ns/sample: " + format(legacy));
+
+        for(FMDiscriminator discriminator : FMDiscriminator.values())
+        {
+            demodulator.setDiscriminator(discriminator);
+
+            for(int x = 0; x < ITERATIONS / 10; x++)
+            {
+                demodulator.demodulate(samples, demodulated);
+            }
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < ITERATIONS; x++)
+            {
+                demodulator.demodulate(samples, demodulated);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            System.out.println("Block " + discriminator + " ns/sample: " + format(elapsed) + " Speedup: " +
+                DECIMAL_FORMAT.format(legacy / (double)elapsed) + "x");
+        }
+    }
+
+    private static String format(long elapsed)
+    {
+        return DECIMAL_FORMAT.format(elapsed / (double)ITERATIONS / (BUFFER_LENGTH / 2));
+    }
+
+    public static void main(String[] args)
+    {
+        checkThroughput();
+
+        //Exit explicitly since the system properties save task leaves a non-daemon thread running
+        System.exit(0);
+    }
+}
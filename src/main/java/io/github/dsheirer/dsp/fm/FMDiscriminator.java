@@ -0,0 +1,118 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.fm;
+
+import io.github.dsheirer.util.ArcTangent;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Arc tangent implementation used by the FM demodulator phase discriminator.
+ */
+public enum FMDiscriminator
+{
+    /**
+     * Double precision FastMath.atan() - reference implementation.
+     */
+    DOUBLE("Double Precision")
+    {
+        @Override
+        public float discriminate(float quadrature, float inphase, float gain)
+        {
+            //Check for divide by zero
+            if(inphase != 0)
+            {
+                double denominator = 1.0d / inphase;
+                return (float)(FastMath.atan((double)quadrature * denominator) * gain);
+            }
+
+            return 0.0f;
+        }
+    },
+
+    /**
+     * Float polynomial approximation - error less than ArcTangent.POLYNOMIAL_MAXIMUM_ERROR radians.
+     */
+    POLYNOMIAL("Float Polynomial")
+    {
+        @Override
+        public float discriminate(float quadrature, float inphase, float gain)
+        {
+            return ArcTangent.atanPolynomial(quadrature, inphase) * gain;
+        }
+    },
+
+    /**
+     * Float interpolated lookup table - error less than ArcTangent.TABLE_MAXIMUM_ERROR radians.
+     */
+    LOOKUP_TABLE("Float Lookup Table")
+    {
+        @Override
+        public float discriminate(float quadrature, float inphase, float gain)
+        {
+            return ArcTangent.atanTable(quadrature, inphase) * gain;
+        }
+    };
+
+    private String mLabel;
+
+    FMDiscriminator(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Calculates the phase angle (+/-) from the arc-tangent of quadrature divided by inphase.  The phase angle was
+     * directly manipulated by the original message waveform during the modulation and now serves as the instantaneous
+     * amplitude of the demodulated signal.
+     *
+     * @param quadrature of the phase delta
+     * @param inphase of the phase delta
+     * @param gain to apply to the phase angle
+     * @return phase angle with gain applied, or zero when inphase is zero.
+     */
+    public abstract float discriminate(float quadrature, float inphase, float gain);
+
+    /**
+     * Parses the discriminator from the enum entry name.
+     * @param value to parse
+     * @param defaultValue to use if the value is not a discriminator name
+     * @return discriminator
+     */
+    public static FMDiscriminator fromValue(String value, FMDiscriminator defaultValue)
+    {
+        if(value != null)
+        {
+            for(FMDiscriminator discriminator : values())
+            {
+                if(discriminator.name().equalsIgnoreCase(value.trim()))
+                {
+                    return discriminator;
+                }
+            }
+        }
+
+        return defaultValue;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
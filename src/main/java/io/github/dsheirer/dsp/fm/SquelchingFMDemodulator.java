@@ -68,20 +68,16 @@ public class SquelchingFMDemodulator extends FMDemodulator implements Listener<S
 
         float[] basebandSamples = basebandSampleBuffer.getSamples();
         float[] demodulatedSamples = demodulatedBuffer.getSamples();
-        float i,q;
+        int length = basebandSampleBuffer.getLength();
 
-        for(int x = 0; x < basebandSamples.length; x += 2)
-        {
-            i = basebandSamples[x];
-            q = basebandSamples[x + 1];
+        //Demodulate the whole buffer and then zero the samples that fall within a muted squelch state
+        demodulate(basebandSamples, length, demodulatedSamples);
 
-            mPowerSquelch.process(i, q);
+        for(int x = 0; x < length; x += 2)
+        {
+            mPowerSquelch.process(basebandSamples[x], basebandSamples[x + 1]);
 
-            if(mPowerSquelch.isUnmuted() || mPowerSquelch.isDecay())
-            {
-                demodulatedSamples[x / 2] = demodulate(i, q);
-            }
-            else
+            if(!mPowerSquelch.isUnmuted() && !mPowerSquelch.isDecay())
             {
                 demodulatedSamples[x / 2] = 0.0f;
             }
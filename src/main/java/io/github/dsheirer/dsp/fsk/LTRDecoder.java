@@ -159,9 +159,11 @@ public class LTRDecoder implements Listener<ReusableFloatBuffer>, ISyncDetectLis
         ReusableFloatBuffer dcFiltered = mDCFilter.filter(buffer);
         ReusableFloatBuffer lowPassFiltered = mLowPassFilter.filter(dcFiltered);
 
-        for(float sample : lowPassFiltered.getSamples())
+        float[] samples = lowPassFiltered.getSamples();
+
+        for(int x = 0; x < lowPassFiltered.getLength(); x++)
         {
-            mSampleDecision = sample > 0.0;
+            mSampleDecision = samples[x] > 0.0;
 
             mSampleBuffer.receive(mSampleDecision);
             mTimingErrorDetector.receive(mSampleDecision);
@@ -155,7 +155,7 @@ public class AutomaticGainControl
         float[] inputSamples = input.getSamples();
         float[] outputSamples = output.getSamples();
 
-        for(int x = 0; x < inputSamples.length; x++)
+        for(int x = 0; x < input.getLength(); x++)
         {
             outputSamples[x] = process(inputSamples[x]);
         }
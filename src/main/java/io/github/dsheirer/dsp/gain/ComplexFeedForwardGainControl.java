@@ -147,8 +147,9 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
     public ReusableComplexBuffer filter(ReusableComplexBuffer buffer)
     {
         float[] samples = buffer.getSamples();
+        int length = buffer.getLength();
 
-        ReusableComplexBuffer filteredBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
+        ReusableComplexBuffer filteredBuffer = mReusableComplexBufferQueue.getBuffer(length);
         filteredBuffer.setTimestamp(buffer.getTimestamp());
 
         float[] filtered = filteredBuffer.getSamples();
@@ -157,7 +158,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
 
         float currentEnvelope;
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             currentEnvelope = Complex.envelope(samples[x], samples[x + 1]);
 
@@ -169,7 +170,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
 
         adjustGain();
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             filtered[x] = samples[x] * mGain;
             filtered[x + 1] = samples[x + 1] * mGain;
@@ -0,0 +1,222 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.gain;
+
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
+import io.github.dsheirer.dsp.squelch.PowerMonitor;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.complex.Complex;
+import io.github.dsheirer.vector.Implementation;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Fused baseband filter, power measurement and feed-forward gain control stage for complex sample buffers.
+ *
+ * Produces output that is bit-identical to the sequence ComplexFIRFilter2.filter(), PowerMonitor.process() and
+ * ComplexFeedForwardGainControl.filter(), using a single reusable output buffer per invocation instead of one buffer
+ * for each stage.
+ *
+ * The baseband filter runs as a block through the ComplexFIRFilter2 block kernel (Vector API when available) directly
+ * into the output buffer.  Power measurement and maximum envelope tracking share a single pass over the filtered
+ * samples and the gain is then applied in place.
+ */
+public class ComplexFilterGainStage
+{
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue =
+        new ReusableComplexBufferQueue("ComplexFilterGainStage");
+    private PowerMonitor mPowerMonitor;
+    private ComplexFIRFilter2 mFilter;
+    private float mGain = 1.0f;
+
+    /**
+     * Constructs an instance
+     *
+     * @param coefficients for the baseband filter, or null when the incoming samples do not require filtering.
+     * @param powerMonitor (optional) to receive each filtered sample prior to the gain being applied.
+     */
+    public ComplexFilterGainStage(float[] coefficients, PowerMonitor powerMonitor)
+    {
+        mPowerMonitor = powerMonitor;
+
+        if(coefficients != null && coefficients.length > 0)
+        {
+            mFilter = new ComplexFIRFilter2(coefficients, 1.0f);
+        }
+    }
+
+    /**
+     * Sets the implementation to use for the baseband filter.
+     * @param implementation to use.  VECTOR reverts to SCALAR when the Vector API is not available.
+     */
+    public void setImplementation(Implementation implementation)
+    {
+        if(mFilter != null)
+        {
+            mFilter.setImplementation(implementation);
+        }
+    }
+
+    /**
+     * Current gain value that was applied to the most recently processed buffer.
+     */
+    public float getGain()
+    {
+        return mGain;
+    }
+
+    /**
+     * Filters the complex samples, feeds the filtered samples to the power monitor and applies feed-forward gain
+     * to normalize the buffer toward unity envelope.
+     *
+     * Note: the user count of the argument buffer is decremented and a new reusable buffer is returned with the
+     * user count already incremented to one.
+     *
+     * @param buffer containing complex samples to process
+     * @return new buffer containing the filtered and gain-applied samples
+     */
+    public ReusableComplexBuffer process(ReusableComplexBuffer buffer)
+    {
+        float[] samples = buffer.getSamples();
+        int length = buffer.getLength();
+
+        ReusableComplexBuffer processedBuffer = mReusableComplexBufferQueue.getBuffer(length);
+        processedBuffer.setTimestamp(buffer.getTimestamp());
+
+        float[] processed = processedBuffer.getSamples();
+
+        if(mFilter != null)
+        {
+            mFilter.filter(samples, processed, length);
+        }
+        else
+        {
+            System.arraycopy(samples, 0, processed, 0, length);
+        }
+
+        buffer.decrementUserCount();
+
+        float maxEnvelope = ComplexFeedForwardGainControl.MINIMUM_ENVELOPE;
+        float envelope;
+
+        for(int x = 0; x < length; x += 2)
+        {
+            if(mPowerMonitor != null)
+            {
+                mPowerMonitor.process(processed[x], processed[x + 1]);
+            }
+
+            envelope = Complex.envelope(processed[x], processed[x + 1]);
+
+            if(envelope > maxEnvelope)
+            {
+                maxEnvelope = envelope;
+            }
+        }
+
+        mGain = ComplexFeedForwardGainControl.OBJECTIVE_ENVELOPE / maxEnvelope;
+
+        for(int x = 0; x < length; x++)
+        {
+            processed[x] *= mGain;
+        }
+
+        return processedBuffer;
+    }
+
+    /**
+     * Disposes this stage to prepare for garbage collection.
+     */
+    public void dispose()
+    {
+        mPowerMonitor = null;
+
+        if(mFilter != null)
+        {
+            mFilter.dispose();
+            mFilter = null;
+        }
+
+        mReusableComplexBufferQueue.dispose();
+    }
+
+    /**
+     * Benchmark against the individual filter, power monitor and gain control stages.
+     */
+    public static void main(String[] args)
+    {
+        DecimalFormat decimalFormat = new DecimalFormat("0.000");
+        Random random = new Random(1234);
+
+        float[] coefficients = new float[63];
+
+        for(int x = 0; x < coefficients.length; x++)
+        {
+            coefficients[x] = (random.nextFloat() * 2.0f - 1.0f) / coefficients.length;
+        }
+
+        float[][] inputs = new float[64][4096];
+
+        for(float[] input : inputs)
+        {
+            for(int x = 0; x < input.length; x++)
+            {
+                input[x] = random.nextFloat() * 2.0f - 1.0f;
+            }
+        }
+
+        ReusableComplexBufferQueue inputQueue = new ReusableComplexBufferQueue("Benchmark");
+
+        ComplexFIRFilter2 filter = new ComplexFIRFilter2(coefficients);
+        PowerMonitor referencePowerMonitor = new PowerMonitor();
+        ComplexFeedForwardGainControl gainControl = new ComplexFeedForwardGainControl(32);
+        ComplexFilterGainStage stage = new ComplexFilterGainStage(coefficients, new PowerMonitor());
+
+        int iterations = 2000;
+
+        for(int pass = 0; pass < 10; pass++)
+        {
+            long start = System.nanoTime();
+
+            for(int x = 0; x < iterations; x++)
+            {
+                ReusableComplexBuffer filtered = filter.filter(inputQueue.getBuffer(inputs[x % inputs.length], 0));
+                referencePowerMonitor.process(filtered);
+                gainControl.filter(filtered).decrementUserCount();
+            }
+
+            long separate = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < iterations; x++)
+            {
+                stage.process(inputQueue.getBuffer(inputs[x % inputs.length], 0)).decrementUserCount();
+            }
+
+            long fused = System.nanoTime() - start;
+
+            System.out.println("Separate stages: " + decimalFormat.format(separate / (double)iterations / 1000.0) +
+                " us/buffer  Fused stage: " + decimalFormat.format(fused / (double)iterations / 1000.0) +
+                " us/buffer  Speedup: " + decimalFormat.format(separate / (double)fused));
+        }
+    }
+}
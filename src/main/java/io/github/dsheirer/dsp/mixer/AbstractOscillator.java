@@ -101,7 +101,18 @@ public abstract class AbstractOscillator implements IOscillator
     @Override
     public float[] mixComplex(float[] samples)
     {
-        for(int x = 0; x < samples.length; x += 2)
+        return mixComplex(samples, samples.length);
+    }
+
+    /**
+     * Performs complex heterodyne against the first length values of the samples using this oscillator
+     * @param samples to mix with this oscillator
+     * @param length of interleaved I/Q values to mix
+     */
+    @Override
+    public float[] mixComplex(float[] samples, int length)
+    {
+        for(int x = 0; x < length; x += 2)
         {
             float i = Complex.multiplyInphase(samples[x], samples[x + 1], inphase(), quadrature());
             float q = Complex.multiplyQuadrature(samples[x], samples[x + 1], inphase(), quadrature());
@@ -30,10 +30,20 @@ public class FS4DownConverter
     }
 
     public float[] mixComplex(float[] samples)
+    {
+        return mixComplex(samples, samples.length);
+    }
+
+    /**
+     * Down converts the first length values of the interleaved complex samples by FS/4
+     * @param samples to down convert
+     * @param length of interleaved I/Q values to down convert
+     */
+    public float[] mixComplex(float[] samples, int length)
     {
         float real;
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             switch(mPointer)
             {
@@ -112,4 +112,13 @@ public interface IOscillator
      * @return mixed/heterdyned samples
      */
     float[] mixComplex(float[] complexSamples);
+
+    /**
+     * Mixes (heterodynes) the first length values of the complex sample array using the current settings of this
+     * oscillator.
+     * @param complexSamples to mix to a new frequency
+     * @param length of interleaved I/Q values to mix
+     * @return mixed/heterdyned samples
+     */
+    float[] mixComplex(float[] complexSamples, int length);
 }
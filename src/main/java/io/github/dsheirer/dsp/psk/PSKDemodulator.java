@@ -84,7 +84,7 @@ public abstract class PSKDemodulator<T> implements ComplexSampleListener
     {
         float[] samples = reusableComplexBuffer.getSamples();
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < reusableComplexBuffer.getLength(); x += 2)
         {
             receive(samples[x], samples[x + 1]);
         }
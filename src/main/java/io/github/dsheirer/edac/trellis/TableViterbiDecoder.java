@@ -0,0 +1,332 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.edac.trellis;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+
+/**
+ * Table-driven Viterbi decoder for 4-bit symbol trellis coded modulation (TCM) encoded binary sequences.
+ *
+ * This decoder produces output that is identical to the path-based ViterbiDecoder implementations, including the
+ * tie-break behavior when two candidate paths have the same error metric (the path from the lowest numbered
+ * preceding state survives), but it uses pre-calculated branch error tables and path metric and traceback arrays
+ * that are allocated once per decoder instance, so that decoding a message does not create any path or node objects.
+ *
+ * The working arrays are reused by each call to decode, so a decoder instance is not thread safe.  Callers that decode
+ * from multiple threads should use a decoder instance per thread (e.g. via a ThreadLocal).
+ */
+public abstract class TableViterbiDecoder
+{
+    private static final int SYMBOL_BIT_LENGTH = 4;
+    private static final int SYMBOL_VALUE_COUNT = 16;
+    private static final int DEFAULT_MAXIMUM_SYMBOL_COUNT = 49;
+    private static final int UNREACHABLE_STATE_METRIC = Integer.MAX_VALUE / 2;
+
+    private int mInputBitLength;
+    private int mStateCount;
+    private int[] mBranchErrors;
+    private int[] mPathMetrics;
+    private int[] mNextPathMetrics;
+    private byte[] mTraceback;
+    private int[] mSymbols;
+
+    /**
+     * Constructs an instance
+     *
+     * @param inputBitLength for coding (e.g. 3/4 rate input bit length is 3)
+     * @param transitionMatrix of transmitted 4-bit output values indexed by [preceding state][input value]
+     */
+    public TableViterbiDecoder(int inputBitLength, int[][] transitionMatrix)
+    {
+        mInputBitLength = inputBitLength;
+        mStateCount = 1 << inputBitLength;
+
+        if(transitionMatrix.length != mStateCount)
+        {
+            throw new IllegalArgumentException("Transition matrix must contain a row for each of the [" +
+                mStateCount + "] states");
+        }
+
+        //Branch errors are indexed as [transmitted symbol][preceding state][input value]
+        mBranchErrors = new int[SYMBOL_VALUE_COUNT * mStateCount * mStateCount];
+
+        for(int symbol = 0; symbol < SYMBOL_VALUE_COUNT; symbol++)
+        {
+            for(int preceding = 0; preceding < mStateCount; preceding++)
+            {
+                for(int input = 0; input < mStateCount; input++)
+                {
+                    mBranchErrors[(symbol * mStateCount + preceding) * mStateCount + input] =
+                        Integer.bitCount(transitionMatrix[preceding][input] ^ symbol);
+                }
+            }
+        }
+
+        mPathMetrics = new int[mStateCount];
+        mNextPathMetrics = new int[mStateCount];
+        allocate(DEFAULT_MAXIMUM_SYMBOL_COUNT);
+    }
+
+    /**
+     * Allocates the symbol and traceback arrays to support messages with up to the specified number of symbols.
+     */
+    private void allocate(int symbolCount)
+    {
+        mSymbols = new int[symbolCount];
+        mTraceback = new byte[symbolCount * mStateCount];
+    }
+
+    /**
+     * Size in bits of the input and state values (e.g. 3/4 rate input size is 3)
+     */
+    public int getInputBitLength()
+    {
+        return mInputBitLength;
+    }
+
+    /**
+     * Decodes a TCM encoded binary message.
+     *
+     * @param encodedMessage containing the 4-bit symbols
+     * @param bitLength number of encoded bits, must be an integral number of 4-bit symbols
+     * @param deinterleave optional map of the encoded message bit index for each deinterleaved bit index, or null
+     * when the message is already deinterleaved
+     * @return decoded message with the corrected bit count set to the error metric of the most likely path
+     */
+    protected CorrectedBinaryMessage decode(BinaryMessage encodedMessage, int bitLength, int[] deinterleave)
+    {
+        int symbolCount = loadSymbols(encodedMessage, bitLength, deinterleave);
+        return decodeSymbols(symbolCount);
+    }
+
+    /**
+     * Extracts the 4-bit symbols from the encoded message into the symbol array.
+     *
+     * @param encodedMessage containing the 4-bit symbols
+     * @param bitLength number of encoded bits, must be an integral number of 4-bit symbols
+     * @param deinterleave optional map of the encoded message bit index for each deinterleaved bit index, or null
+     * when the message is already deinterleaved
+     * @return number of symbols
+     */
+    private int loadSymbols(BinaryMessage encodedMessage, int bitLength, int[] deinterleave)
+    {
+        //Ensure we have an integral number of transmitted symbols (nibbles) in the message
+        if(bitLength % SYMBOL_BIT_LENGTH != 0)
+        {
+            throw new IllegalArgumentException("Encoded message must contain an integral number of 4-bit symbols -" +
+                " message size: " + bitLength);
+        }
+
+        int symbolCount = bitLength / SYMBOL_BIT_LENGTH;
+
+        if(symbolCount == 0)
+        {
+            throw new IllegalArgumentException("Encoded message must contain at least one 4-bit symbol");
+        }
+
+        if(symbolCount > mSymbols.length)
+        {
+            allocate(symbolCount);
+        }
+
+        int index = 0;
+
+        for(int x = 0; x < symbolCount; x++)
+        {
+            int symbol = 0;
+
+            for(int y = 0; y < SYMBOL_BIT_LENGTH; y++)
+            {
+                symbol <<= 1;
+
+                if(encodedMessage.get(deinterleave != null ? deinterleave[index] : index))
+                {
+                    symbol++;
+                }
+
+                index++;
+            }
+
+            mSymbols[x] = symbol;
+        }
+
+        return symbolCount;
+    }
+
+    /**
+     * Decodes the symbols loaded into the symbol array.  All symbols except the final symbol are evaluated against each
+     * of the trellis states, retaining the lowest error survivor that terminates at each state.  The final symbol
+     * flushes each survivor back to state zero and the survivor with the lowest error is traced back to produce the
+     * decoded message.
+     *
+     * @param symbolCount number of loaded symbols
+     * @return decoded message
+     */
+    private CorrectedBinaryMessage decodeSymbols(int symbolCount)
+    {
+        int[] metrics = mPathMetrics;
+        int[] nextMetrics = mNextPathMetrics;
+
+        //Starting state is zero
+        metrics[0] = 0;
+
+        for(int state = 1; state < mStateCount; state++)
+        {
+            metrics[state] = UNREACHABLE_STATE_METRIC;
+        }
+
+        for(int x = 0; x < symbolCount - 1; x++)
+        {
+            int symbolOffset = mSymbols[x] * mStateCount;
+            int tracebackOffset = x * mStateCount;
+
+            for(int input = 0; input < mStateCount; input++)
+            {
+                int bestMetric = Integer.MAX_VALUE;
+                int bestPreceding = 0;
+
+                for(int preceding = 0; preceding < mStateCount; preceding++)
+                {
+                    int metric = metrics[preceding] +
+                        mBranchErrors[(symbolOffset + preceding) * mStateCount + input];
+
+                    //Strictly less than, so that ties are won by the lowest numbered preceding state
+                    if(metric < bestMetric)
+                    {
+                        bestMetric = metric;
+                        bestPreceding = preceding;
+                    }
+                }
+
+                nextMetrics[input] = bestMetric;
+                mTraceback[tracebackOffset + input] = (byte)bestPreceding;
+            }
+
+            int[] swap = metrics;
+            metrics = nextMetrics;
+            nextMetrics = swap;
+        }
+
+        //Flush each survivor with a final input value of zero
+        int flushOffset = mSymbols[symbolCount - 1] * mStateCount;
+        int bestMetric = Integer.MAX_VALUE;
+        int state = 0;
+
+        for(int preceding = 0; preceding < mStateCount; preceding++)
+        {
+            int metric = metrics[preceding] + mBranchErrors[(flushOffset + preceding) * mStateCount];
+
+            if(metric < bestMetric)
+            {
+                bestMetric = metric;
+                state = preceding;
+            }
+        }
+
+        //Trace back from the final state, writing each input value into the message, most significant bit first
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage((symbolCount - 1) * mInputBitLength);
+
+        for(int x = symbolCount - 2; x >= 0; x--)
+        {
+            int messageOffset = x * mInputBitLength;
+
+            for(int bit = 0; bit < mInputBitLength; bit++)
+            {
+                if((state & (1 << (mInputBitLength - 1 - bit))) != 0)
+                {
+                    message.set(messageOffset + bit);
+                }
+            }
+
+            state = mTraceback[x * mStateCount + state];
+        }
+
+        //Transfer the corrected error count to the message
+        message.setCorrectedBitCount(bestMetric);
+
+        return message;
+    }
+
+    /**
+     * Benchmark comparing this decoder against the path-based decoder for P25 1/2 and 3/4 rate messages.
+     */
+    public static void main(String[] args)
+    {
+        java.util.Random random = new java.util.Random();
+        int messageCount = 2_000;
+        CorrectedBinaryMessage[] messages = new CorrectedBinaryMessage[messageCount];
+
+        for(int x = 0; x < messageCount; x++)
+        {
+            messages[x] = new CorrectedBinaryMessage(196);
+
+            for(int y = 0; y < 196; y++)
+            {
+                if(random.nextBoolean())
+                {
+                    messages[x].set(y);
+                }
+            }
+        }
+
+        ViterbiDecoder_1_2_P25 halfRatePath = new ViterbiDecoder_1_2_P25();
+        TableViterbiDecoder_1_2_P25 halfRateTable = new TableViterbiDecoder_1_2_P25();
+        ViterbiDecoder_3_4_P25 threeQuarterRatePath = new ViterbiDecoder_3_4_P25();
+        TableViterbiDecoder_3_4_P25 threeQuarterRateTable = new TableViterbiDecoder_3_4_P25();
+
+        for(int iteration = 0; iteration < 5; iteration++)
+        {
+            long checksum = 0;
+
+            long start = System.nanoTime();
+            for(CorrectedBinaryMessage message: messages)
+            {
+                checksum += halfRatePath.decode(message).getCorrectedBitCount();
+            }
+            long halfRatePathElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(CorrectedBinaryMessage message: messages)
+            {
+                checksum -= halfRateTable.decode(message).getCorrectedBitCount();
+            }
+            long halfRateTableElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(CorrectedBinaryMessage message: messages)
+            {
+                checksum += threeQuarterRatePath.decode(message).getCorrectedBitCount();
+            }
+            long threeQuarterRatePathElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(CorrectedBinaryMessage message: messages)
+            {
+                checksum -= threeQuarterRateTable.decode(message).getCorrectedBitCount();
+            }
+            long threeQuarterRateTableElapsed = System.nanoTime() - start;
+
+            System.out.println("1/2 Rate - Path: " + (halfRatePathElapsed / messageCount) + " ns/msg Table: " +
+                (halfRateTableElapsed / messageCount) + " ns/msg | 3/4 Rate - Path: " +
+                (threeQuarterRatePathElapsed / messageCount) + " ns/msg Table: " +
+                (threeQuarterRateTableElapsed / messageCount) + " ns/msg | Checksum (should be 0): " + checksum);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.edac.trellis;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+
+/**
+ * Table-driven Viterbi decoder for APCO-25 1/2 rate Trellis Coded Modulation (TCM) encoded messages.  Produces output
+ * that is identical to the ViterbiDecoder_1_2_P25 decoder.
+ */
+public class TableViterbiDecoder_1_2_P25 extends TableViterbiDecoder
+{
+    public TableViterbiDecoder_1_2_P25()
+    {
+        super(2, P25_1_2_Node.TRANSITION_MATRIX);
+    }
+
+    /**
+     * Decodes a 1/2 rate trellis coded modulation (TCM) encoded P25 binary message containing 196 bits that have
+     * already been deinterleaved.
+     *
+     * @param encodedMessage to decode that has already been deinterleaved.
+     * @return decoded message
+     */
+    public CorrectedBinaryMessage decode(BinaryMessage encodedMessage)
+    {
+        return decode(encodedMessage, encodedMessage.size(), null);
+    }
+}
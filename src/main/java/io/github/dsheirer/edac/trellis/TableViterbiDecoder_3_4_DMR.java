@@ -0,0 +1,59 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.edac.trellis;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+
+/**
+ * Table-driven Viterbi decoder for Digital Mobile Radio (DMR) 3/4 rate Trellis Coded Modulation (TCM) encoded data
+ * blocks.  Produces output that is identical to the ViterbiDecoder_3_4_DMR decoder.
+ *
+ * Symbols are read directly from the interleaved message using an inverse of the deinterleave index map, so that a
+ * deinterleaved copy of the message is not created.
+ */
+public class TableViterbiDecoder_3_4_DMR extends TableViterbiDecoder
+{
+    private static final int ENCODED_BIT_LENGTH = 196;
+    private static final int[] INTERLEAVED_INDEXES = new int[ENCODED_BIT_LENGTH];
+
+    static
+    {
+        for(int x = 0; x < ENCODED_BIT_LENGTH; x++)
+        {
+            INTERLEAVED_INDEXES[ViterbiDecoder_3_4_DMR.DEINTERLEAVE_INDEXES[x]] = x;
+        }
+    }
+
+    public TableViterbiDecoder_3_4_DMR()
+    {
+        super(3, DMR_3_4_Node.DMR_TRANSITION_MATRIX);
+    }
+
+    /**
+     * Deinterleaves and decodes a 3/4 rate trellis coded modulation (TCM) encoded DMR binary message containing 196
+     * interleaved bits.
+     *
+     * @param encodedMessage to decode that is still interleaved.
+     * @return decoded message
+     */
+    public CorrectedBinaryMessage decode(CorrectedBinaryMessage encodedMessage)
+    {
+        return decode(encodedMessage, ENCODED_BIT_LENGTH, INTERLEAVED_INDEXES);
+    }
+}
@@ -31,6 +31,7 @@ import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.ChannelAutoStartFrame;
 import io.github.dsheirer.controller.channel.ChannelEvent;
 import io.github.dsheirer.controller.channel.ChannelSelectionManager;
+import io.github.dsheirer.dsp.filter.design.FilterDesignCache;
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.gui.icon.ViewIconManagerRequest;
 import io.github.dsheirer.gui.playlist.ViewPlaylistRequest;
@@ -44,6 +45,8 @@ import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.record.AudioRecordingManager;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.BufferPoolStatistics;
+import io.github.dsheirer.sample.buffer.ReusableBufferPool;
 import io.github.dsheirer.settings.SettingsManager;
 import io.github.dsheirer.source.SourceManager;
 import io.github.dsheirer.source.tuner.Tuner;
@@ -116,6 +119,7 @@ public class SDRTrunk implements Listener<TunerEvent>
     private AudioStreamingManager mAudioStreamingManager;
     private BroadcastStatusPanel mBroadcastStatusPanel;
     private ControllerPanel mControllerPanel;
+    private EventLogManager mEventLogManager;
     private IconModel mIconModel = new IconModel();
     private PlaylistManager mPlaylistManager;
     private SourceManager mSourceManager;
@@ -189,6 +193,13 @@ public class SDRTrunk implements Listener<TunerEvent>
         //Log current properties setting
         SystemProperties.getInstance().logCurrentSettings();
 
+        //Enable reusable buffer leak and double-release tracking when requested via system property
+        ReusableBufferPool.setDefaultDebugTracking(SystemProperties.getInstance()
+            .get(ReusableBufferPool.PROPERTY_DEBUG_TRACKING, false));
+
+        //Warm the filter design cache with filters designed during previous runs
+        ThreadPool.IO.submit(FilterDesignCache::load);
+
         //Register FontAwesome so we can use the fonts in Swing windows
         IconFontSwing.register(FontAwesome.getIconFont());
 
@@ -199,8 +210,8 @@ public class SDRTrunk implements Listener<TunerEvent>
         mSourceManager = new SourceManager(tunerModel, mSettingsManager, mUserPreferences);
 
         AliasModel aliasModel = new AliasModel();
-        EventLogManager eventLogManager = new EventLogManager(aliasModel, mUserPreferences);
-        mPlaylistManager = new PlaylistManager(mUserPreferences, mSourceManager, aliasModel, eventLogManager, mIconModel);
+        mEventLogManager = new EventLogManager(aliasModel, mUserPreferences);
+        mPlaylistManager = new PlaylistManager(mUserPreferences, mSourceManager, aliasModel, mEventLogManager, mIconModel);
         if (!mHeadlessMode) {
             mJavaFxWindowManager = new JavaFxWindowManager(mUserPreferences, mPlaylistManager);
         }
@@ -480,6 +491,10 @@ public class SDRTrunk implements Listener<TunerEvent>
     private void processShutdown()
     {
         mLog.info("Application shutdown started ...");
+        ThreadPool.logMetrics();
+        BufferPoolStatistics.logAll();
+        FilterDesignCache.logStatistics();
+        FilterDesignCache.save();
         if (mMainGui != null) 
         {
             mUserPreferences.getSwingPreference().setLocation(WINDOW_FRAME_IDENTIFIER, mMainGui.getLocation());
@@ -492,6 +507,7 @@ public class SDRTrunk implements Listener<TunerEvent>
         }
         mLog.info("Stopping channels ...");
         mPlaylistManager.getChannelProcessingManager().shutdown();
+        mEventLogManager.stop();
         mAudioRecordingManager.stop();
 
         if (mSpectralPanel != null) 
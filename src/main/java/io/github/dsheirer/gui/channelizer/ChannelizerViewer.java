@@ -378,7 +378,7 @@ public class ChannelizerViewer extends JFrame
                     {
                         if(mLoggingEnabled)
                         {
-                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamples()));
+                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamplesCopy()));
                         }
 
                         complexBuffer.incrementUserCount();
@@ -485,7 +485,7 @@ public class ChannelizerViewer extends JFrame
                     {
                         if(mLoggingEnabled)
                         {
-                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamples()));
+                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamplesCopy()));
                         }
 
                         complexBuffer.incrementUserCount();
@@ -394,7 +394,7 @@ public class ChannelizerViewer2 extends JFrame
                     {
                         if(mLoggingEnabled)
                         {
-                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamples()));
+                            mLog.debug("Samples:" + Arrays.toString(complexBuffer.getSamplesCopy()));
                         }
 
                         complexBuffer.incrementUserCount();
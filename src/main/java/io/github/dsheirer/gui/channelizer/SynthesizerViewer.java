@@ -78,7 +78,7 @@ public class SynthesizerViewer extends JFrame
 
     public void start()
     {
-        ThreadPool.SCHEDULED.scheduleAtFixedRate(new DataGenerationManager(), 0, 1000 / DATA_GENERATOR_FRAME_RATE, TimeUnit.MILLISECONDS);
+        ThreadPool.UI.scheduleAtFixedRate(new DataGenerationManager(), 0, 1000 / DATA_GENERATOR_FRAME_RATE, TimeUnit.MILLISECONDS);
     }
 
     private void init()
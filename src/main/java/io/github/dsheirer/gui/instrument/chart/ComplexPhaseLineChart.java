@@ -85,10 +85,11 @@ public class ComplexPhaseLineChart extends LineChart implements Listener<Reusabl
     public void receive(ReusableComplexBuffer complexBuffer)
     {
         float[] samples = complexBuffer.getSamples();
+        int length = complexBuffer.getLength();
 
         Complex sample;
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             sample = new Complex(samples[x], samples[x + 1]);
             Complex copy = sample.copy();
@@ -100,8 +100,9 @@ public class ComplexSampleLineChart extends LineChart implements Listener<Reusab
     public void receive(ReusableComplexBuffer complexBuffer)
     {
         float[] samples = complexBuffer.getSamples();
+        int length = complexBuffer.getLength();
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             receive(samples[x], samples[x + 1]);
         }
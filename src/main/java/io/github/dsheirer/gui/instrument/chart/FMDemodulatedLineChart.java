@@ -76,10 +76,11 @@ public class FMDemodulatedLineChart extends LineChart implements Listener<Reusab
     public void receive(ReusableComplexBuffer complexBuffer)
     {
         float[] samples = complexBuffer.getSamples();
+        int length = complexBuffer.getLength();
 
         Complex sample;
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             sample = new Complex(samples[x], samples[x + 1]);
             double demodulated = FMDemodulator.demodulate(mPreviousSample, sample);
@@ -67,9 +67,11 @@ public class RealSampleLineChart extends LineChart implements Listener<ReusableF
     @Override
     public void receive(ReusableFloatBuffer buffer)
     {
-        for(float sample: buffer.getSamples())
+        float[] samples = buffer.getSamples();
+
+        for(int x = 0; x < buffer.getLength(); x++)
         {
-            mRealCircularBuffer.put(sample);
+            mRealCircularBuffer.put(samples[x]);
         }
 
         float[] bufferSamples = mRealCircularBuffer.get();
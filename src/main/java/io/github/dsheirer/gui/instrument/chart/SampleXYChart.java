@@ -70,8 +70,9 @@ public class SampleXYChart extends PolarChart<XYChartItem> implements Listener<R
     public void receive(ReusableComplexBuffer buffer)
     {
         float[] samples = buffer.getSamples();
+        int length = buffer.getLength();
 
-        for(int x = 0; x < samples.length; x += 2)
+        for(int x = 0; x < length; x += 2)
         {
             mCircularBuffer.put(new Complex(samples[x], samples[x + 1]));
         }
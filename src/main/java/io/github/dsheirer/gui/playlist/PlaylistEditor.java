@@ -176,7 +176,7 @@ public class PlaylistEditor extends BorderPane
                 String filename = TimeStamp.getTimeStamp("_") + "_screen_capture.png";
                 final Path captureFile = mUserPreferences.getDirectoryPreference().getDirectoryScreenCapture().resolve(filename);
 
-                ThreadPool.SCHEDULED.execute(() -> {
+                ThreadPool.UI.execute(() -> {
                     try
                     {
                         ImageIO.write(bufferedImage, "png", captureFile.toFile());
@@ -200,7 +200,7 @@ public class ClipEditor extends ActionEditor<ClipAction>
             final TestMessage testMessage = new TestMessage();
             final Alias testAlias = new Alias("Test Alias");
 
-            ThreadPool.SCHEDULED.submit(new Runnable()
+            ThreadPool.UI.submit(new Runnable()
             {
                 @Override
                 public void run()
@@ -71,6 +71,7 @@ import org.controlsfx.control.textfield.TextFields;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -323,13 +324,18 @@ public class SystemTalkgroupSelectionEditor extends GridPane
                 }
                 else
                 {
+                    List<Alias> aliases = new ArrayList<>();
+
                     for(AliasedTalkgroup aliasedTalkgroup : mTalkgroupFilteredList)
                     {
                         if(!aliasedTalkgroup.hasAlias())
                         {
-                            createAlias(aliasedTalkgroup.getTalkgroup());
+                            aliases.add(buildAlias(aliasedTalkgroup.getTalkgroup()));
                         }
                     }
+
+                    //Add as a single batch so that the alias list lookup indexes are rebuilt once
+                    mPlaylistManager.getAliasModel().addAliases(aliases);
                 }
             });
         }
@@ -342,6 +348,16 @@ public class SystemTalkgroupSelectionEditor extends GridPane
      * @param talkgroup to alias
      */
     public void createAlias(Talkgroup talkgroup)
+    {
+        mPlaylistManager.getAliasModel().addAlias(buildAlias(talkgroup));
+    }
+
+    /**
+     * Creates an alias for the specified talkgroup for the currently selected alias list
+     * @param talkgroup to alias
+     * @return alias
+     */
+    private Alias buildAlias(Talkgroup talkgroup)
     {
         TalkgroupCategory talkgroupCategory = getTalkgroupCategory(talkgroup);
         String group = (talkgroupCategory != null ? talkgroupCategory.getName() : null);
@@ -355,7 +371,7 @@ public class SystemTalkgroupSelectionEditor extends GridPane
             alias.addAliasID(new io.github.dsheirer.alias.id.priority.Priority(priority));
         }
 
-        mPlaylistManager.getAliasModel().addAlias(alias);
+        return alias;
     }
 
     /**
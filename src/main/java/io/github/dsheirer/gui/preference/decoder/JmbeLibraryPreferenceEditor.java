@@ -168,7 +168,7 @@ public class JmbeLibraryPreferenceEditor extends VBox
      */
     private void checkForUpdatedLibrary()
     {
-        ThreadPool.SCHEDULED.execute(() -> {
+        ThreadPool.UI.execute(() -> {
             try
             {
                 Version current = mUserPreferences.getJmbeLibraryPreference().getCurrentVersion();
@@ -25,6 +25,8 @@ package io.github.dsheirer.gui.preference.tuner;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.source.ChannelizerType;
 import io.github.dsheirer.preference.source.TunerPreference;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
@@ -35,6 +37,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import org.controlsfx.control.ToggleSwitch;
 
 
 /**
@@ -55,6 +58,12 @@ public class TunerPreferenceEditor extends HBox
     private Label mHelpTextPolyphaseLabel;
     private Label mHeterodyneLabel;
     private Label mHelpTextHeterodyneLabel;
+    private ChoiceBox<Implementation> mImplementationChoiceBox;
+    private Label mImplementationLabel;
+    private ToggleSwitch mPipelineModeSwitch;
+    private Label mPipelineModeLabel;
+    private ToggleSwitch mEventDrivenSwitch;
+    private Label mEventDrivenLabel;
 
     public TunerPreferenceEditor(UserPreferences userPreferences)
     {
@@ -79,6 +88,16 @@ public class TunerPreferenceEditor extends HBox
             mEditorPane.add(new Label(" "), 0, 6);
             mEditorPane.add(getHeterodyneLabel(), 0, 7, 2, 1);
             mEditorPane.add(getHelpTextHeterodyneLabel(), 0, 8, 2, 3);
+            mEditorPane.add(new Separator(Orientation.HORIZONTAL), 0, 11, 2, 1);
+            GridPane.setHalignment(getImplementationLabel(), HPos.LEFT);
+            mEditorPane.add(getImplementationLabel(), 0, 12);
+            mEditorPane.add(getImplementationChoiceBox(), 1, 12);
+            GridPane.setHalignment(getPipelineModeLabel(), HPos.LEFT);
+            mEditorPane.add(getPipelineModeLabel(), 0, 13);
+            mEditorPane.add(getPipelineModeSwitch(), 1, 13);
+            GridPane.setHalignment(getEventDrivenLabel(), HPos.LEFT);
+            mEditorPane.add(getEventDrivenLabel(), 0, 14);
+            mEditorPane.add(getEventDrivenSwitch(), 1, 14);
         }
 
         return mEditorPane;
@@ -120,6 +139,108 @@ public class TunerPreferenceEditor extends HBox
         return mChannelizerTypeChoiceBox;
     }
 
+    private Label getImplementationLabel()
+    {
+        if(mImplementationLabel == null)
+        {
+            mImplementationLabel = new Label("Polyphase Implementation");
+        }
+
+        return mImplementationLabel;
+    }
+
+    private ChoiceBox<Implementation> getImplementationChoiceBox()
+    {
+        if(mImplementationChoiceBox == null)
+        {
+            mImplementationChoiceBox = new ChoiceBox<>();
+            mImplementationChoiceBox.getItems().add(Implementation.SCALAR);
+
+            if(VectorUtilities.isVectorApiAvailable())
+            {
+                mImplementationChoiceBox.getItems().add(Implementation.VECTOR);
+            }
+
+            mImplementationChoiceBox.getSelectionModel().select(mTunerPreference.getChannelizerImplementation());
+
+            mImplementationChoiceBox.setOnAction(event -> {
+                Implementation selected = mImplementationChoiceBox.getSelectionModel().getSelectedItem();
+                mTunerPreference.setChannelizerImplementation(selected);
+
+                Label label = new Label("Please restart the application for this change to take effect");
+                label.setWrapText(true);
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.getDialogPane().setContent(label);
+                alert.initOwner(((Node)getImplementationChoiceBox()).getScene().getWindow());
+                alert.show();
+            });
+        }
+
+        return mImplementationChoiceBox;
+    }
+
+    private Label getPipelineModeLabel()
+    {
+        if(mPipelineModeLabel == null)
+        {
+            mPipelineModeLabel = new Label("Polyphase Parallel Channel Processing");
+        }
+
+        return mPipelineModeLabel;
+    }
+
+    private ToggleSwitch getPipelineModeSwitch()
+    {
+        if(mPipelineModeSwitch == null)
+        {
+            mPipelineModeSwitch = new ToggleSwitch();
+            mPipelineModeSwitch.setSelected(mTunerPreference.getChannelizerPipelineMode());
+            mPipelineModeSwitch.selectedProperty().addListener((observable, oldValue, newValue) -> {
+                mTunerPreference.setChannelizerPipelineMode(newValue);
+
+                Label label = new Label("Please restart the application for this change to take effect");
+                label.setWrapText(true);
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.getDialogPane().setContent(label);
+                alert.initOwner(((Node)getPipelineModeSwitch()).getScene().getWindow());
+                alert.show();
+            });
+        }
+
+        return mPipelineModeSwitch;
+    }
+
+    private Label getEventDrivenLabel()
+    {
+        if(mEventDrivenLabel == null)
+        {
+            mEventDrivenLabel = new Label("Process Channel Samples On Arrival");
+        }
+
+        return mEventDrivenLabel;
+    }
+
+    private ToggleSwitch getEventDrivenSwitch()
+    {
+        if(mEventDrivenSwitch == null)
+        {
+            mEventDrivenSwitch = new ToggleSwitch();
+            mEventDrivenSwitch.setSelected(mTunerPreference.getChannelEventDriven());
+            mEventDrivenSwitch.selectedProperty().addListener((observable, oldValue, newValue) -> {
+                mTunerPreference.setChannelEventDriven(newValue);
+
+                Label label = new Label("Please restart the application for this change to take effect");
+                label.setWrapText(true);
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.getDialogPane().setContent(label);
+                alert.initOwner(((Node)getEventDrivenSwitch()).getScene().getWindow());
+                alert.show();
+            });
+        }
+
+        return mEventDrivenSwitch;
+    }
+
     private Label getPolyphaseLabel()
     {
         if(mPolyphaseLabel == null)
@@ -125,7 +125,7 @@ public class JmbeCreator
 
         if(asset != null)
         {
-            ThreadPool.SCHEDULED.execute(() -> {
+            ThreadPool.IO.execute(() -> {
                 Path tempDirectory = null;
                 try
                 {
@@ -209,6 +209,23 @@ public class ProcessingChain implements Listener<ChannelEvent>
         }
     }
 
+    /**
+     * Traffic channel manager module contained in this processing chain.
+     * @return traffic channel manager or null if this chain does not contain a traffic channel manager.
+     */
+    public TrafficChannelManager getTrafficChannelManager()
+    {
+        for(Module module : mModules)
+        {
+            if(module instanceof TrafficChannelManager)
+            {
+                return (TrafficChannelManager)module;
+            }
+        }
+
+        return null;
+    }
+
     public void dispose()
     {
         stop();
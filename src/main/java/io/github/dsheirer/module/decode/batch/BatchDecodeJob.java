@@ -0,0 +1,360 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.batch;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.AbstractAudioModule;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.message.IMessageListener;
+import io.github.dsheirer.message.MessageProviderModule;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.module.decode.DecoderFactory;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.module.decode.dmr.DMRMessageFramer;
+import io.github.dsheirer.module.decode.dmr.DMRMessageProcessor;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEventListener;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageFramer;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageProcessor;
+import io.github.dsheirer.module.decode.p25.phase2.DecodeConfigP25Phase2;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2MessageFramer;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2MessageProcessor;
+import io.github.dsheirer.module.log.DecodeEventLogger;
+import io.github.dsheirer.module.log.LogOverflowPolicy;
+import io.github.dsheirer.module.log.MessageEventLogger;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.binary.BinaryReader;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableByteBuffer;
+import io.github.dsheirer.source.wave.ComplexWaveSource;
+import io.github.dsheirer.source.wave.ReplayMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Decodes a single baseband (.wav) or demodulated bitstream (.bits) recording with its own processing chain and
+ * writes the decoded messages and decode events to a per-recording output directory.  Baseband recordings are
+ * replayed through the full decoder module set as fast as the decoders can consume the samples.  Bitstream
+ * recordings bypass the demodulator and are fed directly to the message framer for DMR and P25 decoders.
+ */
+public class BatchDecodeJob implements Callable<BatchDecodeResult>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BatchDecodeJob.class);
+    private static final int BITSTREAM_BUFFER_SIZE = 200;
+
+    private Path mRecording;
+    private Path mOutputDirectory;
+    private Channel mChannel;
+    private AliasModel mAliasModel;
+    private ChannelMapModel mChannelMapModel;
+    private UserPreferences mUserPreferences;
+    private boolean mAudioEnabled;
+
+    /**
+     * Constructs an instance
+     *
+     * @param recording to decode
+     * @param outputDirectory parent directory.  A sub-directory named for the recording is created for the logs.
+     * @param channel configuration to decode with.  This job takes ownership of the channel, so each job should
+     * receive its own channel copy.
+     * @param aliasModel containing aliases for the channel's alias list
+     * @param channelMapModel for decoders that use channel maps
+     * @param userPreferences for the decoder modules
+     * @param audioEnabled to include the audio modules in the processing chain
+     */
+    public BatchDecodeJob(Path recording, Path outputDirectory, Channel channel, AliasModel aliasModel,
+                          ChannelMapModel channelMapModel, UserPreferences userPreferences, boolean audioEnabled)
+    {
+        mRecording = recording;
+        mOutputDirectory = outputDirectory;
+        mChannel = channel;
+        mAliasModel = aliasModel;
+        mChannelMapModel = channelMapModel;
+        mUserPreferences = userPreferences;
+        mAudioEnabled = audioEnabled;
+    }
+
+    /**
+     * Recording decoded by this job
+     */
+    public Path getRecording()
+    {
+        return mRecording;
+    }
+
+    /**
+     * Indicates if the file is a supported baseband or bitstream recording
+     */
+    public static boolean isSupported(Path path)
+    {
+        return isBaseband(path) || isBitstream(path);
+    }
+
+    private static boolean isBaseband(Path path)
+    {
+        return path.getFileName().toString().toLowerCase().endsWith(".wav");
+    }
+
+    private static boolean isBitstream(Path path)
+    {
+        return path.getFileName().toString().toLowerCase().endsWith(".bits");
+    }
+
+    @Override
+    public BatchDecodeResult call()
+    {
+        BatchDecodeResult result = new BatchDecodeResult(mRecording);
+        long start = System.nanoTime();
+        ProcessingChain processingChain = null;
+
+        try
+        {
+            Path logDirectory = mOutputDirectory.resolve(getBaseName(mRecording));
+            Files.createDirectories(logDirectory);
+
+            processingChain = new ProcessingChain(mChannel, mAliasModel);
+
+            for(Module module: DecoderFactory.getModules(mChannelMapModel, mChannel, mAliasModel, mUserPreferences,
+                null))
+            {
+                if(mAudioEnabled || !(module instanceof AbstractAudioModule))
+                {
+                    processingChain.addModule(module);
+                }
+            }
+
+            DecodeEventLogger decodeEventLogger = new DecodeEventLogger(mAliasModel, logDirectory,
+                "decoded_events.log", 0);
+            decodeEventLogger.setOverflowPolicy(LogOverflowPolicy.BLOCK);
+            processingChain.addModule(decodeEventLogger);
+
+            MessageEventLogger messageEventLogger = new MessageEventLogger(logDirectory, "decoded_messages.log",
+                MessageEventLogger.Type.DECODED, 0);
+            messageEventLogger.setOverflowPolicy(LogOverflowPolicy.BLOCK);
+            processingChain.addModule(messageEventLogger);
+
+            processingChain.addModule(new StatisticsModule(result));
+
+            if(isBaseband(mRecording))
+            {
+                decodeBaseband(processingChain, result);
+            }
+            else if(isBitstream(mRecording))
+            {
+                decodeBitstream(processingChain, result);
+            }
+            else
+            {
+                throw new IllegalArgumentException("Unsupported recording file type");
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error decoding recording [" + mRecording + "]", t);
+            result.setError(t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName());
+        }
+        finally
+        {
+            if(processingChain != null)
+            {
+                processingChain.dispose();
+            }
+
+            result.setElapsedNanoseconds(System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    /**
+     * Replays a complex baseband recording through the processing chain as fast as possible.
+     */
+    private void decodeBaseband(ProcessingChain processingChain, BatchDecodeResult result) throws Exception
+    {
+        ComplexWaveSource source = new ComplexWaveSource(mRecording.toFile(), false, ReplayMode.FAST);
+
+        //Open the source before starting the chain so that the decoders receive the correct sample rate
+        source.open();
+        processingChain.setSource(source);
+        processingChain.start();
+
+        try
+        {
+            result.setComplete(source.replay());
+            result.setRecordingSeconds(source.getReplayedFrameCount() / source.getSampleRate());
+        }
+        finally
+        {
+            processingChain.stop();
+        }
+    }
+
+    /**
+     * Feeds a demodulated bitstream recording directly to the message framer for the channel's decoder.  Since the
+     * processing chain doesn't have a source, the modules are started and stopped here.
+     */
+    private void decodeBitstream(ProcessingChain processingChain, BatchDecodeResult result) throws IOException
+    {
+        DecodeConfiguration config = mChannel.getDecodeConfiguration();
+        MessageProviderModule messageProviderModule = new MessageProviderModule();
+        processingChain.addModule(messageProviderModule);
+        Listener<ReusableByteBuffer> framer = getBitstreamFramer(config, messageProviderModule);
+
+        List<Module> modules = new ArrayList<>(processingChain.getModules());
+
+        for(Module module: modules)
+        {
+            module.start();
+        }
+
+        long bytes = 0;
+
+        try(BinaryReader reader = new BinaryReader(mRecording, BITSTREAM_BUFFER_SIZE))
+        {
+            while(reader.hasNext())
+            {
+                ReusableByteBuffer buffer = reader.next();
+                bytes += buffer.getSampleCount();
+                framer.receive(buffer);
+            }
+        }
+        finally
+        {
+            for(Module module: modules)
+            {
+                module.stop();
+            }
+        }
+
+        result.setRecordingSeconds(bytes * 8.0 / config.getDecoderType().getProtocol().getBitRate());
+        result.setComplete(true);
+    }
+
+    /**
+     * Creates a message framer and message processor chain for the decode configuration that delivers decoded
+     * messages to the message provider module.
+     *
+     * @return framer to receive the bitstream buffers
+     * @throws IllegalArgumentException if the decoder doesn't support bitstream recordings
+     */
+    private static Listener<ReusableByteBuffer> getBitstreamFramer(DecodeConfiguration config,
+                                                                  MessageProviderModule messageProviderModule)
+    {
+        DecoderType decoderType = config.getDecoderType();
+        int bitRate = decoderType.getProtocol().getBitRate();
+
+        switch(decoderType)
+        {
+            case DMR:
+                DMRMessageFramer dmrFramer = new DMRMessageFramer(null);
+                DMRMessageProcessor dmrProcessor = new DMRMessageProcessor((DecodeConfigDMR)config);
+                dmrFramer.setListener(dmrProcessor);
+                dmrProcessor.setMessageListener(messageProviderModule::receive);
+                return dmrFramer::receive;
+            case P25_PHASE1:
+                P25P1MessageFramer p1Framer = new P25P1MessageFramer(null, bitRate);
+                P25P1MessageProcessor p1Processor = new P25P1MessageProcessor();
+                p1Framer.setListener(p1Processor);
+                p1Processor.setMessageListener(messageProviderModule::receive);
+                return p1Framer::receive;
+            case P25_PHASE2:
+                P25P2MessageFramer p2Framer = new P25P2MessageFramer(null, bitRate);
+                p2Framer.setScrambleParameters(((DecodeConfigP25Phase2)config).getScrambleParameters());
+                P25P2MessageProcessor p2Processor = new P25P2MessageProcessor();
+                p2Framer.setListener(p2Processor);
+                p2Processor.setMessageListener(messageProviderModule::receive);
+                return p2Framer::receive;
+            default:
+                throw new IllegalArgumentException("Bitstream recordings are not supported for the " +
+                    decoderType + " decoder");
+        }
+    }
+
+    /**
+     * File name without the extension
+     */
+    private static String getBaseName(Path path)
+    {
+        String name = path.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * Counts decoded messages and unique decode events for the batch decode result.  Decode events are rebroadcast
+     * each time they're updated, so events are tracked by instance to count each event once.
+     */
+    public static class StatisticsModule extends Module implements IMessageListener, IDecodeEventListener
+    {
+        private BatchDecodeResult mResult;
+        private Set<IDecodeEvent> mDecodeEvents = Collections.newSetFromMap(new WeakHashMap<>());
+
+        public StatisticsModule(BatchDecodeResult result)
+        {
+            mResult = result;
+        }
+
+        @Override
+        public Listener<IMessage> getMessageListener()
+        {
+            return message -> mResult.messageDecoded(message.isValid());
+        }
+
+        @Override
+        public Listener<IDecodeEvent> getDecodeEventListener()
+        {
+            return decodeEvent -> {
+                if(mDecodeEvents.add(decodeEvent))
+                {
+                    mResult.decodeEvent();
+                }
+            };
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+    }
+}
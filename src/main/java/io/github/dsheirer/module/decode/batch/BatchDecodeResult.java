@@ -0,0 +1,215 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.batch;
+
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decode statistics for a single recording processed by the batch decoder.
+ */
+public class BatchDecodeResult
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+
+    private Path mRecording;
+    private double mRecordingSeconds;
+    private long mElapsedNanoseconds;
+    private AtomicLong mMessageCount = new AtomicLong();
+    private AtomicLong mValidMessageCount = new AtomicLong();
+    private AtomicLong mDecodeEventCount = new AtomicLong();
+    private boolean mComplete;
+    private String mError;
+
+    /**
+     * Constructs an instance
+     * @param recording that was decoded
+     */
+    public BatchDecodeResult(Path recording)
+    {
+        mRecording = recording;
+    }
+
+    /**
+     * Recording file
+     */
+    public Path getRecording()
+    {
+        return mRecording;
+    }
+
+    /**
+     * Duration of the recording in seconds, derived from the sample rate or bit rate
+     */
+    public double getRecordingSeconds()
+    {
+        return mRecordingSeconds;
+    }
+
+    public void setRecordingSeconds(double recordingSeconds)
+    {
+        mRecordingSeconds = recordingSeconds;
+    }
+
+    /**
+     * Wall clock time spent decoding the recording
+     */
+    public long getElapsedNanoseconds()
+    {
+        return mElapsedNanoseconds;
+    }
+
+    public void setElapsedNanoseconds(long elapsedNanoseconds)
+    {
+        mElapsedNanoseconds = elapsedNanoseconds;
+    }
+
+    /**
+     * Decode speed as a multiple of real time
+     */
+    public double getSpeed()
+    {
+        if(mElapsedNanoseconds > 0)
+        {
+            return mRecordingSeconds / (mElapsedNanoseconds / 1E9);
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Number of messages produced by the decoder
+     */
+    public long getMessageCount()
+    {
+        return mMessageCount.get();
+    }
+
+    /**
+     * Number of messages produced by the decoder that passed error detection/correction
+     */
+    public long getValidMessageCount()
+    {
+        return mValidMessageCount.get();
+    }
+
+    /**
+     * Counts a decoded message
+     * @param valid true if the message is valid
+     */
+    public void messageDecoded(boolean valid)
+    {
+        mMessageCount.incrementAndGet();
+
+        if(valid)
+        {
+            mValidMessageCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Number of decode events produced by the decoder states
+     */
+    public long getDecodeEventCount()
+    {
+        return mDecodeEventCount.get();
+    }
+
+    /**
+     * Counts a decode event
+     */
+    public void decodeEvent()
+    {
+        mDecodeEventCount.incrementAndGet();
+    }
+
+    /**
+     * Indicates if the full recording was processed
+     */
+    public boolean isComplete()
+    {
+        return mComplete;
+    }
+
+    public void setComplete(boolean complete)
+    {
+        mComplete = complete;
+    }
+
+    /**
+     * Error description when the recording could not be processed, or null
+     */
+    public String getError()
+    {
+        return mError;
+    }
+
+    public void setError(String error)
+    {
+        mError = error;
+    }
+
+    /**
+     * CSV header for the summary file
+     */
+    public static String getCSVHeader()
+    {
+        return "RECORDING,RECORDING SECONDS,ELAPSED SECONDS,SPEED,MESSAGES,VALID MESSAGES,DECODE EVENTS,STATUS";
+    }
+
+    /**
+     * CSV row for the summary file
+     */
+    public String toCSV()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"").append(mRecording.getFileName()).append("\",");
+        sb.append(DECIMAL_FORMAT.format(mRecordingSeconds)).append(",");
+        sb.append(DECIMAL_FORMAT.format(mElapsedNanoseconds / 1E9)).append(",");
+        sb.append(DECIMAL_FORMAT.format(getSpeed())).append(",");
+        sb.append(getMessageCount()).append(",");
+        sb.append(getValidMessageCount()).append(",");
+        sb.append(getDecodeEventCount()).append(",");
+        sb.append("\"").append(getStatus()).append("\"");
+        return sb.toString();
+    }
+
+    /**
+     * Processing status: COMPLETE, INCOMPLETE or the error description
+     */
+    public String getStatus()
+    {
+        if(mError != null)
+        {
+            return "ERROR: " + mError;
+        }
+
+        return mComplete ? "COMPLETE" : "INCOMPLETE";
+    }
+
+    @Override
+    public String toString()
+    {
+        return mRecording.getFileName() + " - " + DECIMAL_FORMAT.format(mRecordingSeconds) + " seconds decoded in " +
+            DECIMAL_FORMAT.format(mElapsedNanoseconds / 1E9) + " seconds (" + DECIMAL_FORMAT.format(getSpeed()) +
+            "x real time) messages: " + getMessageCount() + " valid: " + getValidMessageCount() +
+            " decode events: " + getDecodeEventCount() + " " + getStatus();
+    }
+}
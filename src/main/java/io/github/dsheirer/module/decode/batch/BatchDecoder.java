@@ -0,0 +1,392 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.batch;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.module.decode.DecoderFactory;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.playlist.PlaylistV2;
+import io.github.dsheirer.preference.UserPreferences;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch decoder.  Decodes a directory of baseband (.wav) and bitstream (.bits) recordings in parallel,
+ * using one processing chain per recording on a work-stealing thread pool, and writes the decoded messages, decode
+ * events and per-recording decode statistics to an output directory.
+ *
+ * The decoder configuration is either the default configuration for a decoder type, or the configuration and
+ * aliases of a channel from a playlist.  Audio modules are excluded unless requested and traffic channel grants are
+ * logged but are not followed, since there is no tuner to allocate traffic channels from.
+ */
+public class BatchDecoder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BatchDecoder.class);
+    public static final String SUMMARY_FILE_NAME = "batch_decode_summary.csv";
+
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+
+    private Path mOutputDirectory;
+    private Channel mChannel;
+    private List<Alias> mAliases = new ArrayList<>();
+    private List<ChannelMap> mChannelMaps = new ArrayList<>();
+    private UserPreferences mUserPreferences = new UserPreferences();
+    private int mThreads;
+    private boolean mAudioEnabled;
+    private boolean mTrafficChannel;
+
+    /**
+     * Constructs an instance
+     *
+     * @param outputDirectory for the per-recording logs and the batch summary
+     * @param channel template with the decode configuration and alias list name.  Each job receives a copy.
+     * @param threads for the decoder thread pool
+     * @param audioEnabled to include the audio modules in each processing chain
+     * @param trafficChannel to decode each recording as a traffic channel
+     */
+    public BatchDecoder(Path outputDirectory, Channel channel, int threads, boolean audioEnabled,
+                        boolean trafficChannel)
+    {
+        mOutputDirectory = outputDirectory;
+        mChannel = channel;
+        mThreads = Math.max(1, threads);
+        mAudioEnabled = audioEnabled;
+        mTrafficChannel = trafficChannel;
+    }
+
+    /**
+     * Aliases to use for each recording.  Only aliases in the channel's alias list are applied.
+     */
+    public void setAliases(List<Alias> aliases)
+    {
+        mAliases = aliases;
+    }
+
+    /**
+     * Channel maps for decoders that use them
+     */
+    public void setChannelMaps(List<ChannelMap> channelMaps)
+    {
+        mChannelMaps = channelMaps;
+    }
+
+    /**
+     * Decodes the recordings, largest first so that the longest jobs don't start last, and writes the batch summary
+     * to the output directory.
+     *
+     * @param recordings to decode
+     * @return decode results in the same order as the recordings
+     */
+    public List<BatchDecodeResult> decode(List<Path> recordings) throws IOException, InterruptedException
+    {
+        Files.createDirectories(mOutputDirectory);
+
+        List<Path> ordered = new ArrayList<>(recordings);
+        ordered.sort(Comparator.comparingLong(BatchDecoder::getSize).reversed());
+
+        ExecutorService executorService = Executors.newWorkStealingPool(mThreads);
+        List<Future<BatchDecodeResult>> futures = new ArrayList<>();
+
+        for(Path recording: ordered)
+        {
+            futures.add(executorService.submit(createJob(recording)));
+        }
+
+        List<BatchDecodeResult> results = new ArrayList<>();
+
+        try
+        {
+            for(int x = 0; x < ordered.size(); x++)
+            {
+                BatchDecodeResult result;
+
+                try
+                {
+                    result = futures.get(x).get();
+                }
+                catch(ExecutionException ee)
+                {
+                    result = new BatchDecodeResult(ordered.get(x));
+                    result.setError(ee.getCause() != null ? ee.getCause().getMessage() : ee.getMessage());
+                }
+
+                mLog.info(result.toString());
+                results.add(result);
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+
+        results.sort(Comparator.comparingInt(result -> recordings.indexOf(result.getRecording())));
+        writeSummary(results);
+        return results;
+    }
+
+    /**
+     * Creates a decode job with its own channel and alias model so that the jobs don't share decoder state.
+     */
+    private BatchDecodeJob createJob(Path recording)
+    {
+        Channel channel = new Channel(mChannel.getName(), mTrafficChannel ? Channel.ChannelType.TRAFFIC :
+            Channel.ChannelType.STANDARD);
+        channel.setSystem(mChannel.getSystem());
+        channel.setSite(mChannel.getSite());
+        channel.setAliasListName(mChannel.getAliasListName());
+        channel.setDecodeConfiguration(DecoderFactory.copy(mChannel.getDecodeConfiguration()));
+
+        AliasModel aliasModel = new AliasModel();
+        aliasModel.addAliases(mAliases);
+
+        ChannelMapModel channelMapModel = new ChannelMapModel();
+        channelMapModel.addChannelMaps(mChannelMaps);
+
+        return new BatchDecodeJob(recording, mOutputDirectory, channel, aliasModel, channelMapModel,
+            mUserPreferences, mAudioEnabled);
+    }
+
+    /**
+     * Writes the per-recording results to the summary CSV file in the output directory
+     */
+    private void writeSummary(List<BatchDecodeResult> results) throws IOException
+    {
+        try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(mOutputDirectory.resolve(SUMMARY_FILE_NAME))))
+        {
+            writer.println(BatchDecodeResult.getCSVHeader());
+
+            for(BatchDecodeResult result: results)
+            {
+                writer.println(result.toCSV());
+            }
+        }
+    }
+
+    /**
+     * Lists the supported recordings in the directory, or the single recording when the path is a file.
+     */
+    public static List<Path> getRecordings(Path path) throws IOException
+    {
+        if(!Files.isDirectory(path))
+        {
+            return BatchDecodeJob.isSupported(path) ? Collections.singletonList(path) : Collections.emptyList();
+        }
+
+        try(Stream<Path> stream = Files.list(path))
+        {
+            return stream.filter(Files::isRegularFile).filter(BatchDecodeJob::isSupported).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static long getSize(Path path)
+    {
+        try
+        {
+            return Files.size(path);
+        }
+        catch(IOException ioe)
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Loads the playlist from the file
+     */
+    private static PlaylistV2 loadPlaylist(Path playlistPath) throws IOException
+    {
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        ObjectMapper objectMapper = new XmlMapper(xmlModule)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        try(InputStream in = Files.newInputStream(playlistPath))
+        {
+            return objectMapper.readValue(in, PlaylistV2.class);
+        }
+    }
+
+    /**
+     * Finds the named channel in the playlist
+     *
+     * @throws IllegalArgumentException if the playlist doesn't contain the channel
+     */
+    private static Channel getChannel(PlaylistV2 playlist, String channelName)
+    {
+        for(Channel channel: playlist.getChannels())
+        {
+            if(channel.getName() != null && channel.getName().equals(channelName))
+            {
+                return channel;
+            }
+        }
+
+        throw new IllegalArgumentException("Playlist does not contain a channel named [" + channelName + "]");
+    }
+
+    public static void main(String[] args)
+    {
+        Options options = new Options();
+        options.addOption("i", "input", true, "Recording file or directory of .wav and .bits recordings");
+        options.addOption("o", "output", true, "Output directory (default: <input>/batch_decode)");
+        options.addOption("d", "decoder", true, "Decoder type with default configuration (e.g. P25_PHASE1)");
+        options.addOption("p", "playlist", true, "Playlist containing the channel to decode with");
+        options.addOption("c", "channel", true, "Name of the playlist channel to decode with");
+        options.addOption("t", "threads", true, "Decoder threads (default: available processors)");
+        options.addOption(null, "audio", false, "Includes the audio modules in each processing chain");
+        options.addOption(null, "traffic", false, "Decodes the recordings as traffic channels");
+        options.addOption("h", "help", false, "Displays usage information");
+
+        CommandLine cli;
+
+        try
+        {
+            cli = new DefaultParser().parse(options, args);
+        }
+        catch(ParseException pe)
+        {
+            mLog.error("Error parsing command line options - " + pe.getMessage());
+            new HelpFormatter().printHelp("BatchDecoder", options);
+            System.exit(1);
+            return;
+        }
+
+        if(cli.hasOption("help") || !cli.hasOption("input") ||
+            (!cli.hasOption("decoder") && !(cli.hasOption("playlist") && cli.hasOption("channel"))))
+        {
+            new HelpFormatter().printHelp("BatchDecoder", options);
+            System.exit(cli.hasOption("help") ? 0 : 1);
+            return;
+        }
+
+        int exitCode = 0;
+
+        try
+        {
+            Path input = Paths.get(cli.getOptionValue("input"));
+            Path output = cli.hasOption("output") ? Paths.get(cli.getOptionValue("output")) :
+                (Files.isDirectory(input) ? input : input.toAbsolutePath().getParent()).resolve("batch_decode");
+            int threads = cli.hasOption("threads") ? Integer.parseInt(cli.getOptionValue("threads")) :
+                Runtime.getRuntime().availableProcessors();
+
+            PlaylistV2 playlist = null;
+            Channel channel;
+
+            if(cli.hasOption("playlist") && cli.hasOption("channel"))
+            {
+                playlist = loadPlaylist(Paths.get(cli.getOptionValue("playlist")));
+                channel = getChannel(playlist, cli.getOptionValue("channel"));
+            }
+            else
+            {
+                DecoderType decoderType = DecoderType.valueOf(cli.getOptionValue("decoder").toUpperCase());
+                DecodeConfiguration config = DecoderFactory.getDecodeConfiguration(decoderType);
+                channel = new Channel("Batch " + decoderType);
+                channel.setDecodeConfiguration(config);
+            }
+
+            BatchDecoder batchDecoder = new BatchDecoder(output, channel, threads, cli.hasOption("audio"),
+                cli.hasOption("traffic"));
+
+            if(playlist != null)
+            {
+                batchDecoder.setAliases(playlist.getAliases());
+                batchDecoder.setChannelMaps(playlist.getChannelMaps());
+            }
+
+            List<Path> recordings = getRecordings(input);
+
+            if(recordings.isEmpty())
+            {
+                mLog.error("No .wav or .bits recordings found at [" + input + "]");
+                System.exit(1);
+                return;
+            }
+
+            mLog.info("Batch decoding [" + recordings.size() + "] recordings with [" + threads + "] threads to [" +
+                output + "]");
+
+            long start = System.nanoTime();
+            List<BatchDecodeResult> results = batchDecoder.decode(recordings);
+            double elapsedSeconds = (System.nanoTime() - start) / 1E9;
+
+            double recordingSeconds = 0.0;
+            int failed = 0;
+
+            for(BatchDecodeResult result: results)
+            {
+                recordingSeconds += result.getRecordingSeconds();
+
+                if(result.getError() != null)
+                {
+                    failed++;
+                }
+            }
+
+            mLog.info("Batch decode complete - recordings [" + results.size() + "] failed [" + failed +
+                "] recording time [" + DECIMAL_FORMAT.format(recordingSeconds) + " secs] elapsed [" +
+                DECIMAL_FORMAT.format(elapsedSeconds) + " secs] aggregate speed [" +
+                DECIMAL_FORMAT.format(elapsedSeconds > 0 ? recordingSeconds / elapsedSeconds : 0) +
+                "x real time] summary [" + output.resolve(SUMMARY_FILE_NAME) + "]");
+
+            exitCode = failed > 0 ? 2 : 0;
+        }
+        catch(Exception e)
+        {
+            mLog.error("Batch decode failed", e);
+            exitCode = 1;
+        }
+
+        System.exit(exitCode);
+    }
+}
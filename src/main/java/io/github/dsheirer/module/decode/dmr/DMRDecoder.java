@@ -21,8 +21,7 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.gain.ComplexFilterGainStage;
 import io.github.dsheirer.dsp.psk.DQPSKDecisionDirectedDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -45,9 +44,6 @@ import io.github.dsheirer.source.SourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * DMR decoder module.
  */
@@ -61,9 +57,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private DMRMessageProcessor mMessageProcessor;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
-    private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexFilterGainStage mBasebandFilterGainStage;
     protected InterpolatingSampleBuffer mInterpolatingSampleBuffer;
     protected DQPSKDecisionDirectedDemodulator mQPSKDemodulator;
     protected CostasLoop mCostasLoop;
@@ -113,7 +107,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
 
         mPowerMonitor.setSampleRate((int)sampleRate);
         mSampleRate = sampleRate;
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mBasebandFilterGainStage = new ComplexFilterGainStage(getBasebandFilter(), mPowerMonitor);
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
         mFrequencyCorrectionSyncMonitor = new FrequencyCorrectionSyncMonitor(mCostasLoop, this);
@@ -143,30 +137,26 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
-
-        //Process buffer for power measurements
-        mPowerMonitor.process(basebandFiltered);
-
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
         mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
 
+        //Filtering, power measurement and gain are applied in a single pass.  User accounting of the incoming
+        //buffer is handled by the filter stage
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
+
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters the complex buffer, measures the channel power from the filtered samples and applies feed-forward gain
+     * in a single pass, and returns a new reusable complex buffer with the filtered and gain-applied contents.
      * @param reusableComplexBuffer to filter
      * @return filtered complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the filter stage
+        return mBasebandFilterGainStage.process(reusableComplexBuffer);
     }
 
     /**
@@ -174,38 +164,31 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
      */
     private float[] getBasebandFilter()
     {
-        //Attempt to reuse a cached (ie already-designed) filter if available
-        float[] filter = mBasebandFilters.get(getSampleRate());
+        FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
+            .sampleRate((int)getSampleRate())
+            .passBandCutoff(5100)
+            .passBandAmplitude(1.0)
+            .passBandRipple(0.01)
+            .stopBandAmplitude(0.0)
+            .stopBandStart(6500)
+            .stopBandRipple(0.01)
+            .build();
+
+        //Filter designs are cached globally by the filter factory, so repeated channel starts reuse the design
+        float[] filter = null;
+
+        try
+        {
+            filter = FilterFactory.getTaps(specification);//
+        }
+        catch(Exception fde) //FilterDesignException
+        {
+            mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
+        }
 
         if(filter == null)
         {
-            FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
-                .sampleRate((int)getSampleRate())
-                .passBandCutoff(5100)
-                .passBandAmplitude(1.0)
-                .passBandRipple(0.01)
-                .stopBandAmplitude(0.0)
-                .stopBandStart(6500)
-                .stopBandRipple(0.01)
-                .build();
-
-            try
-            {
-                filter = FilterFactory.getTaps(specification);//
-            }
-            catch(Exception fde) //FilterDesignException
-            {
-                mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
-            }
-
-            if(filter != null)
-            {
-                mBasebandFilters.put(getSampleRate(), filter);
-            }
-            else
-            {
-                throw new IllegalStateException("Couldn't design a DMR baseband filter for sample rate: " + getSampleRate());
-            }
+            throw new IllegalStateException("Couldn't design a DMR baseband filter for sample rate: " + getSampleRate());
         }
 
         return filter;
@@ -178,11 +178,13 @@ public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListene
         //Updates current timestamp to the timestamp from the incoming buffer
         setCurrentTime(buffer.getTimestamp());
 
-        for(byte value : buffer.getBytes())
+        byte[] bytes = buffer.getBytes();
+
+        for(int y = 0; y < buffer.getSampleCount(); y++)
         {
             for(int x = 0; x <= 3; x++)
             {
-                receive(Dibit.parse(value, x));
+                receive(Dibit.parse(bytes[y], x));
             }
         }
 
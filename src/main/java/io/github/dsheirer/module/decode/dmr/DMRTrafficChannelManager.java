@@ -185,6 +185,15 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Traffic channels managed by this traffic channel manager.
+     */
+    @Override
+    public List<Channel> getManagedTrafficChannels()
+    {
+        return mManagedTrafficChannels;
+    }
+
     /**
      * Used with Capacity Plus systems to convert the existing standard channel to a traffic channel and then recreate
      * the original standard channel with the frequency specified for the new rest channel.
@@ -79,8 +79,22 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
         return mSquelchStateListener;
     }
 
+    /**
+     * Resets this audio module when the processing chain stops so that it can be reused for a different channel grant.
+     * All identifiers are cleared and the channel state rebroadcasts the configuration identifiers when the processing
+     * chain is restarted.
+     */
     @Override
     public void reset()
+    {
+        resetCall();
+        mIdentifierCollection.clear();
+    }
+
+    /**
+     * Resets the call state at the end of a call to prepare for the next call
+     */
+    private void resetCall()
     {
         //Explicitly clear FROM identifiers to ensure previous call TONE identifiers are cleared.
         mIdentifierCollection.remove(Role.FROM);
@@ -154,7 +168,7 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
             }
             else if(message instanceof Terminator)
             {
-                reset();
+                resetCall();
             }
         }
     }
@@ -23,7 +23,7 @@ import io.github.dsheirer.bits.BitSetFullException;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.BPTC_196_96;
 import io.github.dsheirer.edac.CRCDMR;
-import io.github.dsheirer.edac.trellis.ViterbiDecoder_3_4_DMR;
+import io.github.dsheirer.edac.trellis.TableViterbiDecoder_3_4_DMR;
 import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
 import io.github.dsheirer.module.decode.dmr.message.CACH;
 import io.github.dsheirer.module.decode.dmr.message.data.block.DataBlock1Rate;
@@ -61,7 +61,8 @@ import org.slf4j.LoggerFactory;
 public class DMRDataMessageFactory
 {
     private final static Logger mLog = LoggerFactory.getLogger(DMRDataMessageFactory.class);
-    private static final ViterbiDecoder_3_4_DMR VITERBI_DECODER = new ViterbiDecoder_3_4_DMR();
+    private static final ThreadLocal<TableViterbiDecoder_3_4_DMR> VITERBI_DECODER =
+        ThreadLocal.withInitial(TableViterbiDecoder_3_4_DMR::new);
 
     /**
      * Creates a data message class
@@ -217,7 +218,7 @@ public class DMRDataMessageFactory
     private static CorrectedBinaryMessage getTrellisPayload(CorrectedBinaryMessage message)
     {
         CorrectedBinaryMessage descrambled = extract(message);
-        return VITERBI_DECODER.decode(descrambled);
+        return VITERBI_DECODER.get().decode(descrambled);
     }
 
     /**
@@ -206,6 +206,17 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Phase 1 and Phase 2 traffic channels managed by this traffic channel manager.
+     */
+    @Override
+    public List<Channel> getManagedTrafficChannels()
+    {
+        List<Channel> channels = new ArrayList<>(mManagedPhase1TrafficChannels);
+        channels.addAll(mManagedPhase2TrafficChannels);
+        return channels;
+    }
+
     /**
      * Broadcasts an initial or update decode event to any registered listener.
      */
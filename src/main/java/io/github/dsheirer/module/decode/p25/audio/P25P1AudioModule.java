@@ -61,6 +61,9 @@ public class P25P1AudioModule extends ImbeAudioModule
     public void reset()
     {
         getIdentifierCollection().clear();
+        mEncryptedCallStateEstablished = false;
+        mEncryptedCall = false;
+        mCachedLDU1Message = null;
     }
 
     @Override
@@ -71,11 +71,22 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
     }
 
     /**
-     * Resets this audio module upon completion of an audio call to prepare for the next call.  This method is
-     * controlled by the squelch state listener and squelch state is controlled by the P25P2DecoderState.
+     * Resets this audio module when the processing chain stops so that it can be reused for a different channel grant.
+     * All identifiers are cleared and the channel state rebroadcasts the configuration identifiers when the processing
+     * chain is restarted.
      */
     @Override
     public void reset()
+    {
+        resetCall();
+        mIdentifierCollection.clear();
+    }
+
+    /**
+     * Resets this audio module upon completion of an audio call to prepare for the next call.  This method is
+     * controlled by the squelch state listener and squelch state is controlled by the P25P2DecoderState.
+     */
+    private void resetCall()
     {
         //Explicitly clear FROM identifiers to ensure previous call TONE identifiers are cleared.
         mIdentifierCollection.remove(Role.FROM);
@@ -91,7 +102,7 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
     @Override
     public void start()
     {
-        reset();
+        resetCall();
     }
 
     /**
@@ -307,7 +318,7 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
                 if(event.getSquelchState() == SquelchState.SQUELCH)
                 {
                     closeAudioSegment();
-                    reset();
+                    resetCall();
                 }
             }
         }
@@ -238,9 +238,11 @@ public class C4FMSymbolFilter implements Listener<ReusableFloatBuffer>, ISourceE
     @Override
     public void receive(ReusableFloatBuffer buffer)
     {
-        for(float sample : buffer.getSamples())
+        float[] samples = buffer.getSamples();
+
+        for(int x = 0; x < buffer.getLength(); x++)
         {
-            receive(sample);
+            receive(samples[x]);
         }
 
 		/* If a frequency correction was requested during the processing of this
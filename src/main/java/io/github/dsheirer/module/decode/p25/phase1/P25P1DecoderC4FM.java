@@ -24,8 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase1;
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.gain.ComplexFilterGainStage;
 import io.github.dsheirer.dsp.psk.DQPSKDecisionDirectedDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -38,9 +37,6 @@ import io.github.dsheirer.source.SourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class P25P1DecoderC4FM extends P25P1Decoder
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P1DecoderC4FM.class);
@@ -51,9 +47,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     protected CostasLoop mCostasLoop;
     protected FrequencyCorrectionSyncMonitor mFrequencyCorrectionSyncMonitor;
     protected P25P1MessageFramer mMessageFramer;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
-    private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexFilterGainStage mBasebandFilterGainStage;
 
     /**
      * P25 Phase 1 - standard C4FM modulation decoder.  Uses Differential QPSK decoding with a Costas PLL and a
@@ -68,7 +62,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     public void setSampleRate(double sampleRate)
     {
         super.setSampleRate(sampleRate);
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mBasebandFilterGainStage = new ComplexFilterGainStage(getBasebandFilter(), mPowerMonitor);
 
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
@@ -100,30 +94,26 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
-
-        //Process the buffer for power meter measurements (before gain is applied)
-        mPowerMonitor.process(basebandFiltered);
-
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
         mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
 
+        //Filtering, power measurement and gain are applied in a single pass.  User accounting of the incoming
+        //buffer is handled by the filter stage
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
+
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters the complex buffer, measures the channel power from the filtered samples and applies feed-forward gain
+     * in a single pass, and returns a new reusable complex buffer with the filtered and gain-applied contents.
      * @param reusableComplexBuffer to filter
      * @return filtered complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the filter stage
+        return mBasebandFilterGainStage.process(reusableComplexBuffer);
     }
 
     /**
@@ -131,38 +121,31 @@ public class P25P1DecoderC4FM extends P25P1Decoder
      */
     private float[] getBasebandFilter()
     {
-        //Attempt to reuse a cached (ie already-designed) filter if available
-        float[] filter = mBasebandFilters.get(getSampleRate());
+        FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
+            .sampleRate((int)getSampleRate())
+            .passBandCutoff(5100)
+            .passBandAmplitude(1.0)
+            .passBandRipple(0.01)
+            .stopBandAmplitude(0.0)
+            .stopBandStart(6500)
+            .stopBandRipple(0.01)
+            .build();
+
+        //Filter designs are cached globally by the filter factory, so repeated channel starts reuse the design
+        float[] filter = null;
+
+        try
+        {
+            filter = FilterFactory.getTaps(specification);
+        }
+        catch(FilterDesignException fde)
+        {
+            mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
+        }
 
         if(filter == null)
         {
-            FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
-                .sampleRate((int)getSampleRate())
-                .passBandCutoff(5100)
-                .passBandAmplitude(1.0)
-                .passBandRipple(0.01)
-                .stopBandAmplitude(0.0)
-                .stopBandStart(6500)
-                .stopBandRipple(0.01)
-                .build();
-
-            try
-            {
-                filter = FilterFactory.getTaps(specification);
-            }
-            catch(FilterDesignException fde)
-            {
-                mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
-            }
-
-            if(filter != null)
-            {
-                mBasebandFilters.put(getSampleRate(), filter);
-            }
-            else
-            {
-                throw new IllegalStateException("Couldn't design a C4FM baseband filter for sample rate: " + getSampleRate());
-            }
+            throw new IllegalStateException("Couldn't design a C4FM baseband filter for sample rate: " + getSampleRate());
         }
 
         return filter;
@@ -24,7 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase1.message.pdu;
 import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.bits.BinaryMessage;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
-import io.github.dsheirer.edac.trellis.ViterbiDecoder_1_2_P25;
+import io.github.dsheirer.edac.trellis.TableViterbiDecoder_1_2_P25;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1Interleave;
 import io.github.dsheirer.module.decode.p25.phase1.message.P25Message;
@@ -87,7 +87,8 @@ public class PDUMessageFactory
     private static final int PDU0_BEGIN = 0;
     private static final int PDU0_END = 196;
 
-    private static final ViterbiDecoder_1_2_P25 VITERBI_HALF_RATE_DECODER = new ViterbiDecoder_1_2_P25();
+    private static final ThreadLocal<TableViterbiDecoder_1_2_P25> VITERBI_HALF_RATE_DECODER =
+        ThreadLocal.withInitial(TableViterbiDecoder_1_2_P25::new);
 
     public static PDUSequence createPacketSequence(int nac, long timestamp, CorrectedBinaryMessage correctedBinaryMessage)
     {
@@ -96,7 +97,7 @@ public class PDUMessageFactory
         CorrectedBinaryMessage deinterleaved = P25P1Interleave.deinterleaveChunk(P25P1Interleave.DATA_DEINTERLEAVE, interleaved);
 
         //Decode 1/2 rate trellis encoded PDU header
-        CorrectedBinaryMessage viterbiDecoded = VITERBI_HALF_RATE_DECODER.decode(deinterleaved);
+        CorrectedBinaryMessage viterbiDecoded = VITERBI_HALF_RATE_DECODER.get().decode(deinterleaved);
 
         if(viterbiDecoded != null)
         {
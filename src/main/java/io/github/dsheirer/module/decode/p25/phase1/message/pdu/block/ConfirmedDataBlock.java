@@ -24,7 +24,7 @@ import io.github.dsheirer.bits.BinaryMessage;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.CRC;
 import io.github.dsheirer.edac.CRCP25;
-import io.github.dsheirer.edac.trellis.ViterbiDecoder_3_4_P25;
+import io.github.dsheirer.edac.trellis.TableViterbiDecoder_3_4_P25;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,13 +36,14 @@ public class ConfirmedDataBlock extends DataBlock
     public static final int PAYLOAD_START = 16;
     public static final int PAYLOAD_END = 144;
 
-    private static final ViterbiDecoder_3_4_P25 VITERBI_THREE_QUARTER_RATE_DECODER = new ViterbiDecoder_3_4_P25();
+    private static final ThreadLocal<TableViterbiDecoder_3_4_P25> VITERBI_THREE_QUARTER_RATE_DECODER =
+        ThreadLocal.withInitial(TableViterbiDecoder_3_4_P25::new);
     private CorrectedBinaryMessage mDecodedMessage;
     private boolean mValid;
 
     public ConfirmedDataBlock(CorrectedBinaryMessage correctedBinaryMessage)
     {
-        mDecodedMessage = VITERBI_THREE_QUARTER_RATE_DECODER.decode(correctedBinaryMessage);
+        mDecodedMessage = VITERBI_THREE_QUARTER_RATE_DECODER.get().decode(correctedBinaryMessage);
         mDecodedMessage.incrementCorrectedBitCount(correctedBinaryMessage.getCorrectedBitCount());
 
         checkCRC();
@@ -21,14 +21,15 @@
 package io.github.dsheirer.module.decode.p25.phase1.message.pdu.block;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
-import io.github.dsheirer.edac.trellis.ViterbiDecoder_1_2_P25;
+import io.github.dsheirer.edac.trellis.TableViterbiDecoder_1_2_P25;
 
 /**
  * P25 Unconfirmed Data block that uses 1/2 rate trellis coding.
  */
 public class UnconfirmedDataBlock extends DataBlock
 {
-    private static final ViterbiDecoder_1_2_P25 VITERBI_HALF_RATE_DECODER = new ViterbiDecoder_1_2_P25();
+    private static final ThreadLocal<TableViterbiDecoder_1_2_P25> VITERBI_HALF_RATE_DECODER =
+        ThreadLocal.withInitial(TableViterbiDecoder_1_2_P25::new);
     private CorrectedBinaryMessage mDecodedMessage;
 
     /**
@@ -37,7 +38,7 @@ public class UnconfirmedDataBlock extends DataBlock
      */
     public UnconfirmedDataBlock(CorrectedBinaryMessage correctedBinaryMessage)
     {
-        mDecodedMessage = VITERBI_HALF_RATE_DECODER.decode(correctedBinaryMessage);
+        mDecodedMessage = VITERBI_HALF_RATE_DECODER.get().decode(correctedBinaryMessage);
         mDecodedMessage.incrementCorrectedBitCount(correctedBinaryMessage.getCorrectedBitCount());
     }
 
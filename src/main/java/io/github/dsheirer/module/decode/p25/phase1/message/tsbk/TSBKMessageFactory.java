@@ -23,7 +23,7 @@
 package io.github.dsheirer.module.decode.p25.phase1.message.tsbk;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
-import io.github.dsheirer.edac.trellis.ViterbiDecoder_1_2_P25;
+import io.github.dsheirer.edac.trellis.TableViterbiDecoder_1_2_P25;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1Interleave;
 import io.github.dsheirer.module.decode.p25.phase1.message.tsbk.harris.isp.UnknownHarrisISPMessage;
@@ -128,7 +128,8 @@ import org.slf4j.LoggerFactory;
 public class TSBKMessageFactory
 {
     private final static Logger mLog = LoggerFactory.getLogger(TSBKMessageFactory.class);
-    private static final ViterbiDecoder_1_2_P25 VITERBI_HALF_RATE_DECODER = new ViterbiDecoder_1_2_P25();
+    private static final ThreadLocal<TableViterbiDecoder_1_2_P25> VITERBI_HALF_RATE_DECODER =
+        ThreadLocal.withInitial(TableViterbiDecoder_1_2_P25::new);
 
     public static TSBKMessage create(Direction direction, P25P1DataUnitID dataUnitID,
                                      CorrectedBinaryMessage correctedBinaryMessage, int nac, long timestamp)
@@ -137,7 +138,7 @@ public class TSBKMessageFactory
         CorrectedBinaryMessage deinterleaved = P25P1Interleave.deinterleaveChunk(P25P1Interleave.DATA_DEINTERLEAVE, correctedBinaryMessage);
 
         //Decode 1/2 rate trellis encoded PDU header
-        CorrectedBinaryMessage message = VITERBI_HALF_RATE_DECODER.decode(deinterleaved);
+        CorrectedBinaryMessage message = VITERBI_HALF_RATE_DECODER.get().decode(deinterleaved);
 
         if(message == null)
         {
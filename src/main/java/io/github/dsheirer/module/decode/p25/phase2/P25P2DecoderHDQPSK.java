@@ -24,8 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase2;
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.gain.ComplexFilterGainStage;
 import io.github.dsheirer.dsp.psk.DQPSKGardnerDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -50,8 +49,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * P25 Phase 2 HDQPSK 2-timeslot Decoder
@@ -64,9 +61,7 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     protected DQPSKGardnerDemodulator mQPSKDemodulator;
     protected CostasLoop mCostasLoop;
     protected P25P2MessageFramer mMessageFramer;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
-    private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexFilterGainStage mBasebandFilterGainStage;
     private DecodeConfigP25Phase2 mDecodeConfigP25Phase2;
     private FrequencyCorrectionSyncMonitor mFrequencyCorrectionSyncMonitor;
 
@@ -81,7 +76,7 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     {
         super.setSampleRate(sampleRate);
 
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mBasebandFilterGainStage = new ComplexFilterGainStage(getBasebandFilter(), mPowerMonitor);
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
 
@@ -118,30 +113,26 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
-
-        //Process the buffer for power measurements
-        mPowerMonitor.process(basebandFiltered);
-
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
         mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
 
+        //Filtering, power measurement and gain are applied in a single pass.  User accounting of the incoming
+        //buffer is handled by the filter stage
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
+
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters the complex buffer, measures the channel power from the filtered samples and applies feed-forward gain
+     * in a single pass, and returns a new reusable complex buffer with the filtered and gain-applied contents.
      * @param reusableComplexBuffer to filter
      * @return filtered complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the filter stage
+        return mBasebandFilterGainStage.process(reusableComplexBuffer);
     }
 
     /**
@@ -149,38 +140,31 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
      */
     private float[] getBasebandFilter()
     {
-        //Attempt to reuse a cached (ie already-designed) filter if available
-        float[] filter = mBasebandFilters.get(getSampleRate());
+        FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
+            .sampleRate(50000.0)
+            .passBandCutoff(6500)
+            .passBandAmplitude(1.0)
+            .passBandRipple(0.005)
+            .stopBandAmplitude(0.0)
+            .stopBandStart(7200)
+            .stopBandRipple(0.01)
+            .build();
+
+        //Filter designs are cached globally by the filter factory, so repeated channel starts reuse the design
+        float[] filter = null;
+
+        try
+        {
+            filter = FilterFactory.getTaps(specification);
+        }
+        catch(FilterDesignException fde)
+        {
+            mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
+        }
 
         if(filter == null)
         {
-            FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
-                .sampleRate(50000.0)
-                .passBandCutoff(6500)
-                .passBandAmplitude(1.0)
-                .passBandRipple(0.005)
-                .stopBandAmplitude(0.0)
-                .stopBandStart(7200)
-                .stopBandRipple(0.01)
-                .build();
-
-            try
-            {
-                filter = FilterFactory.getTaps(specification);
-            }
-            catch(FilterDesignException fde)
-            {
-                mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
-            }
-
-            if(filter != null)
-            {
-                mBasebandFilters.put(getSampleRate(), filter);
-            }
-            else
-            {
-                throw new IllegalStateException("Couldn't design a C4FM baseband filter for sample rate: " + getSampleRate());
-            }
+            throw new IllegalStateException("Couldn't design a C4FM baseband filter for sample rate: " + getSampleRate());
         }
 
         return filter;
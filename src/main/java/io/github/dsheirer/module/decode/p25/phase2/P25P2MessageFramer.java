@@ -195,11 +195,13 @@ public class P25P2MessageFramer implements Listener<Dibit>
         //TODO: set timestamp in super frame detector
         setCurrentTime(buffer.getTimestamp());
 
-        for(byte value : buffer.getBytes())
+        byte[] bytes = buffer.getBytes();
+
+        for(int y = 0; y < buffer.getSampleCount(); y++)
         {
             for(int x = 0; x <= 3; x++)
             {
-                receive(Dibit.parse(value, x));
+                receive(Dibit.parse(bytes[y], x));
             }
         }
 
@@ -19,11 +19,25 @@
 
 package io.github.dsheirer.module.decode.traffic;
 
+import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.module.Module;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Traffic Channel Manager base class
  */
 public abstract class TrafficChannelManager extends Module
 {
+    /**
+     * Traffic channels that are managed by this traffic channel manager and (re)used for traffic channel grants.
+     * Subclasses that maintain a pool of reusable traffic channels should override this method.
+     *
+     * @return managed traffic channels or an empty list.
+     */
+    public List<Channel> getManagedTrafficChannels()
+    {
+        return Collections.emptyList();
+    }
 }
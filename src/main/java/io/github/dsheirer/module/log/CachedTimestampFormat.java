@@ -0,0 +1,62 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Timestamp formatter for whole-second resolution date formats that reuses the most recently formatted value while
+ * successive timestamps fall within the same second, since busy channels produce many log entries per second.
+ *
+ * Note: this class is not thread safe.
+ */
+public class CachedTimestampFormat
+{
+    private SimpleDateFormat mDateFormat;
+    private long mCachedSecond = Long.MIN_VALUE;
+    private String mCachedValue;
+
+    /**
+     * Constructs an instance
+     * @param dateFormat with a resolution of one second or coarser
+     */
+    public CachedTimestampFormat(SimpleDateFormat dateFormat)
+    {
+        mDateFormat = dateFormat;
+    }
+
+    /**
+     * Formats the timestamp
+     * @param timestamp in milliseconds since epoch
+     * @return formatted timestamp
+     */
+    public String format(long timestamp)
+    {
+        long second = Math.floorDiv(timestamp, 1000);
+
+        if(second != mCachedSecond || mCachedValue == null)
+        {
+            mCachedValue = mDateFormat.format(new Date(timestamp));
+            mCachedSecond = second;
+        }
+
+        return mCachedValue;
+    }
+}
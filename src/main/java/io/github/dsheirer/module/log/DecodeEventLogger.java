@@ -38,14 +38,14 @@ import org.apache.commons.csv.QuoteMode;
 
 import java.nio.file.Path;
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 public class DecodeEventLogger extends EventLogger implements IDecodeEventListener, Listener<IDecodeEvent>
 {
-    private SimpleDateFormat mTimestampFormat = TimestampFormat.TIMESTAMP_COLONS.getFormatter();
+    private static final int CSV_COLUMN_COUNT = 10;
+    private CachedTimestampFormat mTimestampFormat =
+        new CachedTimestampFormat(TimestampFormat.TIMESTAMP_COLONS.getFormatter());
+    private Object[] mCells = new Object[CSV_COLUMN_COUNT];
     private DecimalFormat mFrequencyFormat = new DecimalFormat("0.000000");
     private AliasList mAliasList;
     private AliasModel mAliasModel;
@@ -94,25 +94,28 @@ public class DecodeEventLogger extends EventLogger implements IDecodeEventListen
         return "TIMESTAMP,DURATION_MS,PROTOCOL,EVENT,FROM,TO,CHANNEL_NUMBER,FREQUENCY,TIMESLOT,DETAILS";
     }
 
+    /**
+     * Formats the decode event as a CSV row.  The cells array is reused across events to avoid a per-event allocation.
+     */
     private String toCSV(IDecodeEvent event)
     {
-        List<Object> cells = new ArrayList<>();
+        Object[] cells = mCells;
 
-        cells.add(mTimestampFormat.format(new Date(event.getTimeStart())));
-        cells.add(event.getDuration() > 0 ? event.getDuration() : "");
-        cells.add(event.getProtocol());
+        cells[0] = mTimestampFormat.format(event.getTimeStart());
+        cells[1] = event.getDuration() > 0 ? event.getDuration() : "";
+        cells[2] = event.getProtocol();
 
         String description = event.getEventDescription();
-        cells.add(description != null ? description : "");
+        cells[3] = description != null ? description : "";
 
         List<Identifier> fromIdentifiers = event.getIdentifierCollection().getIdentifiers(Role.FROM);
         if(fromIdentifiers != null && !fromIdentifiers.isEmpty())
         {
-            cells.add(fromIdentifiers.get(0));
+            cells[4] = fromIdentifiers.get(0);
         }
         else
         {
-            cells.add("");
+            cells[4] = "";
         }
 
         List<Identifier> toIdentifiers = event.getIdentifierCollection().getIdentifiers(Role.TO);
@@ -127,47 +130,47 @@ public class DecodeEventLogger extends EventLogger implements IDecodeEventListen
             {
                 String mystring = (!mAliasList.getAliases(toIdentifiers.get(0)).isEmpty()) ?
                     mAliasList.getAliases(toIdentifiers.get(0)).get(0).toString() : "";
-                cells.add(mystring + " (" + toIdentifiers.get(0) + ")");
+                cells[5] = mystring + " (" + toIdentifiers.get(0) + ")";
             }
             else
             {
-                cells.add("");
+                cells[5] = "";
             }
         }
         else
         {
-            cells.add("");
+            cells[5] = "";
         }
 
         IChannelDescriptor descriptor = event.getChannelDescriptor();
-        cells.add(descriptor != null ? descriptor : "");
+        cells[6] = descriptor != null ? descriptor : "";
 
         Identifier frequency = event.getIdentifierCollection()
             .getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL_FREQUENCY, Role.ANY);
 
         if(frequency instanceof FrequencyConfigurationIdentifier)
         {
-            cells.add(mFrequencyFormat
-                    .format(((FrequencyConfigurationIdentifier)frequency).getValue() / 1e6d));
+            cells[7] = mFrequencyFormat
+                    .format(((FrequencyConfigurationIdentifier)frequency).getValue() / 1e6d);
 
         }
         else
         {
-            cells.add("");
+            cells[7] = "";
         }
 
         if(event.hasTimeslot())
         {
-            cells.add("TS:" + event.getTimeslot());
+            cells[8] = "TS:" + event.getTimeslot();
         }
         else
         {
-            cells.add("");
+            cells[8] = "";
         }
 
         String details = event.getDetails();
-        cells.add(details != null ? details : "");
+        cells[9] = details != null ? details : "";
 
-        return mCsvFormat.format(cells.toArray());
+        return mCsvFormat.format(cells);
     }
 }
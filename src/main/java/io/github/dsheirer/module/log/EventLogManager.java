@@ -23,7 +23,10 @@ import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.module.log.config.EventLogConfiguration;
+import io.github.dsheirer.module.log.store.EventStore;
+import io.github.dsheirer.module.log.store.EventStoreModule;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.source.config.SourceConfigTuner;
 import io.github.dsheirer.util.StringUtils;
 import org.slf4j.Logger;
@@ -36,9 +39,13 @@ import java.util.List;
 public class EventLogManager
 {
     private final static Logger mLog = LoggerFactory.getLogger(EventLogManager.class);
+    public static final String PROPERTY_EVENT_STORE_ENABLED = "event.store.enabled";
+    private static final boolean DEFAULT_EVENT_STORE_ENABLED = false;
+    private static final String EVENT_STORE_DIRECTORY = "event_store";
 
     private UserPreferences mUserPreferences;
     private AliasModel mAliasModel;
+    private EventStore mEventStore;
 
     public EventLogManager(AliasModel aliasModel, UserPreferences userPreferences)
     {
@@ -80,9 +87,49 @@ public class EventLogManager
             }
         }
 
+        if(isEventStoreEnabled())
+        {
+            loggers.add(new EventStoreModule(getEventStore(), channel.getName()));
+        }
+
         return loggers;
     }
 
+    /**
+     * Indicates if decode events are stored in the queryable event store, in addition to any configured event logs.
+     */
+    public static boolean isEventStoreEnabled()
+    {
+        return SystemProperties.getInstance().get(PROPERTY_EVENT_STORE_ENABLED, DEFAULT_EVENT_STORE_ENABLED);
+    }
+
+    /**
+     * Event store located in the event log directory.  The store is created and started on first access.
+     */
+    public synchronized EventStore getEventStore()
+    {
+        if(mEventStore == null)
+        {
+            Path directory = mUserPreferences.getDirectoryPreference().getDirectoryEventLog()
+                .resolve(EVENT_STORE_DIRECTORY);
+            mEventStore = new EventStore(directory);
+            mEventStore.start();
+        }
+
+        return mEventStore;
+    }
+
+    /**
+     * Stops the event store, if started, and writes any pending events.
+     */
+    public synchronized void stop()
+    {
+        if(mEventStore != null)
+        {
+            mEventStore.stop();
+        }
+    }
+
     public EventLogger getLogger(EventLogType eventLogType, String prefix, long frequency)
     {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,107 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated writer thread for all event loggers.  Periodically, or when signalled by a logger whose queue is filling
+ * up, drains the queued log lines from each registered event logger and commits them to the log file as a group.
+ * Disk latency is absorbed by this thread rather than by the decoder threads that produce the log entries.
+ */
+public class EventLogWriter implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EventLogWriter.class);
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static EventLogWriter sInstance;
+    private Set<EventLogger> mEventLoggers = new CopyOnWriteArraySet<>();
+    private Thread mThread;
+
+    private EventLogWriter()
+    {
+        mThread = new Thread(this, "sdrtrunk event log writer");
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.NORM_PRIORITY - 1);
+        mThread.start();
+    }
+
+    /**
+     * Shared writer instance.  The writer thread is started on first access.
+     */
+    public static synchronized EventLogWriter getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new EventLogWriter();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Registers the event logger to have queued log lines written by this writer
+     */
+    public void register(EventLogger eventLogger)
+    {
+        mEventLoggers.add(eventLogger);
+    }
+
+    /**
+     * Deregisters the event logger.  The event logger is responsible for writing any remaining queued lines.
+     */
+    public void deregister(EventLogger eventLogger)
+    {
+        mEventLoggers.remove(eventLogger);
+    }
+
+    /**
+     * Wakes the writer thread to drain the logger queues ahead of the next scheduled flush interval.
+     */
+    public void signal()
+    {
+        LockSupport.unpark(mThread);
+    }
+
+    @Override
+    public void run()
+    {
+        while(true)
+        {
+            for(EventLogger eventLogger : mEventLoggers)
+            {
+                try
+                {
+                    eventLogger.drain();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error writing queued entries to event log file [" + eventLogger + "]", t);
+                }
+            }
+
+            LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+        }
+    }
+}
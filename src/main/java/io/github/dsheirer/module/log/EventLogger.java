@@ -19,32 +19,69 @@
 package io.github.dsheirer.module.log;
 
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.util.TimeStamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Base event logger.  Log lines are queued in a bounded queue by the producing (decoder) thread and written to the
+ * log file by the shared EventLogWriter thread, which commits all queued lines in a single buffered write.
+ *
+ * The queue capacity and the policy applied when the queue is full are configurable via the event.log.queue.capacity
+ * and event.log.overflow.policy system properties.
+ */
 public abstract class EventLogger extends Module
 {
     private final static Logger mLog = LoggerFactory.getLogger(EventLogger.class);
 
+    public static final String PROPERTY_QUEUE_CAPACITY = "event.log.queue.capacity";
+    public static final String PROPERTY_OVERFLOW_POLICY = "event.log.overflow.policy";
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final LogOverflowPolicy DEFAULT_OVERFLOW_POLICY = LogOverflowPolicy.DROP_OLDEST;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final byte LINE_SEPARATOR = (byte)'\n';
+
     private Path mLogDirectory;
     private String mFileNameSuffix;
     private String mLogFileName;
     private long mFrequency;
-    protected Writer mLogFile;
+    private volatile FileChannel mLogFile;
+    private ArrayBlockingQueue<String> mLineQueue;
+    private int mSignalThreshold;
+    private LogOverflowPolicy mOverflowPolicy;
+    private ByteBuffer mWriteBuffer;
+    private CharsetEncoder mEncoder = StandardCharsets.UTF_8.newEncoder();
+    private AtomicLong mDroppedLineCount = new AtomicLong();
+    private AtomicLong mWrittenLineCount = new AtomicLong();
+    private final Object mWriteLock = new Object();
 
     public EventLogger(Path logDirectory, String fileNameSuffix, long frequency)
     {
         mLogDirectory = logDirectory;
         mFileNameSuffix = fileNameSuffix;
         mFrequency = frequency;
+
+        SystemProperties properties = SystemProperties.getInstance();
+        int capacity = Math.max(16, properties.get(PROPERTY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY));
+        mLineQueue = new ArrayBlockingQueue<>(capacity);
+        mSignalThreshold = capacity / 2;
+        mOverflowPolicy = LogOverflowPolicy.fromValue(properties.get(PROPERTY_OVERFLOW_POLICY,
+            DEFAULT_OVERFLOW_POLICY.name()), DEFAULT_OVERFLOW_POLICY);
     }
 
     public String toString()
@@ -64,64 +101,225 @@ public abstract class EventLogger extends Module
     @Override
     public void start()
     {
-        if(mLogFile == null)
+        synchronized(mWriteLock)
         {
-            try
+            if(mLogFile == null)
             {
-                StringBuilder sb = new StringBuilder();
-                sb.append(mLogDirectory);
-                sb.append(File.separator);
-                sb.append(TimeStamp.getLongTimeStamp("_"));
-                sb.append("_");
-                sb.append(mFrequency);
-                sb.append("_Hz_");
-                sb.append(mFileNameSuffix);
+                try
+                {
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(mLogDirectory);
+                    sb.append(File.separator);
+                    sb.append(TimeStamp.getLongTimeStamp("_"));
+                    sb.append("_");
+                    sb.append(mFrequency);
+                    sb.append("_Hz_");
+                    sb.append(mFileNameSuffix);
 
-                mLogFileName = sb.toString();
+                    mLogFileName = sb.toString();
 
-                mLog.info("Creating log file:" + mLogFileName);
+                    mLog.info("Creating log file:" + mLogFileName);
 
-                mLogFile = new OutputStreamWriter(new FileOutputStream(mLogFileName));
+                    mLogFile = FileChannel.open(Paths.get(mLogFileName), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
 
-                write(getHeader());
-            }
-            catch(FileNotFoundException e)
-            {
-                mLog.error("Couldn't create log file in directory:" + mLogDirectory);
+                    if(mWriteBuffer == null)
+                    {
+                        mWriteBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+                    }
+
+                    write(getHeader());
+                    EventLogWriter.getInstance().register(this);
+                }
+                catch(IOException e)
+                {
+                    mLog.error("Couldn't create log file in directory:" + mLogDirectory);
+                }
             }
         }
     }
 
     public void stop()
     {
-        if(mLogFile != null)
+        EventLogWriter.getInstance().deregister(this);
+
+        synchronized(mWriteLock)
         {
-            try
+            if(mLogFile != null)
             {
-                mLogFile.flush();
-                mLogFile.close();
+                try
+                {
+                    drain();
+                    mLogFile.close();
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Couldn't close log file:" + mFileNameSuffix);
+                }
+
                 mLogFile = null;
+
+                if(mDroppedLineCount.get() > 0)
+                {
+                    mLog.warn("Event log [" + mLogFileName + "] dropped [" + mDroppedLineCount.get() +
+                        "] of [" + (mDroppedLineCount.get() + mWrittenLineCount.get()) +
+                        "] entries due to a full queue - overflow policy [" + mOverflowPolicy + "]");
+                }
             }
-            catch(Exception e)
+
+            mLineQueue.clear();
+        }
+    }
+
+    /**
+     * Queues the log entry for writing to the log file by the event log writer thread.  When the queue is full, the
+     * configured overflow policy is applied.
+     */
+    protected void write(String eventLogEntry)
+    {
+        if(mLogFile == null)
+        {
+            return;
+        }
+
+        String line = eventLogEntry != null ? eventLogEntry : "";
+
+        if(!mLineQueue.offer(line))
+        {
+            switch(mOverflowPolicy)
             {
-                mLog.error("Couldn't close log file:" + mFileNameSuffix);
+                case BLOCK:
+                    EventLogWriter.getInstance().signal();
+
+                    try
+                    {
+                        mLineQueue.put(line);
+                    }
+                    catch(InterruptedException ie)
+                    {
+                        mDroppedLineCount.incrementAndGet();
+                        Thread.currentThread().interrupt();
+                    }
+                    break;
+                case DROP_NEWEST:
+                    mDroppedLineCount.incrementAndGet();
+                    break;
+                case DROP_OLDEST:
+                default:
+                    while(!mLineQueue.offer(line))
+                    {
+                        if(mLineQueue.poll() != null)
+                        {
+                            mDroppedLineCount.incrementAndGet();
+                        }
+                    }
+                    break;
             }
         }
+
+        if(mLineQueue.size() >= mSignalThreshold)
+        {
+            EventLogWriter.getInstance().signal();
+        }
     }
 
-    protected void write(String eventLogEntry)
+    /**
+     * Writes all queued log lines to the log file, committing them with as few channel writes as the write buffer
+     * allows.  Invoked by the event log writer thread and on stop.
+     *
+     * @return number of lines written
+     * @throws IOException if there is an error writing to the log file
+     */
+    int drain() throws IOException
     {
-        try
+        synchronized(mWriteLock)
         {
-            if(mLogFile != null)
+            if(mLogFile == null)
             {
-                mLogFile.write((eventLogEntry != null ? eventLogEntry : "") + "\n");
-                mLogFile.flush();
+                return 0;
             }
+
+            int count = 0;
+            String line;
+
+            while((line = mLineQueue.poll()) != null)
+            {
+                CharBuffer characters = CharBuffer.wrap(line);
+
+                while(mEncoder.encode(characters, mWriteBuffer, true) == CoderResult.OVERFLOW)
+                {
+                    flush();
+                }
+
+                mEncoder.reset();
+
+                if(!mWriteBuffer.hasRemaining())
+                {
+                    flush();
+                }
+
+                mWriteBuffer.put(LINE_SEPARATOR);
+                count++;
+            }
+
+            flush();
+            mWrittenLineCount.addAndGet(count);
+            return count;
         }
-        catch(Exception e)
+    }
+
+    /**
+     * Writes the contents of the write buffer to the log file.
+     */
+    private void flush() throws IOException
+    {
+        mWriteBuffer.flip();
+
+        while(mWriteBuffer.hasRemaining())
         {
-            mLog.error("Error writing entry to event log file", e);
+            mLogFile.write(mWriteBuffer);
         }
+
+        mWriteBuffer.clear();
+    }
+
+    /**
+     * Number of log lines currently queued and waiting to be written.
+     */
+    public int getQueuedLineCount()
+    {
+        return mLineQueue.size();
+    }
+
+    /**
+     * Number of log lines dropped because the queue was full.
+     */
+    public long getDroppedLineCount()
+    {
+        return mDroppedLineCount.get();
+    }
+
+    /**
+     * Number of log lines written to the log file.
+     */
+    public long getWrittenLineCount()
+    {
+        return mWrittenLineCount.get();
+    }
+
+    /**
+     * Policy applied when the log line queue is full.
+     */
+    public LogOverflowPolicy getOverflowPolicy()
+    {
+        return mOverflowPolicy;
+    }
+
+    /**
+     * Sets the policy applied when the log line queue is full.
+     */
+    public void setOverflowPolicy(LogOverflowPolicy overflowPolicy)
+    {
+        mOverflowPolicy = overflowPolicy != null ? overflowPolicy : DEFAULT_OVERFLOW_POLICY;
     }
 }
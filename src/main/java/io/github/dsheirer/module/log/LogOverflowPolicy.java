@@ -0,0 +1,75 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log;
+
+/**
+ * Policy applied by an event logger when its queue of pending log lines is full.
+ */
+public enum LogOverflowPolicy
+{
+    /**
+     * Discard the oldest queued line to make room for the new line.
+     */
+    DROP_OLDEST("Drop Oldest"),
+
+    /**
+     * Discard the new line.
+     */
+    DROP_NEWEST("Drop Newest"),
+
+    /**
+     * Block the calling (decoder) thread until the writer makes room for the new line.
+     */
+    BLOCK("Block");
+
+    private String mLabel;
+
+    LogOverflowPolicy(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Parses the policy from the enum entry name.
+     * @param value to parse
+     * @param defaultValue to use if the value is not a policy name
+     * @return policy
+     */
+    public static LogOverflowPolicy fromValue(String value, LogOverflowPolicy defaultValue)
+    {
+        if(value != null)
+        {
+            for(LogOverflowPolicy policy : values())
+            {
+                if(policy.name().equalsIgnoreCase(value.trim()))
+                {
+                    return policy;
+                }
+            }
+        }
+
+        return defaultValue;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
@@ -20,9 +20,9 @@ package io.github.dsheirer.module.log;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.util.TimeStamp;
 
 import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 
 public class MessageEventLogger extends EventLogger implements IMessageListener, Listener<IMessage>
 {
@@ -32,6 +32,8 @@ public class MessageEventLogger extends EventLogger implements IMessageListener,
     }
 
     private Type mType;
+    private CachedTimestampFormat mTimestampFormat = new CachedTimestampFormat(new SimpleDateFormat("yyyyMMdd HHmmss"));
+    private StringBuilder mStringBuilder = new StringBuilder();
 
     public MessageEventLogger(Path logDirectory, String fileNameSuffix, Type type, long frequency)
     {
@@ -53,8 +55,9 @@ public class MessageEventLogger extends EventLogger implements IMessageListener,
     @Override
     public void receive(IMessage message)
     {
-        StringBuilder sb = new StringBuilder();
-        sb.append(TimeStamp.getTimeStamp(message.getTimestamp(), " "));
+        StringBuilder sb = mStringBuilder;
+        sb.setLength(0);
+        sb.append(mTimestampFormat.format(message.getTimestamp()));
         sb.append(",");
         sb.append((message.isValid() ? "PASSED" : "FAILED"));
         sb.append(",");
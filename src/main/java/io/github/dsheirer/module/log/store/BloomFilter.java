@@ -0,0 +1,140 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter for long identifier values.  Uses double hashing of a 64-bit mix of the value to derive the bit
+ * positions.  Sized for roughly a 1% false positive rate at the expected number of values.
+ */
+public class BloomFilter
+{
+    private static final int BITS_PER_VALUE = 10;
+    private static final int HASH_COUNT = 7;
+
+    private long[] mWords;
+    private int mHashCount;
+
+    /**
+     * Constructs an empty filter sized for the expected number of values.
+     */
+    public BloomFilter(int expectedValues)
+    {
+        this(new long[Math.max(1, (Math.max(1, expectedValues) * BITS_PER_VALUE + 63) / 64)], HASH_COUNT);
+    }
+
+    private BloomFilter(long[] words, int hashCount)
+    {
+        mWords = words;
+        mHashCount = hashCount;
+    }
+
+    /**
+     * Adds the value to the filter
+     */
+    public void add(long value)
+    {
+        long hash = mix(value);
+        int hash1 = (int)hash;
+        int hash2 = (int)(hash >>> 32);
+        long bitCount = mWords.length * 64l;
+
+        for(int x = 0; x < mHashCount; x++)
+        {
+            int bit = (int)(((hash1 + (x * hash2)) & 0x7FFFFFFF) % bitCount);
+            mWords[bit >>> 6] |= 1l << bit;
+        }
+    }
+
+    /**
+     * Indicates if the value may have been added to the filter.  False indicates that the value was definitely not
+     * added.
+     */
+    public boolean mightContain(long value)
+    {
+        long hash = mix(value);
+        int hash1 = (int)hash;
+        int hash2 = (int)(hash >>> 32);
+        long bitCount = mWords.length * 64l;
+
+        for(int x = 0; x < mHashCount; x++)
+        {
+            int bit = (int)(((hash1 + (x * hash2)) & 0x7FFFFFFF) % bitCount);
+
+            if((mWords[bit >>> 6] & (1l << bit)) == 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Serialized size in bytes
+     */
+    public int getSize()
+    {
+        return 8 + (mWords.length * 8);
+    }
+
+    /**
+     * Writes the filter to the buffer
+     */
+    public void write(ByteBuffer buffer)
+    {
+        buffer.putInt(mHashCount);
+        buffer.putInt(mWords.length);
+
+        for(long word: mWords)
+        {
+            buffer.putLong(word);
+        }
+    }
+
+    /**
+     * Reads a filter from the buffer
+     */
+    public static BloomFilter read(ByteBuffer buffer)
+    {
+        int hashCount = buffer.getInt();
+        long[] words = new long[buffer.getInt()];
+
+        for(int x = 0; x < words.length; x++)
+        {
+            words[x] = buffer.getLong();
+        }
+
+        return new BloomFilter(words, hashCount);
+    }
+
+    /**
+     * Finalization step of the MurmurHash3 64-bit hash, used to spread sequential identifier values across the hash
+     */
+    private static long mix(long value)
+    {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDl;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53l;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+/**
+ * Criteria for an event store query.  Events match when the event start time is within the time range and the event
+ * matches each of the optional talkgroup, radio and protocol criteria that are specified.
+ */
+public class EventQuery
+{
+    private long mStart;
+    private long mEnd;
+    private Long mTalkgroup;
+    private Long mRadio;
+    private String mProtocol;
+
+    /**
+     * Constructs a query for events that start within the time range.
+     *
+     * @param start time in milliseconds, inclusive
+     * @param end time in milliseconds, exclusive
+     */
+    public EventQuery(long start, long end)
+    {
+        mStart = start;
+        mEnd = end;
+    }
+
+    public long getStart()
+    {
+        return mStart;
+    }
+
+    public long getEnd()
+    {
+        return mEnd;
+    }
+
+    /**
+     * Talkgroup criteria, or null to match any talkgroup
+     */
+    public Long getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Limits results to events for the talkgroup
+     */
+    public EventQuery setTalkgroup(Long talkgroup)
+    {
+        mTalkgroup = talkgroup;
+        return this;
+    }
+
+    /**
+     * Radio criteria, or null to match any radio
+     */
+    public Long getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Limits results to events where the radio is either the FROM or the TO identifier
+     */
+    public EventQuery setRadio(Long radio)
+    {
+        mRadio = radio;
+        return this;
+    }
+
+    /**
+     * Protocol criteria, or null to match any protocol
+     */
+    public String getProtocol()
+    {
+        return mProtocol;
+    }
+
+    /**
+     * Limits results to events for the protocol, using the protocol display string (e.g. APCO-25)
+     */
+    public EventQuery setProtocol(String protocol)
+    {
+        mProtocol = protocol;
+        return this;
+    }
+
+    /**
+     * Indicates if the time range overlaps the range from minimum to maximum, inclusive
+     */
+    public boolean overlaps(long minimum, long maximum)
+    {
+        return minimum < mEnd && maximum >= mStart;
+    }
+
+    /**
+     * Indicates if the event record matches the query criteria
+     */
+    public boolean matches(EventRecord record)
+    {
+        return record.getTimeStart() >= mStart && record.getTimeStart() < mEnd &&
+            (mTalkgroup == null || record.getTalkgroup() == mTalkgroup) &&
+            (mRadio == null || record.hasRadio(mRadio)) &&
+            (mProtocol == null || mProtocol.equals(record.getProtocol()));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Event Query [" + mStart + "-" + mEnd + "]" +
+            (mTalkgroup != null ? " talkgroup:" + mTalkgroup : "") +
+            (mRadio != null ? " radio:" + mRadio : "") +
+            (mProtocol != null ? " protocol:" + mProtocol : "");
+    }
+}
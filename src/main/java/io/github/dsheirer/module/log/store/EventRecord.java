@@ -0,0 +1,276 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import io.github.dsheirer.channel.IChannelDescriptor;
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.configuration.FrequencyConfigurationIdentifier;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+
+import java.util.List;
+
+/**
+ * Decode event as stored in the event store.  Identifiers are stored in their display form, with the numeric
+ * talkgroup and radio identifier values extracted for indexing and querying.
+ */
+public class EventRecord
+{
+    /**
+     * Value for numeric fields that are not available for the event
+     */
+    public static final long NO_VALUE = -1;
+
+    private long mEventId;
+    private long mTimeStart;
+    private long mDuration;
+    private long mFrequency;
+    private long mTalkgroup;
+    private long mRadioFrom;
+    private long mRadioTo;
+    private int mTimeslot;
+    private String mProtocol;
+    private String mEventType;
+    private String mFrom;
+    private String mTo;
+    private String mChannel;
+    private String mDetails;
+    private String mChannelName;
+
+    /**
+     * Constructs an instance
+     */
+    public EventRecord(long eventId, long timeStart, long duration, long frequency, long talkgroup, long radioFrom,
+                       long radioTo, int timeslot, String protocol, String eventType, String from, String to,
+                       String channel, String details, String channelName)
+    {
+        mEventId = eventId;
+        mTimeStart = timeStart;
+        mDuration = duration;
+        mFrequency = frequency;
+        mTalkgroup = talkgroup;
+        mRadioFrom = radioFrom;
+        mRadioTo = radioTo;
+        mTimeslot = timeslot;
+        mProtocol = protocol;
+        mEventType = eventType;
+        mFrom = from;
+        mTo = to;
+        mChannel = channel;
+        mDetails = details;
+        mChannelName = channelName;
+    }
+
+    /**
+     * Creates a record from the current state of the decode event.
+     *
+     * @param eventId assigned to the decode event.  Updates to a decode event are stored with the same event ID.
+     * @param event to store
+     * @param channelName of the channel that produced the event
+     */
+    public static EventRecord create(long eventId, IDecodeEvent event, String channelName)
+    {
+        IdentifierCollection identifiers = event.getIdentifierCollection();
+        Identifier from = getFirst(identifiers.getIdentifiers(Role.FROM));
+        Identifier to = getFirst(identifiers.getIdentifiers(Role.TO));
+
+        long talkgroup = getValue(to, Form.TALKGROUP);
+
+        if(talkgroup == NO_VALUE)
+        {
+            talkgroup = getValue(from, Form.TALKGROUP);
+        }
+
+        long frequency = 0;
+        Identifier frequencyIdentifier = identifiers.getIdentifier(IdentifierClass.CONFIGURATION,
+            Form.CHANNEL_FREQUENCY, Role.ANY);
+
+        if(frequencyIdentifier instanceof FrequencyConfigurationIdentifier)
+        {
+            frequency = ((FrequencyConfigurationIdentifier)frequencyIdentifier).getValue();
+        }
+
+        IChannelDescriptor channel = event.getChannelDescriptor();
+
+        return new EventRecord(eventId, event.getTimeStart(), Math.max(event.getDuration(), 0), frequency, talkgroup,
+            getValue(from, Form.RADIO), getValue(to, Form.RADIO), event.hasTimeslot() ? event.getTimeslot() : -1,
+            event.getProtocol() != null ? event.getProtocol().toString() : null, event.getEventDescription(),
+            from != null ? from.toString() : null, to != null ? to.toString() : null,
+            channel != null ? channel.toString() : null, event.getDetails(), channelName);
+    }
+
+    private static Identifier getFirst(List<Identifier> identifiers)
+    {
+        return identifiers != null && !identifiers.isEmpty() ? identifiers.get(0) : null;
+    }
+
+    /**
+     * Numeric value of the identifier when it has the specified form
+     */
+    private static long getValue(Identifier identifier, Form form)
+    {
+        if(identifier != null && identifier.getForm() == form && identifier.getValue() instanceof Number)
+        {
+            return ((Number)identifier.getValue()).longValue();
+        }
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Unique identifier for the decode event.  All updates to the same decode event share the event ID.
+     */
+    public long getEventId()
+    {
+        return mEventId;
+    }
+
+    /**
+     * Event start time in milliseconds
+     */
+    public long getTimeStart()
+    {
+        return mTimeStart;
+    }
+
+    /**
+     * Event duration in milliseconds, or 0
+     */
+    public long getDuration()
+    {
+        return mDuration;
+    }
+
+    /**
+     * Channel frequency in Hertz, or 0 if unknown
+     */
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Talkgroup value, or NO_VALUE
+     */
+    public long getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Radio value of the FROM identifier, or NO_VALUE
+     */
+    public long getRadioFrom()
+    {
+        return mRadioFrom;
+    }
+
+    /**
+     * Radio value of the TO identifier, or NO_VALUE
+     */
+    public long getRadioTo()
+    {
+        return mRadioTo;
+    }
+
+    /**
+     * Indicates if either the FROM or the TO identifier is the radio
+     */
+    public boolean hasRadio(long radio)
+    {
+        return mRadioFrom == radio || mRadioTo == radio;
+    }
+
+    /**
+     * Timeslot, or -1 when the event doesn't have a timeslot
+     */
+    public int getTimeslot()
+    {
+        return mTimeslot;
+    }
+
+    public String getProtocol()
+    {
+        return mProtocol;
+    }
+
+    public String getEventType()
+    {
+        return mEventType;
+    }
+
+    public String getFrom()
+    {
+        return mFrom;
+    }
+
+    public String getTo()
+    {
+        return mTo;
+    }
+
+    public String getChannel()
+    {
+        return mChannel;
+    }
+
+    public String getDetails()
+    {
+        return mDetails;
+    }
+
+    /**
+     * Name of the channel configuration that produced the event
+     */
+    public String getChannelName()
+    {
+        return mChannelName;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mTimeStart);
+        sb.append(" ").append(mProtocol);
+        sb.append(" ").append(mEventType);
+        sb.append(" FROM:").append(mFrom);
+        sb.append(" TO:").append(mTo);
+
+        if(mDuration > 0)
+        {
+            sb.append(" DURATION:").append(mDuration);
+        }
+
+        if(mChannel != null)
+        {
+            sb.append(" CHANNEL:").append(mChannel);
+        }
+
+        if(mDetails != null)
+        {
+            sb.append(" ").append(mDetails);
+        }
+
+        return sb.toString();
+    }
+}
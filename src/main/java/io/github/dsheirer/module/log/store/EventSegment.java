@@ -0,0 +1,489 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, columnar segment file of event records.
+ *
+ * The header contains the row count, the minimum and maximum event start time, talkgroup and radio values, bloom
+ * filters of the talkgroup and radio values, and the file offset of each column.  A query can exclude a segment
+ * using the header alone.  Numeric columns are stored as arrays of values and string columns are stored as indexes
+ * into a dictionary of the unique strings in the segment, so a query only reads the time and identifier columns to
+ * find the matching rows and then decodes the dictionary and remaining columns for those rows.
+ *
+ * Segments are written to a temporary file and then moved into place, so readers never see a partial segment.
+ */
+public class EventSegment
+{
+    public static final String FILE_EXTENSION = ".events";
+    private static final int MAGIC = 0x53444553;
+    private static final short VERSION = 1;
+    private static final int PREAMBLE_SIZE = 10;
+    private static final int MAX_STRING_LENGTH = 8192;
+    private static final int NULL_STRING = -1;
+
+    private static final int COLUMN_EVENT_ID = 0;
+    private static final int COLUMN_TIME_START = 1;
+    private static final int COLUMN_DURATION = 2;
+    private static final int COLUMN_FREQUENCY = 3;
+    private static final int COLUMN_TALKGROUP = 4;
+    private static final int COLUMN_RADIO_FROM = 5;
+    private static final int COLUMN_RADIO_TO = 6;
+    private static final int COLUMN_TIMESLOT = 7;
+    private static final int COLUMN_PROTOCOL = 8;
+    private static final int COLUMN_EVENT_TYPE = 9;
+    private static final int COLUMN_FROM = 10;
+    private static final int COLUMN_TO = 11;
+    private static final int COLUMN_CHANNEL = 12;
+    private static final int COLUMN_DETAILS = 13;
+    private static final int COLUMN_CHANNEL_NAME = 14;
+    private static final int LONG_COLUMN_COUNT = 7;
+    private static final int COLUMN_COUNT = 15;
+
+    private Path mPath;
+    private int mRowCount;
+    private long mMinTime;
+    private long mMaxTime;
+    private long mMinTalkgroup;
+    private long mMaxTalkgroup;
+    private long mMinRadio;
+    private long mMaxRadio;
+    private BloomFilter mTalkgroupFilter;
+    private BloomFilter mRadioFilter;
+    private long mDictionaryOffset;
+    private long[] mColumnOffsets = new long[COLUMN_COUNT];
+
+    private EventSegment(Path path)
+    {
+        mPath = path;
+    }
+
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    public int getRowCount()
+    {
+        return mRowCount;
+    }
+
+    /**
+     * Earliest event start time in the segment
+     */
+    public long getMinTime()
+    {
+        return mMinTime;
+    }
+
+    /**
+     * Latest event start time in the segment
+     */
+    public long getMaxTime()
+    {
+        return mMaxTime;
+    }
+
+    /**
+     * Indicates if the segment may contain events that match the query, using the segment header indexes.  False
+     * indicates that the segment definitely doesn't contain matching events.
+     */
+    public boolean mightMatch(EventQuery query)
+    {
+        if(mRowCount == 0 || !query.overlaps(mMinTime, mMaxTime))
+        {
+            return false;
+        }
+
+        Long talkgroup = query.getTalkgroup();
+
+        if(talkgroup != null && (talkgroup < mMinTalkgroup || talkgroup > mMaxTalkgroup ||
+            !mTalkgroupFilter.mightContain(talkgroup)))
+        {
+            return false;
+        }
+
+        Long radio = query.getRadio();
+
+        return radio == null || (radio >= mMinRadio && radio <= mMaxRadio && mRadioFilter.mightContain(radio));
+    }
+
+    /**
+     * Reads the event records that match the query
+     *
+     * @throws IOException if the segment can't be read
+     */
+    public List<EventRecord> read(EventQuery query) throws IOException
+    {
+        List<EventRecord> records = new ArrayList<>();
+
+        if(!mightMatch(query))
+        {
+            return records;
+        }
+
+        try(FileChannel channel = FileChannel.open(mPath, StandardOpenOption.READ))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            //Find candidate rows using only the time and identifier columns
+            int[] rows = new int[mRowCount];
+            int count = 0;
+            Long talkgroup = query.getTalkgroup();
+            Long radio = query.getRadio();
+
+            for(int row = 0; row < mRowCount; row++)
+            {
+                long timeStart = getLong(buffer, COLUMN_TIME_START, row);
+
+                if(timeStart >= query.getStart() && timeStart < query.getEnd() &&
+                    (talkgroup == null || getLong(buffer, COLUMN_TALKGROUP, row) == talkgroup) &&
+                    (radio == null || getLong(buffer, COLUMN_RADIO_FROM, row) == radio ||
+                        getLong(buffer, COLUMN_RADIO_TO, row) == radio))
+                {
+                    rows[count++] = row;
+                }
+            }
+
+            if(count == 0)
+            {
+                return records;
+            }
+
+            String[] dictionary = readDictionary(buffer);
+
+            for(int x = 0; x < count; x++)
+            {
+                EventRecord record = readRecord(buffer, dictionary, rows[x]);
+
+                if(query.matches(record))
+                {
+                    records.add(record);
+                }
+            }
+        }
+
+        return records;
+    }
+
+    private EventRecord readRecord(ByteBuffer buffer, String[] dictionary, int row)
+    {
+        return new EventRecord(getLong(buffer, COLUMN_EVENT_ID, row), getLong(buffer, COLUMN_TIME_START, row),
+            getLong(buffer, COLUMN_DURATION, row), getLong(buffer, COLUMN_FREQUENCY, row),
+            getLong(buffer, COLUMN_TALKGROUP, row), getLong(buffer, COLUMN_RADIO_FROM, row),
+            getLong(buffer, COLUMN_RADIO_TO, row), getInt(buffer, COLUMN_TIMESLOT, row),
+            getString(buffer, dictionary, COLUMN_PROTOCOL, row), getString(buffer, dictionary, COLUMN_EVENT_TYPE, row),
+            getString(buffer, dictionary, COLUMN_FROM, row), getString(buffer, dictionary, COLUMN_TO, row),
+            getString(buffer, dictionary, COLUMN_CHANNEL, row), getString(buffer, dictionary, COLUMN_DETAILS, row),
+            getString(buffer, dictionary, COLUMN_CHANNEL_NAME, row));
+    }
+
+    private long getLong(ByteBuffer buffer, int column, int row)
+    {
+        return buffer.getLong((int)mColumnOffsets[column] + (row * 8));
+    }
+
+    private int getInt(ByteBuffer buffer, int column, int row)
+    {
+        return buffer.getInt((int)mColumnOffsets[column] + (row * 4));
+    }
+
+    private String getString(ByteBuffer buffer, String[] dictionary, int column, int row)
+    {
+        int index = getInt(buffer, column, row);
+        return index == NULL_STRING ? null : dictionary[index];
+    }
+
+    private String[] readDictionary(ByteBuffer buffer)
+    {
+        ByteBuffer dictionaryBuffer = buffer.duplicate();
+        dictionaryBuffer.position((int)mDictionaryOffset);
+        String[] dictionary = new String[dictionaryBuffer.getInt()];
+
+        for(int x = 0; x < dictionary.length; x++)
+        {
+            byte[] bytes = new byte[dictionaryBuffer.getInt()];
+            dictionaryBuffer.get(bytes);
+            dictionary[x] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Opens the segment file and reads the header.
+     *
+     * @throws IOException if the file can't be read or is not an event segment
+     */
+    public static EventSegment open(Path path) throws IOException
+    {
+        EventSegment segment = new EventSegment(path);
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            ByteBuffer preamble = read(channel, 0, PREAMBLE_SIZE);
+
+            if(preamble.getInt() != MAGIC || preamble.getShort() != VERSION)
+            {
+                throw new IOException("Unrecognized event segment file format [" + path + "]");
+            }
+
+            ByteBuffer header = read(channel, PREAMBLE_SIZE, preamble.getInt());
+            segment.mRowCount = header.getInt();
+            segment.mMinTime = header.getLong();
+            segment.mMaxTime = header.getLong();
+            segment.mMinTalkgroup = header.getLong();
+            segment.mMaxTalkgroup = header.getLong();
+            segment.mMinRadio = header.getLong();
+            segment.mMaxRadio = header.getLong();
+            segment.mTalkgroupFilter = BloomFilter.read(header);
+            segment.mRadioFilter = BloomFilter.read(header);
+            segment.mDictionaryOffset = header.getLong();
+
+            for(int x = 0; x < COLUMN_COUNT; x++)
+            {
+                segment.mColumnOffsets[x] = header.getLong();
+            }
+        }
+        catch(RuntimeException re)
+        {
+            throw new IOException("Error reading event segment header [" + path + "]", re);
+        }
+
+        return segment;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Unexpected end of event segment file");
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the event records to a new segment file.
+     *
+     * @param path for the segment file
+     * @param records to write
+     * @return segment
+     * @throws IOException if the file can't be written
+     */
+    public static EventSegment write(Path path, List<EventRecord> records) throws IOException
+    {
+        int rowCount = records.size();
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long minTalkgroup = Long.MAX_VALUE;
+        long maxTalkgroup = Long.MIN_VALUE;
+        long minRadio = Long.MAX_VALUE;
+        long maxRadio = Long.MIN_VALUE;
+        BloomFilter talkgroupFilter = new BloomFilter(rowCount);
+        BloomFilter radioFilter = new BloomFilter(rowCount * 2);
+        Map<String,Integer> dictionary = new LinkedHashMap<>();
+
+        ByteBuffer columns = ByteBuffer.allocate(rowCount * ((LONG_COLUMN_COUNT * 8) +
+            ((COLUMN_COUNT - LONG_COLUMN_COUNT) * 4)));
+
+        for(EventRecord record: records)
+        {
+            minTime = Math.min(minTime, record.getTimeStart());
+            maxTime = Math.max(maxTime, record.getTimeStart());
+
+            if(record.getTalkgroup() != EventRecord.NO_VALUE)
+            {
+                minTalkgroup = Math.min(minTalkgroup, record.getTalkgroup());
+                maxTalkgroup = Math.max(maxTalkgroup, record.getTalkgroup());
+                talkgroupFilter.add(record.getTalkgroup());
+            }
+
+            for(long radio: new long[]{record.getRadioFrom(), record.getRadioTo()})
+            {
+                if(radio != EventRecord.NO_VALUE)
+                {
+                    minRadio = Math.min(minRadio, radio);
+                    maxRadio = Math.max(maxRadio, radio);
+                    radioFilter.add(radio);
+                }
+            }
+        }
+
+        long[] columnOffsets = new long[COLUMN_COUNT];
+
+        for(int column = 0; column < COLUMN_COUNT; column++)
+        {
+            columnOffsets[column] = columns.position();
+
+            for(EventRecord record: records)
+            {
+                switch(column)
+                {
+                    case COLUMN_EVENT_ID:
+                        columns.putLong(record.getEventId());
+                        break;
+                    case COLUMN_TIME_START:
+                        columns.putLong(record.getTimeStart());
+                        break;
+                    case COLUMN_DURATION:
+                        columns.putLong(record.getDuration());
+                        break;
+                    case COLUMN_FREQUENCY:
+                        columns.putLong(record.getFrequency());
+                        break;
+                    case COLUMN_TALKGROUP:
+                        columns.putLong(record.getTalkgroup());
+                        break;
+                    case COLUMN_RADIO_FROM:
+                        columns.putLong(record.getRadioFrom());
+                        break;
+                    case COLUMN_RADIO_TO:
+                        columns.putLong(record.getRadioTo());
+                        break;
+                    case COLUMN_TIMESLOT:
+                        columns.putInt(record.getTimeslot());
+                        break;
+                    case COLUMN_PROTOCOL:
+                        columns.putInt(encode(dictionary, record.getProtocol()));
+                        break;
+                    case COLUMN_EVENT_TYPE:
+                        columns.putInt(encode(dictionary, record.getEventType()));
+                        break;
+                    case COLUMN_FROM:
+                        columns.putInt(encode(dictionary, record.getFrom()));
+                        break;
+                    case COLUMN_TO:
+                        columns.putInt(encode(dictionary, record.getTo()));
+                        break;
+                    case COLUMN_CHANNEL:
+                        columns.putInt(encode(dictionary, record.getChannel()));
+                        break;
+                    case COLUMN_DETAILS:
+                        columns.putInt(encode(dictionary, record.getDetails()));
+                        break;
+                    case COLUMN_CHANNEL_NAME:
+                        columns.putInt(encode(dictionary, record.getChannelName()));
+                        break;
+                }
+            }
+        }
+
+        List<byte[]> strings = new ArrayList<>();
+        int dictionarySize = 4;
+
+        for(String value: dictionary.keySet())
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            dictionarySize += 4 + bytes.length;
+        }
+
+        int headerSize = 4 + (6 * 8) + talkgroupFilter.getSize() + radioFilter.getSize() + 8 + (COLUMN_COUNT * 8);
+        long columnsOffset = PREAMBLE_SIZE + headerSize;
+        long dictionaryOffset = columnsOffset + columns.capacity();
+
+        ByteBuffer buffer = ByteBuffer.allocate((int)dictionaryOffset + dictionarySize);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(headerSize);
+        buffer.putInt(rowCount);
+        buffer.putLong(minTime);
+        buffer.putLong(maxTime);
+        buffer.putLong(minTalkgroup);
+        buffer.putLong(maxTalkgroup);
+        buffer.putLong(minRadio);
+        buffer.putLong(maxRadio);
+        talkgroupFilter.write(buffer);
+        radioFilter.write(buffer);
+        buffer.putLong(dictionaryOffset);
+
+        for(long columnOffset: columnOffsets)
+        {
+            buffer.putLong(columnsOffset + columnOffset);
+        }
+
+        buffer.put(columns.array());
+        buffer.putInt(strings.size());
+
+        for(byte[] bytes: strings)
+        {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+
+        return open(path);
+    }
+
+    /**
+     * Dictionary index for the value, adding the value to the dictionary when necessary.
+     */
+    private static int encode(Map<String,Integer> dictionary, String value)
+    {
+        if(value == null)
+        {
+            return NULL_STRING;
+        }
+
+        if(value.length() > MAX_STRING_LENGTH)
+        {
+            value = value.substring(0, MAX_STRING_LENGTH);
+        }
+
+        Integer index = dictionary.get(value);
+
+        if(index == null)
+        {
+            index = dictionary.size();
+            dictionary.put(value, index);
+        }
+
+        return index;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mPath.getFileName() + " rows:" + mRowCount;
+    }
+}
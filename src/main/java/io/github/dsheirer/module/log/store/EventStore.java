@@ -0,0 +1,642 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded, append-only columnar store for decode events.
+ *
+ * Event records are queued by the decoder threads and a dedicated writer thread groups them into one hour time
+ * partitions by event start time.  Each partition is written as an immutable segment file when it reaches the
+ * maximum segment size, when the flush interval elapses, or when the store is stopped.  Segment files are stored in
+ * a directory per day and named with the partition hour, using UTC for both so that partitions are unambiguous across
+ * daylight saving time changes.
+ *
+ * Once an hour has closed, the writer thread compacts the partition by merging its segments into a single segment
+ * that contains only the latest version of each event, so that periodic flushes don't leave a small segment per
+ * flush interval on disk.  Partitions that were left with more than one segment by a prior run are compacted when
+ * the store is started.  A record that arrives for a partition after it was compacted is written to a new segment
+ * and the partition is compacted again.
+ *
+ * Decode events are rebroadcast as they are updated, for example as a call's duration grows.  Each update is
+ * appended with the event ID of the original event and queries return the latest (longest) version of each event.
+ * Updates that arrive before the partition is written replace the earlier version in memory.
+ *
+ * Queries select the partitions that overlap the query time range, exclude segments using the segment header
+ * indexes, and scan the remaining segments in parallel.  Queued records that have not been written yet are included.
+ * Segment headers are cached in a bounded, least recently used cache.
+ */
+public class EventStore
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EventStore.class);
+    private static final long PARTITION_MILLISECONDS = TimeUnit.HOURS.toMillis(1);
+    private static final long FLUSH_INTERVAL_MILLISECONDS = TimeUnit.MINUTES.toMillis(1);
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_SEGMENT_ROWS = 20000;
+    private static final int MAX_CACHED_SEGMENTS = 1024;
+    private static final EventQuery ALL_EVENTS = new EventQuery(Long.MIN_VALUE, Long.MAX_VALUE);
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter PARTITION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HH")
+        .withZone(ZoneOffset.UTC);
+
+    private Path mDirectory;
+    private Queue<EventRecord> mQueue = new ConcurrentLinkedQueue<>();
+    private Map<Long,Map<Long,EventRecord>> mPendingPartitions = new TreeMap<>();
+    private Set<Long> mUncompactedPartitions = new TreeSet<>();
+    private ReadWriteLock mSegmentLock = new ReentrantReadWriteLock();
+    private Map<Path,EventSegment> mSegmentCache = Collections.synchronizedMap(
+        new LinkedHashMap<Path,EventSegment>(128, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path,EventSegment> eldest)
+            {
+                return size() > MAX_CACHED_SEGMENTS;
+            }
+        });
+    private AtomicLong mEventIdGenerator = new AtomicLong(System.currentTimeMillis() * 1000);
+    private AtomicLong mSegmentSequence = new AtomicLong();
+    private long mLastFlush = System.currentTimeMillis();
+    private volatile boolean mRunning;
+    private Thread mThread;
+
+    /**
+     * Constructs an instance
+     *
+     * @param directory for the event store
+     */
+    public EventStore(Path directory)
+    {
+        mDirectory = directory;
+    }
+
+    public Path getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Starts the writer thread
+     */
+    public synchronized void start()
+    {
+        if(mThread == null)
+        {
+            mRunning = true;
+            mThread = new Thread(this::run, "sdrtrunk event store writer");
+            mThread.setDaemon(true);
+            mThread.setPriority(Thread.NORM_PRIORITY - 1);
+            mThread.start();
+            mLog.info("Event store started [" + mDirectory + "]");
+        }
+    }
+
+    /**
+     * Stops the writer thread, writes any remaining event records and compacts the closed partitions.
+     */
+    public synchronized void stop()
+    {
+        if(mThread != null)
+        {
+            mRunning = false;
+            LockSupport.unpark(mThread);
+
+            try
+            {
+                mThread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            mThread = null;
+        }
+
+        drain();
+        flush();
+        compact();
+    }
+
+    /**
+     * Creates a new unique event ID
+     */
+    public long nextEventId()
+    {
+        return mEventIdGenerator.incrementAndGet();
+    }
+
+    /**
+     * Queues the event record to be written to the store.  This method is thread safe.
+     */
+    public void add(EventRecord record)
+    {
+        mQueue.offer(record);
+    }
+
+    private void run()
+    {
+        try
+        {
+            findUncompactedPartitions();
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error reading event store directory [" + mDirectory + "]", t);
+        }
+
+        while(mRunning)
+        {
+            try
+            {
+                drain();
+
+                if(System.currentTimeMillis() - mLastFlush >= FLUSH_INTERVAL_MILLISECONDS)
+                {
+                    flush();
+                    compact();
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error writing event store segments", t);
+            }
+
+            LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * Moves queued records into their time partitions and writes any partition that reaches the maximum segment size.
+     */
+    private void drain()
+    {
+        EventRecord record = mQueue.poll();
+
+        if(record == null)
+        {
+            return;
+        }
+
+        synchronized(mPendingPartitions)
+        {
+            while(record != null)
+            {
+                long partition = getPartition(record.getTimeStart());
+                Map<Long,EventRecord> pending = mPendingPartitions.computeIfAbsent(partition, p -> new LinkedHashMap<>());
+                pending.merge(record.getEventId(), record, EventStore::latest);
+
+                if(pending.size() >= MAX_SEGMENT_ROWS)
+                {
+                    write(partition, pending);
+                    mPendingPartitions.remove(partition);
+                }
+
+                record = mQueue.poll();
+            }
+        }
+    }
+
+    /**
+     * Writes all pending partitions to segment files.
+     */
+    public void flush()
+    {
+        synchronized(mPendingPartitions)
+        {
+            for(Map.Entry<Long,Map<Long,EventRecord>> entry: mPendingPartitions.entrySet())
+            {
+                write(entry.getKey(), entry.getValue());
+            }
+
+            mPendingPartitions.clear();
+            mLastFlush = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Writes the records to a new segment in the partition.
+     *
+     * @return true if the segment was written
+     */
+    private boolean write(long partition, Map<Long,EventRecord> records)
+    {
+        String partitionName = getPartitionName(partition);
+        Path directory = mDirectory.resolve(partitionName.substring(0, 8));
+        Path path = directory.resolve(partitionName + "_" + System.currentTimeMillis() + "_" +
+            mSegmentSequence.incrementAndGet() + EventSegment.FILE_EXTENSION);
+
+        try
+        {
+            Files.createDirectories(directory);
+            mSegmentCache.put(path, EventSegment.write(path, new ArrayList<>(records.values())));
+
+            synchronized(mPendingPartitions)
+            {
+                mUncompactedPartitions.add(partition);
+            }
+
+            return true;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing event store segment [" + path + "] - " + records.size() +
+                " event records lost", ioe);
+        }
+
+        return false;
+    }
+
+    /**
+     * Compacts each partition that was written since it was last compacted, once the partition hour has closed and
+     * the final flush of the hour has been written.
+     */
+    private void compact()
+    {
+        long closed = getPartition(System.currentTimeMillis() - FLUSH_INTERVAL_MILLISECONDS);
+        List<Long> partitions = new ArrayList<>();
+
+        synchronized(mPendingPartitions)
+        {
+            for(Iterator<Long> it = mUncompactedPartitions.iterator(); it.hasNext();)
+            {
+                long partition = it.next();
+
+                if(partition < closed && !mPendingPartitions.containsKey(partition))
+                {
+                    partitions.add(partition);
+                    it.remove();
+                }
+            }
+        }
+
+        for(long partition: partitions)
+        {
+            try
+            {
+                compact(partition);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error compacting event store partition [" + getPartitionName(partition) + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Merges the segments of the partition into a single segment.  The merged segment is written before the original
+     * segments are deleted, so a concurrent query sees each event in at least one segment and removes any duplicates.
+     */
+    private void compact(long partition) throws IOException
+    {
+        List<Path> paths = getSegmentPaths(partition);
+
+        if(paths.size() < 2)
+        {
+            return;
+        }
+
+        Map<Long,EventRecord> records = new LinkedHashMap<>();
+
+        for(Path path: paths)
+        {
+            for(EventRecord record: getSegment(path).read(ALL_EVENTS))
+            {
+                records.merge(record.getEventId(), record, EventStore::latest);
+            }
+        }
+
+        if(!write(partition, records))
+        {
+            return;
+        }
+
+        mSegmentLock.writeLock().lock();
+
+        try
+        {
+            for(Path path: paths)
+            {
+                mSegmentCache.remove(path);
+                Files.deleteIfExists(path);
+            }
+        }
+        finally
+        {
+            mSegmentLock.writeLock().unlock();
+        }
+
+        //The merged segment doesn't need compacting unless another segment is written to the partition
+        synchronized(mPendingPartitions)
+        {
+            if(getSegmentPaths(partition).size() < 2)
+            {
+                mUncompactedPartitions.remove(partition);
+            }
+        }
+    }
+
+    /**
+     * Finds the partitions with more than one segment that were left by a prior run, so that they are compacted.
+     */
+    private void findUncompactedPartitions() throws IOException
+    {
+        if(!Files.isDirectory(mDirectory))
+        {
+            return;
+        }
+
+        Map<Long,Integer> segmentCounts = new HashMap<>();
+
+        try(Stream<Path> days = Files.list(mDirectory))
+        {
+            for(Iterator<Path> it = days.iterator(); it.hasNext();)
+            {
+                Path day = it.next();
+
+                if(parseDay(day.getFileName().toString()) >= 0)
+                {
+                    try(Stream<Path> files = Files.list(day))
+                    {
+                        files.mapToLong(path -> parsePartition(path.getFileName().toString()))
+                            .filter(partition -> partition >= 0)
+                            .forEach(partition -> segmentCounts.merge(partition, 1, Integer::sum));
+                    }
+                }
+            }
+        }
+
+        synchronized(mPendingPartitions)
+        {
+            for(Map.Entry<Long,Integer> entry: segmentCounts.entrySet())
+            {
+                if(entry.getValue() > 1)
+                {
+                    mUncompactedPartitions.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Segment files in the partition
+     */
+    private List<Path> getSegmentPaths(long partition) throws IOException
+    {
+        String partitionName = getPartitionName(partition);
+        Path directory = mDirectory.resolve(partitionName.substring(0, 8));
+        List<Path> paths = new ArrayList<>();
+
+        if(Files.isDirectory(directory))
+        {
+            try(Stream<Path> files = Files.list(directory))
+            {
+                files.filter(path -> parsePartition(path.getFileName().toString()) == partition).forEach(paths::add);
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Finds the events that match the query.
+     *
+     * @param query criteria
+     * @return matching events, sorted by event start time, with the latest version of each event
+     * @throws IOException if the store directory can't be read
+     */
+    public List<EventRecord> query(EventQuery query) throws IOException
+    {
+        //Include records that are still queued for the writer thread
+        drain();
+
+        List<EventRecord> matches;
+
+        //Prevent compaction from deleting segments while they are being read
+        mSegmentLock.readLock().lock();
+
+        try
+        {
+            matches = getSegments(query).parallelStream()
+                .filter(segment -> segment.mightMatch(query))
+                .flatMap(segment -> read(segment, query).stream())
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
+        finally
+        {
+            mSegmentLock.readLock().unlock();
+        }
+
+        synchronized(mPendingPartitions)
+        {
+            for(Map.Entry<Long,Map<Long,EventRecord>> entry: mPendingPartitions.entrySet())
+            {
+                if(query.overlaps(entry.getKey(), entry.getKey() + PARTITION_MILLISECONDS - 1))
+                {
+                    for(EventRecord record: entry.getValue().values())
+                    {
+                        if(query.matches(record))
+                        {
+                            matches.add(record);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Long,EventRecord> latest = new HashMap<>();
+
+        for(EventRecord record: matches)
+        {
+            latest.merge(record.getEventId(), record, EventStore::latest);
+        }
+
+        List<EventRecord> results = new ArrayList<>(latest.values());
+        results.sort(Comparator.comparingLong(EventRecord::getTimeStart).thenComparingLong(EventRecord::getEventId));
+        return results;
+    }
+
+    private List<EventRecord> read(EventSegment segment, EventQuery query)
+    {
+        try
+        {
+            return segment.read(query);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error reading event store segment [" + segment.getPath() + "]", ioe);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Segments in the partitions that overlap the query time range
+     */
+    private List<EventSegment> getSegments(EventQuery query) throws IOException
+    {
+        List<EventSegment> segments = new ArrayList<>();
+
+        if(!Files.isDirectory(mDirectory))
+        {
+            return segments;
+        }
+
+        List<Path> paths = new ArrayList<>();
+
+        try(Stream<Path> days = Files.list(mDirectory))
+        {
+            for(Iterator<Path> it = days.iterator(); it.hasNext();)
+            {
+                Path day = it.next();
+                long dayStart = parseDay(day.getFileName().toString());
+
+                if(dayStart >= 0 && query.overlaps(dayStart, dayStart + TimeUnit.DAYS.toMillis(1) - 1))
+                {
+                    try(Stream<Path> files = Files.list(day))
+                    {
+                        files.filter(path -> isOverlappingSegment(path, query)).forEach(paths::add);
+                    }
+                }
+            }
+        }
+
+        for(Path path: paths)
+        {
+            try
+            {
+                segments.add(getSegment(path));
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Ignoring unreadable event store segment [" + path + "]", ioe);
+            }
+        }
+
+        return segments;
+    }
+
+    /**
+     * Segment for the path, using the cached segment header when available.
+     *
+     * @throws IOException if the segment can't be opened
+     */
+    private EventSegment getSegment(Path path) throws IOException
+    {
+        EventSegment segment = mSegmentCache.get(path);
+
+        if(segment == null)
+        {
+            segment = EventSegment.open(path);
+            mSegmentCache.put(path, segment);
+        }
+
+        return segment;
+    }
+
+    private static boolean isOverlappingSegment(Path path, EventQuery query)
+    {
+        long partition = parsePartition(path.getFileName().toString());
+        return partition >= 0 && query.overlaps(partition, partition + PARTITION_MILLISECONDS - 1);
+    }
+
+    /**
+     * Partition start time for a segment file name, or -1 if the name is not a segment file name
+     */
+    private static long parsePartition(String name)
+    {
+        if(!name.endsWith(EventSegment.FILE_EXTENSION) || name.length() < 11)
+        {
+            return -1;
+        }
+
+        long dayStart = parseDay(name.substring(0, 8));
+
+        try
+        {
+            return dayStart >= 0 ? dayStart + TimeUnit.HOURS.toMillis(Integer.parseInt(name.substring(9, 11))) : -1;
+        }
+        catch(NumberFormatException nfe)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Start of the UTC day for a yyyyMMdd day directory name, or -1 if the name is not a day
+     */
+    private static long parseDay(String name)
+    {
+        try
+        {
+            return LocalDate.parse(name, DAY_FORMATTER).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        catch(DateTimeParseException dtpe)
+        {
+            return -1;
+        }
+    }
+
+    private static String getPartitionName(long partition)
+    {
+        return PARTITION_FORMATTER.format(Instant.ofEpochMilli(partition));
+    }
+
+    private static long getPartition(long timestamp)
+    {
+        return Math.floorDiv(timestamp, PARTITION_MILLISECONDS) * PARTITION_MILLISECONDS;
+    }
+
+    /**
+     * Selects the latest version of an event, which is the version with the longer duration.
+     */
+    private static EventRecord latest(EventRecord existing, EventRecord update)
+    {
+        return update.getDuration() >= existing.getDuration() ? update : existing;
+    }
+}
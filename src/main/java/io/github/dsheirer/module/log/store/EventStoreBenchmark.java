@@ -0,0 +1,263 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.module.decode.event.DecodeEvent;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.protocol.Protocol;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark and regression check for the event store.
+ *
+ * Creates an event store with synthetic call events spread across a number of days and then:
+ * - Verifies that decode events that are updated after their partition is written are returned once, with the
+ *   latest duration.
+ * - Verifies that a closed partition that was written by more than one flush is compacted to a single segment.
+ * - Runs talkgroup and radio queries for the last week and compares the results and elapsed time with a brute force
+ *   scan of every segment.
+ *
+ * Usage: EventStoreBenchmark [directory] [events] [days]
+ */
+public class EventStoreBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final int TALKGROUPS = 2000;
+    private static final int RADIOS = 20000;
+
+    private static boolean sameEvents(List<EventRecord> a, List<EventRecord> b)
+    {
+        if(a.size() != b.size())
+        {
+            return false;
+        }
+
+        for(int x = 0; x < a.size(); x++)
+        {
+            if(a.get(x).getEventId() != b.get(x).getEventId() || a.get(x).getDuration() != b.get(x).getDuration())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Brute force query that reads every row of every segment
+     */
+    private static List<EventRecord> scan(Path directory, EventQuery query) throws IOException
+    {
+        List<EventRecord> records = new ArrayList<>();
+        EventQuery everything = new EventQuery(Long.MIN_VALUE, Long.MAX_VALUE);
+
+        try(Stream<Path> paths = Files.walk(directory))
+        {
+            for(Path path: paths.filter(p -> p.toString().endsWith(EventSegment.FILE_EXTENSION))
+                .collect(Collectors.toList()))
+            {
+                for(EventRecord record: EventSegment.open(path).read(everything))
+                {
+                    if(query.matches(record))
+                    {
+                        records.add(record);
+                    }
+                }
+            }
+        }
+
+        records.sort(Comparator.comparingLong(EventRecord::getTimeStart).thenComparingLong(EventRecord::getEventId));
+        return records;
+    }
+
+    private static void delete(Path directory) throws IOException
+    {
+        if(Files.exists(directory))
+        {
+            try(Stream<Path> paths = Files.walk(directory))
+            {
+                for(Path path: paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        Path parent = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        boolean pass = true;
+        Path directory = parent.resolve("event_store_benchmark");
+
+        try
+        {
+            delete(directory);
+            EventStore eventStore = new EventStore(directory);
+            eventStore.start();
+
+            //Decode event that is updated after the store writes its partition
+            long now = System.currentTimeMillis();
+            List<Identifier> identifiers = new ArrayList<>();
+            identifiers.add(APCO25Talkgroup.create(TALKGROUPS + 1));
+            identifiers.add(APCO25RadioIdentifier.createFrom(RADIOS + 1));
+            DecodeEvent decodeEvent = DecodeEvent.builder(now - 1000).protocol(Protocol.APCO25)
+                .eventDescription("Group Call").identifiers(new IdentifierCollection(identifiers)).build();
+            EventStoreModule module = new EventStoreModule(eventStore, "Benchmark");
+            module.receive(decodeEvent);
+            Thread.sleep(1500);
+            eventStore.flush();
+            decodeEvent.end(now);
+            module.receive(decodeEvent);
+
+            List<EventRecord> updated = eventStore.query(new EventQuery(now - 2000, now + 1)
+                .setTalkgroup((long)TALKGROUPS + 1));
+            boolean updatePass = updated.size() == 1 && updated.get(0).getDuration() == 1000 &&
+                updated.get(0).getRadioFrom() == RADIOS + 1;
+            eventStore.flush();
+            updatePass &= sameEvents(updated, eventStore.query(new EventQuery(now - 2000, now + 1)
+                .setTalkgroup((long)TALKGROUPS + 1)));
+            System.out.println("Event update: " + (updatePass ? "PASS" : "FAIL"));
+            pass &= updatePass;
+
+            //Event in a closed partition that is written by two flushes and compacted when the store is stopped
+            long compactedTime = now - TimeUnit.HOURS.toMillis(3);
+            long compactedEventId = eventStore.nextEventId();
+            eventStore.add(new EventRecord(compactedEventId, compactedTime, 1000, 851012500, TALKGROUPS + 2,
+                RADIOS + 2, EventRecord.NO_VALUE, -1, "APCO-25", "Group Call", null, null, null, null, "Benchmark"));
+            eventStore.flush();
+            eventStore.add(new EventRecord(compactedEventId, compactedTime, 2000, 851012500, TALKGROUPS + 2,
+                RADIOS + 2, EventRecord.NO_VALUE, -1, "APCO-25", "Group Call", null, null, null, null, "Benchmark"));
+            Thread.sleep(1500);
+            eventStore.flush();
+
+            Random random = new Random(17);
+            long start = now - TimeUnit.DAYS.toMillis(days);
+            long spacing = TimeUnit.DAYS.toMillis(days) / eventCount;
+            long writeStart = System.nanoTime();
+
+            for(int x = 0; x < eventCount; x++)
+            {
+                int talkgroup = random.nextInt(TALKGROUPS);
+                int radio = random.nextInt(RADIOS);
+                eventStore.add(new EventRecord(eventStore.nextEventId(), start + (x * spacing),
+                    random.nextInt(30000), 851012500, talkgroup, radio, EventRecord.NO_VALUE, -1, "APCO-25",
+                    "Group Call", "RADIO:" + radio, "TG:" + talkgroup, "1-" + random.nextInt(400),
+                    "ENCRYPTED:false", "Benchmark"));
+            }
+
+            eventStore.stop();
+            double writeSeconds = (System.nanoTime() - writeStart) / 1E9;
+
+            long size = 0;
+            int segments = 0;
+            Map<String,Integer> partitionSegments = new HashMap<>();
+
+            try(Stream<Path> paths = Files.walk(directory))
+            {
+                for(Path path: paths.filter(p -> p.toString().endsWith(EventSegment.FILE_EXTENSION))
+                    .collect(Collectors.toList()))
+                {
+                    size += Files.size(path);
+                    segments++;
+                    partitionSegments.merge(path.getFileName().toString().substring(0, 11), 1, Integer::sum);
+                }
+            }
+
+            //Partitions that are still open may have more than one segment
+            String openPartition = DateTimeFormatter.ofPattern("yyyyMMdd_HH").withZone(ZoneOffset.UTC)
+                .format(Instant.ofEpochMilli(now - TimeUnit.MINUTES.toMillis(1)));
+            partitionSegments.keySet().removeIf(partition -> partition.compareTo(openPartition) >= 0);
+            List<EventRecord> compacted = new EventStore(directory).query(new EventQuery(compactedTime,
+                compactedTime + 1).setTalkgroup((long)TALKGROUPS + 2));
+            boolean compactionPass = partitionSegments.values().stream().allMatch(count -> count == 1) &&
+                compacted.size() == 1 && compacted.get(0).getDuration() == 2000;
+            System.out.println("Compaction: " + partitionSegments.size() + " closed partitions " +
+                (compactionPass ? "PASS" : "FAIL"));
+            pass &= compactionPass;
+
+            System.out.println("Write: " + eventCount + " events in " + DECIMAL_FORMAT.format(writeSeconds) +
+                " secs to " + segments + " segments, " + (size / 1024) + " KB (" +
+                DECIMAL_FORMAT.format((double)size / eventCount) + " bytes/event)");
+
+            EventStore reader = new EventStore(directory);
+            long lastWeek = now - TimeUnit.DAYS.toMillis(7);
+
+            for(EventQuery query: new EventQuery[]{new EventQuery(lastWeek, now).setTalkgroup(1234l),
+                new EventQuery(lastWeek, now).setRadio(4321l),
+                new EventQuery(start, now).setTalkgroup(77l).setRadio(2046l)})
+            {
+                long queryStart = System.nanoTime();
+                List<EventRecord> results = reader.query(query);
+                double queryMillis = (System.nanoTime() - queryStart) / 1E6;
+
+                queryStart = System.nanoTime();
+                List<EventRecord> expected = scan(directory, query);
+                double scanMillis = (System.nanoTime() - queryStart) / 1E6;
+
+                boolean queryPass = sameEvents(results, expected);
+                System.out.println(query + " - " + results.size() + " events in " +
+                    DECIMAL_FORMAT.format(queryMillis) + " ms, full scan " + DECIMAL_FORMAT.format(scanMillis) +
+                    " ms " + (queryPass ? "PASS" : "FAIL"));
+                pass &= queryPass;
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            pass = false;
+        }
+        finally
+        {
+            try
+            {
+                delete(directory);
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+        }
+
+        System.out.println(pass ? "PASS" : "FAIL");
+        System.exit(pass ? 0 : 1);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.log.store;
+
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEventListener;
+import io.github.dsheirer.sample.Listener;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Processing chain module that appends the decode events produced by the channel to the event store.  Decode events
+ * are rebroadcast as they are updated, so each decode event instance is assigned an event ID on first receipt and
+ * each update is stored with the same event ID.
+ */
+public class EventStoreModule extends Module implements IDecodeEventListener, Listener<IDecodeEvent>
+{
+    private EventStore mEventStore;
+    private String mChannelName;
+    private Map<IDecodeEvent,Long> mEventIds = new WeakHashMap<>();
+
+    /**
+     * Constructs an instance
+     *
+     * @param eventStore to receive the events
+     * @param channelName to store with each event
+     */
+    public EventStoreModule(EventStore eventStore, String channelName)
+    {
+        mEventStore = eventStore;
+        mChannelName = channelName;
+    }
+
+    @Override
+    public synchronized void receive(IDecodeEvent decodeEvent)
+    {
+        Long eventId = mEventIds.get(decodeEvent);
+
+        if(eventId == null)
+        {
+            eventId = mEventStore.nextEventId();
+            mEventIds.put(decodeEvent, eventId);
+        }
+
+        mEventStore.add(EventRecord.create(eventId, decodeEvent, mChannelName));
+    }
+
+    @Override
+    public Listener<IDecodeEvent> getDecodeEventListener()
+    {
+        return this;
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        mEventIds.clear();
+    }
+}
@@ -81,6 +81,8 @@ public class PlaylistManager implements Listener<ChannelEvent>
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
     private ScheduledFuture<?> mPlaylistSaveFuture;
     private boolean mPlaylistLoading = false;
+    private ShardedPlaylistStore mShardedPlaylistStore;
+    private boolean mFullSaveRequired;
 
     /**
      * Playlist manager - manages all channel configurations, channel maps, and alias lists and handles loading or
@@ -113,9 +115,18 @@ public class PlaylistManager implements Listener<ChannelEvent>
         //save the playlist when there are any changes
         mChannelModel.addListener(this);
 
-        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> schedulePlaylistSave());
+        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> {
+            ShardedPlaylistStore shardedPlaylistStore = mShardedPlaylistStore;
 
-        mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> schedulePlaylistSave());
+            if(shardedPlaylistStore != null)
+            {
+                shardedPlaylistStore.aliasesChanged(c);
+            }
+
+            schedulePlaylistSave();
+        });
+
+        mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> scheduleConfigurationSave());
 
         mBroadcastModel.addListener(broadcastEvent -> {
             switch(broadcastEvent.getEvent())
@@ -123,7 +134,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
                 case CONFIGURATION_ADD:
                 case CONFIGURATION_CHANGE:
                 case CONFIGURATION_DELETE:
-                    schedulePlaylistSave();
+                    scheduleConfigurationSave();
                     break;
                 default:
                     //Do nothing
@@ -204,6 +215,24 @@ public class PlaylistManager implements Listener<ChannelEvent>
     {
         PlaylistV2 playlist = load();
         transferPlaylistToModels(playlist);
+
+        ShardedPlaylistStore shardedPlaylistStore = mShardedPlaylistStore;
+
+        if(shardedPlaylistStore != null)
+        {
+            //The models now match the loaded playlist, unless it was converted or updated and must be fully saved
+            if(mFullSaveRequired)
+            {
+                shardedPlaylistStore.markAllDirty(mAliasModel.getAliases());
+                schedulePlaylistSave();
+            }
+            else
+            {
+                shardedPlaylistStore.reset(mAliasModel.getAliases());
+            }
+        }
+
+        mFullSaveRequired = false;
     }
 
     /**
@@ -369,19 +398,17 @@ public class PlaylistManager implements Listener<ChannelEvent>
                 case NOTIFICATION_ADD:
                 case NOTIFICATION_CONFIGURATION_CHANGE:
                 case NOTIFICATION_DELETE:
-                    schedulePlaylistSave();
+                    scheduleConfigurationSave();
                     break;
             }
         }
     }
 
     /**
-     * Saves the current playlist
+     * Creates a playlist from the current contents of the models
      */
-    private void save()
+    private PlaylistV2 createPlaylist()
     {
-        PlaylistPreference playlistPreference = mUserPreferences.getPlaylistPreference();
-
         PlaylistV2 playlist = new PlaylistV2();
 
         playlist.setAliases(new ArrayList(mAliasModel.getAliases()));
@@ -390,6 +417,64 @@ public class PlaylistManager implements Listener<ChannelEvent>
         playlist.setChannelMaps(new ArrayList(mChannelMapModel.getChannelMaps()));
         playlist.setVersion(PLAYLIST_CURRENT_VERSION);
 
+        return playlist;
+    }
+
+    /**
+     * Exports the current playlist to a single playlist file, regardless of how the playlist is persisted.
+     *
+     * @param path for the exported playlist
+     * @throws IOException if there is an error writing to disk
+     */
+    public void exportPlaylist(Path path) throws IOException
+    {
+        try(OutputStream out = Files.newOutputStream(path))
+        {
+            JacksonXmlModule xmlModule = new JacksonXmlModule();
+            xmlModule.setDefaultUseWrapper(false);
+            ObjectMapper objectMapper = new XmlMapper(xmlModule);
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+            objectMapper.writeValue(out, createPlaylist());
+            out.flush();
+        }
+    }
+
+    /**
+     * Saves the changed partitions of the current playlist to the sharded playlist store
+     */
+    private void saveShards(ShardedPlaylistStore shardedPlaylistStore)
+    {
+        long start = System.currentTimeMillis();
+
+        try
+        {
+            int count = shardedPlaylistStore.save(mAliasModel.getAliases(), createPlaylist());
+            mLog.debug("Saved [" + count + "] playlist partitions in [" + (System.currentTimeMillis() - start) +
+                " ms] to [" + shardedPlaylistStore.getDirectory() + "]");
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error while saving playlist partitions [" + shardedPlaylistStore.getDirectory() + "]", e);
+        }
+    }
+
+    /**
+     * Saves the current playlist
+     */
+    private void save()
+    {
+        ShardedPlaylistStore shardedPlaylistStore = mShardedPlaylistStore;
+
+        if(shardedPlaylistStore != null)
+        {
+            saveShards(shardedPlaylistStore);
+            return;
+        }
+
+        PlaylistPreference playlistPreference = mUserPreferences.getPlaylistPreference();
+
+        PlaylistV2 playlist = createPlaylist();
+
         //Create a backup copy of the current playlist
         if(Files.exists(playlistPreference.getPlaylist()))
         {
@@ -433,6 +518,13 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 Files.delete(playlistPreference.getPlaylistLock());
             }
+
+            //Remove playlist partitions that were converted back to this playlist file
+            if(Files.exists(playlistPreference.getPlaylistShardDirectory()))
+            {
+                new ShardedPlaylistStore(playlistPreference.getPlaylistShardDirectory()).delete();
+                mLog.info("Converted playlist partitions to playlist file [" + playlistPreference.getPlaylist() + "]");
+            }
         }
         catch(IOException ioe)
         {
@@ -453,6 +545,51 @@ public class PlaylistManager implements Listener<ChannelEvent>
 
         PlaylistV2 playlist = null;
 
+        ShardedPlaylistStore shardedPlaylistStore = new ShardedPlaylistStore(files.getPlaylistShardDirectory());
+        mShardedPlaylistStore = ShardedPlaylistStore.isEnabled() ? shardedPlaylistStore : null;
+        mFullSaveRequired = false;
+
+        //Playlist partitions, when present, are more current than the playlist file
+        if(shardedPlaylistStore.exists())
+        {
+            mLog.info("Loading playlist partitions [" + shardedPlaylistStore.getDirectory() + "]");
+
+            try
+            {
+                long start = System.currentTimeMillis();
+                playlist = shardedPlaylistStore.load();
+                mLog.info("Loaded [" + playlist.getAliases().size() + "] aliases and [" +
+                    playlist.getChannels().size() + "] channels in [" + (System.currentTimeMillis() - start) + " ms]");
+
+                if(PlaylistUpdater.update(playlist))
+                {
+                    mFullSaveRequired = true;
+                    schedulePlaylistSave();
+                }
+
+                if(mShardedPlaylistStore == null)
+                {
+                    mLog.info("Sharded playlist persistence is disabled - converting playlist partitions to the " +
+                        "playlist file [" + files.getPlaylist() + "]");
+                    schedulePlaylistSave();
+                }
+
+                return playlist;
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("IO error while reading playlist partitions - loading playlist file instead", ioe);
+                playlist = null;
+            }
+        }
+
+        //Playlist file content is saved to new playlist partitions
+        if(mShardedPlaylistStore != null)
+        {
+            mFullSaveRequired = true;
+            schedulePlaylistSave();
+        }
+
         //Check for a lock file that indicates the previous save attempt was incomplete or had an error
         if(Files.exists(files.getPlaylistLock()))
         {
@@ -541,6 +678,21 @@ public class PlaylistManager implements Listener<ChannelEvent>
         return playlist;
     }
 
+    /**
+     * Schedules a playlist save task after a change to the channels, channel maps or broadcast configurations.
+     */
+    private void scheduleConfigurationSave()
+    {
+        ShardedPlaylistStore shardedPlaylistStore = mShardedPlaylistStore;
+
+        if(shardedPlaylistStore != null && !mPlaylistLoading)
+        {
+            shardedPlaylistStore.markConfigurationDirty();
+        }
+
+        schedulePlaylistSave();
+    }
+
     /**
      * Schedules a playlist save task.  Subsequent calls to this method will be ignored until the save event occurs,
      * thus limiting repetitive playlist saving to a minimum.
@@ -551,7 +703,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             if(mPlaylistSavePending.compareAndSet(false, true))
             {
-                mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
+                mPlaylistSaveFuture = ThreadPool.IO.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
             }
         }
     }
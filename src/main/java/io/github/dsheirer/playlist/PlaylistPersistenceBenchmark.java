@@ -0,0 +1,208 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.alias.id.talkgroup.Talkgroup;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
+import io.github.dsheirer.protocol.Protocol;
+import javafx.collections.ListChangeListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark and regression check for playlist persistence.  For each playlist size, compares the time to save and
+ * load the complete playlist file with the time to save all partitions, save a single alias change, save a bulk
+ * import into one alias list, and load the partitions, using the sharded playlist store.  Verifies that the
+ * partitions load with the same aliases as the model.
+ *
+ * Usage: PlaylistPersistenceBenchmark [directory] [alias lists]
+ */
+public class PlaylistPersistenceBenchmark
+{
+    private static final int[] PLAYLIST_SIZES = {1000, 10000, 40000};
+    private static final int BULK_IMPORT_SIZE = 500;
+
+    private static Alias createAlias(String aliasList, int talkgroup)
+    {
+        Alias alias = new Alias("Talkgroup " + talkgroup);
+        alias.setAliasListName(aliasList);
+        alias.setGroup("Group " + (talkgroup % 20));
+        alias.setColor(talkgroup);
+        alias.addAliasID(new Talkgroup(Protocol.APCO25, talkgroup));
+        return alias;
+    }
+
+    private static PlaylistV2 createConfiguration(AliasModel aliasModel)
+    {
+        PlaylistV2 playlist = new PlaylistV2();
+        playlist.setAliases(new ArrayList<>(aliasModel.getAliases()));
+        List<Channel> channels = new ArrayList<>();
+
+        for(int x = 0; x < 20; x++)
+        {
+            Channel channel = new Channel("Channel " + x);
+            channel.setDecodeConfiguration(new DecodeConfigP25Phase1());
+            channel.setAliasListName("List " + x);
+            channels.add(channel);
+        }
+
+        playlist.setChannels(channels);
+        return playlist;
+    }
+
+    private static long millis(long startNanos)
+    {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+
+    private static void delete(Path path) throws IOException
+    {
+        new ShardedPlaylistStore(path).delete();
+    }
+
+    public static void main(String[] args)
+    {
+        Path directory = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        int aliasListCount = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        Path playlistPath = directory.resolve("playlist_benchmark.xml");
+        Path shardDirectory = directory.resolve("playlist_benchmark.xml.shards");
+        boolean pass = true;
+
+        System.out.println("ALIASES,XML SAVE MS,XML LOAD MS,SHARDED FULL SAVE MS,SHARDED SINGLE ALIAS SAVE MS," +
+            "SHARDED BULK IMPORT SAVE MS,SHARDED LOAD MS,PARTITIONS WRITTEN FOR SINGLE ALIAS");
+
+        try
+        {
+            for(int size: PLAYLIST_SIZES)
+            {
+                AliasModel aliasModel = new AliasModel();
+                ShardedPlaylistStore store = new ShardedPlaylistStore(shardDirectory);
+                store.delete();
+                aliasModel.aliasList().addListener((ListChangeListener<Alias>)store::aliasesChanged);
+
+                List<Alias> aliases = new ArrayList<>();
+
+                for(int x = 0; x < size; x++)
+                {
+                    aliases.add(createAlias("List " + (x % aliasListCount), x));
+                }
+
+                aliasModel.addAliases(aliases);
+                PlaylistV2 playlist = createConfiguration(aliasModel);
+
+                //Complete playlist file, with a new mapper for each save and load as the playlist manager does
+                long start = System.nanoTime();
+
+                try(OutputStream out = Files.newOutputStream(playlistPath))
+                {
+                    JacksonXmlModule xmlModule = new JacksonXmlModule();
+                    xmlModule.setDefaultUseWrapper(false);
+                    ObjectMapper objectMapper = new XmlMapper(xmlModule);
+                    objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+                    objectMapper.writeValue(out, playlist);
+                }
+
+                long xmlSave = millis(start);
+                start = System.nanoTime();
+
+                try(InputStream in = Files.newInputStream(playlistPath))
+                {
+                    JacksonXmlModule xmlModule = new JacksonXmlModule();
+                    xmlModule.setDefaultUseWrapper(false);
+                    ObjectMapper objectMapper = new XmlMapper(xmlModule)
+                        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+                    objectMapper.readValue(in, PlaylistV2.class);
+                }
+
+                long xmlLoad = millis(start);
+
+                //Sharded store
+                store.markAllDirty(aliasModel.getAliases());
+                start = System.nanoTime();
+                store.save(aliasModel.getAliases(), playlist);
+                long fullSave = millis(start);
+
+                aliasModel.getAliases().get(size / 2).setName("Renamed");
+                start = System.nanoTime();
+                int partitions = store.save(aliasModel.getAliases(), playlist);
+                long singleSave = millis(start);
+
+                List<Alias> imported = new ArrayList<>();
+
+                for(int x = 0; x < BULK_IMPORT_SIZE; x++)
+                {
+                    imported.add(createAlias("Imported", size + x));
+                }
+
+                aliasModel.addAliases(imported);
+                start = System.nanoTime();
+                store.save(aliasModel.getAliases(), playlist);
+                long bulkSave = millis(start);
+
+                start = System.nanoTime();
+                PlaylistV2 loaded = new ShardedPlaylistStore(shardDirectory).load();
+                long shardLoad = millis(start);
+
+                boolean loadPass = loaded.getAliases().size() == aliasModel.getAliases().size() &&
+                    loaded.getChannels().size() == playlist.getChannels().size() &&
+                    loaded.getAliases().stream().filter(alias -> "Renamed".equals(alias.getName())).count() == 1;
+                pass &= loadPass && partitions == 1;
+
+                System.out.println(aliasModel.getAliases().size() + "," + xmlSave + "," + xmlLoad + "," + fullSave +
+                    "," + singleSave + "," + bulkSave + "," + shardLoad + "," + partitions +
+                    (loadPass ? "" : " LOAD FAIL"));
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            pass = false;
+        }
+        finally
+        {
+            try
+            {
+                Files.deleteIfExists(playlistPath);
+                delete(shardDirectory);
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+        }
+
+        System.out.println(pass ? "PASS" : "FAIL");
+        System.exit(pass ? 0 : 1);
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.properties.SystemProperties;
+import io.github.dsheirer.util.StringUtils;
+import javafx.collections.ListChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Incremental playlist persistence that stores the playlist as a directory of partition files so that a playlist
+ * change only rewrites the partitions that changed, instead of serializing the complete playlist.
+ *
+ * Aliases are partitioned by alias list, with one file per alias list in the aliases sub-directory.  Channels,
+ * channel maps and broadcast configurations are stored together in the configuration file.  Each partition file is
+ * a playlist XML document containing only the partition's content, so any partition can be imported as a playlist.
+ *
+ * Alias list changes are tracked from the alias model's change events, including alias updates, so that an alias
+ * that moves to a different alias list marks both the previous and the current alias list as changed.  Partition
+ * files are written to a temporary file and moved into place, so each partition is always complete.  If a save is
+ * interrupted while an alias is moving between alias lists, the alias may be loaded from both partitions.
+ *
+ * This class is thread safe.
+ */
+public class ShardedPlaylistStore
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ShardedPlaylistStore.class);
+    public static final String PROPERTY_SHARDED_PLAYLIST_ENABLED = "playlist.sharded.persistence.enabled";
+    private static final boolean DEFAULT_SHARDED_PLAYLIST_ENABLED = false;
+    private static final String CONFIGURATION_FILE = "configuration.xml";
+    private static final String ALIAS_DIRECTORY = "aliases";
+    private static final String NO_ALIAS_LIST = "";
+    private static final String XML_EXTENSION = ".xml";
+    private static final int MAX_FILE_NAME_LENGTH = 64;
+
+    private Path mDirectory;
+    private ObjectMapper mWriter;
+    private ObjectMapper mReader;
+    private Map<Alias,String> mAliasPartitions = new IdentityHashMap<>();
+    private Set<String> mDirtyAliasLists = new HashSet<>();
+    private boolean mConfigurationDirty;
+
+    /**
+     * Constructs an instance
+     *
+     * @param directory for the playlist partition files
+     */
+    public ShardedPlaylistStore(Path directory)
+    {
+        mDirectory = directory;
+
+        JacksonXmlModule writerModule = new JacksonXmlModule();
+        writerModule.setDefaultUseWrapper(false);
+        mWriter = new XmlMapper(writerModule);
+        mWriter.enable(SerializationFeature.INDENT_OUTPUT);
+
+        JacksonXmlModule readerModule = new JacksonXmlModule();
+        readerModule.setDefaultUseWrapper(false);
+        mReader = new XmlMapper(readerModule).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Indicates if playlists are persisted with the sharded playlist store, instead of as a single playlist file.
+     */
+    public static boolean isEnabled()
+    {
+        return SystemProperties.getInstance().get(PROPERTY_SHARDED_PLAYLIST_ENABLED, DEFAULT_SHARDED_PLAYLIST_ENABLED);
+    }
+
+    public Path getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Indicates if the store has a saved playlist
+     */
+    public boolean exists()
+    {
+        return Files.exists(mDirectory.resolve(CONFIGURATION_FILE));
+    }
+
+    /**
+     * Loads the playlist from the partition files.  The loaded content is considered saved.
+     *
+     * @throws IOException if a partition file can't be read
+     */
+    public synchronized PlaylistV2 load() throws IOException
+    {
+        PlaylistV2 playlist = read(mDirectory.resolve(CONFIGURATION_FILE));
+        List<Alias> aliases = new ArrayList<>();
+        Path aliasDirectory = mDirectory.resolve(ALIAS_DIRECTORY);
+
+        if(Files.isDirectory(aliasDirectory))
+        {
+            for(Path path: list(aliasDirectory))
+            {
+                aliases.addAll(read(path).getAliases());
+            }
+        }
+
+        playlist.setAliases(aliases);
+        reset(aliases);
+        return playlist;
+    }
+
+    private PlaylistV2 read(Path path) throws IOException
+    {
+        try(InputStream in = Files.newInputStream(path))
+        {
+            return mReader.readValue(in, PlaylistV2.class);
+        }
+    }
+
+    /**
+     * Sorted list of the partition files in the directory
+     */
+    private static List<Path> list(Path directory) throws IOException
+    {
+        try(Stream<Path> paths = Files.list(directory))
+        {
+            return paths.filter(path -> path.getFileName().toString().endsWith(XML_EXTENSION)).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Records the aliases as saved and clears all changes.
+     */
+    public synchronized void reset(List<Alias> aliases)
+    {
+        mAliasPartitions.clear();
+
+        for(Alias alias: aliases)
+        {
+            mAliasPartitions.put(alias, getAliasList(alias));
+        }
+
+        mDirtyAliasLists.clear();
+        mConfigurationDirty = false;
+    }
+
+    /**
+     * Marks the complete playlist as changed, so that the next save rewrites every partition.
+     */
+    public synchronized void markAllDirty(List<Alias> aliases)
+    {
+        reset(aliases);
+        mDirtyAliasLists.addAll(mAliasPartitions.values());
+        mConfigurationDirty = true;
+    }
+
+    /**
+     * Marks the channel, channel map and broadcast configuration partition as changed.
+     */
+    public synchronized void markConfigurationDirty()
+    {
+        mConfigurationDirty = true;
+    }
+
+    /**
+     * Indicates if there are changes that have not been saved
+     */
+    public synchronized boolean isDirty()
+    {
+        return mConfigurationDirty || !mDirtyAliasLists.isEmpty();
+    }
+
+    /**
+     * Marks the alias lists affected by the alias model change as changed.
+     */
+    public synchronized void aliasesChanged(ListChangeListener.Change<? extends Alias> change)
+    {
+        while(change.next())
+        {
+            if(change.wasUpdated())
+            {
+                for(int x = change.getFrom(); x < change.getTo(); x++)
+                {
+                    aliasChanged(change.getList().get(x));
+                }
+            }
+            else if(!change.wasPermutated())
+            {
+                for(Alias removed: change.getRemoved())
+                {
+                    String aliasList = mAliasPartitions.remove(removed);
+                    mDirtyAliasLists.add(aliasList != null ? aliasList : getAliasList(removed));
+                }
+
+                for(Alias added: change.getAddedSubList())
+                {
+                    aliasChanged(added);
+                }
+            }
+        }
+    }
+
+    private void aliasChanged(Alias alias)
+    {
+        String aliasList = getAliasList(alias);
+        String previous = mAliasPartitions.put(alias, aliasList);
+        mDirtyAliasLists.add(aliasList);
+
+        if(previous != null && !previous.equals(aliasList))
+        {
+            mDirtyAliasLists.add(previous);
+        }
+    }
+
+    private static String getAliasList(Alias alias)
+    {
+        return alias.getAliasListName() != null ? alias.getAliasListName() : NO_ALIAS_LIST;
+    }
+
+    /**
+     * Saves the changed partitions.  Partitions that fail to save remain marked as changed.
+     *
+     * @param aliases current aliases
+     * @param configuration playlist containing the current channels, channel maps and broadcast configurations.  Any
+     * aliases in this playlist are ignored.
+     * @return number of partition files written or deleted
+     * @throws IOException if a partition can't be saved
+     */
+    public int save(List<Alias> aliases, PlaylistV2 configuration) throws IOException
+    {
+        Set<String> dirtyAliasLists;
+        boolean configurationDirty;
+
+        synchronized(this)
+        {
+            dirtyAliasLists = new HashSet<>(mDirtyAliasLists);
+            configurationDirty = mConfigurationDirty;
+            mDirtyAliasLists.clear();
+            mConfigurationDirty = false;
+        }
+
+        int count = 0;
+
+        try
+        {
+            Files.createDirectories(mDirectory.resolve(ALIAS_DIRECTORY));
+
+            if(!dirtyAliasLists.isEmpty())
+            {
+                Map<String,List<Alias>> partitions = new HashMap<>();
+
+                for(String aliasList: dirtyAliasLists)
+                {
+                    partitions.put(aliasList, new ArrayList<>());
+                }
+
+                for(Alias alias: aliases)
+                {
+                    List<Alias> partition = partitions.get(getAliasList(alias));
+
+                    if(partition != null)
+                    {
+                        partition.add(alias);
+                    }
+                }
+
+                for(Map.Entry<String,List<Alias>> entry: partitions.entrySet())
+                {
+                    Path path = getAliasListPath(entry.getKey());
+
+                    if(entry.getValue().isEmpty())
+                    {
+                        Files.deleteIfExists(path);
+                    }
+                    else
+                    {
+                        PlaylistV2 partition = new PlaylistV2();
+                        partition.setAliases(entry.getValue());
+                        write(partition, path);
+                    }
+
+                    dirtyAliasLists.remove(entry.getKey());
+                    count++;
+                }
+            }
+
+            if(configurationDirty)
+            {
+                PlaylistV2 partition = new PlaylistV2();
+                partition.setVersion(configuration.getVersion());
+                partition.setChannels(configuration.getChannels());
+                partition.setChannelMaps(configuration.getChannelMaps());
+                partition.setBroadcastConfigurations(configuration.getBroadcastConfigurations());
+                write(partition, mDirectory.resolve(CONFIGURATION_FILE));
+                configurationDirty = false;
+                count++;
+            }
+        }
+        finally
+        {
+            //Anything not saved remains marked for the next save
+            synchronized(this)
+            {
+                mDirtyAliasLists.addAll(dirtyAliasLists);
+                mConfigurationDirty |= configurationDirty;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the playlist to the path using a temporary file so that the existing file is replaced only when the
+     * playlist is completely written.
+     */
+    private void write(PlaylistV2 playlist, Path path) throws IOException
+    {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try(OutputStream out = Files.newOutputStream(temporary))
+        {
+            mWriter.writeValue(out, playlist);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Partition file for the alias list.  The file name is the alias list name with illegal characters replaced and
+     * the hash code of the name appended, so that names that differ only by illegal characters or beyond the maximum
+     * file name length don't collide.
+     */
+    private Path getAliasListPath(String aliasList)
+    {
+        String name = aliasList.isEmpty() ? "no_alias_list" : StringUtils.replaceIllegalCharacters(aliasList);
+
+        if(name.length() > MAX_FILE_NAME_LENGTH)
+        {
+            name = name.substring(0, MAX_FILE_NAME_LENGTH);
+        }
+
+        return mDirectory.resolve(ALIAS_DIRECTORY).resolve(name + "_" + Integer.toHexString(aliasList.hashCode()) +
+            XML_EXTENSION);
+    }
+
+    /**
+     * Deletes the store directory and all partition files
+     */
+    public synchronized void delete() throws IOException
+    {
+        if(Files.exists(mDirectory))
+        {
+            try(Stream<Path> paths = Files.walk(mDirectory))
+            {
+                for(Path path: paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        mAliasPartitions.clear();
+        mDirtyAliasLists.clear();
+        mConfigurationDirty = false;
+    }
+}
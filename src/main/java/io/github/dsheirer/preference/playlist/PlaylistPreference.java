@@ -109,6 +109,15 @@ public class PlaylistPreference extends Preference
         return Paths.get(playlist + ".backup");
     }
 
+    /**
+     * Directory for the current playlist when the playlist is persisted as separate partition files.
+     */
+    public Path getPlaylistShardDirectory()
+    {
+        String playlist = getPlaylist().toString();
+        return Paths.get(playlist + ".shards");
+    }
+
     /**
      * Sets the path to the playlist
      */
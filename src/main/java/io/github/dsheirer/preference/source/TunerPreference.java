@@ -23,6 +23,8 @@ package io.github.dsheirer.preference.source;
 import io.github.dsheirer.preference.Preference;
 import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.vector.Implementation;
+import io.github.dsheirer.vector.VectorUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +38,14 @@ public class TunerPreference extends Preference
     private final static Logger mLog = LoggerFactory.getLogger(TunerPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(TunerPreference.class);
     private static final String PREFERENCE_KEY_CHANNELIZER_TYPE = "channelizer.type";
+    private static final String PREFERENCE_KEY_CHANNELIZER_IMPLEMENTATION = "channelizer.implementation";
+    private static final String PREFERENCE_KEY_CHANNELIZER_PIPELINE_MODE = "channelizer.pipeline.mode";
+    private static final String PREFERENCE_KEY_CHANNEL_EVENT_DRIVEN = "channel.event.driven";
 
     private ChannelizerType mChannelizerType;
+    private Implementation mChannelizerImplementation;
+    private Boolean mChannelizerPipelineMode;
+    private Boolean mChannelEventDriven;
 
     /**
      * Constructs a tuner preference with the update listener
@@ -95,4 +103,86 @@ public class TunerPreference extends Preference
         mPreferences.put(PREFERENCE_KEY_CHANNELIZER_TYPE, mChannelizerType.name());
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Polyphase channelizer multiply and accumulate implementation.  Defaults to the vector implementation when the
+     * Vector API is available, otherwise scalar.
+     */
+    public Implementation getChannelizerImplementation()
+    {
+        if(mChannelizerImplementation == null)
+        {
+            String implementation = mPreferences.get(PREFERENCE_KEY_CHANNELIZER_IMPLEMENTATION,
+                VectorUtilities.getPreferredImplementation().name());
+
+            try
+            {
+                mChannelizerImplementation = VectorUtilities.resolve(Implementation.valueOf(implementation));
+            }
+            catch(IllegalArgumentException iae)
+            {
+                mChannelizerImplementation = VectorUtilities.getPreferredImplementation();
+            }
+        }
+
+        return mChannelizerImplementation;
+    }
+
+    /**
+     * Sets the polyphase channelizer multiply and accumulate implementation
+     */
+    public void setChannelizerImplementation(Implementation implementation)
+    {
+        mChannelizerImplementation = implementation;
+        mPreferences.put(PREFERENCE_KEY_CHANNELIZER_IMPLEMENTATION, mChannelizerImplementation.name());
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if the polyphase channelizer should use pipeline mode to process channel outputs in parallel on a
+     * pool of worker threads.
+     */
+    public boolean getChannelizerPipelineMode()
+    {
+        if(mChannelizerPipelineMode == null)
+        {
+            mChannelizerPipelineMode = mPreferences.getBoolean(PREFERENCE_KEY_CHANNELIZER_PIPELINE_MODE, false);
+        }
+
+        return mChannelizerPipelineMode;
+    }
+
+    /**
+     * Sets the polyphase channelizer pipeline mode preference
+     */
+    public void setChannelizerPipelineMode(boolean pipelineMode)
+    {
+        mChannelizerPipelineMode = pipelineMode;
+        mPreferences.putBoolean(PREFERENCE_KEY_CHANNELIZER_PIPELINE_MODE, pipelineMode);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if tuner channel sources should process samples as sample buffers arrive, with heartbeats provided by a
+     * shared timer, instead of processing queued samples on a fixed interval timer for each channel.
+     */
+    public boolean getChannelEventDriven()
+    {
+        if(mChannelEventDriven == null)
+        {
+            mChannelEventDriven = mPreferences.getBoolean(PREFERENCE_KEY_CHANNEL_EVENT_DRIVEN, false);
+        }
+
+        return mChannelEventDriven;
+    }
+
+    /**
+     * Sets the tuner channel source event driven processing preference
+     */
+    public void setChannelEventDriven(boolean eventDriven)
+    {
+        mChannelEventDriven = eventDriven;
+        mPreferences.putBoolean(PREFERENCE_KEY_CHANNEL_EVENT_DRIVEN, eventDriven);
+        notifyPreferenceUpdated();
+    }
 }
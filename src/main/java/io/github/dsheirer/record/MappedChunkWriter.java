@@ -0,0 +1,370 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.properties.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped recording file writer.
+ *
+ * The file is extended in large chunks and each chunk is mapped into memory so that recorded samples are copied
+ * directly into the operating system page cache without an intermediate channel write or per-buffer allocation.  Float
+ * samples are converted to signed 16-bit little-endian values in place, directly into the mapped chunk.
+ *
+ * When the writer is closed, the current chunk is unmapped, the file is truncated to the number of bytes actually
+ * written and subclasses are given the opportunity to patch any header fields that depend on the final length.
+ *
+ * This class is designed to be fed from a single buffer processor thread.  Writes and close are synchronized so that a
+ * close issued from another thread can never release a chunk mapping while a write to that chunk is in progress, since
+ * writing to a released mapping can crash the JVM.  Writes after close throw a ClosedChannelException.
+ */
+public class MappedChunkWriter implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MappedChunkWriter.class);
+
+    public static final String PROPERTY_MAPPED_RECORDING_ENABLED = "recorder.mapped.io.enabled";
+    public static final String PROPERTY_MAPPED_CHUNK_SIZE_MB = "recorder.mapped.io.chunk.size.mb";
+    private static final boolean DEFAULT_MAPPED_RECORDING_ENABLED = false;
+    private static final int DEFAULT_MAPPED_CHUNK_SIZE_MB = 64;
+    private static final int MAXIMUM_MAPPED_CHUNK_SIZE_MB = 1024;
+
+    private Path mFile;
+    private FileChannel mFileChannel;
+    private MappedByteBuffer mChunk;
+    private int mChunkSize;
+    private long mChunkStart;
+    private long mPosition;
+
+    /**
+     * Constructs an instance and creates the file.  The first chunk is mapped immediately.
+     *
+     * @param file to create.  The file must not already exist.
+     * @param chunkSize in bytes for each file extension and mapping.  Must be a positive, even value.
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public MappedChunkWriter(Path file, int chunkSize) throws IOException
+    {
+        if(chunkSize <= 0 || chunkSize % 2 != 0)
+        {
+            throw new IllegalArgumentException("Chunk size must be a positive, even value: " + chunkSize);
+        }
+
+        mFile = file;
+        mChunkSize = chunkSize;
+        mFileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE_NEW);
+        map(0);
+    }
+
+    /**
+     * Indicates if the user has enabled memory-mapped recording via the system properties.
+     */
+    public static boolean isEnabled()
+    {
+        return SystemProperties.getInstance().get(PROPERTY_MAPPED_RECORDING_ENABLED, DEFAULT_MAPPED_RECORDING_ENABLED);
+    }
+
+    /**
+     * Chunk size in bytes to use for memory-mapped recordings, as specified in the system properties.
+     */
+    public static int getChunkSize()
+    {
+        int megabytes = SystemProperties.getInstance().get(PROPERTY_MAPPED_CHUNK_SIZE_MB, DEFAULT_MAPPED_CHUNK_SIZE_MB);
+        megabytes = Math.min(Math.max(megabytes, 1), MAXIMUM_MAPPED_CHUNK_SIZE_MB);
+        return megabytes * 1024 * 1024;
+    }
+
+    /**
+     * File being written
+     */
+    public Path getFile()
+    {
+        return mFile;
+    }
+
+    /**
+     * Number of bytes written to the file
+     */
+    public synchronized long getPosition()
+    {
+        return mPosition;
+    }
+
+    /**
+     * Writes the bytes to the file.
+     */
+    public void put(byte[] bytes) throws IOException
+    {
+        put(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the specified range of bytes to the file.
+     *
+     * @param bytes to write
+     * @param offset of the first byte to write
+     * @param length number of bytes to write
+     */
+    public synchronized void put(byte[] bytes, int offset, int length) throws IOException
+    {
+        checkOpen();
+
+        while(length > 0)
+        {
+            if(!mChunk.hasRemaining())
+            {
+                map(mChunkStart + mChunkSize);
+            }
+
+            int count = Math.min(length, mChunk.remaining());
+            mChunk.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            mPosition += count;
+        }
+    }
+
+    /**
+     * Writes the contents of the byte buffer from its current position to its limit.
+     */
+    public synchronized void put(ByteBuffer buffer) throws IOException
+    {
+        checkOpen();
+
+        while(buffer.hasRemaining())
+        {
+            if(!mChunk.hasRemaining())
+            {
+                map(mChunkStart + mChunkSize);
+            }
+
+            int count = Math.min(buffer.remaining(), mChunk.remaining());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + count);
+            mChunk.put(buffer);
+            buffer.limit(limit);
+            mPosition += count;
+        }
+    }
+
+    /**
+     * Converts the float samples to signed 16-bit little-endian samples and writes them directly into the mapped
+     * file.  Conversion is identical to ConversionUtils.convertToSigned16BitSamples() without allocating a buffer.
+     *
+     * @param samples to convert and write
+     * @param offset of the first sample to write
+     * @param length number of samples to write
+     */
+    public synchronized void putSigned16(float[] samples, int offset, int length) throws IOException
+    {
+        checkOpen();
+
+        while(length > 0)
+        {
+            int remaining = mChunk.remaining();
+
+            if(remaining < 2)
+            {
+                if(remaining == 1)
+                {
+                    //Only possible when an odd number of bytes was previously written - split the sample across chunks
+                    short value = (short)(samples[offset++] * Short.MAX_VALUE);
+                    put(new byte[]{(byte)(value & 0xFF), (byte)((value >> 8) & 0xFF)});
+                    length--;
+                    continue;
+                }
+
+                map(mChunkStart + mChunkSize);
+                remaining = mChunk.remaining();
+            }
+
+            int count = Math.min(length, remaining / 2);
+            int chunkOffset = mChunk.position();
+            MappedByteBuffer chunk = mChunk;
+
+            for(int x = 0; x < count; x++)
+            {
+                chunk.putShort(chunkOffset, (short)(samples[offset + x] * Short.MAX_VALUE));
+                chunkOffset += 2;
+            }
+
+            chunk.position(chunkOffset);
+            offset += count;
+            length -= count;
+            mPosition += count * 2;
+        }
+    }
+
+    /**
+     * Converts and writes all of the float samples.
+     * @see #putSigned16(float[], int, int)
+     */
+    public void putSigned16(float[] samples) throws IOException
+    {
+        putSigned16(samples, 0, samples.length);
+    }
+
+    /**
+     * Unmaps the current chunk, truncates the file to the number of bytes written, invokes the header patch hook and
+     * closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            return;
+        }
+
+        unmap();
+
+        try
+        {
+            mFileChannel.truncate(mPosition);
+        }
+        catch(IOException ioe)
+        {
+            //Some platforms refuse to truncate a file while a mapping is still open
+            mLog.warn("Unable to truncate memory-mapped recording [" + mFile + "] to " + mPosition + " bytes");
+        }
+
+        try
+        {
+            finish(mFileChannel);
+            mFileChannel.force(true);
+        }
+        finally
+        {
+            mFileChannel.close();
+            mFileChannel = null;
+        }
+    }
+
+    /**
+     * Indicates if this writer is open for writing
+     */
+    public synchronized boolean isOpen()
+    {
+        return mFileChannel != null;
+    }
+
+    /**
+     * Verifies that this writer has not been closed
+     * @throws ClosedChannelException if this writer is closed
+     */
+    private void checkOpen() throws ClosedChannelException
+    {
+        if(mFileChannel == null)
+        {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Invoked while closing, after the mapping is released and the file truncated to its final length.  Override
+     * to patch header fields using positional writes against the file channel.
+     *
+     * @param fileChannel for the file
+     * @throws IOException if there is an error writing to the file channel
+     */
+    protected void finish(FileChannel fileChannel) throws IOException
+    {
+        //No-op.  Override in subclass to patch header values
+    }
+
+    /**
+     * Releases the current chunk mapping (if any) and maps the chunk starting at the specified file offset, which
+     * extends the file to the end of the new chunk.
+     */
+    private void map(long chunkStart) throws IOException
+    {
+        unmap();
+        mChunk = mFileChannel.map(FileChannel.MapMode.READ_WRITE, chunkStart, mChunkSize);
+        mChunk.order(ByteOrder.LITTLE_ENDIAN);
+        mChunkStart = chunkStart;
+    }
+
+    /**
+     * Releases the current chunk mapping.  The mapping is released immediately when the JDK supports it so that the
+     * file can be truncated and so that address space doesn't accumulate over a multi-hour recording.  Otherwise, the
+     * mapping is released whenever the buffer is garbage collected.
+     */
+    private void unmap()
+    {
+        if(mChunk != null)
+        {
+            MappedByteBuffer chunk = mChunk;
+            mChunk = null;
+            Unmapper.unmap(chunk);
+        }
+    }
+
+    /**
+     * Releases direct buffer mappings via sun.misc.Unsafe.invokeCleaner() when it is available.
+     */
+    private static class Unmapper
+    {
+        private static Object sUnsafe;
+        private static Method sInvokeCleaner;
+
+        static
+        {
+            try
+            {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                sUnsafe = field.get(null);
+                sInvokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            }
+            catch(Exception e)
+            {
+                mLog.info("Explicit unmapping of memory-mapped recordings is not supported by this JDK");
+            }
+        }
+
+        static void unmap(MappedByteBuffer buffer)
+        {
+            if(sInvokeCleaner != null)
+            {
+                try
+                {
+                    sInvokeCleaner.invoke(sUnsafe, buffer);
+                }
+                catch(Exception e)
+                {
+                    mLog.warn("Unable to unmap memory-mapped recording chunk", e);
+                }
+            }
+        }
+    }
+}
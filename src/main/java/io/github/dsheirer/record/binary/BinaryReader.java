@@ -60,7 +60,7 @@ public class BinaryReader implements Iterator<ReusableByteBuffer>, AutoCloseable
     }
 
     @Override
-    public void close() throws Exception
+    public void close() throws IOException
     {
         if(mInputStream != null)
         {
@@ -130,7 +130,7 @@ public class BinaryReader implements Iterator<ReusableByteBuffer>, AutoCloseable
         }
     }
 
-    public class TimestampTracker
+    public static class TimestampTracker
     {
         private final Pattern TIMESTAMP_BITRATE_PATTERN = Pattern.compile(".*(\\d{8}_\\d{6})_(\\d{4,8})BPS_.*.bits");
         private final SimpleDateFormat SDF = new SimpleDateFormat("yyyyMMdd_HHmmss");
@@ -175,6 +175,14 @@ public class BinaryReader implements Iterator<ReusableByteBuffer>, AutoCloseable
             mBitRate = (double)bitRate;
         }
 
+        /**
+         * Bit rate parsed from the file name or specified, or null if the bit rate is unknown
+         */
+        public Double getBitRate()
+        {
+            return mBitRate;
+        }
+
         /**
          * Sets the timestamp for the tracker, otherwise current system time is assumed.
          */
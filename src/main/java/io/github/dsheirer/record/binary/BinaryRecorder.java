@@ -22,6 +22,7 @@ package io.github.dsheirer.record.binary;
 import io.github.dsheirer.dsp.filter.channelizer.ContinuousReusableBufferProcessor;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.protocol.Protocol;
+import io.github.dsheirer.record.MappedChunkWriter;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableByteBufferListener;
 import io.github.dsheirer.sample.buffer.ReusableByteBuffer;
@@ -47,11 +48,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *
  * The contents of the file are the raw bytes as demodulated by the decoder with
  * no header or timestamps, other than the timestamp included in the filename.
+ *
+ * When memory-mapped recording is enabled in the system properties, the bytes are copied directly into a memory-mapped
+ * file instead of being copied and written through a byte channel.
  */
 public class BinaryRecorder extends Module implements IReusableByteBufferListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(BinaryRecorder.class);
     private static final int MAX_RECORDING_BYTE_SIZE = 524288;  //500 kB
+    private static final int MAPPED_CHUNK_BYTE_SIZE = 2 * MAX_RECORDING_BYTE_SIZE;
 
     private ContinuousReusableBufferProcessor<ReusableByteBuffer> mBufferProcessor =
         new ContinuousReusableBufferProcessor<>(500, 50);
@@ -103,6 +108,12 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
                 mBufferProcessor.flushAndStop();
                 mBufferProcessor.setListener(null);
 
+                if(mBufferProcessor.getOverflowCount() > 0)
+                {
+                    mLog.warn("Binary recorder [" + mRecordingIdentifier + "] dropped " +
+                        mBufferProcessor.getOverflowCount() + " buffers due to buffer processor overflow");
+                }
+
                 try
                 {
                     mBinaryWriter.stop();
@@ -134,6 +145,14 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
         return mBaseRecordingPath.resolve(cleaned);
     }
 
+    /**
+     * Number of buffers that were dropped because the recorder was unable to keep up with the incoming byte stream
+     */
+    public long getDroppedBufferCount()
+    {
+        return mBufferProcessor.getOverflowCount();
+    }
+
     @Override
     public Listener<ReusableByteBuffer> getReusableByteBufferListener()
     {
@@ -152,15 +171,50 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
     {
         private Path mCurrentPath;
         private WritableByteChannel mWritableByteChannel;
+        private MappedChunkWriter mMappedWriter;
+        private boolean mMapped = MappedChunkWriter.isEnabled();
 
         public void start(Path path) throws IOException
         {
             synchronized(this)
             {
                 mCurrentPath = path;
+                open(path);
+//                mLog.info("Binary (bitstream) recording started: " + mCurrentPath.toString());
+            }
+        }
+
+        /**
+         * Opens the recording file using either a memory-mapped writer or a byte channel
+         */
+        private void open(Path path) throws IOException
+        {
+            if(mMapped)
+            {
+                mMappedWriter = new MappedChunkWriter(path, MAPPED_CHUNK_BYTE_SIZE);
+            }
+            else
+            {
                 mWritableByteChannel = Files.newByteChannel(path,
                     EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE));
-//                mLog.info("Binary (bitstream) recording started: " + mCurrentPath.toString());
+            }
+        }
+
+        /**
+         * Closes the current recording file
+         */
+        private void close() throws IOException
+        {
+            if(mWritableByteChannel != null)
+            {
+                mWritableByteChannel.close();
+                mWritableByteChannel = null;
+            }
+
+            if(mMappedWriter != null)
+            {
+                mMappedWriter.close();
+                mMappedWriter = null;
             }
         }
 
@@ -168,12 +222,7 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
         {
             synchronized(this)
             {
-                if(mWritableByteChannel != null)
-                {
-                    mWritableByteChannel.close();
-                }
-
-                mWritableByteChannel = null;
+                close();
                 mCurrentPath = null;
             }
         }
@@ -188,14 +237,10 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
             {
                 try
                 {
-                    if(mWritableByteChannel != null)
-                    {
-                        mWritableByteChannel.close();
-                    }
+                    close();
 
                     mCurrentPath = getRecordingPath();
-                    mWritableByteChannel = Files.newByteChannel(mCurrentPath,
-                        EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+                    open(mCurrentPath);
                     mLog.info("Binary (bitstream) recording started: " + mCurrentPath.toString());
                 }
                 catch(IOException ioe)
@@ -216,30 +261,42 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
         {
             for(ReusableByteBuffer buffer: reusableComplexBuffers)
             {
-                if(mWritableByteChannel != null)
+                //Write under the same lock as stop() so that the recording file is never closed mid-write
+                synchronized(this)
                 {
-                    try
+                    if(mWritableByteChannel != null || mMappedWriter != null)
                     {
-                        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer.getSamplesCopy());
-                        mBytesRecordedCounter += mWritableByteChannel.write(byteBuffer);
-
-                        if(mBytesRecordedCounter > MAX_RECORDING_BYTE_SIZE)
-                        {
-                            cycleRecording();
-                        }
-                    }
-                    catch(IOException ioe)
-                    {
-                        mLog.error("Error recording demodulated bits to file [" +
-                            (mCurrentPath != null ? mCurrentPath.toString() : "no file") + "] - stopping recorder");
-
                         try
                         {
-                            stop();
+                            if(mMappedWriter != null)
+                            {
+                                mMappedWriter.put(buffer.getBytes(), 0, buffer.getSampleCount());
+                                mBytesRecordedCounter += buffer.getSampleCount();
+                            }
+                            else
+                            {
+                                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer.getSamplesCopy());
+                                mBytesRecordedCounter += mWritableByteChannel.write(byteBuffer);
+                            }
+
+                            if(mBytesRecordedCounter > MAX_RECORDING_BYTE_SIZE)
+                            {
+                                cycleRecording();
+                            }
                         }
-                        catch(IOException ioe2)
+                        catch(IOException ioe)
                         {
-                            mLog.error("Error stopping recorder after write error", ioe2.getLocalizedMessage());
+                            mLog.error("Error recording demodulated bits to file [" +
+                                (mCurrentPath != null ? mCurrentPath.toString() : "no file") + "] - stopping recorder");
+
+                            try
+                            {
+                                stop();
+                            }
+                            catch(IOException ioe2)
+                            {
+                                mLog.error("Error stopping recorder after write error", ioe2.getLocalizedMessage());
+                            }
                         }
                     }
                 }
@@ -0,0 +1,481 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.binary;
+
+import io.github.dsheirer.sample.buffer.ReusableByteBuffer;
+import io.github.dsheirer.sample.buffer.ReusableByteBufferQueue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Random access reader for demodulated bitstream (.bits) recordings using a memory-mapped view of the file.
+ *
+ * The reader builds an index of timestamps with one entry per second of recording using the same TimestampTracker
+ * as the sequential BinaryReader, so that the reader can seek to a point in time.  Buffer timestamps are calculated
+ * from the index for the buffer's position, so they don't accumulate rounding errors across buffers.  A recording can be split into independent segments at frame sync boundaries so that several
+ * message framers can replay the segments in parallel, each with its own reader.
+ *
+ * The file is mapped in windows so that recordings larger than 2 GB can be read.  This class is not thread safe.
+ */
+public class MappedBinaryReader implements Iterator<ReusableByteBuffer>, AutoCloseable
+{
+    private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private ReusableByteBufferQueue mBufferQueue = new ReusableByteBufferQueue("Mapped Binary Reader");
+    private BinaryReader.TimestampTracker mTimestampTracker = new BinaryReader.TimestampTracker();
+    private Path mPath;
+    private FileChannel mFileChannel;
+    private MappedByteBuffer mWindow;
+    private long mWindowStart;
+    private long mSize;
+    private long mStart;
+    private long mEnd;
+    private long mPosition;
+    private int mBufferSize;
+    private double mBitRate;
+    private int mIndexInterval;
+    private long[] mTimestampIndex;
+
+    /**
+     * Constructs a reader for the complete recording.
+     *
+     * @param path to the binary file
+     * @param bufferSize for each buffer read from the file
+     * @throws IOException if the file can't be opened
+     */
+    public MappedBinaryReader(Path path, int bufferSize) throws IOException
+    {
+        this(path, bufferSize, null);
+    }
+
+    /**
+     * Constructs a reader for a segment of the recording.
+     *
+     * @param path to the binary file
+     * @param bufferSize for each buffer read from the file
+     * @param segment of the file to read, or null to read the complete recording
+     * @throws IOException if the file can't be opened
+     * @throws IllegalArgumentException if the segment is outside of the file
+     */
+    public MappedBinaryReader(Path path, int bufferSize, Segment segment) throws IOException
+    {
+        if(bufferSize < 1)
+        {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+
+        mPath = path;
+        mBufferSize = bufferSize;
+        mFileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        mSize = mFileChannel.size();
+        mEnd = mSize;
+
+        if(segment != null)
+        {
+            if(segment.getStart() < 0 || segment.getEnd() > mSize || segment.getStart() > segment.getEnd())
+            {
+                mFileChannel.close();
+                throw new IllegalArgumentException("Segment " + segment + " is outside of the file [0-" + mSize + "]");
+            }
+
+            mStart = segment.getStart();
+            mEnd = segment.getEnd();
+        }
+
+        mPosition = mStart;
+        mTimestampTracker.processFileName(path.toString());
+        buildTimestampIndex();
+    }
+
+    /**
+     * Builds the timestamp index with one entry per second of recording when the bit rate is known from the file name.
+     */
+    private void buildTimestampIndex()
+    {
+        Double bitRate = mTimestampTracker.getBitRate();
+
+        if(bitRate == null || bitRate <= 0)
+        {
+            return;
+        }
+
+        mBitRate = bitRate;
+        mIndexInterval = Math.max(1, (int)(mBitRate / 8.0));
+        mTimestampIndex = new long[(int)(mSize / mIndexInterval) + 1];
+
+        for(int x = 0; x < mTimestampIndex.length; x++)
+        {
+            mTimestampIndex[x] = mTimestampTracker.getTimestamp();
+            mTimestampTracker.updateBytesProcessed(mIndexInterval);
+        }
+    }
+
+    /**
+     * Indicates if the recording has a timestamp index.  The index requires the recording start time and bit rate to
+     * be encoded in the file name, as produced by the BinaryRecorder.
+     */
+    public boolean hasTimestampIndex()
+    {
+        return mTimestampIndex != null;
+    }
+
+    /**
+     * Bit rate of the recording, or zero if it is unknown
+     */
+    public double getBitRate()
+    {
+        return mBitRate;
+    }
+
+    /**
+     * Size of the recording file in bytes
+     */
+    public long getSize()
+    {
+        return mSize;
+    }
+
+    /**
+     * Byte position of the next buffer to be read
+     */
+    public long getPosition()
+    {
+        return mPosition;
+    }
+
+    /**
+     * Sets the byte position of the next buffer to be read
+     *
+     * @throws IllegalArgumentException if the position is outside of the segment read by this reader
+     */
+    public void setPosition(long position)
+    {
+        if(position < mStart || position > mEnd)
+        {
+            throw new IllegalArgumentException("Position [" + position + "] is outside of the readable range [" +
+                mStart + "-" + mEnd + "]");
+        }
+
+        mPosition = position;
+    }
+
+    /**
+     * Timestamp of the bits at the byte position.  When the recording doesn't have a timestamp index, the current
+     * system time is returned, consistent with the BinaryReader.
+     */
+    public long getTimestamp(long position)
+    {
+        if(mTimestampIndex == null)
+        {
+            return System.currentTimeMillis();
+        }
+
+        int entry = (int)(position / mIndexInterval);
+        long offset = position - ((long)entry * mIndexInterval);
+        return mTimestampIndex[entry] + (long)((double)offset * 8.0 / mBitRate * 1000.0);
+    }
+
+    /**
+     * Byte position of the bits at the timestamp, constrained to the file.
+     *
+     * @throws IllegalStateException if the recording doesn't have a timestamp index
+     */
+    public long getPosition(long timestamp)
+    {
+        if(mTimestampIndex == null)
+        {
+            throw new IllegalStateException("Recording has no timestamp index - the start time and bit rate could " +
+                "not be parsed from the file name [" + mPath.getFileName() + "]");
+        }
+
+        int entry = Arrays.binarySearch(mTimestampIndex, timestamp);
+
+        if(entry < 0)
+        {
+            entry = -entry - 2;
+
+            if(entry < 0)
+            {
+                return 0;
+            }
+        }
+
+        long offset = (long)((double)(timestamp - mTimestampIndex[entry]) / 1000.0 * mBitRate / 8.0);
+        return Math.min(((long)entry * mIndexInterval) + Math.min(offset, mIndexInterval), mSize);
+    }
+
+    /**
+     * Positions the reader at the bits for the timestamp, constrained to the segment read by this reader.
+     *
+     * @throws IllegalStateException if the recording doesn't have a timestamp index
+     */
+    public void seek(long timestamp)
+    {
+        mPosition = Math.max(mStart, Math.min(mEnd, getPosition(timestamp)));
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return mPosition < mEnd;
+    }
+
+    /**
+     * Returns a full reusable byte buffer, or at the end of the segment this method may return a reusable byte buffer
+     * that is less than the requested buffer size, containing the remaining bytes.
+     *
+     * @throws UncheckedIOException if the file can't be mapped
+     */
+    @Override
+    public ReusableByteBuffer next()
+    {
+        if(!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        int length = (int)Math.min(mBufferSize, mEnd - mPosition);
+        ReusableByteBuffer buffer = mBufferQueue.getBuffer(length);
+        buffer.setTimestamp(getTimestamp(mPosition));
+
+        try
+        {
+            read(buffer.getBytes(), mPosition, length);
+        }
+        catch(IOException ioe)
+        {
+            buffer.decrementUserCount();
+            mPosition = mEnd;
+            throw new UncheckedIOException("Error reading binary file [" + mPath + "]", ioe);
+        }
+
+        mPosition += length;
+        return buffer;
+    }
+
+    /**
+     * Splits the readable range into independent segments at frame sync boundaries.  Each split point is moved
+     * forward from its nominal position to the start of the next frame sync pattern, so that each segment starts
+     * with a complete frame.  A segment ends one byte after the start of the following segment's sync so that the
+     * final dibits of the segment's last frame are not lost.  When a sync pattern can't be found within a segment
+     * length of the nominal split point, the two segments are merged, so fewer segments may be returned.
+     *
+     * Sync patterns are matched exactly on dibit boundaries, for example FrameSync.P25_PHASE1_NORMAL with a 48-bit
+     * sync length, or a DMRSyncPattern.
+     *
+     * @param segmentCount requested
+     * @param syncPattern frame sync pattern, right aligned
+     * @param syncLength of the sync pattern in bits, an even number of 2 to 64 bits
+     * @return segments covering the readable range
+     * @throws IOException if the file can't be mapped
+     */
+    public List<Segment> split(int segmentCount, long syncPattern, int syncLength) throws IOException
+    {
+        if(segmentCount < 1)
+        {
+            throw new IllegalArgumentException("Segment count must be positive");
+        }
+
+        if(syncLength < 2 || syncLength > 64 || syncLength % 2 != 0)
+        {
+            throw new IllegalArgumentException("Sync length must be an even number of bits in the range 2-64");
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        long length = mEnd - mStart;
+        long start = mStart;
+
+        for(int x = 1; x < segmentCount; x++)
+        {
+            long nominal = mStart + (length * x / segmentCount);
+
+            if(nominal > start)
+            {
+                long sync = findSync(nominal, Math.min(mEnd, nominal + (length / segmentCount)), syncPattern,
+                    syncLength);
+
+                if(sync > start)
+                {
+                    segments.add(new Segment(start, Math.min(sync + 1, mEnd), getTimestamp(start)));
+                    start = sync;
+                }
+            }
+        }
+
+        segments.add(new Segment(start, mEnd, getTimestamp(start)));
+        return segments;
+    }
+
+    /**
+     * Finds the byte containing the first bit of the first sync pattern that starts at or after the from position.
+     *
+     * @return byte position or -1 if the sync pattern is not found before the limit position
+     */
+    private long findSync(long from, long limit, long syncPattern, int syncLength) throws IOException
+    {
+        long mask = syncLength == 64 ? -1l : (1l << syncLength) - 1;
+        long register = 0;
+        long bitCount = 0;
+
+        for(long position = from; position < limit; position++)
+        {
+            int value = getByte(position);
+
+            for(int shift = 6; shift >= 0; shift -= 2)
+            {
+                register = (register << 2) | ((value >> shift) & 0x3);
+                bitCount += 2;
+
+                if(bitCount >= syncLength && (register & mask) == syncPattern)
+                {
+                    return from + ((bitCount - syncLength) / 8);
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private int getByte(long position) throws IOException
+    {
+        map(position);
+        return mWindow.get((int)(position - mWindowStart)) & 0xFF;
+    }
+
+    private void read(byte[] bytes, long position, int length) throws IOException
+    {
+        int offset = 0;
+
+        while(length > 0)
+        {
+            map(position);
+            int windowOffset = (int)(position - mWindowStart);
+            int count = Math.min(length, mWindow.capacity() - windowOffset);
+            mWindow.get(windowOffset, bytes, offset, count);
+            offset += count;
+            position += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Maps the window of the file that contains the byte position, if it is not already mapped.  Windows are aligned
+     * to the window size.
+     */
+    private void map(long position) throws IOException
+    {
+        if(mWindow == null || position < mWindowStart || position >= mWindowStart + mWindow.capacity())
+        {
+            if(mFileChannel == null)
+            {
+                throw new IOException("Reader is closed");
+            }
+
+            mWindowStart = (position / WINDOW_SIZE) * WINDOW_SIZE;
+            long length = Math.min(WINDOW_SIZE, mSize - mWindowStart);
+
+            //The previous window is released when it is garbage collected
+            mWindow = mFileChannel.map(FileChannel.MapMode.READ_ONLY, mWindowStart, length);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mWindow = null;
+
+        if(mFileChannel != null)
+        {
+            mFileChannel.close();
+            mFileChannel = null;
+        }
+    }
+
+    /**
+     * Byte range of a recording that can be read independently by a reader.
+     */
+    public static class Segment
+    {
+        private long mStart;
+        private long mEnd;
+        private long mTimestamp;
+
+        /**
+         * Constructs an instance
+         *
+         * @param start byte position, inclusive
+         * @param end byte position, exclusive
+         * @param timestamp of the first byte
+         */
+        public Segment(long start, long end, long timestamp)
+        {
+            mStart = start;
+            mEnd = end;
+            mTimestamp = timestamp;
+        }
+
+        /**
+         * Start byte position, inclusive
+         */
+        public long getStart()
+        {
+            return mStart;
+        }
+
+        /**
+         * End byte position, exclusive
+         */
+        public long getEnd()
+        {
+            return mEnd;
+        }
+
+        /**
+         * Length in bytes
+         */
+        public long getLength()
+        {
+            return mEnd - mStart;
+        }
+
+        /**
+         * Timestamp of the first byte in the segment
+         */
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "[" + mStart + "-" + mEnd + "]";
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.binary;
+
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageFramer;
+import io.github.dsheirer.sample.buffer.ReusableByteBuffer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark and regression check for the memory-mapped binary reader.
+ *
+ * Creates a synthetic P25 Phase 1 bitstream recording with a frame sync pattern at a random dibit offset in each
+ * frame and then:
+ * - Reads the recording with the sequential BinaryReader and the MappedBinaryReader and compares throughput and
+ *   byte checksums.
+ * - Seeks to a series of timestamps and verifies that the buffer timestamp matches the requested time.
+ * - Splits the recording at sync boundaries and verifies that every segment after the first starts with a sync
+ *   pattern and that the segments cover the recording.
+ * - Replays the segments through P25 Phase 1 message framers in parallel and compares the message count and elapsed
+ *   time with a single framer.
+ *
+ * Usage: MappedBinaryReaderBenchmark [directory] [hours] [segments]
+ */
+public class MappedBinaryReaderBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final String RECORDING_TIMESTAMP = "20221017_000000";
+    private static final int BIT_RATE = 9600;
+    private static final int BUFFER_SIZE = 200;
+    private static final int FRAME_BYTES = 180;
+    private static final long SYNC = FrameSync.P25_PHASE1_NORMAL.getSync();
+    private static final int SYNC_LENGTH = 48;
+
+    private static Path createRecording(Path directory, double hours) throws IOException
+    {
+        Path path = directory.resolve(RECORDING_TIMESTAMP + "_" + BIT_RATE + "BPS_Benchmark_CONTROL.bits");
+        byte[] bytes = new byte[(int)(hours * 3600 * BIT_RATE / 8)];
+        Random random = new Random(17);
+        random.nextBytes(bytes);
+
+        //Overwrite a sync pattern into each frame, starting at a random dibit within the first few bytes of the frame
+        for(int frame = 0; frame + FRAME_BYTES < bytes.length; frame += FRAME_BYTES)
+        {
+            long bit = (frame * 8l) + (random.nextInt(16) * 2);
+
+            for(int x = SYNC_LENGTH - 1; x >= 0; x--)
+            {
+                int index = (int)(bit / 8);
+                int mask = 0x80 >> (bit % 8);
+
+                if(((SYNC >> x) & 1) == 1)
+                {
+                    bytes[index] |= mask;
+                }
+                else
+                {
+                    bytes[index] &= ~mask;
+                }
+
+                bit++;
+            }
+        }
+
+        Files.write(path, bytes);
+        return path;
+    }
+
+    private static long checksum(Iterator<ReusableByteBuffer> reader)
+    {
+        long checksum = 0;
+
+        while(reader.hasNext())
+        {
+            ReusableByteBuffer buffer = reader.next();
+
+            byte[] bytes = buffer.getBytes();
+
+            for(int x = 0; x < buffer.getSampleCount(); x++)
+            {
+                checksum = (checksum * 31) + bytes[x];
+            }
+
+            buffer.decrementUserCount();
+        }
+
+        return checksum;
+    }
+
+    private static long replay(Path path, MappedBinaryReader.Segment segment) throws IOException
+    {
+        AtomicLong messages = new AtomicLong();
+        P25P1MessageFramer framer = new P25P1MessageFramer(null, BIT_RATE);
+        framer.setListener(message -> messages.incrementAndGet());
+
+        try(MappedBinaryReader reader = new MappedBinaryReader(path, BUFFER_SIZE, segment))
+        {
+            while(reader.hasNext())
+            {
+                framer.receive(reader.next());
+            }
+        }
+
+        return messages.get();
+    }
+
+    public static void main(String[] args)
+    {
+        Path directory = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        double hours = args.length > 1 ? Double.parseDouble(args[1]) : 2.0;
+        int segmentCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 2;
+        boolean pass = true;
+        Path path = null;
+
+        try
+        {
+            path = createRecording(directory, hours);
+            long size = Files.size(path);
+            System.out.println("Recording: " + path.getFileName() + " " + (size / 1024) + " KB");
+
+            long start = System.nanoTime();
+            long sequentialChecksum;
+
+            try(BinaryReader reader = new BinaryReader(path, BUFFER_SIZE))
+            {
+                sequentialChecksum = checksum(reader);
+            }
+
+            double sequentialSeconds = (System.nanoTime() - start) / 1E9;
+
+            start = System.nanoTime();
+            long mappedChecksum;
+
+            try(MappedBinaryReader reader = new MappedBinaryReader(path, BUFFER_SIZE))
+            {
+                mappedChecksum = checksum(reader);
+            }
+
+            double mappedSeconds = (System.nanoTime() - start) / 1E9;
+
+            System.out.println("Read - BinaryReader: " + DECIMAL_FORMAT.format(size / sequentialSeconds / 1E6) +
+                " MB/s MappedBinaryReader: " + DECIMAL_FORMAT.format(size / mappedSeconds / 1E6) + " MB/s");
+            System.out.println("Checksum: " + (sequentialChecksum == mappedChecksum ? "PASS" : "FAIL"));
+            pass &= sequentialChecksum == mappedChecksum;
+
+            try(MappedBinaryReader reader = new MappedBinaryReader(path, BUFFER_SIZE))
+            {
+                long recordingStart = new SimpleDateFormat("yyyyMMdd_HHmmss").parse(RECORDING_TIMESTAMP).getTime();
+                boolean seekPass = reader.hasTimestampIndex();
+                long recordingMillis = (long)(hours * 3600000);
+
+                for(long offset = 0; offset < recordingMillis; offset += 997123)
+                {
+                    reader.seek(recordingStart + offset);
+                    ReusableByteBuffer buffer = reader.next();
+                    seekPass &= Math.abs(buffer.getTimestamp() - (recordingStart + offset)) <= 1;
+                    buffer.decrementUserCount();
+                }
+
+                System.out.println("Seek: " + (seekPass ? "PASS" : "FAIL"));
+                pass &= seekPass;
+
+                start = System.nanoTime();
+                List<MappedBinaryReader.Segment> segments = reader.split(segmentCount, SYNC, SYNC_LENGTH);
+                double splitMillis = (System.nanoTime() - start) / 1E6;
+                boolean splitPass = segments.get(0).getStart() == 0 &&
+                    segments.get(segments.size() - 1).getEnd() == size;
+
+                for(int x = 1; x < segments.size(); x++)
+                {
+                    MappedBinaryReader.Segment segment = segments.get(x);
+                    splitPass &= segments.get(x - 1).getEnd() == segment.getStart() + 1;
+                    MappedBinaryReader.Segment head = new MappedBinaryReader.Segment(segment.getStart(),
+                        segment.getStart() + 8, 0);
+
+                    try(MappedBinaryReader segmentReader = new MappedBinaryReader(path, 8, head))
+                    {
+                        splitPass &= segmentReader.split(2, SYNC, SYNC_LENGTH).size() == 1 ||
+                            startsWithSync(segmentReader.next().getBytes());
+                    }
+                }
+
+                System.out.println("Split: " + segments.size() + " segments in " +
+                    DECIMAL_FORMAT.format(splitMillis) + " ms " + (splitPass ? "PASS" : "FAIL"));
+                pass &= splitPass;
+
+                start = System.nanoTime();
+                long sequentialMessages = replay(path, null);
+                double sequentialReplaySeconds = (System.nanoTime() - start) / 1E9;
+
+                ExecutorService executorService = Executors.newWorkStealingPool();
+                start = System.nanoTime();
+                List<Future<Long>> futures = new ArrayList<>();
+                final Path recording = path;
+
+                for(MappedBinaryReader.Segment segment: segments)
+                {
+                    futures.add(executorService.submit(() -> replay(recording, segment)));
+                }
+
+                long parallelMessages = 0;
+
+                for(Future<Long> future: futures)
+                {
+                    parallelMessages += future.get();
+                }
+
+                double parallelReplaySeconds = (System.nanoTime() - start) / 1E9;
+                executorService.shutdown();
+
+                double recordingSeconds = size * 8.0 / BIT_RATE;
+                System.out.println("Replay - single framer: " + sequentialMessages + " messages at " +
+                    DECIMAL_FORMAT.format(recordingSeconds / sequentialReplaySeconds) + "x real time, " +
+                    segments.size() + " parallel framers: " + parallelMessages + " messages at " +
+                    DECIMAL_FORMAT.format(recordingSeconds / parallelReplaySeconds) + "x real time");
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+            pass = false;
+        }
+        finally
+        {
+            if(path != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(path);
+                }
+                catch(IOException ioe)
+                {
+                    //Ignore
+                }
+            }
+        }
+
+        System.out.println(pass ? "PASS" : "FAIL");
+        System.exit(pass ? 0 : 1);
+    }
+
+    /**
+     * Indicates if the sync pattern starts within the first byte of the array
+     */
+    private static boolean startsWithSync(byte[] bytes)
+    {
+        long register = 0;
+
+        for(int x = 0; x < 8; x++)
+        {
+            register = (register << 8) | (bytes[x] & 0xFF);
+        }
+
+        for(int shift = 0; shift <= 6; shift += 2)
+        {
+            if(((register << shift) >>> (64 - SYNC_LENGTH)) == SYNC)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -17,6 +17,7 @@ package io.github.dsheirer.record.wave;
 
 import io.github.dsheirer.dsp.filter.channelizer.ContinuousReusableBufferProcessor;
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.record.MappedChunkWriter;
 import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
@@ -38,6 +39,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * WAVE audio recorder module for recording complex (I&Q) samples to a wave file
+ *
+ * When memory-mapped recording is enabled in the system properties, samples are converted directly into a
+ * memory-mapped file that grows in large chunks, which avoids a per-buffer conversion allocation and channel write
+ * for long duration, full tuner rate recordings.
  */
 public class ComplexBufferWaveRecorder extends Module implements IReusableComplexBufferListener,
     Listener<ReusableComplexBuffer>, ISourceEventListener
@@ -49,6 +54,7 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
 
     private AtomicBoolean mRunning = new AtomicBoolean();
     private ReusableBufferWaveWriter mWriter;
+    private MappedReusableBufferWaveWriter mMappedWriter;
     private String mFilePrefix;
     private Path mFile;
     private AudioFormat mAudioFormat;
@@ -91,9 +97,18 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
                 sb.append(".wav");
                 mFile = Paths.get(sb.toString());
 
-                mWriter = new ReusableBufferWaveWriter(mAudioFormat, mFile);
+                if(MappedChunkWriter.isEnabled())
+                {
+                    mMappedWriter = new MappedReusableBufferWaveWriter(mAudioFormat, mFile,
+                        MappedChunkWriter.getChunkSize());
+                    mBufferProcessor.setListener(mMappedWriter);
+                }
+                else
+                {
+                    mWriter = new ReusableBufferWaveWriter(mAudioFormat, mFile);
+                    mBufferProcessor.setListener(mWriter);
+                }
 
-                mBufferProcessor.setListener(mWriter);
                 mBufferProcessor.start();
             }
             catch(IOException io)
@@ -111,13 +126,19 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
             {
                 mBufferProcessor.stop();
                 mBufferProcessor.setListener(null);
+
+                if(mBufferProcessor.getOverflowCount() > 0)
+                {
+                    mLog.warn("Baseband I/Q recorder [" + mFile + "] dropped " + mBufferProcessor.getOverflowCount() +
+                        " buffers due to buffer processor overflow");
+                }
             }
 
             if(mWriter != null)
             {
                 //Thread this operation so that it doesn't tie up the calling thread.  The wave writer
                 //close method will also rename the file and this can sometimes take a few seconds.
-                ThreadPool.SCHEDULED.schedule(new Runnable()
+                ThreadPool.IO.schedule(new Runnable()
                 {
                     @Override
                     public void run()
@@ -133,9 +154,40 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
                     }
                 }, 0, TimeUnit.MILLISECONDS);
             }
+
+            if(mMappedWriter != null)
+            {
+                final MappedReusableBufferWaveWriter mappedWriter = mMappedWriter;
+                mMappedWriter = null;
+
+                //Closing truncates the file and patches the wave header, which can take a moment for large files
+                ThreadPool.IO.schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            mappedWriter.close();
+                        }
+                        catch(IOException ioe)
+                        {
+                            mLog.error("Error closing memory-mapped baseband I/Q recorder", ioe);
+                        }
+                    }
+                }, 0, TimeUnit.MILLISECONDS);
+            }
         }
     }
 
+    /**
+     * Number of buffers that were dropped because the recorder was unable to keep up with the incoming sample stream
+     */
+    public long getDroppedBufferCount()
+    {
+        return mBufferProcessor.getOverflowCount();
+    }
+
     @Override
     public void receive(ReusableComplexBuffer buffer)
     {
@@ -207,4 +259,48 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
             }
         }
     }
+
+    /**
+     * Memory-mapped wave writer implementation for reusable complex buffers delivered from buffer processor
+     */
+    public class MappedReusableBufferWaveWriter extends MappedWaveWriter implements Listener<List<ReusableComplexBuffer>>
+    {
+        public MappedReusableBufferWaveWriter(AudioFormat format, Path file, int chunkSize) throws IOException
+        {
+            super(format, file, chunkSize);
+        }
+
+        @Override
+        public void receive(List<ReusableComplexBuffer> reusableComplexBuffers)
+        {
+            boolean error = false;
+
+            for(ReusableComplexBuffer reusableComplexBuffer: reusableComplexBuffers)
+            {
+                if(!error)
+                {
+                    try
+                    {
+                        //Writer may be closed by stop() while the buffer processor is still delivering buffers
+                        synchronized(this)
+                        {
+                            if(isOpen())
+                            {
+                                writeSamples(reusableComplexBuffer.getSamples(), reusableComplexBuffer.getLength());
+                            }
+                        }
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("IOException while writing I/Q buffers to memory-mapped wave recorder - stopping " +
+                            "recorder", ioe);
+                        error = true;
+                        stop();
+                    }
+                }
+
+                reusableComplexBuffer.decrementUserCount();
+            }
+        }
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.wave;
+
+import io.github.dsheirer.record.MappedChunkWriter;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Memory-mapped wave writer for long duration 16-bit PCM recordings, such as full tuner rate baseband I/Q captures.
+ *
+ * Float samples are converted to 16-bit samples directly into the memory-mapped file.  The RIFF and data chunk sizes
+ * are written as zero during recording and patched when the file is closed or rolled over.  Once the file reaches the
+ * maximum wave file size, the file is closed and recording continues in a new file with a series suffix appended to
+ * the file name.
+ *
+ * Writes and close are synchronized so that the recorder can close this writer from another thread while the buffer
+ * processor thread may still be delivering samples.
+ */
+public class MappedWaveWriter implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MappedWaveWriter.class);
+
+    private static final int RIFF_SIZE_OFFSET = 4;
+    private static final int DATA_SIZE_OFFSET = 40;
+    private static final int HEADER_LENGTH = 44;
+
+    private AudioFormat mAudioFormat;
+    private Path mBaseFile;
+    private int mChunkSize;
+    private long mMaxSize;
+    private int mFileRolloverCounter = 1;
+    private WaveFile mWaveFile;
+
+    /**
+     * Constructs an instance and creates the wave file with a complete header.
+     *
+     * @param format of the audio - must be 16-bit samples
+     * @param file to create
+     * @param chunkSize in bytes for each file extension/mapping
+     * @param maxSize of each file ( range: 1 - 4,294,967,294 bytes )
+     * @throws IOException if the file cannot be created
+     */
+    public MappedWaveWriter(AudioFormat format, Path file, int chunkSize, long maxSize) throws IOException
+    {
+        Validate.isTrue(format != null);
+        Validate.isTrue(file != null);
+        Validate.isTrue(format.getSampleSizeInBits() == 16, "Mapped wave writer only supports 16-bit samples");
+
+        mAudioFormat = format;
+        mBaseFile = file;
+        mChunkSize = chunkSize;
+
+        if(HEADER_LENGTH < maxSize && maxSize <= WaveWriter.MAX_WAVE_SIZE)
+        {
+            mMaxSize = maxSize;
+        }
+        else
+        {
+            mMaxSize = WaveWriter.MAX_WAVE_SIZE;
+        }
+
+        mWaveFile = new WaveFile(mBaseFile);
+    }
+
+    /**
+     * Constructs an instance using the maximum wave file size.
+     *
+     * @param format of the audio - must be 16-bit samples
+     * @param file to create
+     * @param chunkSize in bytes for each file extension/mapping
+     * @throws IOException if the file cannot be created
+     */
+    public MappedWaveWriter(AudioFormat format, Path file, int chunkSize) throws IOException
+    {
+        this(format, file, chunkSize, WaveWriter.MAX_WAVE_SIZE);
+    }
+
+    /**
+     * Current file being written
+     */
+    public synchronized Path getFile()
+    {
+        return mWaveFile != null ? mWaveFile.getFile() : null;
+    }
+
+    /**
+     * Indicates if this writer is open for writing
+     */
+    public synchronized boolean isOpen()
+    {
+        return mWaveFile != null;
+    }
+
+    /**
+     * Converts the (interleaved) float samples to 16-bit samples and writes them to the file, rolling over to a new
+     * file whenever the maximum file size is reached.  Rollover only occurs on a full frame boundary.
+     *
+     * @param samples to write
+     */
+    public synchronized void writeSamples(float[] samples) throws IOException
+    {
+        writeSamples(samples, samples.length);
+    }
+
+    /**
+     * Converts the first length (interleaved) float samples to 16-bit samples and writes them to the file, rolling
+     * over to a new file whenever the maximum file size is reached.  Rollover only occurs on a full frame boundary.
+     *
+     * @param samples to write
+     * @param length of samples to write
+     */
+    public synchronized void writeSamples(float[] samples, int length) throws IOException
+    {
+        if(mWaveFile == null)
+        {
+            throw new IOException("Can't write samples - wave writer is closed");
+        }
+
+        int samplesPerFrame = mAudioFormat.getChannels();
+        int offset = 0;
+
+        while(length > 0)
+        {
+            long available = (mMaxSize - mWaveFile.getPosition()) / 2;
+            available -= available % samplesPerFrame;
+
+            if(available <= 0)
+            {
+                rollover();
+                continue;
+            }
+
+            int count = (int)Math.min(length, available);
+            mWaveFile.putSigned16(samples, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Closes the current file, patching the header with the final sizes.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if(mWaveFile != null)
+        {
+            WaveFile waveFile = mWaveFile;
+            mWaveFile = null;
+            waveFile.close();
+        }
+    }
+
+    /**
+     * Closes the current file and opens a new file with an incremented series suffix.
+     */
+    private void rollover() throws IOException
+    {
+        mWaveFile.close();
+        mFileRolloverCounter++;
+
+        Path next = getSeriesFile(mBaseFile, mFileRolloverCounter);
+
+        while(Files.exists(next))
+        {
+            mFileRolloverCounter++;
+            next = getSeriesFile(mBaseFile, mFileRolloverCounter);
+        }
+
+        mWaveFile = new WaveFile(next);
+        mLog.info("Wave recording rollover to [" + next + "]");
+    }
+
+    /**
+     * Inserts the series suffix in front of the file extension: recording.wav becomes recording_2.wav
+     */
+    private static Path getSeriesFile(Path file, int series)
+    {
+        String filename = file.getFileName().toString();
+        int extension = filename.lastIndexOf('.');
+
+        if(extension > 0)
+        {
+            filename = filename.substring(0, extension) + "_" + series + filename.substring(extension);
+        }
+        else
+        {
+            filename = filename + "_" + series;
+        }
+
+        return file.resolveSibling(filename);
+    }
+
+    /**
+     * Single mapped wave file with header patching on close
+     */
+    private class WaveFile extends MappedChunkWriter
+    {
+        public WaveFile(Path file) throws IOException
+        {
+            super(file, mChunkSize);
+            put(WaveWriter.getWaveHeader(mAudioFormat));
+            put(WaveWriter.getFormatChunk(mAudioFormat));
+            put(WaveWriter.getDataHeader());
+        }
+
+        @Override
+        protected void finish(FileChannel fileChannel) throws IOException
+        {
+            long size = getPosition();
+            fileChannel.write(WaveWriter.getUnsignedIntegerBuffer(size - 8), RIFF_SIZE_OFFSET);
+            fileChannel.write(WaveWriter.getUnsignedIntegerBuffer(size - HEADER_LENGTH), DATA_SIZE_OFFSET);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.wave;
+
+import io.github.dsheirer.dsp.filter.channelizer.ContinuousBufferProcessor;
+import io.github.dsheirer.record.MappedChunkWriter;
+import io.github.dsheirer.sample.ConversionUtils;
+import io.github.dsheirer.sample.Listener;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmark for the channel based and memory-mapped baseband I/Q wave recorders.
+ *
+ * - Verifies that both writers produce identical sample data and valid header sizes, including across a rollover.
+ * - Measures maximum sustained write throughput (MB/s) for each writer.
+ * - Feeds each writer through a continuous buffer processor at a fixed tuner sample rate and reports the number of
+ *   buffers dropped due to processor queue overflow.
+ *
+ * Usage: WaveRecorderBenchmark [directory] [sample rate] [seconds]
+ */
+public class WaveRecorderBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final int BUFFER_LENGTH = 8192;  //4096 complex samples
+    private static final long THROUGHPUT_BYTES = 1024l * 1024l * 1024l;
+    private static final AudioFormat FORMAT = new AudioFormat(10_000_000, 16, 2, true, false);
+
+    /**
+     * Recording writer under test
+     */
+    private interface Writer
+    {
+        void write(float[] samples) throws IOException;
+        void close() throws IOException;
+    }
+
+    private static Writer getWriter(boolean mapped, Path file, long maxSize) throws IOException
+    {
+        if(mapped)
+        {
+            MappedWaveWriter writer = new MappedWaveWriter(FORMAT, file, MappedChunkWriter.getChunkSize(), maxSize);
+
+            return new Writer()
+            {
+                @Override
+                public void write(float[] samples) throws IOException
+                {
+                    writer.writeSamples(samples);
+                }
+
+                @Override
+                public void close() throws IOException
+                {
+                    writer.close();
+                }
+            };
+        }
+
+        WaveWriter writer = new WaveWriter(FORMAT, file, maxSize);
+
+        return new Writer()
+        {
+            @Override
+            public void write(float[] samples) throws IOException
+            {
+                writer.writeData(ConversionUtils.convertToSigned16BitSamples(samples));
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                writer.close();
+            }
+        };
+    }
+
+    private static String getLabel(boolean mapped)
+    {
+        return mapped ? "Mapped " : "Channel";
+    }
+
+    private static float[] getSamples(Random random)
+    {
+        float[] samples = new float[BUFFER_LENGTH];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = (random.nextFloat() * 2.0f) - 1.0f;
+        }
+
+        return samples;
+    }
+
+    private static void delete(Path directory, String prefix) throws IOException
+    {
+        try(var stream = Files.list(directory))
+        {
+            for(Path path: stream.filter(p -> p.getFileName().toString().startsWith(prefix)).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Reads a little-endian 32-bit unsigned value from the file
+     */
+    private static long readUnsignedInt(FileChannel channel, long offset) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(buffer, offset);
+        return buffer.getInt(0) & 0xFFFFFFFFl;
+    }
+
+    /**
+     * Checks that the RIFF and data chunk sizes agree with the file length.  Returns the sample data.
+     */
+    private static byte[] checkFile(Path file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            long riffSize = readUnsignedInt(channel, 4);
+            long dataSize = readUnsignedInt(channel, 40);
+
+            if(riffSize != size - 8 || dataSize != size - 44)
+            {
+                throw new IllegalStateException("Invalid header sizes in " + file + " file:" + size + " riff:" +
+                    riffSize + " data:" + dataSize);
+            }
+
+            ByteBuffer data = ByteBuffer.allocate((int)dataSize);
+            channel.read(data, 44);
+            return data.array();
+        }
+    }
+
+    /**
+     * Writes identical samples with each writer using a small maximum file size to force rollovers and compares the
+     * resulting files.
+     */
+    private static void checkEquivalence(Path directory) throws IOException
+    {
+        Random random = new Random(1234);
+        float[][] buffers = new float[50][];
+
+        for(int x = 0; x < buffers.length; x++)
+        {
+            buffers[x] = getSamples(random);
+        }
+
+        long maxSize = 300_000;
+
+        //The channel writer only applies rollover numbering to *.tmp files, so use that extension for both writers
+        for(boolean mapped: new boolean[]{false, true})
+        {
+            Writer writer = getWriter(mapped, directory.resolve((mapped ? "mapped" : "channel") + "_check.tmp"),
+                maxSize);
+
+            for(float[] buffer: buffers)
+            {
+                writer.write(buffer);
+            }
+
+            writer.close();
+        }
+
+        boolean pass = true;
+
+        for(int series = 1; series <= 3; series++)
+        {
+            String suffix = (series == 1 ? "" : "_" + series) + ".tmp";
+            byte[] channel = checkFile(directory.resolve("channel_check" + suffix));
+            byte[] mapped = checkFile(directory.resolve("mapped_check" + suffix));
+            pass &= Arrays.equals(channel, mapped);
+        }
+
+        System.out.println("Equivalence (3 files with rollover): " + (pass ? "PASS" : "FAIL"));
+
+        delete(directory, "channel_check");
+        delete(directory, "mapped_check");
+    }
+
+    /**
+     * Maximum sustained throughput writing 1 GB of sample data from a single thread
+     */
+    private static void checkThroughput(Path directory, boolean mapped) throws IOException
+    {
+        float[] samples = getSamples(new Random(1));
+        Path file = directory.resolve("throughput.wav");
+        long iterations = THROUGHPUT_BYTES / (BUFFER_LENGTH * 2);
+
+        long start = System.nanoTime();
+
+        Writer writer = getWriter(mapped, file, WaveWriter.MAX_WAVE_SIZE);
+
+        for(long x = 0; x < iterations; x++)
+        {
+            writer.write(samples);
+        }
+
+        writer.close();
+
+        double seconds = (System.nanoTime() - start) / 1E9;
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+
+        System.out.println(getLabel(mapped) + " Throughput: " + DECIMAL_FORMAT.format(megabytes / seconds) +
+            " MB/s (" + DECIMAL_FORMAT.format(megabytes) + " MB in " + DECIMAL_FORMAT.format(seconds) + " seconds)");
+
+        Files.delete(file);
+    }
+
+    /**
+     * Feeds the writer through a continuous buffer processor at the sample rate, mirroring the baseband recorder, and
+     * reports dropped buffers.
+     */
+    private static void checkRealTime(Path directory, boolean mapped, double sampleRate, int seconds) throws IOException
+    {
+        float[] samples = getSamples(new Random(2));
+        Path file = directory.resolve("realtime.wav");
+        Writer writer = getWriter(mapped, file, WaveWriter.MAX_WAVE_SIZE);
+
+        ContinuousBufferProcessor<float[]> processor = new ContinuousBufferProcessor<>(500, 50);
+        processor.setListener(new Listener<List<float[]>>()
+        {
+            @Override
+            public void receive(List<float[]> buffers)
+            {
+                for(float[] buffer: buffers)
+                {
+                    try
+                    {
+                        writer.write(buffer);
+                    }
+                    catch(IOException ioe)
+                    {
+                        throw new RuntimeException(ioe);
+                    }
+                }
+            }
+        });
+        processor.start();
+
+        double buffersPerSecond = sampleRate * 2.0 / BUFFER_LENGTH;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long produced = 0;
+        long now;
+
+        while((now = System.nanoTime()) < end)
+        {
+            long due = (long)((now - start) / 1E9 * buffersPerSecond);
+
+            while(produced < due)
+            {
+                processor.receive(samples);
+                produced++;
+            }
+
+            LockSupport.parkNanos(1_000_000);
+        }
+
+        processor.flushAndStop();
+        writer.close();
+
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+
+        System.out.println(getLabel(mapped) + " Real Time @ " + DECIMAL_FORMAT.format(sampleRate / 1E6) + " MSps: " +
+            DECIMAL_FORMAT.format(megabytes / seconds) + " MB/s sustained, buffers produced: " + produced +
+            " dropped: " + processor.getOverflowCount());
+
+        Files.delete(file);
+    }
+
+    public static void main(String[] args)
+    {
+        Path directory = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        double sampleRate = args.length > 1 ? Double.parseDouble(args[1]) : 10_000_000.0;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        try
+        {
+            directory = Files.createTempDirectory(directory, "wave_benchmark");
+
+            checkEquivalence(directory);
+
+            for(boolean mapped: new boolean[]{false, true, false, true})
+            {
+                checkThroughput(directory, mapped);
+            }
+
+            for(boolean mapped: new boolean[]{false, true})
+            {
+                checkRealTime(directory, mapped, sampleRate, seconds);
+            }
+
+            Files.delete(directory);
+        }
+        catch(IOException ioe)
+        {
+            ioe.printStackTrace();
+        }
+
+        //System properties are saved on a non-daemon thread - exit explicitly
+        System.exit(0);
+    }
+}
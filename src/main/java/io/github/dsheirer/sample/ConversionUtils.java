@@ -41,12 +41,20 @@ public class ConversionUtils
      */
     public static ByteBuffer convertToSigned16BitSamples(float[] samples)
     {
-        ByteBuffer converted = ByteBuffer.allocate(samples.length * 2);
+        return convertToSigned16BitSamples(samples, samples.length);
+    }
+
+    /**
+     * Converts the first length float samples to a little endian 16-bit buffer
+     */
+    public static ByteBuffer convertToSigned16BitSamples(float[] samples, int length)
+    {
+        ByteBuffer converted = ByteBuffer.allocate(length * 2);
         converted.order(ByteOrder.LITTLE_ENDIAN);
 
-        for(float sample : samples)
+        for(int x = 0; x < length; x++)
         {
-            converted.putShort((short)(sample * Short.MAX_VALUE));
+            converted.putShort((short)(samples[x] * Short.MAX_VALUE));
         }
 
         return converted;
@@ -58,6 +66,6 @@ public class ConversionUtils
      */
     public static ByteBuffer convertToSigned16BitSamples(ReusableFloatBuffer buffer)
     {
-        return convertToSigned16BitSamples(buffer.getSamples());
+        return convertToSigned16BitSamples(buffer.getSamples(), buffer.getLength());
     }
 }
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class OverflowableTransferQueue<E>
 {
@@ -38,6 +39,7 @@ public class OverflowableTransferQueue<E>
     protected LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<E>();
     protected AtomicInteger mCounter = new AtomicInteger();
     protected AtomicBoolean mOverflow = new AtomicBoolean();
+    private AtomicLong mOverflowCount = new AtomicLong();
     private int mMaximumSize;
     private int mResetThreshold;
 
@@ -81,10 +83,27 @@ public class OverflowableTransferQueue<E>
         }
         else
         {
+            mOverflowCount.incrementAndGet();
             overflow(e);
         }
     }
 
+    /**
+     * Number of elements that have been thrown away because the queue was in an overflow state.
+     */
+    public long getOverflowCount()
+    {
+        return mOverflowCount.get();
+    }
+
+    /**
+     * Current number of elements in the queue
+     */
+    public int size()
+    {
+        return mCounter.get();
+    }
+
     /**
      * Invoked when the buffer is in an overflow state.  The element argument is thrown away.  Override this method
      * in subclasses to perform any necessary cleanup action(s).
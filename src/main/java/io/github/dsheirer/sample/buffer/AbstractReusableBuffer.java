@@ -75,12 +75,14 @@ public abstract class AbstractReusableBuffer
     }
 
     /**
-     * Sets the user count to 0 and recycles this buffer
+     * Sets the user count to 0 and recycles this buffer, if it is not already recycled.
      */
     public void clearUserCount()
     {
-        mUserCount.set(0);
-        recycle();
+        if(mUserCount.getAndSet(0) > 0)
+        {
+            recycle();
+        }
     }
 
     /**
@@ -91,11 +93,33 @@ public abstract class AbstractReusableBuffer
      * indicate that they have finished processing the buffer so that when the user count reaches zero, this buffer
      * can be reused.
      *
-     * This method is thread-safe.
+     * This method is thread-safe and lock-free.  Only the user that decrements the count from one to zero recycles the
+     * buffer.  An attempt to decrement the count when it is already zero is reported to the owner as a double-release
+     * and the user count is left unchanged.
      */
-    public synchronized void decrementUserCount()
+    public void decrementUserCount()
     {
-        if(mUserCount.decrementAndGet() <= 0)
+        int current;
+
+        do
+        {
+            current = mUserCount.get();
+
+            if(current <= 0)
+            {
+                IReusableBufferDisposedListener<AbstractReusableBuffer> listener = getBufferDisposedListener();
+
+                if(listener != null)
+                {
+                    listener.releasedMoreThanOnce(this);
+                }
+
+                return;
+            }
+        }
+        while(!mUserCount.compareAndSet(current, current - 1));
+
+        if(current == 1)
         {
             recycle();
         }
@@ -104,23 +128,28 @@ public abstract class AbstractReusableBuffer
     /**
      * Sends this buffer back to the owning buffer queue for reuse
      */
-    private synchronized void recycle()
+    private void recycle()
     {
         prepareForRecycle();
 
-        if(mBufferDisposedListener != null)
-        {
-            mBufferDisposedListener.disposed(this);
-        }
+        IReusableBufferDisposedListener<AbstractReusableBuffer> listener = getBufferDisposedListener();
 
-        if(mUserCount.get() < 0)
+        if(listener != null)
         {
-            mUserCount.set(0);
-            throw new IllegalStateException("User count is below zero.  This indicates that this buffer's decrement" +
-                " user count was invoked by more than the expected user count");
+            listener.disposed(this);
         }
     }
 
+    /**
+     * Disposal listener for this buffer.  The listener is the buffer queue that created this buffer and is typed to
+     * accept this buffer's class.
+     */
+    @SuppressWarnings("unchecked")
+    private IReusableBufferDisposedListener<AbstractReusableBuffer> getBufferDisposedListener()
+    {
+        return mBufferDisposedListener;
+    }
+
     /**
      * Invoked just prior to notifying the owner that this buffer is ready for prepareForRecycle.  This method
      * is intended for sub-class implementations to perform any prepareForRecycle cleanup actions.
@@ -130,6 +159,18 @@ public abstract class AbstractReusableBuffer
         //No-op in this abstract class
     }
 
+    /**
+     * Capacity of this buffer, used by the owning buffer pool to return this buffer to the pool of buffers that can
+     * hold the same number of samples.  Array-backed sub-class implementations should override this method to return
+     * the length of the backing array.
+     *
+     * @return capacity, zero for buffers that are not array-backed
+     */
+    protected int getCapacity()
+    {
+        return 0;
+    }
+
     /**
      * Increments the user count to indicate that this buffer will be sent to another user.
      *
@@ -21,16 +21,12 @@ package io.github.dsheirer.sample.buffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedTransferQueue;
-
 public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuffer>
         implements IReusableBufferDisposedListener<T>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AbstractReusableBufferQueue.class);
 
-    private Queue<T> mReusableBufferQueue = new LinkedTransferQueue<>();
-    private int mBufferCount = 0;
+    private ReusableBufferPool<T> mBufferPool;
     private String mDebugName;
 
     //Set to true to log when reusable buffers are created to monitor proper user count management
@@ -44,6 +40,7 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
     public AbstractReusableBufferQueue(String debugName)
     {
         mDebugName = debugName;
+        mBufferPool = new ReusableBufferPool<>(debugName);
     }
 
     /**
@@ -51,6 +48,7 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
      */
     public AbstractReusableBufferQueue()
     {
+        mBufferPool = new ReusableBufferPool<>(null);
     }
 
     /**
@@ -62,19 +60,61 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
     }
 
     /**
-     * Disposes of any reclaimed buffers to prepare this queue for disposal.
+     * Turns on/off tracking of leaked and double-released buffers for this queue.
+     */
+    public void setDebugTracking(boolean enabled)
+    {
+        mBufferPool.setDebugTracking(enabled);
+    }
+
+    /**
+     * Lock-free buffer pool backing this queue.  Provides buffer count and allocation metrics and, when debug tracking
+     * is enabled, leaked buffer reporting.
+     */
+    public ReusableBufferPool<T> getBufferPool()
+    {
+        return mBufferPool;
+    }
+
+    /**
+     * Sets the maximum number of recycled buffers of each capacity class that are retained by this queue.
+     */
+    public void setRetentionCap(int retentionCap)
+    {
+        mBufferPool.setRetentionCap(retentionCap);
+    }
+
+    /**
+     * Sets the maximum combined capacity (array elements) of all recycled buffers that are retained by this queue.
+     */
+    public void setRetentionBudget(long retentionBudget)
+    {
+        mBufferPool.setRetentionBudget(retentionBudget);
+    }
+
+    /**
+     * Sets the idle time after which recycled buffers for an unused capacity class are evicted from this queue.
+     */
+    public void setIdleEvictionTimeout(long milliseconds)
+    {
+        mBufferPool.setIdleEvictionTimeout(milliseconds);
+    }
+
+    /**
+     * Disposes of any reclaimed buffers to prepare this queue for disposal.  When debug tracking is enabled, any
+     * buffers that are still checked out are logged as potential leaks.
      */
     public void dispose()
     {
-        T buffer = mReusableBufferQueue.poll();
+        if(mBufferPool.isDebugTracking())
+        {
+            mBufferPool.logLeaks(0);
+        }
 
-        while(buffer != null)
+        for(T buffer: mBufferPool.clear())
         {
             buffer.dispose();
-            buffer = mReusableBufferQueue.poll();
         }
-
-        mBufferCount = 0;
     }
 
     /**
@@ -86,7 +126,19 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
     @Override
     public void disposed(T reusableBuffer)
     {
-        mReusableBufferQueue.offer(reusableBuffer);
+        mBufferPool.release(reusableBuffer);
+    }
+
+    /**
+     * Implements buffer disposed listener interface.  Buffers callback to this method when a user attempts to
+     * decrement the user count of a buffer that has already been released.
+     *
+     * @param reusableBuffer that was released more than once
+     */
+    @Override
+    public void releasedMoreThanOnce(T reusableBuffer)
+    {
+        mBufferPool.doubleReleased(reusableBuffer);
     }
 
     /**
@@ -94,19 +146,44 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
      */
     protected T getRecycledBuffer()
     {
-        return mReusableBufferQueue.poll();
+        return mBufferPool.acquire();
+    }
+
+    /**
+     * Get a recycled buffer from the queue with a backing array that can hold at least the specified size, so that
+     * the buffer can be reused without reallocating the array.
+     *
+     * @param size number of samples that will be loaded into the buffer
+     */
+    protected T getRecycledBuffer(int size)
+    {
+        return mBufferPool.acquire(size);
+    }
+
+    /**
+     * Checks out the buffer to a new user by setting the user count to one.  Sub-class implementations should use
+     * this method for every buffer that is provided to a user so that debug tracking is accurate.
+     *
+     * @param buffer to check out
+     * @return the buffer
+     */
+    protected T checkout(T buffer)
+    {
+        buffer.incrementUserCount();
+        mBufferPool.checkout(buffer);
+        return buffer;
     }
 
     /**
-     * Increments the count of buffers managed by this queue.  Note: this method is NOT thread safe
+     * Increments the count of buffers managed by this queue.  This method is thread safe.
      */
     protected void incrementBufferCount()
     {
-        mBufferCount++;
+        mBufferPool.allocated();
 
         if(mBufferCreationLoggingEnabled)
         {
-            mLog.debug("Buffer Created - count:" + mBufferCount +
+            mLog.debug("Buffer Created - count:" + mBufferPool.getAllocatedCount() +
                 " debug:" + (mDebugName != null ? mDebugName : "null") + " class:" + this.getClass());
         }
     }
@@ -116,7 +193,7 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
      */
     protected int getBufferCount()
     {
-        return mBufferCount;
+        return mBufferPool.getAllocatedCount();
     }
 
     /**
@@ -0,0 +1,166 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.sample.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reusable buffer pool hit, miss (allocation), release, eviction and double-release counters aggregated by buffer
+ * queue debug name.  Many buffer queue instances share the same debug name (e.g. one queue per channel), so the
+ * counters for all queues with the same name are combined.
+ *
+ * Once an application reaches steady state, the miss count for each queue should stop increasing, indicating that
+ * all buffer requests are satisfied from recycled buffers without allocation.
+ */
+public class BufferPoolStatistics
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BufferPoolStatistics.class);
+    private static final Map<String,BufferPoolStatistics> sStatistics = new ConcurrentHashMap<>();
+
+    private String mName;
+    private LongAdder mHits = new LongAdder();
+    private LongAdder mMisses = new LongAdder();
+    private LongAdder mReleases = new LongAdder();
+    private LongAdder mEvictions = new LongAdder();
+    private LongAdder mDoubleReleases = new LongAdder();
+
+    private BufferPoolStatistics(String name)
+    {
+        mName = name;
+    }
+
+    /**
+     * Statistics for the buffer queue debug name, created on first access.
+     * @param name of the buffer queue
+     * @return statistics
+     */
+    public static BufferPoolStatistics get(String name)
+    {
+        return sStatistics.computeIfAbsent(name, BufferPoolStatistics::new);
+    }
+
+    /**
+     * Statistics for all buffer queue debug names, sorted by name.
+     */
+    public static List<BufferPoolStatistics> getAll()
+    {
+        List<BufferPoolStatistics> statistics = new ArrayList<>(sStatistics.values());
+        statistics.sort(Comparator.comparing(BufferPoolStatistics::getName));
+        return statistics;
+    }
+
+    /**
+     * Logs the statistics for all buffer queue debug names.
+     */
+    public static void logAll()
+    {
+        for(BufferPoolStatistics statistics: getAll())
+        {
+            mLog.info(statistics.toString());
+        }
+    }
+
+    /**
+     * Buffer queue debug name
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    void hit()
+    {
+        mHits.increment();
+    }
+
+    void miss()
+    {
+        mMisses.increment();
+    }
+
+    void released()
+    {
+        mReleases.increment();
+    }
+
+    void evicted(int count)
+    {
+        mEvictions.add(count);
+    }
+
+    void doubleReleased()
+    {
+        mDoubleReleases.increment();
+    }
+
+    /**
+     * Number of buffer requests satisfied with a recycled buffer of the requested size
+     */
+    public long getHits()
+    {
+        return mHits.sum();
+    }
+
+    /**
+     * Number of buffer requests that required allocation of a new buffer
+     */
+    public long getMisses()
+    {
+        return mMisses.sum();
+    }
+
+    /**
+     * Number of buffers released back to the pool(s)
+     */
+    public long getReleases()
+    {
+        return mReleases.sum();
+    }
+
+    /**
+     * Number of released buffers that were discarded because of the retention cap or idle-time eviction
+     */
+    public long getEvictions()
+    {
+        return mEvictions.sum();
+    }
+
+    /**
+     * Number of attempts to release a buffer that was already released
+     */
+    public long getDoubleReleases()
+    {
+        return mDoubleReleases.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Buffer Pool [" + mName + "] Hits [" + getHits() + "] Misses [" + getMisses() + "] Releases [" +
+            getReleases() + "] Evictions [" + getEvictions() + "] Double Releases [" + getDoubleReleases() + "]";
+    }
+}
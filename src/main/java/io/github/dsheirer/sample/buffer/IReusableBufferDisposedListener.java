@@ -22,4 +22,14 @@ public interface IReusableBufferDisposedListener<T extends AbstractReusableBuffe
      * @param t reusableBuffer that has been disposed
      */
     void disposed(T t);
+
+    /**
+     * Notifies the listener that a user attempted to release the buffer after it was already released (ie the user
+     * count would fall below zero).  The buffer is not recycled a second time.
+     * @param t reusableBuffer that was released more than once
+     */
+    default void releasedMoreThanOnce(T t)
+    {
+        //No-op by default
+    }
 }
@@ -0,0 +1,536 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.sample.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free pool of reference counted reusable buffers.
+ *
+ * Buffers are pooled in power-of-two capacity class slabs.  Array-backed buffers carry a logical length (sample count)
+ * that is separate from the length (capacity) of the backing array, so a request for a buffer of any size is
+ * satisfied from the slab for the next power-of-two capacity, without reallocating the array.  Buffer queues allocate
+ * new arrays with a power-of-two capacity (see getCapacity()) so that buffers of similar sizes share a slab.  A
+ * released buffer is placed in the slab for the largest power-of-two that does not exceed its capacity.
+ *
+ * Each slab retains up to a configurable number of buffers (retention cap) and the pool retains up to a configurable
+ * combined capacity, in array elements, across all slabs (retention budget).  Buffers released beyond either limit
+ * are evicted (discarded).  Slabs that are not accessed within the idle eviction timeout are emptied, so that buffers
+ * for sizes that are no longer used can be garbage collected.
+ *
+ * Each slab is a single non-blocking (compare-and-set) free list that is shared by all threads, so buffers that are
+ * released by a consumer thread are immediately available to the producer thread that acquires them.  Neither the
+ * acquire nor the release path uses a monitor lock and the pool holds no thread-local state, so an unreferenced pool
+ * and all of its retained buffers can be garbage collected.
+ *
+ * Debug tracking can be enabled to record each buffer that is checked out of the pool so that buffers that are never
+ * released (leaks) and buffers that are released more than once (double-release) can be reported by owner name.
+ * Debug tracking uses a concurrent map and adds overhead, so it should only be enabled while troubleshooting.  The
+ * application enables debug tracking for all pools at startup when the buffer.pool.debug.tracking system property
+ * is set to true.
+ *
+ * @param <T> reusable buffer type
+ */
+public class ReusableBufferPool<T extends AbstractReusableBuffer>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ReusableBufferPool.class);
+    public static final String PROPERTY_DEBUG_TRACKING = "buffer.pool.debug.tracking";
+    private static final int DEFAULT_RETENTION_CAP = 256;
+    private static final long DEFAULT_RETENTION_BUDGET = 1 << 22;
+    private static final long DEFAULT_IDLE_EVICTION_MILLISECONDS = 60_000;
+    private static final long EVICTION_SWEEP_INTERVAL_MILLISECONDS = 10_000;
+    private static boolean sDefaultDebugTracking = false;
+
+    private Map<Integer,Slab> mSlabs = new ConcurrentHashMap<>();
+    private Map<T,Checkout> mCheckouts = new ConcurrentHashMap<>();
+    private AtomicInteger mAllocatedCount = new AtomicInteger();
+    private AtomicLong mRetainedCapacity = new AtomicLong();
+    private AtomicLong mLastEvictionSweep = new AtomicLong(System.currentTimeMillis());
+    private BufferPoolStatistics mStatistics;
+    private String mOwner;
+    private int mRetentionCap = DEFAULT_RETENTION_CAP;
+    private long mRetentionBudget = DEFAULT_RETENTION_BUDGET;
+    private long mIdleEvictionMilliseconds = DEFAULT_IDLE_EVICTION_MILLISECONDS;
+    private boolean mDebugTracking = sDefaultDebugTracking;
+
+    /**
+     * Constructs an instance
+     * @param owner name for debug tracking and metrics reporting
+     */
+    public ReusableBufferPool(String owner)
+    {
+        mOwner = owner != null ? owner : "(unnamed)";
+        mStatistics = BufferPoolStatistics.get(mOwner);
+    }
+
+    /**
+     * Sets the default debug tracking state for pools that are created after this method is invoked.
+     * @param enabled true to enable leak and double-release tracking
+     */
+    public static void setDefaultDebugTracking(boolean enabled)
+    {
+        sDefaultDebugTracking = enabled;
+    }
+
+    /**
+     * Enables or disables leak and double-release tracking for this pool.
+     */
+    public void setDebugTracking(boolean enabled)
+    {
+        mDebugTracking = enabled;
+
+        if(!enabled)
+        {
+            mCheckouts.clear();
+        }
+    }
+
+    /**
+     * Indicates if debug tracking is enabled
+     */
+    public boolean isDebugTracking()
+    {
+        return mDebugTracking;
+    }
+
+    /**
+     * Sets the maximum number of recycled buffers retained for each capacity class.  Buffers released beyond this
+     * limit are evicted.
+     * @param retentionCap maximum buffers per capacity class (minimum 1)
+     */
+    public void setRetentionCap(int retentionCap)
+    {
+        mRetentionCap = Math.max(1, retentionCap);
+    }
+
+    /**
+     * Sets the maximum combined capacity, in array elements, of the recycled buffers retained across all capacity
+     * classes.  Buffers released beyond this limit are evicted.  Buffers that are not array-backed count as one
+     * element each.
+     * @param retentionBudget maximum retained array elements (minimum 1)
+     */
+    public void setRetentionBudget(long retentionBudget)
+    {
+        mRetentionBudget = Math.max(1, retentionBudget);
+    }
+
+    /**
+     * Power-of-two capacity to allocate for a buffer array that must hold the specified number of elements.
+     * @param length number of elements
+     * @return smallest power-of-two that is greater than or equal to the length, or zero for a zero length
+     */
+    public static int getCapacity(int length)
+    {
+        return length <= 1 ? length : Integer.highestOneBit(length - 1) << 1;
+    }
+
+    /**
+     * Sets the idle time after which all recycled buffers for an unused capacity class are evicted.
+     * @param milliseconds of idle time
+     */
+    public void setIdleEvictionTimeout(long milliseconds)
+    {
+        mIdleEvictionMilliseconds = milliseconds;
+    }
+
+    /**
+     * Acquires a buffer with capacity zero, for buffer types that are not array-backed.
+     * @return a recycled buffer or null if there are no buffers available for reuse
+     */
+    public T acquire()
+    {
+        return acquire(0);
+    }
+
+    /**
+     * Acquires a buffer that can hold at least the requested number of elements from the free list of the capacity
+     * class for the length.
+     * @param length number of elements that the buffer must hold
+     * @return a recycled buffer or null if there are no buffers of the capacity class available for reuse
+     */
+    public T acquire(int length)
+    {
+        Slab slab = mSlabs.get(getCapacity(length));
+        T buffer = slab != null ? slab.poll() : null;
+
+        if(buffer != null)
+        {
+            mRetainedCapacity.addAndGet(-getRetentionWeight(buffer));
+            mStatistics.hit();
+        }
+        else
+        {
+            mStatistics.miss();
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool for reuse in the slab for the buffer's capacity class, or evicts the buffer if
+     * the slab is at the retention cap or the pool is at the retention budget.
+     * @param buffer to release
+     */
+    public void release(T buffer)
+    {
+        mStatistics.released();
+
+        if(mDebugTracking && mCheckouts.remove(buffer) == null)
+        {
+            mLog.warn("Buffer released to pool [" + mOwner + "] that was not checked out while debug tracking");
+        }
+
+        long weight = getRetentionWeight(buffer);
+
+        if(mRetainedCapacity.addAndGet(weight) > mRetentionBudget)
+        {
+            mRetainedCapacity.addAndGet(-weight);
+            mStatistics.evicted(1);
+        }
+        else
+        {
+            //Largest power-of-two capacity class that this buffer can fully satisfy
+            int capacityClass = Integer.highestOneBit(buffer.getCapacity());
+            Slab slab = mSlabs.computeIfAbsent(capacityClass, key -> new Slab());
+
+            if(!slab.offer(buffer))
+            {
+                mRetainedCapacity.addAndGet(-weight);
+                mStatistics.evicted(1);
+            }
+        }
+
+        evictIdleSlabs();
+    }
+
+    /**
+     * Weight of the buffer against the retention budget
+     */
+    private static long getRetentionWeight(AbstractReusableBuffer buffer)
+    {
+        return Math.max(1, buffer.getCapacity());
+    }
+
+    /**
+     * Removes the buffers from the retained capacity and records them as evicted
+     * @param buffers that were evicted
+     */
+    private void evicted(List<T> buffers)
+    {
+        for(T buffer: buffers)
+        {
+            mRetainedCapacity.addAndGet(-getRetentionWeight(buffer));
+        }
+
+        mStatistics.evicted(buffers.size());
+    }
+
+    /**
+     * Evicts all buffers from slabs that have not been accessed within the idle eviction timeout.  This check is
+     * performed at most once per sweep interval.
+     */
+    private void evictIdleSlabs()
+    {
+        long now = System.currentTimeMillis();
+        long lastSweep = mLastEvictionSweep.get();
+
+        if(now - lastSweep > EVICTION_SWEEP_INTERVAL_MILLISECONDS && mLastEvictionSweep.compareAndSet(lastSweep, now))
+        {
+            for(Map.Entry<Integer,Slab> entry: mSlabs.entrySet())
+            {
+                if(now - entry.getValue().getLastAccess() > mIdleEvictionMilliseconds)
+                {
+                    mSlabs.remove(entry.getKey());
+                    evicted(entry.getValue().clear());
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a new buffer was allocated by the owner of this pool
+     */
+    public void allocated()
+    {
+        mAllocatedCount.incrementAndGet();
+    }
+
+    /**
+     * Records that the buffer was checked out to a user when debug tracking is enabled.
+     * @param buffer that was checked out
+     */
+    public void checkout(T buffer)
+    {
+        if(mDebugTracking)
+        {
+            mCheckouts.put(buffer, new Checkout(Thread.currentThread().getName(), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Records that a user attempted to release a buffer that has already been released.
+     * @param buffer that was released more than once
+     */
+    public void doubleReleased(T buffer)
+    {
+        mStatistics.doubleReleased();
+
+        if(mDebugTracking)
+        {
+            mLog.error("Double release of buffer owned by [" + mOwner + "] on thread [" +
+                Thread.currentThread().getName() + "]", new IllegalStateException("Buffer user count below zero"));
+        }
+        else
+        {
+            mLog.debug("Double release of buffer owned by [" + mOwner + "]");
+        }
+    }
+
+    /**
+     * Removes all retained buffers from every slab and returns them.
+     * @return list of removed buffers
+     */
+    public List<T> clear()
+    {
+        List<T> buffers = new ArrayList<>();
+
+        for(Slab slab: mSlabs.values())
+        {
+            buffers.addAll(slab.clear());
+        }
+
+        mSlabs.clear();
+        mCheckouts.clear();
+        mAllocatedCount.set(0);
+        mRetainedCapacity.set(0);
+
+        return buffers;
+    }
+
+    /**
+     * Descriptions of buffers that have been checked out for longer than the specified age and not released.  Only
+     * available when debug tracking is enabled.
+     * @param minimumAgeMilliseconds for a checked out buffer to be considered leaked
+     * @return descriptions of potentially leaked buffers
+     */
+    public List<String> getLeaks(long minimumAgeMilliseconds)
+    {
+        List<String> leaks = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for(Map.Entry<T,Checkout> entry: mCheckouts.entrySet())
+        {
+            long age = now - entry.getValue().getTimestamp();
+
+            if(age >= minimumAgeMilliseconds)
+            {
+                leaks.add("Pool [" + mOwner + "] buffer [" + entry.getKey().name() + "] checked out by thread [" +
+                    entry.getValue().getThreadName() + "] " + age + " ms ago");
+            }
+        }
+
+        return leaks;
+    }
+
+    /**
+     * Logs any buffers that have been checked out for longer than the specified age.
+     * @param minimumAgeMilliseconds for a checked out buffer to be considered leaked
+     */
+    public void logLeaks(long minimumAgeMilliseconds)
+    {
+        for(String leak: getLeaks(minimumAgeMilliseconds))
+        {
+            mLog.warn("Potential buffer leak - " + leak);
+        }
+    }
+
+    /**
+     * Owner name for this pool
+     */
+    public String getOwner()
+    {
+        return mOwner;
+    }
+
+    /**
+     * Number of buffers allocated by the owner of this pool
+     */
+    public int getAllocatedCount()
+    {
+        return mAllocatedCount.get();
+    }
+
+    /**
+     * Number of recycled buffers currently retained across all capacity classes.
+     */
+    public int getRetainedCount()
+    {
+        int count = 0;
+
+        for(Slab slab: mSlabs.values())
+        {
+            count += slab.getRetainedCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Combined capacity, in array elements, of the recycled buffers currently retained across all capacity classes.
+     */
+    public long getRetainedCapacity()
+    {
+        return mRetainedCapacity.get();
+    }
+
+    /**
+     * Number of capacity classes currently retained by this pool
+     */
+    public int getCapacityClassCount()
+    {
+        return mSlabs.size();
+    }
+
+    /**
+     * Hit, miss, release, eviction and double-release counters for all pools that share this pool's owner name
+     */
+    public BufferPoolStatistics getStatistics()
+    {
+        return mStatistics;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mStatistics.toString() + " Allocated [" + getAllocatedCount() + "] Retained [" + getRetainedCount() +
+            "] Retained Capacity [" + getRetainedCapacity() + "] Capacity Classes [" + getCapacityClassCount() + "]";
+    }
+
+    /**
+     * Pool of buffers for a single capacity class.
+     */
+    private class Slab
+    {
+        private ConcurrentLinkedQueue<T> mFreeList = new ConcurrentLinkedQueue<>();
+        private AtomicInteger mRetainedCount = new AtomicInteger();
+        private volatile long mLastAccess = System.currentTimeMillis();
+
+        /**
+         * Removes a buffer from the free list
+         * @return buffer or null
+         */
+        public T poll()
+        {
+            mLastAccess = System.currentTimeMillis();
+
+            T buffer = mFreeList.poll();
+
+            if(buffer != null)
+            {
+                mRetainedCount.decrementAndGet();
+            }
+
+            return buffer;
+        }
+
+        /**
+         * Adds the buffer to the free list.
+         * @param buffer to add
+         * @return true if the buffer was retained or false if the buffer was evicted due to the retention cap
+         */
+        public boolean offer(T buffer)
+        {
+            mLastAccess = System.currentTimeMillis();
+
+            if(mRetainedCount.incrementAndGet() > mRetentionCap)
+            {
+                mRetainedCount.decrementAndGet();
+                return false;
+            }
+
+            mFreeList.offer(buffer);
+            return true;
+        }
+
+        /**
+         * Removes all buffers from the free list
+         * @return removed buffers
+         */
+        public List<T> clear()
+        {
+            List<T> buffers = new ArrayList<>();
+
+            T buffer = mFreeList.poll();
+
+            while(buffer != null)
+            {
+                buffers.add(buffer);
+                buffer = mFreeList.poll();
+            }
+
+            mRetainedCount.addAndGet(-buffers.size());
+
+            return buffers;
+        }
+
+        public int getRetainedCount()
+        {
+            return mRetainedCount.get();
+        }
+
+        public long getLastAccess()
+        {
+            return mLastAccess;
+        }
+    }
+
+    /**
+     * Debug tracking details for a checked out buffer
+     */
+    private static class Checkout
+    {
+        private String mThreadName;
+        private long mTimestamp;
+
+        public Checkout(String threadName, long timestamp)
+        {
+            mThreadName = threadName;
+            mTimestamp = timestamp;
+        }
+
+        public String getThreadName()
+        {
+            return mThreadName;
+        }
+
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+    }
+}
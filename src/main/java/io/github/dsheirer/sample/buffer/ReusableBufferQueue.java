@@ -40,19 +40,17 @@ public class ReusableBufferQueue extends AbstractReusableBufferQueue<ReusableFlo
      */
     public ReusableFloatBuffer getBuffer(int size)
     {
-        ReusableFloatBuffer buffer = getRecycledBuffer();
+        ReusableFloatBuffer buffer = getRecycledBuffer(size);
 
         if(buffer == null)
         {
-            buffer = new ReusableFloatBuffer(this, new float[size]);
+            buffer = new ReusableFloatBuffer(this, new float[ReusableBufferPool.getCapacity(size)]);
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
-        buffer.incrementUserCount();
-
-        return buffer;
+        return checkout(buffer);
     }
 
     /**
@@ -63,18 +61,16 @@ public class ReusableBufferQueue extends AbstractReusableBufferQueue<ReusableFlo
      */
     public ReusableFloatBuffer getBuffer(float[] samples, long timestamp)
     {
-        ReusableFloatBuffer buffer = getRecycledBuffer();
+        ReusableFloatBuffer buffer = getRecycledBuffer(samples.length);
 
         if(buffer == null)
         {
-            buffer = new ReusableFloatBuffer(this, new float[samples.length]);
+            buffer = new ReusableFloatBuffer(this, new float[ReusableBufferPool.getCapacity(samples.length)]);
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.reloadFrom(samples, timestamp);
-        buffer.incrementUserCount();
-
-        return buffer;
+        return checkout(buffer);
     }
 }
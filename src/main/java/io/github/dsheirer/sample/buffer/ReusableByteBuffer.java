@@ -20,6 +20,7 @@ import org.apache.commons.lang3.Validate;
 public class ReusableByteBuffer extends AbstractReusableBuffer
 {
     private byte[] mSamples;
+    private int mLength;
 
     /**
      * Creates a reusable, timestamped byte buffer using the specified time in milliseconds.
@@ -36,6 +37,7 @@ public class ReusableByteBuffer extends AbstractReusableBuffer
     {
         super(bufferDisposedListener, timestamp);
         mSamples = bytes;
+        mLength = bytes.length;
 
         Validate.notNull(bufferDisposedListener, "Reusable Byte Buffer Listener cannot be null");
     }
@@ -56,7 +58,8 @@ public class ReusableByteBuffer extends AbstractReusableBuffer
     }
 
     /**
-     * Samples for this buffer
+     * Bytes for this buffer.  The returned array is the backing array for this buffer, which can be longer than the
+     * number of bytes contained in this buffer.  Only the first getSampleCount() array elements are valid.
      */
     public byte[] getBytes()
     {
@@ -64,13 +67,12 @@ public class ReusableByteBuffer extends AbstractReusableBuffer
     }
 
     /**
-     * Creates a copy of the samples from this buffer
+     * Creates a copy of the bytes from this buffer, sized to the number of valid bytes
      */
     public byte[] getSamplesCopy()
     {
-        byte[] bytes = getBytes();
-        byte[] copy = new byte[bytes.length];
-        System.arraycopy(bytes, 0, copy, 0, bytes.length);
+        byte[] copy = new byte[mLength];
+        System.arraycopy(mSamples, 0, copy, 0, mLength);
         return copy;
     }
 
@@ -79,19 +81,31 @@ public class ReusableByteBuffer extends AbstractReusableBuffer
      */
     public int getSampleCount()
     {
-        return getBytes().length;
+        return mLength;
     }
 
     /**
-     * Resizes the internal array to the size argument
+     * Sets the number of valid bytes in this buffer to the size argument.  The backing array is only reallocated,
+     * to a power-of-two capacity, when it is too small to hold the requested number of bytes.
      *
-     * @param size for the internal array
+     * @param size number of valid bytes
      */
     protected void resize(int size)
     {
-        if(mSamples.length != size)
+        if(mSamples.length < size)
         {
-            mSamples = new byte[size];
+            mSamples = new byte[ReusableBufferPool.getCapacity(size)];
         }
+
+        mLength = size;
+    }
+
+    /**
+     * Capacity for buffer pooling is the length of the backing array
+     */
+    @Override
+    protected int getCapacity()
+    {
+        return mSamples.length;
     }
 }
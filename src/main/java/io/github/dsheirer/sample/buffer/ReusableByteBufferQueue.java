@@ -37,18 +37,16 @@ public class ReusableByteBufferQueue extends AbstractReusableBufferQueue<Reusabl
      */
     public ReusableByteBuffer getBuffer(int size)
     {
-        ReusableByteBuffer buffer = getRecycledBuffer();
+        ReusableByteBuffer buffer = getRecycledBuffer(size);
 
         if(buffer == null)
         {
-            buffer = new ReusableByteBuffer(this, new byte[size]);
+            buffer = new ReusableByteBuffer(this, new byte[ReusableBufferPool.getCapacity(size)]);
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
-        buffer.incrementUserCount();
-
-        return buffer;
+        return checkout(buffer);
     }
 }
@@ -29,6 +29,7 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
     private LinkedList<float[]> mEmptyBuffers = new LinkedList<>();
     private LinkedList<float[]> mFilledBuffers = new LinkedList<>();
     private Integer mLength;
+    private long mPipelineTimestamp;
 
     /**
      * Reusable buffer for storing polyphase channelizer results arrays.  This buffer is NOT thread safe and is
@@ -52,6 +53,23 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
         mLength = null;
     }
 
+    /**
+     * System nano time that this buffer was handed to the current channelizer pipeline stage.  Used for measuring
+     * pipeline stage latency.
+     */
+    public long getPipelineTimestamp()
+    {
+        return mPipelineTimestamp;
+    }
+
+    /**
+     * Sets the system nano time that this buffer is handed to a channelizer pipeline stage
+     */
+    public void setPipelineTimestamp(long pipelineTimestamp)
+    {
+        mPipelineTimestamp = pipelineTimestamp;
+    }
+
     /**
      * Gets an empty channel results array correctly sized to the requested length.  This method should be used to
      * obtain all empty channel results buffers to fill with information and add back to this buffer so that the results
@@ -48,8 +48,6 @@ public class ReusableChannelResultsBufferQueue extends AbstractReusableBufferQue
             incrementBufferCount();
         }
 
-        buffer.incrementUserCount();
-
-        return buffer;
+        return checkout(buffer);
     }
 }
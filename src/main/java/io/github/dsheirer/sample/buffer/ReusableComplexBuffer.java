@@ -54,7 +54,7 @@ public class ReusableComplexBuffer extends ReusableFloatBuffer
     @Override
     public int getSampleCount()
     {
-        return getSamples().length / 2;
+        return getLength() / 2;
     }
 
     /**
@@ -63,8 +63,9 @@ public class ReusableComplexBuffer extends ReusableFloatBuffer
     public void applyGain(double gain)
     {
         float[] samples = getSamples();
+        int length = getLength();
 
-        for(int x = 0; x < samples.length; x++)
+        for(int x = 0; x < length; x++)
         {
             samples[x] *= gain;
         }
@@ -98,10 +98,22 @@ public class ReusableComplexBufferAssembler
      */
     public void receive(float[] samples)
     {
-        if(mBuffer.remaining() >= samples.length)
+        receive(samples, samples.length);
+    }
+
+    /**
+     * Adds the samples to this assembler.  As each buffer is assembled, it will be dispatched to the registered
+     * listener.
+     *
+     * @param samples to assemble
+     * @param length number of samples from the start of the array to assemble
+     */
+    public void receive(float[] samples, int length)
+    {
+        if(mBuffer.remaining() >= length)
         {
-            mBuffer.put(samples);
-            mTimestampManager.increment(samples.length / 2);
+            mBuffer.put(samples, 0, length);
+            mTimestampManager.increment(length / 2);
 
             if(!mBuffer.hasRemaining())
             {
@@ -112,13 +124,13 @@ public class ReusableComplexBufferAssembler
         {
             int offset = 0;
 
-            while(offset < samples.length)
+            while(offset < length)
             {
                 int toCopy = mBuffer.remaining();
 
-                if((samples.length - offset) < toCopy)
+                if((length - offset) < toCopy)
                 {
-                    toCopy = samples.length - offset;
+                    toCopy = length - offset;
                 }
 
                 mBuffer.put(samples, offset, toCopy);
@@ -140,7 +152,7 @@ public class ReusableComplexBufferAssembler
      */
     public void receive(ReusableComplexBuffer samplesBuffer)
     {
-        receive(samplesBuffer.getSamples());
+        receive(samplesBuffer.getSamples(), samplesBuffer.getLength());
         samplesBuffer.decrementUserCount();
     }
 
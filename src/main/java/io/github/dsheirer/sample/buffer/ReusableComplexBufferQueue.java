@@ -50,19 +50,17 @@ public class ReusableComplexBufferQueue extends AbstractReusableBufferQueue<Reus
      */
     public ReusableComplexBuffer getBuffer(int size)
     {
-        ReusableComplexBuffer buffer = getRecycledBuffer();
+        ReusableComplexBuffer buffer = getRecycledBuffer(size);
 
         if(buffer == null)
         {
-            buffer = new ReusableComplexBuffer(this, new float[size]);
+            buffer = new ReusableComplexBuffer(this, new float[ReusableBufferPool.getCapacity(size)]);
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
-        buffer.incrementUserCount();
-
-        return buffer;
+        return checkout(buffer);
     }
 
     /**
@@ -73,22 +71,16 @@ public class ReusableComplexBufferQueue extends AbstractReusableBufferQueue<Reus
      */
     public ReusableComplexBuffer getBuffer(float[] samples, long timestamp)
     {
-        ReusableComplexBuffer buffer = getRecycledBuffer();
+        ReusableComplexBuffer buffer = getRecycledBuffer(samples.length);
 
         if(buffer == null)
         {
-            buffer = new ReusableComplexBuffer(this, samples);
-            buffer.setTimestamp(timestamp);
+            buffer = new ReusableComplexBuffer(this, new float[ReusableBufferPool.getCapacity(samples.length)]);
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
-        else
-        {
-            buffer.reloadFrom(samples, timestamp);
-        }
-
-        buffer.incrementUserCount();
 
-        return buffer;
+        buffer.reloadFrom(samples, timestamp);
+        return checkout(buffer);
     }
 }
@@ -22,6 +22,7 @@ import java.nio.FloatBuffer;
 public class ReusableFloatBuffer extends AbstractReusableBuffer
 {
     private float[] mSamples;
+    private int mLength;
 
     /**
      * Creates a reusable, timestamped complex buffer using the specified time in milliseconds.
@@ -38,12 +39,14 @@ public class ReusableFloatBuffer extends AbstractReusableBuffer
     {
         super(bufferDisposedListener, timestamp);
         mSamples = samples;
+        mLength = samples.length;
 
         Validate.notNull(bufferDisposedListener, "Reusable Buffer Listener cannot be null");
     }
 
     /**
-     * Samples for this buffer
+     * Samples for this buffer.  The returned array is the backing array for this buffer, which can be longer than the
+     * number of samples contained in this buffer.  Only the first getLength() array elements are valid.
      */
     public float[] getSamples()
     {
@@ -51,13 +54,20 @@ public class ReusableFloatBuffer extends AbstractReusableBuffer
     }
 
     /**
-     * Creates a copy of the samples from this buffer
+     * Number of valid float values in the samples array
+     */
+    public int getLength()
+    {
+        return mLength;
+    }
+
+    /**
+     * Creates a copy of the samples from this buffer, sized to the number of valid samples
      */
     public float[] getSamplesCopy()
     {
-        float[] samples = getSamples();
-        float[] copy = new float[samples.length];
-        System.arraycopy(samples, 0, copy, 0, samples.length);
+        float[] copy = new float[mLength];
+        System.arraycopy(mSamples, 0, copy, 0, mLength);
         return copy;
     }
 
@@ -66,7 +76,7 @@ public class ReusableFloatBuffer extends AbstractReusableBuffer
      */
     public int getSampleCount()
     {
-        return getSamples().length;
+        return mLength;
     }
 
     /**
@@ -120,21 +130,32 @@ public class ReusableFloatBuffer extends AbstractReusableBuffer
     {
         resize(floatBuffer.capacity());
         floatBuffer.rewind();
-        floatBuffer.get(mSamples);
+        floatBuffer.get(mSamples, 0, mLength);
 
         mTimestamp = timestamp;
     }
 
     /**
-     * Resizes the internal array to the size argument
-     * @param size for the internal array
+     * Sets the number of valid samples in this buffer to the size argument.  The backing array is only reallocated,
+     * to a power-of-two capacity, when it is too small to hold the requested number of samples.
+     * @param size number of valid float values
      */
     protected void resize(int size)
     {
-        if(mSamples.length != size)
+        if(mSamples.length < size)
         {
-            mSamples = new float[size];
+            mSamples = new float[ReusableBufferPool.getCapacity(size)];
         }
+
+        mLength = size;
     }
 
+    /**
+     * Capacity for buffer pooling is the length of the backing array
+     */
+    @Override
+    protected int getCapacity()
+    {
+        return mSamples.length;
+    }
 }
@@ -155,7 +155,7 @@ public class MixerReader<T extends ReusableFloatBuffer> implements Runnable
                 mScheduledFuture = null;
             }
 
-            mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this,
+            mScheduledFuture = ThreadPool.REALTIME.scheduleAtFixedRate(this,
                 0, BUFFER_PROCESSING_INTERVAL_MS, TimeUnit.MILLISECONDS);
         }
         else
@@ -28,6 +28,7 @@ import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.ISourceEventProcessor;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.tuner.TunerEvent.Event;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import io.github.dsheirer.source.tuner.manager.ChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
@@ -70,10 +71,13 @@ public abstract class Tuner implements ISourceEventProcessor, ITunerErrorListene
     {
         this(name, tunerController);
 
+        TunerChannelSource.setEventDrivenProcessing(userPreferences.getTunerPreference().getChannelEventDriven());
+
         ChannelizerType channelizerType = userPreferences.getTunerPreference().getChannelizerType();
         if(channelizerType == ChannelizerType.POLYPHASE)
         {
-            setChannelSourceManager(new PolyphaseChannelSourceManager(mTunerController));
+            setChannelSourceManager(new PolyphaseChannelSourceManager(mTunerController,
+                userPreferences.getTunerPreference()));
         }
         else if(channelizerType == ChannelizerType.HETERODYNE)
         {
@@ -15,23 +15,22 @@
  ******************************************************************************/
 package io.github.dsheirer.source.tuner.airspy;
 
-import io.github.dsheirer.dsp.filter.dc.DCRemovalFilter;
 import io.github.dsheirer.dsp.filter.hilbert.HilbertTransform;
 import io.github.dsheirer.source.tuner.usb.converter.NativeBufferConverter;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
 
 public class AirspySampleConverter extends NativeBufferConverter
 {
     private static final float SCALE_SIGNED_12_BIT_TO_FLOAT = 1.0f / 2048.0f;
+    private static final float DC_REMOVAL_RATIO = 0.01f;
 
-    private DCRemovalFilter mDCFilter = new DCRemovalFilter(0.01f);
     private HilbertTransform mHilbertTransform = new HilbertTransform();
     private boolean mSamplePacking = false;
-    private FloatBuffer mFloatBuffer;
-    private float[] mConvertedSamples;
+    private float mDCAverage;
+    private byte[] mPackedBytes;
+    private short[] mUnpackedShorts;
 
     /**
      * Adapter to translate byte buffers received from the airspy tuner into
@@ -41,22 +40,6 @@ public class AirspySampleConverter extends NativeBufferConverter
     {
     }
 
-    @Override
-    protected FloatBuffer convertSamples(ByteBuffer buffer, int length)
-    {
-        float[] samples = convert(buffer);
-
-        if(mFloatBuffer == null || mFloatBuffer.capacity() != samples.length)
-        {
-            mFloatBuffer = FloatBuffer.allocate(samples.length);
-        }
-
-        mFloatBuffer.rewind();
-        mFloatBuffer.put(samples);
-
-        return mFloatBuffer;
-    }
-
     /**
      * Sample packing places two 12-bit samples into 3 bytes when enabled or
      * places two 12-bit samples into 4 bytes when disabled.
@@ -68,85 +51,112 @@ public class AirspySampleConverter extends NativeBufferConverter
         mSamplePacking = enabled;
     }
 
-    private float[] convert(ByteBuffer samples)
+    @Override
+    protected int getConvertedSampleCount(ByteBuffer buffer, int length)
+    {
+        if(mSamplePacking)
+        {
+            return buffer.capacity() / 3 * 2;
+        }
+
+        return buffer.capacity() / 2;
+    }
+
+    /**
+     * Converts the native buffer to real samples with DC removal applied in the same pass and then converts the real
+     * samples to complex samples in place using the hilbert transform.
+     */
+    @Override
+    protected void convertSamples(ByteBuffer buffer, int length, float[] samples, int sampleCount)
     {
         if(mSamplePacking)
         {
-            convertPacked(samples.order(ByteOrder.LITTLE_ENDIAN));
+            convertPacked(buffer, samples, sampleCount);
         }
         else
         {
-            convertUnpacked(samples);
+            convertUnpacked(buffer, samples, sampleCount);
         }
 
-        mDCFilter.filter(mConvertedSamples);
-
-        return mHilbertTransform.filter(mConvertedSamples);
+        mHilbertTransform.filter(samples, sampleCount);
     }
 
     /**
-     * Converts the byte array containing unsigned 12-bit short values into
-     * signed float values in the range -1 to 1;
+     * Converts the native buffer containing unsigned 12-bit short values into
+     * signed float values in the range -1 to 1 with DC removal applied;
      *
      * @param buffer - native byte buffer containing unsigned 16-bit values
+     * @param samples - array to receive the converted samples
+     * @param sampleCount - number of samples to convert
      */
-    private void convertUnpacked(ByteBuffer buffer)
+    private void convertUnpacked(ByteBuffer buffer, float[] samples, int sampleCount)
     {
-        buffer.rewind();
 
-        if(mConvertedSamples == null || mConvertedSamples.length != buffer.capacity() / 2)
+        if(mUnpackedShorts == null || mUnpackedShorts.length != sampleCount)
         {
-            mConvertedSamples = new float[buffer.capacity() / 2];
+            mUnpackedShorts = new short[sampleCount];
         }
 
-        int pointer = 0;
+        //Bulk transfer of the little-endian short values through a view that doesn't modify the native buffer
+        buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).rewind().asShortBuffer().get(mUnpackedShorts, 0, sampleCount);
 
+        float average = mDCAverage;
+        float filtered;
 
-        while(buffer.remaining() >= 2)
+        for(int x = 0; x < sampleCount; x++)
         {
-            byte lsb = buffer.get();
-            byte msb = buffer.get();
-            mConvertedSamples[pointer++] = scale((lsb & 0xFF) | (msb << 8));
+            filtered = scale(mUnpackedShorts[x]) - average;
+            average += DC_REMOVAL_RATIO * filtered;
+            samples[x] = filtered;
         }
+
+        mDCAverage = average;
     }
 
     /**
      * Converts every 3 bytes containing a pair of 12-bit unsigned values into
-     * a pair of float values in the range -1 to 1;
+     * a pair of float values in the range -1 to 1 with DC removal applied;
      *
      * @param buffer - native byte buffer containing packet 12-bit unsigned samples
+     * @param samples - array to receive the converted samples
+     * @param sampleCount - number of samples to convert
      */
-    private void convertPacked(ByteBuffer buffer)
+    private void convertPacked(ByteBuffer buffer, float[] samples, int sampleCount)
     {
-        buffer.rewind();
+        int byteCount = sampleCount / 2 * 3;
 
-        int sampleCount = buffer.capacity() / 3 * 2;
-
-        if(mConvertedSamples == null || mConvertedSamples.length != sampleCount)
+        if(mPackedBytes == null || mPackedBytes.length != byteCount)
         {
-            mConvertedSamples = new float[sampleCount];
+            mPackedBytes = new byte[byteCount];
         }
 
+        //Absolute bulk transfer - does not modify the native buffer position
+        buffer.get(0, mPackedBytes, 0, byteCount);
+
+        float average = mDCAverage;
+        float filtered;
         int pointer = 0;
 
         byte b1;
         byte b2;
         byte b3;
-        int first;
-        int second;
 
-        while(buffer.remaining() >= 3)
+        for(int x = 0; x < byteCount; x += 3)
         {
-            b1 = buffer.get();
-            b2 = buffer.get();
-            b3 = buffer.get();
+            b1 = mPackedBytes[x];
+            b2 = mPackedBytes[x + 1];
+            b3 = mPackedBytes[x + 2];
 
-            first = ((b1 << 4) & 0xFF0) | ((b2 >> 4) & 0xF);
-            mConvertedSamples[pointer++] = scale(first);
+            filtered = scale(((b1 << 4) & 0xFF0) | ((b2 >> 4) & 0xF)) - average;
+            average += DC_REMOVAL_RATIO * filtered;
+            samples[pointer++] = filtered;
 
-            second = ((b2 << 8) & 0xF00) | (b3 & 0xFF);
-            mConvertedSamples[pointer++] = scale(second);
+            filtered = scale(((b2 << 8) & 0xF00) | (b3 & 0xFF)) - average;
+            average += DC_REMOVAL_RATIO * filtered;
+            samples[pointer++] = filtered;
         }
+
+        mDCAverage = average;
     }
 
     /**
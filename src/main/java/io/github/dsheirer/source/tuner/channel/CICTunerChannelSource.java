@@ -108,7 +108,9 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     @Override
     public void receive(ReusableComplexBuffer buffer)
     {
+        long timestamp = buffer.getTimestamp();
         mBuffer.offer(buffer);
+        signalSamplesAvailable(timestamp);
     }
 
     /**
@@ -224,12 +226,13 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
         for(ReusableComplexBuffer complexBuffer : mSampleBuffers)
         {
             float[] samples = complexBuffer.getSamples();
+            int length = complexBuffer.getLength();
 
-            ReusableComplexBuffer translatedComplexBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
+            ReusableComplexBuffer translatedComplexBuffer = mReusableComplexBufferQueue.getBuffer(length);
             float[] translatedSamples = translatedComplexBuffer.getSamples();
 
             /* Perform frequency translation */
-            for(int x = 0; x < samples.length; x += 2)
+            for(int x = 0; x < length; x += 2)
             {
                 mFrequencyCorrectionMixer.rotate();
 
@@ -0,0 +1,132 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.channel;
+
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared timer wheel that fires periodic heartbeat requests for many channel sources from a single scheduled task,
+ * instead of each channel source scheduling its own periodic task.
+ *
+ * The heartbeat period is divided into slots and each registered heartbeat is assigned to a slot in round-robin order.
+ * The wheel advances one slot per tick and fires each heartbeat in the current slot, so every registered heartbeat
+ * fires once per period and the work is spread evenly across the period.  Heartbeat runnables are invoked on the
+ * timer thread and should only signal the owning channel to perform the heartbeat on its own processing thread.
+ */
+public class HeartbeatTimerWheel
+{
+    private final static Logger mLog = LoggerFactory.getLogger(HeartbeatTimerWheel.class);
+
+    private final List<List<Runnable>> mSlots = new ArrayList<>();
+    private final AtomicInteger mNextSlot = new AtomicInteger();
+    private final AtomicInteger mRegisteredCount = new AtomicInteger();
+    private final long mTickMilliseconds;
+    private int mCurrentSlot;
+    private ScheduledFuture<?> mTickFuture;
+
+    /**
+     * Constructs an instance
+     *
+     * @param periodMilliseconds heartbeat period
+     * @param slotCount number of slots that the period is divided into
+     */
+    public HeartbeatTimerWheel(long periodMilliseconds, int slotCount)
+    {
+        for(int x = 0; x < slotCount; x++)
+        {
+            mSlots.add(new CopyOnWriteArrayList<>());
+        }
+
+        mTickMilliseconds = Math.max(1, periodMilliseconds / slotCount);
+    }
+
+    /**
+     * Registers the heartbeat to fire once per period.  Starts the wheel if it is not already running.
+     * @param heartbeat to fire
+     */
+    public synchronized void register(Runnable heartbeat)
+    {
+        int slot = Math.floorMod(mNextSlot.getAndIncrement(), mSlots.size());
+        mSlots.get(slot).add(heartbeat);
+
+        if(mRegisteredCount.incrementAndGet() == 1 && mTickFuture == null)
+        {
+            mTickFuture = ThreadPool.REALTIME.scheduleAtFixedRate(this::tick, mTickMilliseconds, mTickMilliseconds,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Removes the heartbeat.  Stops the wheel when there are no more registered heartbeats.
+     * @param heartbeat to remove
+     */
+    public synchronized void unregister(Runnable heartbeat)
+    {
+        for(List<Runnable> slot: mSlots)
+        {
+            if(slot.remove(heartbeat))
+            {
+                if(mRegisteredCount.decrementAndGet() == 0 && mTickFuture != null)
+                {
+                    mTickFuture.cancel(false);
+                    mTickFuture = null;
+                }
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of registered heartbeats
+     */
+    public int getRegisteredCount()
+    {
+        return mRegisteredCount.get();
+    }
+
+    /**
+     * Advances the wheel by one slot and fires each of the heartbeats in the slot.
+     */
+    private void tick()
+    {
+        mCurrentSlot = (mCurrentSlot + 1) % mSlots.size();
+
+        for(Runnable heartbeat: mSlots.get(mCurrentSlot))
+        {
+            try
+            {
+                heartbeat.run();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while firing channel heartbeat", t);
+            }
+        }
+    }
+}
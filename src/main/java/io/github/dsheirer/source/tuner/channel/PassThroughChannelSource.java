@@ -121,6 +121,8 @@ public class PassThroughChannelSource extends TunerChannelSource implements ISou
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        long timestamp = reusableComplexBuffer.getTimestamp();
         mBufferQueue.offer(reusableComplexBuffer);
+        signalSamplesAvailable(timestamp);
     }
 }
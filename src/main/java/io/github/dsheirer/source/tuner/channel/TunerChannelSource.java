@@ -21,6 +21,7 @@
  */
 package io.github.dsheirer.source.tuner.channel;
 
+import io.github.dsheirer.dsp.filter.channelizer.PipelineStageMetrics;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.source.ComplexSource;
@@ -32,8 +33,12 @@ import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class TunerChannelSource extends ComplexSource implements ISourceEventProcessor
 {
@@ -43,7 +48,13 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
     protected TunerChannel mTunerChannel;
     private Listener<SourceEvent> mProducerSourceEventListener;
     private Listener<SourceEvent> mConsumerSourceEventListener;
+    private static final HeartbeatTimerWheel HEARTBEAT_TIMER_WHEEL =
+        new HeartbeatTimerWheel(BUFFER_PROCESSOR_RUN_INTERVAL_MILLISECONDS, 10);
+    private static boolean sEventDrivenProcessing = false;
     private ScheduledIntervalProcessor mScheduledIntervalProcessor = new ScheduledIntervalProcessor();
+    private EventDrivenProcessor mEventDrivenProcessor;
+    private AtomicLong mOldestPendingTimestamp = new AtomicLong();
+    private PipelineStageMetrics mLatencyMetrics;
 
     /**
      * Tuner Channel Source is a Digital Drop Channel (DDC) abstract class that defines the minimum functionality
@@ -57,6 +68,77 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         mProducerSourceEventListener = producerSourceEventListener;
         mTunerChannel = tunerChannel;
         mConsumerSourceEventListenerAdapter = new SourceEventListenerToProcessorAdapter(this);
+        mLatencyMetrics = new PipelineStageMetrics("Channel " + tunerChannel.getFrequency() + " Sample Latency", null);
+
+        if(sEventDrivenProcessing)
+        {
+            mEventDrivenProcessor = new EventDrivenProcessor();
+        }
+    }
+
+    /**
+     * Sets the sample processing mode for tuner channel sources that are created after this method is invoked.
+     *
+     * @param eventDriven true to process samples as buffers arrive with heartbeats from a shared timer wheel, or false
+     * to process queued samples and send heartbeats on a fixed interval timer for each channel.
+     */
+    public static void setEventDrivenProcessing(boolean eventDriven)
+    {
+        sEventDrivenProcessing = eventDriven;
+    }
+
+    /**
+     * Indicates if this channel source processes samples as buffers arrive (true) or on a fixed interval (false).
+     */
+    public boolean isEventDrivenProcessing()
+    {
+        return mEventDrivenProcessor != null;
+    }
+
+    /**
+     * Latency metrics for this channel, measured from the sample buffer timestamp that is assigned when the tuner
+     * completes the sample transfer until the samples have been delivered to the channel consumer (ie decoder input).
+     * Latency resolution is one millisecond.
+     */
+    public PipelineStageMetrics getLatencyMetrics()
+    {
+        return mLatencyMetrics;
+    }
+
+    /**
+     * Signals that a sample buffer has been queued for processing.  Sub-class implementations should invoke this
+     * method each time a sample buffer is received.  In event driven mode, this schedules the sample processing task,
+     * coalescing bursts of buffers into a single processing run.
+     *
+     * @param timestamp of the received sample buffer
+     */
+    protected void signalSamplesAvailable(long timestamp)
+    {
+        //Track the oldest unprocessed buffer timestamp for latency measurement
+        if(timestamp > 0)
+        {
+            mOldestPendingTimestamp.compareAndSet(0, timestamp);
+        }
+
+        if(mEventDrivenProcessor != null)
+        {
+            mEventDrivenProcessor.signal();
+        }
+    }
+
+    /**
+     * Commands the sub-class to process queued samples and records the latency for the processed buffers.
+     */
+    private void processSamplesAndMeasureLatency()
+    {
+        long timestamp = mOldestPendingTimestamp.getAndSet(0);
+
+        processSamples();
+
+        if(timestamp > 0)
+        {
+            mLatencyMetrics.record((System.currentTimeMillis() - timestamp) * 1_000_000L);
+        }
     }
 
     @Override
@@ -105,7 +187,7 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
 
     /**
      * Commands sub-class to process queued samples and distribute them to the consumer.  This method will be invoked
-     * by an interval timer.
+     * by an interval timer, or by the event driven processor after sample buffers are signalled as available.
      */
     protected abstract void processSamples();
 
@@ -125,7 +207,15 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         //Broadcast current frequency and sample rate so consumer can configure correctly
         broadcastConsumerSourceEvent(SourceEvent.frequencyChange(this, getFrequency(), "Startup"));
         broadcastProducerSourceEvent(SourceEvent.startSampleStreamRequest(this));
-        mScheduledIntervalProcessor.start();
+
+        if(mEventDrivenProcessor != null)
+        {
+            mEventDrivenProcessor.start();
+        }
+        else
+        {
+            mScheduledIntervalProcessor.start();
+        }
     }
 
     /**
@@ -136,7 +226,15 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
     {
         broadcastProducerSourceEvent(SourceEvent.stopSampleStreamRequest(this));
         broadcastProducerSourceEvent(SourceEvent.sourceDisposeRequest(this));
-        mScheduledIntervalProcessor.stop();
+
+        if(mEventDrivenProcessor != null)
+        {
+            mEventDrivenProcessor.stop();
+        }
+        else
+        {
+            mScheduledIntervalProcessor.stop();
+        }
     }
 
     @Override
@@ -287,7 +385,7 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         {
             if(mScheduledFuture == null)
             {
-                mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this, 0,
+                mScheduledFuture = ThreadPool.REALTIME.scheduleAtFixedRate(this, 0,
                     BUFFER_PROCESSOR_RUN_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
             }
         }
@@ -316,7 +414,7 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
                 {
                     try
                     {
-                        processSamples();
+                        processSamplesAndMeasureLatency();
                     }
                     catch(Throwable t)
                     {
@@ -351,4 +449,117 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
             }
         }
     }
+
+    /**
+     * Processor to invoke buffer sample processing when sample buffers arrive.  Buffer arrival signals are coalesced so
+     * that only one processing task is queued or running at any time and a burst of buffers is processed in a single
+     * run.  Heartbeat requests from the shared heartbeat timer wheel are processed by the same task, so that
+     * heartbeats and sample processing are never executed concurrently for a channel.
+     */
+    public class EventDrivenProcessor implements Runnable
+    {
+        private AtomicInteger mPendingSignals = new AtomicInteger();
+        private AtomicBoolean mHeartbeatRequested = new AtomicBoolean();
+        private AtomicBoolean mDisposed = new AtomicBoolean();
+        private Runnable mHeartbeatRequest = this::requestHeartbeat;
+        private volatile boolean mStopped = false;
+
+        /**
+         * Registers this processor with the shared heartbeat timer wheel
+         */
+        public void start()
+        {
+            HEARTBEAT_TIMER_WHEEL.register(mHeartbeatRequest);
+        }
+
+        /**
+         * Removes this processor from the heartbeat timer wheel and schedules a final heartbeat and disposal.
+         */
+        public void stop()
+        {
+            HEARTBEAT_TIMER_WHEEL.unregister(mHeartbeatRequest);
+            mStopped = true;
+            signal();
+        }
+
+        /**
+         * Invoked by the heartbeat timer wheel to request a heartbeat on the processing thread.
+         */
+        private void requestHeartbeat()
+        {
+            mHeartbeatRequested.set(true);
+            signal();
+        }
+
+        /**
+         * Schedules this processor to run, unless a run is already queued or in progress.
+         */
+        public void signal()
+        {
+            if(mPendingSignals.getAndIncrement() == 0)
+            {
+                try
+                {
+                    ThreadPool.REALTIME.execute(this);
+                }
+                catch(RejectedExecutionException ree)
+                {
+                    mPendingSignals.set(0);
+                }
+            }
+        }
+
+        /**
+         * Processes all signals that arrive until there are no more pending signals.
+         */
+        @Override
+        public void run()
+        {
+            int pending = mPendingSignals.get();
+
+            while(pending > 0)
+            {
+                if(mStopped)
+                {
+                    if(!mDisposed.getAndSet(true))
+                    {
+                        try
+                        {
+                            getHeartbeatManager().broadcast();
+                            performDisposal();
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error during final shutdown processing of samples", t);
+                        }
+                    }
+                }
+                else
+                {
+                    if(mHeartbeatRequested.getAndSet(false))
+                    {
+                        try
+                        {
+                            getHeartbeatManager().broadcast();
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error while sending heartbeat", t);
+                        }
+                    }
+
+                    try
+                    {
+                        processSamplesAndMeasureLatency();
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error while processing samples", t);
+                    }
+                }
+
+                pending = mPendingSignals.addAndGet(-pending);
+            }
+        }
+    }
 }
@@ -22,6 +22,7 @@
 package io.github.dsheirer.source.tuner.manager;
 
 import io.github.dsheirer.dsp.filter.channelizer.PolyphaseChannelManager;
+import io.github.dsheirer.preference.source.TunerPreference;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerController;
@@ -57,6 +58,19 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
         mTunerController.addListener(mPolyphaseChannelManager);
     }
 
+    /**
+     * Constructs an instance that configures the polyphase channelizer from the tuner preferences.
+     *
+     * @param tunerController with a center tuned frequency that will be managed by this instance
+     * @param tunerPreference providing the polyphase channelizer implementation and pipeline mode
+     */
+    public PolyphaseChannelSourceManager(TunerController tunerController, TunerPreference tunerPreference)
+    {
+        this(tunerController);
+        mPolyphaseChannelManager.setChannelizerImplementation(tunerPreference.getChannelizerImplementation());
+        mPolyphaseChannelManager.setChannelizerPipelineMode(tunerPreference.getChannelizerPipelineMode());
+    }
+
     /**
      * Indicates if the channel min/max frequencies are within the tunable frequency range of the tuner controller
      *
@@ -27,6 +27,7 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.tuner.Tuner;
 import io.github.dsheirer.source.tuner.TunerClass;
 import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PassThroughSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
@@ -48,6 +49,7 @@ public class RecordingTuner extends Tuner
         super("Recording Tuner", new RecordingTunerController());
 
         mUserPreferences = userPreferences;
+        TunerChannelSource.setEventDrivenProcessing(userPreferences.getTunerPreference().getChannelEventDriven());
 
         if(getTunerController().getCurrentSampleRate() < 100000.0d)
         {
@@ -59,7 +61,8 @@ public class RecordingTuner extends Tuner
 
             if(channelizerType == ChannelizerType.POLYPHASE)
             {
-                setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController()));
+                setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController(),
+                    userPreferences.getTunerPreference()));
             }
             else if(channelizerType == ChannelizerType.HETERODYNE)
             {
@@ -123,7 +126,8 @@ public class RecordingTuner extends Tuner
 
                 if(channelizerType == ChannelizerType.POLYPHASE)
                 {
-                    setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController()));
+                    setChannelSourceManager(new PolyphaseChannelSourceManager(getTunerController(),
+                        mUserPreferences.getTunerPreference()));
                 }
                 else if(channelizerType == ChannelizerType.HETERODYNE)
                 {
@@ -28,6 +28,7 @@ import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerController;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.wave.ComplexWaveSource;
+import io.github.dsheirer.source.wave.ReplayMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +54,27 @@ public class RecordingTunerController extends TunerController
         super(1000000l, 3000000000l, DC_NOISE_BANDWIDTH, USABLE_BANDWIDTH_PERCENTAGE);
     }
 
+    /**
+     * Replay mode for recordings played through this tuner.  FAST replay is not supported: it paces the replay by the
+     * release of the recording sample buffers, but the channelizer releases each buffer once it is channelized, so the
+     * channel output queues would overflow.  FAST replay is rejected in favor of REAL_TIME replay, and the BatchDecoder
+     * is the supported path for decoding recordings faster than real time.
+     */
+    private static ReplayMode getReplayMode()
+    {
+        ReplayMode replayMode = ComplexWaveSource.getReplayModePreference();
+
+        if(replayMode == ReplayMode.FAST)
+        {
+            mLog.warn("Replay mode [" + ReplayMode.FAST.name() + "] from system property [" +
+                ComplexWaveSource.PROPERTY_REPLAY_MODE + "] is not supported for recording tuners - replaying in real " +
+                "time.  Use the batch decoder to decode recordings faster than real time.");
+            return ReplayMode.REAL_TIME;
+        }
+
+        return replayMode;
+    }
+
     /**
      * Sets the recording file and center frequency for this controller
      * @param recordingPath to play
@@ -72,7 +94,7 @@ public class RecordingTunerController extends TunerController
             return;
         }
 
-        mComplexWaveSource = new ComplexWaveSource(new File(recordingPath), true);
+        mComplexWaveSource = new ComplexWaveSource(new File(recordingPath), true, getReplayMode());
         mComplexWaveSource.setListener(new Listener<ReusableComplexBuffer>()
         {
             @Override
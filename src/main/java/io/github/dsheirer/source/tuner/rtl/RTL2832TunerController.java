@@ -21,6 +21,7 @@
  */
 package io.github.dsheirer.source.tuner.rtl;
 
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.source.SourceException;
@@ -52,6 +53,11 @@ public abstract class RTL2832TunerController extends USBTunerController
 {
     private final static Logger mLog = LoggerFactory.getLogger(RTL2832TunerController.class);
 
+    /**
+     * System property to enable (default) or disable DC removal in the 8-bit sample converter
+     */
+    public static final String PROPERTY_DC_REMOVAL = "rtl2832.dc.removal";
+
     public final static int TWO_TO_22_POWER = 4194304;
     public final static int USB_TRANSFER_BUFFER_SIZE_HIGH_SAMPLE_RATE = 131072;
     public final static int USB_TRANSFER_BUFFER_SIZE_LOW_SAMPLE_RATE = 8192;
@@ -79,7 +85,7 @@ public abstract class RTL2832TunerController extends USBTunerController
 
     private SampleRate mSampleRate = DEFAULT_SAMPLE_RATE;
 
-    protected NativeBufferConverter mNativeBufferConverter = new ByteSampleConverter();
+    protected NativeBufferConverter mNativeBufferConverter = createSampleConverter();
     protected int mOscillatorFrequency = 28800000; //28.8 MHz
     protected USBTransferProcessor mUSBTransferProcessor;
     protected Descriptor mDescriptor;
@@ -98,6 +104,17 @@ public abstract class RTL2832TunerController extends USBTunerController
         mDeviceDescriptor = deviceDescriptor;
     }
 
+    /**
+     * Creates the 8-bit sample converter with the fused DC removal stage enabled unless disabled via the
+     * rtl2832.dc.removal system property.
+     */
+    private static NativeBufferConverter createSampleConverter()
+    {
+        ByteSampleConverter converter = new ByteSampleConverter();
+        converter.setDCRemoval(SystemProperties.getInstance().get(PROPERTY_DC_REMOVAL, true));
+        return converter;
+    }
+
     @Override
     public int getBufferSampleCount()
     {
@@ -142,7 +142,7 @@ public class USBTransferProcessor implements TransferCallback
             {
                 success = true;
                 //Start transferred buffer dispatcher
-                mBufferDispatcherFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mCompletedTransferProcessor,
+                mBufferDispatcherFuture = ThreadPool.REALTIME.scheduleAtFixedRate(mCompletedTransferProcessor,
                     0, 6, TimeUnit.MILLISECONDS);
 
                 //Register with LibUSB processor so that it auto-starts LibUSB processing
@@ -249,7 +249,7 @@ public class USBTransferProcessor implements TransferCallback
                 }
             };
 
-            ThreadPool.SCHEDULED.schedule(runnable, 20, TimeUnit.MILLISECONDS);
+            ThreadPool.REALTIME.schedule(runnable, 20, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -577,7 +577,7 @@ public class USBTransferProcessor implements TransferCallback
                     }
                     else
                     {
-                        ThreadPool.SCHEDULED.submit(() -> restart());
+                        ThreadPool.REALTIME.submit(() -> restart());
                         transfer = null;
                     }
                 }
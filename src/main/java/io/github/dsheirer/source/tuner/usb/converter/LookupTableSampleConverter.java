@@ -0,0 +1,130 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.usb.converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts native byte buffers containing 8-bit interleaved complex samples into complex float samples using a
+ * precomputed lookup table.
+ *
+ * The native buffer is copied into a reusable byte array with a single bulk transfer and the lookup table conversion
+ * then runs over the array without any buffer position or bounds bookkeeping per sample.  An optional DC removal
+ * stage is fused into the conversion loop, using a separate running average for the inphase and quadrature values.
+ * The running averages are double precision because a float average stops converging once the small ratio applied
+ * to the residual offset falls below the float precision of the average.
+ */
+public abstract class LookupTableSampleConverter extends NativeBufferConverter
+{
+    private static final double DC_REMOVAL_RATIO = 0.000_01;
+
+    private final float[] mLookupValues;
+    private byte[] mBytes;
+    private boolean mDCRemoval;
+    private double mAverageInphase;
+    private double mAverageQuadrature;
+
+    /**
+     * Constructs an instance
+     * @param lookupValues table of 256 float values indexed by the unsigned byte value
+     */
+    protected LookupTableSampleConverter(float[] lookupValues)
+    {
+        if(lookupValues.length != 256)
+        {
+            throw new IllegalArgumentException("Lookup table must contain 256 values");
+        }
+
+        mLookupValues = lookupValues;
+    }
+
+    /**
+     * Enables or disables the fused DC removal stage.
+     */
+    public void setDCRemoval(boolean enabled)
+    {
+        mDCRemoval = enabled;
+        mAverageInphase = 0.0;
+        mAverageQuadrature = 0.0;
+    }
+
+    /**
+     * Indicates if the fused DC removal stage is enabled
+     */
+    public boolean isDCRemoval()
+    {
+        return mDCRemoval;
+    }
+
+    @Override
+    protected int getConvertedSampleCount(ByteBuffer nativeBuffer, int length)
+    {
+        //Only whole complex sample pairs that were actually transferred are converted
+        return Math.min(length, nativeBuffer.capacity()) & ~1;
+    }
+
+    /**
+     * Converts the 8-bit complex samples contained in the native buffer into floats loaded into the samples array.
+     *
+     * @param nativeBuffer containing 8-bit complex samples
+     * @param length of bytes to read from the native buffer
+     * @param samples array to receive the converted samples
+     * @param sampleCount number of float values to convert
+     */
+    @Override
+    protected void convertSamples(ByteBuffer nativeBuffer, int length, float[] samples, int sampleCount)
+    {
+        int count = sampleCount;
+
+        if(mBytes == null || mBytes.length < count)
+        {
+            mBytes = new byte[count];
+        }
+
+        //Absolute bulk transfer - does not modify the native buffer position
+        nativeBuffer.get(0, mBytes, 0, count);
+
+        if(mDCRemoval)
+        {
+            double averageInphase = mAverageInphase;
+            double averageQuadrature = mAverageQuadrature;
+
+            for(int x = 0; x < count; x += 2)
+            {
+                float inphase = (float)(mLookupValues[mBytes[x] & 0xFF] - averageInphase);
+                averageInphase += DC_REMOVAL_RATIO * inphase;
+                samples[x] = inphase;
+
+                float quadrature = (float)(mLookupValues[mBytes[x + 1] & 0xFF] - averageQuadrature);
+                averageQuadrature += DC_REMOVAL_RATIO * quadrature;
+                samples[x + 1] = quadrature;
+            }
+
+            mAverageInphase = averageInphase;
+            mAverageQuadrature = averageQuadrature;
+        }
+        else
+        {
+            for(int x = 0; x < count; x++)
+            {
+                samples[x] = mLookupValues[mBytes[x] & 0xFF];
+            }
+        }
+    }
+}
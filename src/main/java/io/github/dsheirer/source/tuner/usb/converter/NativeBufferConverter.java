@@ -19,7 +19,6 @@ import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
 
 import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
 
 public abstract class NativeBufferConverter
 {
@@ -38,27 +37,42 @@ public abstract class NativeBufferConverter
      * tracks each reusable buffer until all consumers indicate they are finished processing the buffer and then reuses
      * the buffer.
      *
+     * Samples are converted directly into the reusable buffer's sample array, without an intermediate float buffer.
+     *
      * @param byteBuffer containing native memory byte samples
+     * @param length of bytes to read from the native buffer
      * @return native buffer samples converted to complex floats loaded into a reusable buffer
      */
     public ReusableComplexBuffer convert(ByteBuffer byteBuffer, int length)
     {
-        FloatBuffer floatBuffer = convertSamples(byteBuffer, length);
+        long timestamp = System.currentTimeMillis();
 
-        ReusableComplexBuffer reusableComplexBuffer = mReusableComplexBufferQueue.getBuffer(floatBuffer.capacity());
+        int sampleCount = getConvertedSampleCount(byteBuffer, length);
+        ReusableComplexBuffer reusableComplexBuffer = mReusableComplexBufferQueue.getBuffer(sampleCount);
 
-        //The reusable buffer will rewind the float buffer to the beginning
-        reusableComplexBuffer.reloadFrom(floatBuffer, System.currentTimeMillis());
+        convertSamples(byteBuffer, length, reusableComplexBuffer.getSamples(), sampleCount);
+        reusableComplexBuffer.setTimestamp(timestamp);
 
         return reusableComplexBuffer;
     }
 
+    /**
+     * Number of float values (ie interleaved inphase and quadrature values) that will be produced from the native
+     * buffer.
+     *
+     * @param buffer containing native byte buffer samples
+     * @param length of bytes to read from the native buffer
+     * @return converted float value count
+     */
+    protected abstract int getConvertedSampleCount(ByteBuffer buffer, int length);
+
     /**
      * Converts the native byte buffer bytes into complex float samples.
      *
      * @param buffer containing native byte buffer samples
-     * @return a buffer with complex float samples.  This float buffer will not be modified, therefore sub-class
-     * implementations can reuse the float buffer.
+     * @param length of bytes to read from the native buffer
+     * @param samples array to receive the converted samples, with a length of at least the converted sample count
+     * @param sampleCount number of float values to convert, from getConvertedSampleCount()
      */
-    protected abstract FloatBuffer convertSamples(ByteBuffer buffer, int length);
+    protected abstract void convertSamples(ByteBuffer buffer, int length, float[] samples, int sampleCount);
 }
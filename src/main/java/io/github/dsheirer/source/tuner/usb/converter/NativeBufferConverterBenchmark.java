@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * sdr-trunk
+ * Copyright (C) 2014-2018 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful,  but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License  along with this program.
+ * If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package io.github.dsheirer.source.tuner.usb.converter;
+
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.tuner.airspy.AirspySampleConverter;
+
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Benchmarks each of the native buffer converters against a scalar reference conversion, using a direct native buffer
+ * loaded with random sample bytes.
+ */
+public class NativeBufferConverterBenchmark
+{
+    /**
+     * Scalar reference conversion that mirrors the original per-byte relative get() conversion into an intermediate
+     * float array that is then copied into the reusable buffer.  Used for benchmark comparison only.
+     */
+    private static float scalarReference(ByteBuffer nativeBuffer, int length, float[] lookup, float[] scratch,
+                                         float[] samples)
+    {
+        nativeBuffer.rewind();
+
+        int count = 0;
+
+        while(nativeBuffer.hasRemaining() && count < length)
+        {
+            scratch[count++] = lookup[nativeBuffer.get() & 0xFF];
+        }
+
+        System.arraycopy(scratch, 0, samples, 0, samples.length);
+
+        return samples[0];
+    }
+
+    /**
+     * Benchmarks each of the native buffer converters against a direct native buffer loaded with random sample bytes.
+     */
+    public static void main(String[] args)
+    {
+        DecimalFormat df = new DecimalFormat("0.000");
+        Random random = new Random();
+        int iterations = 5_000;
+
+        float[] lookup = new float[256];
+
+        for(int x = 0; x < 256; x++)
+        {
+            lookup[x] = (float)(x - 127) / 128.0f;
+        }
+
+        ByteSampleConverter rtlDCRemoval = new ByteSampleConverter();
+        rtlDCRemoval.setDCRemoval(true);
+        AirspySampleConverter airspyPacked = new AirspySampleConverter();
+        airspyPacked.setSamplePacking(true);
+
+        String[] labels = new String[]{"RTL-SDR 8-bit Scalar Reference", "RTL-SDR 8-bit", "RTL-SDR 8-bit DC Removal",
+            "HackRF 8-bit", "Airspy 12-bit Unpacked", "Airspy 12-bit Packed"};
+        NativeBufferConverter[] converters = new NativeBufferConverter[]{null, new ByteSampleConverter(), rtlDCRemoval,
+            new SignedByteSampleConverter(), new AirspySampleConverter(), airspyPacked};
+        int[] bufferSizes = new int[]{131072, 131072, 131072, 262144, 262144, 196608};
+
+        for(int index = 0; index < converters.length; index++)
+        {
+            ByteBuffer nativeBuffer = ByteBuffer.allocateDirect(bufferSizes[index]);
+            byte[] bytes = new byte[bufferSizes[index]];
+            random.nextBytes(bytes);
+            nativeBuffer.put(bytes).rewind();
+
+            NativeBufferConverter converter = converters[index];
+            float[] scratch = new float[bufferSizes[index]];
+            float[] samples = new float[bufferSizes[index]];
+            float checksum = 0.0f;
+            int floatsPerBuffer = 0;
+            long start = 0;
+
+            for(int x = 0; x < iterations + (iterations / 10); x++)
+            {
+                //Start timing after the warm-up iterations
+                if(x == iterations / 10)
+                {
+                    start = System.nanoTime();
+                }
+
+                if(converter == null)
+                {
+                    checksum += scalarReference(nativeBuffer, bufferSizes[index], lookup, scratch, samples);
+                    floatsPerBuffer = samples.length;
+                }
+                else
+                {
+                    ReusableComplexBuffer buffer = converter.convert(nativeBuffer, bufferSizes[index]);
+                    checksum += buffer.getSamples()[0];
+                    floatsPerBuffer = buffer.getLength();
+                    buffer.decrementUserCount();
+                }
+            }
+
+            long elapsed = System.nanoTime() - start;
+            double complexSamplesPerSecond = (floatsPerBuffer / 2.0) * iterations / (elapsed / 1E9);
+
+            System.out.println(labels[index] + " [" + df.format(elapsed / (double)iterations / 1000.0) +
+                " us/buffer] Throughput [" + df.format(complexSamplesPerSecond / 1E6) + " MSps] Checksum [" +
+                checksum + "]");
+        }
+    }
+}
@@ -15,10 +15,7 @@
  ******************************************************************************/
 package io.github.dsheirer.source.tuner.usb.converter;
 
-import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
-
-public class SignedByteSampleConverter extends NativeBufferConverter
+public class SignedByteSampleConverter extends LookupTableSampleConverter
 {
     private final static float[] LOOKUP_VALUES;
 
@@ -34,8 +31,6 @@ public class SignedByteSampleConverter extends NativeBufferConverter
         }
     }
 
-    private FloatBuffer mFloatBuffer;
-
     /**
      * Converts native byte buffers containing signed 8-bit complex samples into complex float samples loaded into a tracked,
      * reusable complex sample buffer.  Internally tracks the reusable buffer until all downstream consumers have finished
@@ -43,38 +38,6 @@ public class SignedByteSampleConverter extends NativeBufferConverter
      */
     public SignedByteSampleConverter()
     {
-    }
-
-    /**
-     * Converts the signed 8-bit complex samples contained in the native buffer into floats that are loaded into a float
-     * buffer and subsequently transferred to a reusable complex buffer by the parent class.
-     *
-     * @param nativeBuffer containing signed 8-bit complex samples
-     * @param length of bytes to read from the native buffer
-     * @return float buffer loaded with converted samples
-     */
-    @Override
-    protected FloatBuffer convertSamples(ByteBuffer nativeBuffer, int length)
-    {
-        nativeBuffer.rewind();
-
-        if(mFloatBuffer == null || mFloatBuffer.capacity() != nativeBuffer.capacity())
-        {
-            mFloatBuffer = FloatBuffer.allocate(nativeBuffer.capacity());
-        }
-
-        mFloatBuffer.rewind();
-
-        int count = 0;
-
-        while(nativeBuffer.hasRemaining() && count < length)
-        {
-            byte sample = nativeBuffer.get();
-            count++;
-
-            mFloatBuffer.put(LOOKUP_VALUES[(sample & 0xFF)]);
-        }
-
-        return mFloatBuffer;
+        super(LOOKUP_VALUES);
     }
 }
@@ -21,6 +21,7 @@
  */
 package io.github.dsheirer.source.wave;
 
+import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
@@ -40,14 +41,49 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
 import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Complex (I/Q) sample source for 2-channel 16-bit wave recordings.
+ *
+ * Supports two replay modes for auto-replay:
+ *
+ * REAL_TIME - the recording is read through an audio input stream and delivered at the recording sample rate, looping
+ * continuously.
+ *
+ * FAST - the recording is read from a memory-mapped file on a dedicated thread as fast as downstream consumers can
+ * process it, for offline regression testing of decoders against long recordings.  Pacing comes from backpressure:
+ * once the maximum number of delivered buffers have not yet been released by all downstream users, the replay thread
+ * waits for a buffer to be released.  Buffer timestamps are derived from the frame position in the file, relative to
+ * the recording start time parsed from the file name.  The recording is replayed once and the replay speed is logged
+ * as a multiple of real time.
+ *
+ * FAST replay only paces against consumers that hold the recording buffers until they are processed, such as the
+ * BatchDecoder processing chains.  It is not supported behind the RecordingTunerController, where the channelizer
+ * releases each buffer as soon as it is channelized and the channel output queues are not paced, so the recording
+ * tuner rejects a FAST replay mode preference and replays in real time.
+ */
 public class ComplexWaveSource extends ComplexSource implements IControllableFileSource, AutoCloseable
 {
     private final static Logger mLog = LoggerFactory.getLogger(ComplexWaveSource.class);
 
+    public static final String PROPERTY_REPLAY_MODE = "recording.replay.mode";
+    public static final String PROPERTY_MAXIMUM_BUFFERS_IN_FLIGHT = "recording.replay.buffers.in.flight";
+    private static final ReplayMode DEFAULT_REPLAY_MODE = ReplayMode.REAL_TIME;
+    private static final int DEFAULT_MAXIMUM_BUFFERS_IN_FLIGHT = 8;
+    private static final long BACKPRESSURE_WAIT_NANOSECONDS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final Pattern RECORDING_TIMESTAMP_PATTERN = Pattern.compile("(\\d{8}_\\d{6})");
+    private static final DecimalFormat SPEED_FORMAT = new DecimalFormat("0.0");
+
     private IFrameLocationListener mFrameLocationListener;
     private int mBytesPerFrame;
     private int mFrameCounter = 0;
@@ -55,16 +91,36 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
     private Listener<ReusableComplexBuffer> mListener;
     private AudioInputStream mInputStream;
     private File mFile;
-    private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("ComplexWaveSource");
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("ComplexWaveSource")
+    {
+        @Override
+        public void disposed(ReusableComplexBuffer reusableBuffer)
+        {
+            super.disposed(reusableBuffer);
+            bufferReleased();
+        }
+    };
     private boolean mAutoReplay;
     private ScheduledFuture<?> mReplayController;
+    private ReplayMode mReplayMode;
+    private MappedComplexWaveReader mMappedReader;
+    private Thread mFastReplayThread;
+    private volatile boolean mFastReplaying;
+    private AtomicInteger mBuffersInFlight = new AtomicInteger();
+    private int mMaximumBuffersInFlight;
+    private Listener<ComplexWaveSource> mReplayCompleteListener;
+    private volatile long mReplayedFrameCount;
+    private volatile long mReplayElapsedNanoseconds;
+    private double mReplaySampleRate;
 
     /**
-     * Constructs an instance with optional auto-replay at near real time.
+     * Constructs an instance with optional auto-replay.
      * @param file containing complex I/Q sample data
-     * @param autoReplay to enable continuous looping, real-time playback of sample data
+     * @param autoReplay to enable replay of sample data
+     * @param replayMode to use for auto-replay: continuous looping in real time, or a single replay as fast as
+     * downstream consumers can process the samples.
      */
-    public ComplexWaveSource(File file, boolean autoReplay) throws IOException
+    public ComplexWaveSource(File file, boolean autoReplay, ReplayMode replayMode) throws IOException
     {
         if(file == null || !file.exists() || !supports(file))
         {
@@ -78,6 +134,19 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
 
         mFile = file;
         mAutoReplay = autoReplay;
+        mReplayMode = replayMode;
+        mMaximumBuffersInFlight = Math.max(1, SystemProperties.getInstance().get(PROPERTY_MAXIMUM_BUFFERS_IN_FLIGHT,
+            DEFAULT_MAXIMUM_BUFFERS_IN_FLIGHT));
+    }
+
+    /**
+     * Constructs an instance with optional auto-replay at near real time.
+     * @param file containing complex I/Q sample data
+     * @param autoReplay to enable continuous looping, real-time playback of sample data
+     */
+    public ComplexWaveSource(File file, boolean autoReplay) throws IOException
+    {
+        this(file, autoReplay, ReplayMode.REAL_TIME);
     }
 
     public ComplexWaveSource(File file) throws IOException
@@ -104,6 +173,53 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
         return null;
     }
 
+    /**
+     * Replay mode specified in the recording.replay.mode system property.  Note: the recording tuner only supports the
+     * REAL_TIME replay mode.
+     */
+    public static ReplayMode getReplayModePreference()
+    {
+        return ReplayMode.fromValue(SystemProperties.getInstance().get(PROPERTY_REPLAY_MODE,
+            DEFAULT_REPLAY_MODE.name()), DEFAULT_REPLAY_MODE);
+    }
+
+    /**
+     * Replay mode for this source
+     */
+    public ReplayMode getReplayMode()
+    {
+        return mReplayMode;
+    }
+
+    /**
+     * Registers a listener to be notified when a FAST mode replay reaches the end of the recording.
+     */
+    public void setReplayCompleteListener(Listener<ComplexWaveSource> listener)
+    {
+        mReplayCompleteListener = listener;
+    }
+
+    /**
+     * Number of sample frames delivered by the current or most recent FAST mode replay
+     */
+    public long getReplayedFrameCount()
+    {
+        return mReplayedFrameCount;
+    }
+
+    /**
+     * Replay speed of the current or most recent FAST mode replay as a multiple of real time
+     */
+    public double getReplaySpeed()
+    {
+        if(mReplayElapsedNanoseconds > 0 && mReplaySampleRate > 0)
+        {
+            return (mReplayedFrameCount / mReplaySampleRate) / (mReplayElapsedNanoseconds / 1E9);
+        }
+
+        return 0.0;
+    }
+
     @Override
     public void reset()
     {
@@ -123,7 +239,7 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
     @Override
     public void start()
     {
-        if(mInputStream == null)
+        if(mInputStream == null && mMappedReader == null)
         {
             try
             {
@@ -135,11 +251,21 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
             }
         }
 
-        if(mAutoReplay)
+        if(mAutoReplay && mReplayMode == ReplayMode.FAST)
+        {
+            if(mMappedReader != null && mFastReplayThread == null)
+            {
+                mFastReplaying = true;
+                mFastReplayThread = new Thread(new FastReplayController(), "sdrtrunk recording replay");
+                mFastReplayThread.setDaemon(true);
+                mFastReplayThread.start();
+            }
+        }
+        else if(mAutoReplay)
         {
             long intervalMilliseconds = 50; //20 intervals per second
             double framesPerInterval = getSampleRate() / 20.0d;
-            mReplayController = ThreadPool.SCHEDULED.scheduleAtFixedRate(new ReplayController(framesPerInterval),
+            mReplayController = ThreadPool.REALTIME.scheduleAtFixedRate(new ReplayController(framesPerInterval),
                     0, intervalMilliseconds, TimeUnit.MILLISECONDS);
 
 
@@ -156,6 +282,7 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
                 mReplayController.cancel(true);
             }
 
+            stopFastReplay();
             close();
         }
         catch(IOException e)
@@ -171,9 +298,80 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
         return 0;
     }
 
+    /**
+     * Replays the recording once in FAST mode on the calling thread, without backpressure waits beyond buffers that
+     * are still held by downstream users.  Use this method with auto-replay disabled when the caller manages the
+     * replay thread, for example from a batch decode worker pool.
+     *
+     * @return true if the end of the recording was reached or false if the replay was stopped or failed
+     * @throws IOException if the recording can't be opened
+     */
+    public boolean replay() throws IOException
+    {
+        if(mReplayMode != ReplayMode.FAST)
+        {
+            throw new IllegalStateException("Replay on the calling thread requires FAST replay mode");
+        }
+
+        if(mMappedReader == null)
+        {
+            try
+            {
+                open();
+            }
+            catch(UnsupportedAudioFileException uafe)
+            {
+                throw new IOException("Unsupported audio file [" + mFile + "]", uafe);
+            }
+        }
+
+        mFastReplaying = true;
+        mFastReplayThread = Thread.currentThread();
+
+        try
+        {
+            new FastReplayController().run();
+            return mMappedReader != null && mMappedReader.isEndOfFile();
+        }
+        finally
+        {
+            mFastReplayThread = null;
+            mFastReplaying = false;
+        }
+    }
+
+    /**
+     * Stops the fast replay thread and waits for it to finish so that the mapped reader can be closed safely.
+     */
+    private void stopFastReplay()
+    {
+        Thread thread = mFastReplayThread;
+        mFastReplaying = false;
+        mFastReplayThread = null;
+
+        if(thread != null && thread != Thread.currentThread())
+        {
+            LockSupport.unpark(thread);
+
+            try
+            {
+                thread.join(1000);
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     @Override
     public double getSampleRate()
     {
+        if(mMappedReader != null)
+        {
+            return mMappedReader.getSampleRate();
+        }
+
         if(mInputStream != null)
         {
             return mInputStream.getFormat().getSampleRate();
@@ -209,6 +407,12 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
             mInputStream.close();
             mInputStream = null;
         }
+
+        if(mMappedReader != null)
+        {
+            mMappedReader.close();
+            mMappedReader = null;
+        }
     }
 
     /**
@@ -216,7 +420,16 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
      */
     public void open() throws IOException, UnsupportedAudioFileException
     {
-        if(mInputStream == null)
+        if(mReplayMode == ReplayMode.FAST)
+        {
+            if(mMappedReader == null)
+            {
+                mMappedReader = new MappedComplexWaveReader(mFile);
+                mBytesPerFrame = 4;
+                broadcast(0);
+            }
+        }
+        else if(mInputStream == null)
         {
             mInputStream = AudioSystem.getAudioInputStream(mFile);
 
@@ -279,6 +492,7 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
                 ReusableComplexBuffer reusableBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
                 System.arraycopy(samples, 0, reusableBuffer.getSamples(), 0, samples.length);
                 reusableBuffer.setTimestamp(System.currentTimeMillis());
+                mBuffersInFlight.incrementAndGet();
                 mListener.receive(reusableBuffer);
             }
         }
@@ -381,4 +595,119 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
             }
         }
     }
+
+    /**
+     * Invoked when a delivered buffer has been released by all downstream users.  Wakes the fast replay thread when
+     * it is waiting on backpressure.
+     */
+    private void bufferReleased()
+    {
+        if(mBuffersInFlight.decrementAndGet() < mMaximumBuffersInFlight)
+        {
+            Thread thread = mFastReplayThread;
+
+            if(thread != null)
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Recording start time parsed from the yyyyMMdd_HHmmss timestamp in the recording file name, or the file
+     * modification time less the recording duration when the file name doesn't contain a timestamp.
+     */
+    private long getRecordingStartTimestamp()
+    {
+        Matcher m = RECORDING_TIMESTAMP_PATTERN.matcher(mFile.getName());
+
+        if(m.find())
+        {
+            try
+            {
+                return new SimpleDateFormat("yyyyMMdd_HHmmss").parse(m.group(1)).getTime();
+            }
+            catch(ParseException pe)
+            {
+                //Fall through to use the file modification time
+            }
+        }
+
+        long duration = (long)(mMappedReader.getFrameCount() * 1000.0 / mMappedReader.getSampleRate());
+        return mFile.lastModified() - duration;
+    }
+
+    /**
+     * Replays the memory-mapped recording once, as fast as downstream consumers release the sample buffers.
+     */
+    public class FastReplayController implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            MappedComplexWaveReader reader = mMappedReader;
+            double sampleRate = reader.getSampleRate();
+            mReplaySampleRate = sampleRate;
+            int bufferFrames = getBufferSampleCount();
+            long startTimestamp = getRecordingStartTimestamp();
+            long start = System.nanoTime();
+            mReplayedFrameCount = 0;
+            mReplayElapsedNanoseconds = 0;
+
+            try
+            {
+                while(mFastReplaying && !reader.isEndOfFile())
+                {
+                    while(mFastReplaying && mBuffersInFlight.get() >= mMaximumBuffersInFlight)
+                    {
+                        LockSupport.parkNanos(BACKPRESSURE_WAIT_NANOSECONDS);
+                    }
+
+                    if(!mFastReplaying)
+                    {
+                        break;
+                    }
+
+                    long framePosition = reader.getFramePosition();
+                    int frames = (int)Math.min(bufferFrames, reader.getFrameCount() - framePosition);
+                    ReusableComplexBuffer buffer = mReusableComplexBufferQueue.getBuffer(frames * 2);
+                    reader.read(buffer.getSamples(), frames);
+                    buffer.setTimestamp(startTimestamp + (long)(framePosition * 1000.0 / sampleRate));
+
+                    Listener<ReusableComplexBuffer> listener = mListener;
+                    mBuffersInFlight.incrementAndGet();
+
+                    if(listener != null)
+                    {
+                        listener.receive(buffer);
+                    }
+                    else
+                    {
+                        buffer.decrementUserCount();
+                    }
+
+                    mReplayedFrameCount += frames;
+                    mReplayElapsedNanoseconds = System.nanoTime() - start;
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error during fast replay of recording [" + mFile + "]", t);
+            }
+
+            if(reader.isEndOfFile())
+            {
+                mLog.info("Fast replay complete [" + mFile.getName() + "] - " + mReplayedFrameCount + " samples in " +
+                    SPEED_FORMAT.format(mReplayElapsedNanoseconds / 1E9) + " seconds at " +
+                    SPEED_FORMAT.format(getReplaySpeed()) + "x real time");
+
+                Listener<ComplexWaveSource> completeListener = mReplayCompleteListener;
+
+                if(completeListener != null)
+                {
+                    completeListener.receive(ComplexWaveSource.this);
+                }
+            }
+        }
+    }
 }
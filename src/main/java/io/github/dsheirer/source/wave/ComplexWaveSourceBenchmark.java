@@ -0,0 +1,221 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.wave;
+
+import io.github.dsheirer.dsp.filter.channelizer.ContinuousReusableBufferProcessor;
+import io.github.dsheirer.record.wave.MappedWaveWriter;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark and regression check for FAST (as fast as possible) replay of complex wave recordings.
+ *
+ * Creates a synthetic recording and then:
+ * - Replays the recording through the legacy audio input stream read path in a tight loop as a baseline.
+ * - Replays the recording in FAST mode into a continuous buffer processor (as used by the channelizer) and reports
+ *   the replay speed as a multiple of real time and the number of buffers dropped by the processor queue.
+ * - Verifies that the FAST replay delivers every sample with a checksum that matches the legacy read path and that
+ *   buffer timestamps are derived from the file position.
+ *
+ * Usage: ComplexWaveSourceBenchmark [directory] [sample rate] [seconds]
+ */
+public class ComplexWaveSourceBenchmark
+{
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final String RECORDING_TIMESTAMP = "20221017_120000";
+
+    /**
+     * Creates a recording with random samples using the file name timestamp convention of the baseband recorder
+     */
+    private static File createRecording(Path directory, double sampleRate, int seconds) throws IOException
+    {
+        Path file = directory.resolve("TUNER_100000000_baseband_" + RECORDING_TIMESTAMP + ".wav");
+        AudioFormat format = new AudioFormat((float)sampleRate, 16, 2, true, false);
+        Random random = new Random(1234);
+        float[] samples = new float[8192];
+
+        try(MappedWaveWriter writer = new MappedWaveWriter(format, file, 64 * 1024 * 1024))
+        {
+            long remaining = (long)(sampleRate * seconds) * 2;
+
+            while(remaining > 0)
+            {
+                for(int x = 0; x < samples.length; x++)
+                {
+                    samples[x] = (random.nextFloat() * 2.0f) - 1.0f;
+                }
+
+                if(remaining < samples.length)
+                {
+                    samples = Arrays.copyOf(samples, (int)remaining);
+                }
+
+                writer.writeSamples(samples);
+                remaining -= samples.length;
+            }
+        }
+
+        return file.toFile();
+    }
+
+    private static double checksum(float[] samples, int length, double checksum)
+    {
+        for(int x = 0; x < length; x++)
+        {
+            checksum += samples[x] * (x + 1);
+        }
+
+        return checksum;
+    }
+
+    /**
+     * Legacy read path: audio input stream into a freshly allocated byte array per buffer
+     */
+    private static double replayLegacy(File file) throws Exception
+    {
+        ComplexWaveSource source = new ComplexWaveSource(file, false);
+        source.open();
+        double sampleRate = source.getSampleRate();
+        int frames = source.getBufferSampleCount();
+        double[] checksum = new double[1];
+        long[] frameCount = new long[1];
+
+        source.setListener(new Listener<ReusableComplexBuffer>()
+        {
+            @Override
+            public void receive(ReusableComplexBuffer buffer)
+            {
+                checksum[0] = checksum(buffer.getSamples(), buffer.getLength(), checksum[0]);
+                frameCount[0] += buffer.getLength() / 2;
+                buffer.decrementUserCount();
+            }
+        });
+
+        long start = System.nanoTime();
+
+        try
+        {
+            while(true)
+            {
+                source.next(frames, true);
+            }
+        }
+        catch(IOException ioe)
+        {
+            //End of file
+        }
+
+        double seconds = (System.nanoTime() - start) / 1E9;
+        source.close();
+
+        System.out.println("Legacy Stream Read: " + frameCount[0] + " samples in " + DECIMAL_FORMAT.format(seconds) +
+            " seconds - " + DECIMAL_FORMAT.format((frameCount[0] / sampleRate) / seconds) + "x real time");
+
+        return checksum[0];
+    }
+
+    /**
+     * FAST replay into a continuous buffer processor
+     */
+    private static void replayFast(File file, double legacyChecksum) throws Exception
+    {
+        ComplexWaveSource source = new ComplexWaveSource(file, true, ReplayMode.FAST);
+        source.open();
+        double sampleRate = source.getSampleRate();
+        long expectedStart = new SimpleDateFormat("yyyyMMdd_HHmmss").parse(RECORDING_TIMESTAMP).getTime();
+
+        double[] checksum = new double[1];
+        long[] frameCount = new long[1];
+        boolean[] timestampsValid = new boolean[]{true};
+
+        ContinuousReusableBufferProcessor<ReusableComplexBuffer> processor =
+            new ContinuousReusableBufferProcessor<>(500, 50);
+        processor.setListener(new Listener<List<ReusableComplexBuffer>>()
+        {
+            @Override
+            public void receive(List<ReusableComplexBuffer> buffers)
+            {
+                for(ReusableComplexBuffer buffer: buffers)
+                {
+                    long expected = expectedStart + (long)(frameCount[0] * 1000.0 / sampleRate);
+                    timestampsValid[0] &= buffer.getTimestamp() == expected;
+                    checksum[0] = checksum(buffer.getSamples(), buffer.getLength(), checksum[0]);
+                    frameCount[0] += buffer.getLength() / 2;
+                    buffer.decrementUserCount();
+                }
+            }
+        });
+        processor.start();
+
+        CountDownLatch complete = new CountDownLatch(1);
+        source.setReplayCompleteListener(completedSource -> complete.countDown());
+        source.setListener(processor);
+        source.start();
+        complete.await(10, TimeUnit.MINUTES);
+        processor.flushAndStop();
+        source.stop();
+
+        System.out.println("Fast Replay: " + source.getReplayedFrameCount() + " samples - " +
+            DECIMAL_FORMAT.format(source.getReplaySpeed()) + "x real time, buffers dropped: " +
+            processor.getOverflowCount());
+        System.out.println("Fast Replay Samples: " + (frameCount[0] == source.getReplayedFrameCount() &&
+            checksum[0] == legacyChecksum ? "PASS" : "FAIL") + " Timestamps: " +
+            (timestampsValid[0] ? "PASS" : "FAIL"));
+    }
+
+    public static void main(String[] args)
+    {
+        Path directory = Paths.get(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        double sampleRate = args.length > 1 ? Double.parseDouble(args[1]) : 2_500_000.0;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+        try
+        {
+            directory = Files.createTempDirectory(directory, "replay_benchmark");
+            File recording = createRecording(directory, sampleRate, seconds);
+
+            double legacyChecksum = replayLegacy(recording);
+            replayFast(recording, legacyChecksum);
+
+            Files.delete(recording.toPath());
+            Files.delete(directory);
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        //System properties are saved on a non-daemon thread - exit explicitly
+        System.exit(0);
+    }
+}
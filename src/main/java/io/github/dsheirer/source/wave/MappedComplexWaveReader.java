@@ -0,0 +1,278 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.wave;
+
+import io.github.dsheirer.record.wave.WaveWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access reader for complex (I/Q) 16-bit PCM wave recordings using a memory-mapped view of the sample data.
+ *
+ * Samples are converted from the mapped file directly into the caller's float array, so reading does not allocate.
+ * The data chunk is mapped in windows so that recordings larger than 2 GB can be read.  Recordings that were not closed
+ * cleanly (data chunk size of zero or larger than the file) are read to the end of the file.
+ *
+ * This class is not thread safe.
+ */
+public class MappedComplexWaveReader implements AutoCloseable
+{
+    private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final int BYTES_PER_FRAME = 4;
+    private static final int HEADER_BUFFER_SIZE = 8;
+
+    private File mFile;
+    private FileChannel mFileChannel;
+    private MappedByteBuffer mWindow;
+    private long mWindowStart;
+    private long mDataOffset;
+    private long mFrameCount;
+    private long mFramePosition;
+    private double mSampleRate;
+
+    /**
+     * Constructs an instance and parses the wave header to locate the sample data.
+     *
+     * @param file containing 2-channel, 16-bit PCM samples
+     * @throws IOException if the file can't be read or the format is not supported
+     */
+    public MappedComplexWaveReader(File file) throws IOException
+    {
+        mFile = file;
+        mFileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try
+        {
+            parseHeader();
+        }
+        catch(IOException ioe)
+        {
+            mFileChannel.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Walks the RIFF chunks to find the format and data chunks.
+     */
+    private void parseHeader() throws IOException
+    {
+        long size = mFileChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        read(header, 0);
+
+        if(!WaveWriter.RIFF_ID.equals(getId(header, 0)) || !WaveWriter.WAVE_ID.equals(getId(header, 8)))
+        {
+            throw new IOException("Unsupported file format - not a RIFF/WAVE file [" + mFile + "]");
+        }
+
+        boolean formatFound = false;
+        long offset = 12;
+        ByteBuffer chunkHeader = ByteBuffer.allocate(HEADER_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(offset + HEADER_BUFFER_SIZE <= size)
+        {
+            chunkHeader.clear();
+            read(chunkHeader, offset);
+            String id = getId(chunkHeader, 0);
+            long chunkSize = chunkHeader.getInt(4) & 0xFFFFFFFFl;
+            long chunkStart = offset + HEADER_BUFFER_SIZE;
+
+            if(WaveWriter.FORMAT_CHUNK_ID.equals(id))
+            {
+                ByteBuffer format = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+                read(format, chunkStart);
+
+                int encoding = format.getShort(0);
+                int channels = format.getShort(2);
+                mSampleRate = format.getInt(4);
+                int bitsPerSample = format.getShort(14);
+
+                if(encoding != WaveWriter.FORMAT_UNCOMPRESSED_PCM || channels != 2 || bitsPerSample != 16)
+                {
+                    throw new IOException("Unsupported Wave Format - EXPECTED: 2 channels 16-bit PCM samples FOUND: " +
+                        channels + " channels " + bitsPerSample + "-bit samples encoding " + encoding);
+                }
+
+                formatFound = true;
+            }
+            else if(WaveWriter.DATA_CHUNK_ID.equals(id))
+            {
+                if(!formatFound)
+                {
+                    throw new IOException("Wave data chunk precedes format chunk [" + mFile + "]");
+                }
+
+                long available = size - chunkStart;
+
+                if(chunkSize == 0 || chunkSize > available)
+                {
+                    chunkSize = available;
+                }
+
+                mDataOffset = chunkStart;
+                mFrameCount = chunkSize / BYTES_PER_FRAME;
+                return;
+            }
+
+            //Chunks are word aligned
+            offset = chunkStart + chunkSize + (chunkSize & 1);
+        }
+
+        throw new IOException("Wave data chunk not found [" + mFile + "]");
+    }
+
+    private void read(ByteBuffer buffer, long position) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            if(mFileChannel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Unexpected end of file while reading wave header [" + mFile + "]");
+            }
+        }
+    }
+
+    private static String getId(ByteBuffer buffer, int offset)
+    {
+        return new String(buffer.array(), offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Sample rate of the recording
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Number of complex sample frames in the recording
+     */
+    public long getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+    /**
+     * Index of the next frame to be read
+     */
+    public long getFramePosition()
+    {
+        return mFramePosition;
+    }
+
+    /**
+     * Sets the index of the next frame to be read
+     */
+    public void setFramePosition(long framePosition)
+    {
+        if(framePosition < 0 || framePosition > mFrameCount)
+        {
+            throw new IllegalArgumentException("Frame position [" + framePosition + "] is outside of recording [0-" +
+                mFrameCount + "]");
+        }
+
+        mFramePosition = framePosition;
+    }
+
+    /**
+     * Indicates if all frames have been read
+     */
+    public boolean isEndOfFile()
+    {
+        return mFramePosition >= mFrameCount;
+    }
+
+    /**
+     * Reads up to the requested number of frames into the samples array as interleaved I/Q float values.  Conversion
+     * is identical to ConversionUtils.convertFromSigned16BitSamples().
+     *
+     * @param samples array to receive the samples, sized for at least frames * 2 values
+     * @param frames requested
+     * @return number of frames read, or zero if the end of the recording has been reached
+     * @throws IOException if the file can't be mapped
+     */
+    public int read(float[] samples, int frames) throws IOException
+    {
+        frames = (int)Math.min(frames, mFrameCount - mFramePosition);
+        int sampleOffset = 0;
+        int remaining = frames;
+
+        while(remaining > 0)
+        {
+            long bytePosition = mFramePosition * BYTES_PER_FRAME;
+
+            if(mWindow == null || bytePosition < mWindowStart || bytePosition >= mWindowStart + mWindow.capacity())
+            {
+                map(bytePosition);
+            }
+
+            int windowOffset = (int)(bytePosition - mWindowStart);
+            int count = Math.min(remaining, (mWindow.capacity() - windowOffset) / BYTES_PER_FRAME);
+            MappedByteBuffer window = mWindow;
+            int end = sampleOffset + (count * 2);
+
+            for(int x = sampleOffset; x < end; x++)
+            {
+                samples[x] = (float)window.getShort(windowOffset) / (float)Short.MAX_VALUE;
+                windowOffset += 2;
+            }
+
+            sampleOffset = end;
+            remaining -= count;
+            mFramePosition += count;
+        }
+
+        return frames;
+    }
+
+    /**
+     * Maps the window of sample data that contains the byte position.  Windows are aligned to the window size.
+     */
+    private void map(long bytePosition) throws IOException
+    {
+        long dataLength = mFrameCount * BYTES_PER_FRAME;
+        mWindowStart = (bytePosition / WINDOW_SIZE) * WINDOW_SIZE;
+        long length = Math.min(WINDOW_SIZE, dataLength - mWindowStart);
+
+        //The previous window is released when it is garbage collected
+        mWindow = mFileChannel.map(FileChannel.MapMode.READ_ONLY, mDataOffset + mWindowStart, length);
+        mWindow.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mWindow = null;
+
+        if(mFileChannel != null)
+        {
+            mFileChannel.close();
+            mFileChannel = null;
+        }
+    }
+}
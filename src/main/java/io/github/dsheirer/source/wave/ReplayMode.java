@@ -0,0 +1,72 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.wave;
+
+/**
+ * Pacing used when replaying a complex sample recording.
+ */
+public enum ReplayMode
+{
+    /**
+     * Samples are delivered at the recording sample rate, paced by the wall clock.
+     */
+    REAL_TIME("Real Time"),
+
+    /**
+     * Samples are delivered as fast as downstream consumers release the sample buffers.  Supported for the batch
+     * decoder, but not for recording tuners where the channelizer releases the buffers before the channels are
+     * processed.
+     */
+    FAST("As Fast As Possible");
+
+    private String mLabel;
+
+    ReplayMode(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Parses the replay mode from the enum entry name.
+     * @param value to parse
+     * @param defaultValue to use if the value is not a replay mode name
+     * @return replay mode
+     */
+    public static ReplayMode fromValue(String value, ReplayMode defaultValue)
+    {
+        if(value != null)
+        {
+            for(ReplayMode mode : values())
+            {
+                if(mode.name().equalsIgnoreCase(value.trim()))
+                {
+                    return mode;
+                }
+            }
+        }
+
+        return defaultValue;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
@@ -277,8 +277,9 @@ public class ChannelSpectrumPanel extends JPanel implements ChannelEventListener
 
         //Hack: we're placing real samples in a complex buffer that the DFT
         //processor is expecting.
-        ReusableComplexBuffer reusableComplexBuffer = mReusableComplexBufferQueue.getBuffer(decimated.getSamples().length);
-        reusableComplexBuffer.reloadFrom(decimated.getSamples(), System.currentTimeMillis());
+        ReusableComplexBuffer reusableComplexBuffer = mReusableComplexBufferQueue.getBuffer(decimated.getLength());
+        System.arraycopy(decimated.getSamples(), 0, reusableComplexBuffer.getSamples(), 0, decimated.getLength());
+        reusableComplexBuffer.setTimestamp(System.currentTimeMillis());
         mDFTProcessor.receive(reusableComplexBuffer);
     }
 
@@ -90,7 +90,7 @@ public class OverflowableBufferStream extends OverflowableTransferQueue<Reusable
 
         while(mFloatBuffer.hasRemaining())
         {
-            int available = mCurrentBuffer.getSamples().length - mCurrentBufferPointer;
+            int available = mCurrentBuffer.getLength() - mCurrentBufferPointer;
 
             if(available <= 0)
             {
@@ -150,7 +150,7 @@ public class OverflowableBufferStream extends OverflowableTransferQueue<Reusable
         //Flush sample data as requested
         while(mFlushCount > 0)
         {
-            int available = mCurrentBuffer.getSamples().length - mCurrentBufferPointer;
+            int available = mCurrentBuffer.getLength() - mCurrentBufferPointer;
 
             if(available <= mFlushCount)
             {
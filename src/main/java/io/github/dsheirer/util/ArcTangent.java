@@ -260,4 +260,101 @@ public class ArcTangent
 		
 		return angle;
 	}
+
+	/**
+	 * Maximum absolute error (radians) of the polynomial arc tangent methods.
+	 */
+	public static final float POLYNOMIAL_MAXIMUM_ERROR = 1.2e-5f;
+
+	/**
+	 * Maximum absolute error (radians) of the float lookup table arc tangent methods.
+	 */
+	public static final float TABLE_MAXIMUM_ERROR = 3.0e-7f;
+
+	private static final float HALF_PI = (float)(FastMath.PI / 2.0);
+	private static final int FLOAT_TABLE_SIZE = 1024;
+
+	//ArcTangents from 0 to pi/4 radians for ratios of 0 to 1 in steps of 1/FLOAT_TABLE_SIZE, plus a guard entry
+	private static final float[] FLOAT_LOOKUP_TABLE = new float[FLOAT_TABLE_SIZE + 2];
+
+	static
+	{
+		for( int x = 0; x < FLOAT_LOOKUP_TABLE.length; x++ )
+		{
+			FLOAT_LOOKUP_TABLE[ x ] = (float)FastMath.atan( (double)x / FLOAT_TABLE_SIZE );
+		}
+	}
+
+	/**
+	 * Float-domain arc tangent of y/x using a 7th order minimax polynomial (Abramowitz &amp; Stegun 4.4.49) over
+	 * the ratio of the smaller to the larger magnitude argument, with symmetry mapping the result to the range
+	 * -pi/2 to pi/2.  Absolute error is less than POLYNOMIAL_MAXIMUM_ERROR radians.
+	 *
+	 * Note: this is the two-quadrant arc tangent of the ratio, like atan(y/x), and not atan2(y,x).  Returns 0 when x
+	 * is zero.
+	 *
+	 * @param y numerator
+	 * @param x denominator
+	 * @return angle in radians
+	 */
+	public static float atanPolynomial( float y, float x )
+	{
+		if( x == 0.0f )
+		{
+			return 0.0f;
+		}
+
+		float xAbs = Math.abs( x );
+		float yAbs = Math.abs( y );
+		boolean swap = yAbs > xAbs;
+		float z = swap ? xAbs / yAbs : yAbs / xAbs;
+		float z2 = z * z;
+
+		float angle = z * ( 0.9998660f + z2 * ( -0.3302995f + z2 * ( 0.1801410f + z2 * ( -0.0851330f +
+			z2 * 0.0208351f ) ) ) );
+
+		if( swap )
+		{
+			angle = HALF_PI - angle;
+		}
+
+		return ( ( x < 0.0f ) != ( y < 0.0f ) ) ? -angle : angle;
+	}
+
+	/**
+	 * Float-domain arc tangent of y/x using a linearly interpolated lookup table over the ratio of the smaller to the
+	 * larger magnitude argument, with symmetry mapping the result to the range -pi/2 to pi/2.  Absolute error is less
+	 * than TABLE_MAXIMUM_ERROR radians.
+	 *
+	 * Note: this is the two-quadrant arc tangent of the ratio, like atan(y/x), and not atan2(y,x).  Returns 0 when x
+	 * is zero.
+	 *
+	 * @param y numerator
+	 * @param x denominator
+	 * @return angle in radians
+	 */
+	public static float atanTable( float y, float x )
+	{
+		if( x == 0.0f )
+		{
+			return 0.0f;
+		}
+
+		float xAbs = Math.abs( x );
+		float yAbs = Math.abs( y );
+		boolean swap = yAbs > xAbs;
+		float alpha = ( swap ? xAbs / yAbs : yAbs / xAbs ) * FLOAT_TABLE_SIZE;
+		int index = (int)alpha;
+		alpha -= index;
+
+		float angle = FLOAT_LOOKUP_TABLE[ index ] +
+			( FLOAT_LOOKUP_TABLE[ index + 1 ] - FLOAT_LOOKUP_TABLE[ index ] ) * alpha;
+
+		if( swap )
+		{
+			angle = HALF_PI - angle;
+		}
+
+		return ( ( x < 0.0f ) != ( y < 0.0f ) ) ? -angle : angle;
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named scheduled thread pool with a fixed number of threads running at a fixed thread priority, that tracks queue
+ * depth and task execution time metrics so that a pool that is falling behind can be identified.
+ */
+public class MonitoredThreadPool extends ScheduledThreadPoolExecutor
+{
+    private final String mName;
+    private final int mPriority;
+    private final ThreadLocal<Long> mTaskStart = new ThreadLocal<>();
+    private final LongAdder mExecutionNanos = new LongAdder();
+    private final LongAdder mExecutionCount = new LongAdder();
+    private final AtomicLong mMaxExecutionNanos = new AtomicLong();
+    private final AtomicLong mMaxQueueSize = new AtomicLong();
+
+    /**
+     * Constructs an instance
+     *
+     * @param name of the pool, used as the thread name prefix
+     * @param threadCount number of threads in the pool
+     * @param priority of each thread in the pool
+     */
+    public MonitoredThreadPool(String name, int threadCount, int priority)
+    {
+        super(threadCount, new NamingThreadFactory("sdrtrunk " + name, priority));
+        mName = name;
+        mPriority = priority;
+
+        //Remove cancelled periodic tasks from the queue so that queue metrics reflect actual pending work
+        setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable)
+    {
+        super.beforeExecute(thread, runnable);
+
+        int queueSize = getQueue().size();
+
+        if(queueSize > mMaxQueueSize.get())
+        {
+            mMaxQueueSize.accumulateAndGet(queueSize, Math::max);
+        }
+
+        mTaskStart.set(System.nanoTime());
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable)
+    {
+        Long start = mTaskStart.get();
+
+        if(start != null)
+        {
+            long elapsed = System.nanoTime() - start;
+            mExecutionNanos.add(elapsed);
+            mExecutionCount.increment();
+
+            if(elapsed > mMaxExecutionNanos.get())
+            {
+                mMaxExecutionNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+
+        super.afterExecute(runnable, throwable);
+    }
+
+    /**
+     * Name of this pool
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Thread priority for threads in this pool
+     */
+    public int getPriority()
+    {
+        return mPriority;
+    }
+
+    /**
+     * Number of tasks waiting in the queue, including scheduled and periodic tasks waiting for their next execution
+     */
+    public int getQueueSize()
+    {
+        return getQueue().size();
+    }
+
+    /**
+     * Largest queue size observed when a task started executing
+     */
+    public long getMaxQueueSize()
+    {
+        return mMaxQueueSize.get();
+    }
+
+    /**
+     * Average task execution time in microseconds since the last reset
+     */
+    public double getAverageExecutionMicroseconds()
+    {
+        long count = mExecutionCount.sum();
+        return count > 0 ? mExecutionNanos.sum() / (count * 1000.0) : 0.0;
+    }
+
+    /**
+     * Maximum task execution time in microseconds since the last reset
+     */
+    public double getMaxExecutionMicroseconds()
+    {
+        return mMaxExecutionNanos.get() / 1000.0;
+    }
+
+    /**
+     * Resets the execution time and maximum queue size metrics
+     */
+    public void resetMetrics()
+    {
+        mExecutionNanos.reset();
+        mExecutionCount.reset();
+        mMaxExecutionNanos.set(0);
+        mMaxQueueSize.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("Thread Pool [%s] Threads [%d] Priority [%d] Active [%d] Queued [%d] Max Queued [%d] " +
+            "Completed [%d] Avg Execution [%.1f us] Max Execution [%.1f us]", mName, getCorePoolSize(), mPriority,
+            getActiveCount(), getQueueSize(), getMaxQueueSize(), getCompletedTaskCount(),
+            getAverageExecutionMicroseconds(), getMaxExecutionMicroseconds());
+    }
+}
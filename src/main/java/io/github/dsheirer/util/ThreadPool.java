@@ -18,38 +18,80 @@
  ******************************************************************************/
 package io.github.dsheirer.util;
 
-import io.github.dsheirer.controller.NamingThreadFactory;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
+/**
+ * Application-wide shared thread pools.
+ *
+ * Work is separated into dedicated pools so that slow or blocking work can never delay real-time sample processing:
+ *
+ * REALTIME - sample path: tuner sample dispatch, channelizer and channel sample delivery, spectral display and audio
+ * playback.  Highest thread priority.
+ * DECODE - decode and event processing: call and channel event handling, alias actions and tuner/channel monitors.
+ * IO - blocking work: file writes, audio recording and streaming (including MP3 encoding), network connections,
+ * RadioReference web service calls and settings persistence.  Lowest thread priority.
+ * UI - user interface adjacent background tasks that are launched from editors and dialogs.
+ *
+ * Thread counts can be overridden with system properties (e.g. -Dsdrtrunk.threads.io=8) using the property names:
+ * sdrtrunk.threads.realtime, sdrtrunk.threads.decode, sdrtrunk.threads.io and sdrtrunk.threads.ui
+ */
 public class ThreadPool
 {
     private final static Logger mLog = LoggerFactory.getLogger(ThreadPool.class);
 
-    private static int CORES = Runtime.getRuntime().availableProcessors();
-    public static ScheduledExecutorService SCHEDULED;
+    private static final int CORES = FastMath.max(Runtime.getRuntime().availableProcessors(), 2);
+
+    public static final MonitoredThreadPool REALTIME = new MonitoredThreadPool("realtime",
+        getThreadCount("realtime", CORES), Thread.MAX_PRIORITY);
+    public static final MonitoredThreadPool DECODE = new MonitoredThreadPool("decode",
+        getThreadCount("decode", FastMath.max(CORES / 2, 2)), Thread.NORM_PRIORITY + 1);
+    public static final MonitoredThreadPool IO = new MonitoredThreadPool("io",
+        getThreadCount("io", FastMath.max(CORES, 4)), Thread.NORM_PRIORITY - 1);
+    public static final MonitoredThreadPool UI = new MonitoredThreadPool("ui",
+        getThreadCount("ui", 2), Thread.NORM_PRIORITY);
 
-    static
+    /**
+     * Application-wide shared thread pools and scheduled executor service.
+     */
+    public ThreadPool()
     {
-        //Create a scheduled thread pool sized according to the available processors/cores, minimum 2
-        CORES = (FastMath.max(CORES, 2));
+    }
 
-        SCHEDULED = Executors.newScheduledThreadPool(CORES, new NamingThreadFactory("sdrtrunk"));
+    /**
+     * Thread count for the named pool from the system property override, or the default thread count.
+     */
+    private static int getThreadCount(String pool, int defaultThreadCount)
+    {
+        return FastMath.max(1, Integer.getInteger("sdrtrunk.threads." + pool, defaultThreadCount));
     }
 
     /**
-     * Application-wide shared thread pools and scheduled executor service.
+     * All application thread pools
      */
-    public ThreadPool()
+    public static MonitoredThreadPool[] getThreadPools()
     {
+        return new MonitoredThreadPool[]{REALTIME, DECODE, IO, UI};
     }
 
     public static void logSettings()
     {
-        mLog.info("Application thread pool created with [" + CORES + "] threads");
+        for(MonitoredThreadPool threadPool: getThreadPools())
+        {
+            mLog.info("Application thread pool [" + threadPool.getName() + "] created with [" +
+                threadPool.getCorePoolSize() + "] threads at priority [" + threadPool.getPriority() + "]");
+        }
+    }
+
+    /**
+     * Logs the queue and execution time metrics for each of the thread pools
+     */
+    public static void logMetrics()
+    {
+        for(MonitoredThreadPool threadPool: getThreadPools())
+        {
+            mLog.info(threadPool.toString());
+        }
     }
 }
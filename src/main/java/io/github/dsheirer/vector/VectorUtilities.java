@@ -0,0 +1,103 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector;
+
+import jdk.incubator.vector.FloatVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utilities for detecting support for the JDK Vector API (jdk.incubator.vector).
+ *
+ * The Vector API is an incubator module in JDK 17 and it is only available when the JVM is started with the
+ * --add-modules=jdk.incubator.vector option.  Classes that reference the Vector API should only be loaded after
+ * checking isVectorApiAvailable(), otherwise class loading will fail with a NoClassDefFoundError.
+ */
+public class VectorUtilities
+{
+    private final static Logger mLog = LoggerFactory.getLogger(VectorUtilities.class);
+    private static final String VECTOR_MODULE_NAME = "jdk.incubator.vector";
+    private static Boolean sVectorApiAvailable;
+
+    /**
+     * Indicates if the Vector API module is loaded and the preferred float vector species supports more than one lane.
+     */
+    public static synchronized boolean isVectorApiAvailable()
+    {
+        if(sVectorApiAvailable == null)
+        {
+            sVectorApiAvailable = false;
+
+            if(ModuleLayer.boot().findModule(VECTOR_MODULE_NAME).isPresent())
+            {
+                try
+                {
+                    int lanes = Species.getPreferredFloatLaneCount();
+                    sVectorApiAvailable = lanes > 1;
+                    mLog.info("Vector API is available - preferred float vector lanes [" + lanes + "]");
+                }
+                catch(Throwable t)
+                {
+                    mLog.warn("Vector API module is present but could not be used - using scalar implementations", t);
+                }
+            }
+            else
+            {
+                mLog.info("Vector API module [" + VECTOR_MODULE_NAME + "] is not loaded - using scalar implementations");
+            }
+        }
+
+        return sVectorApiAvailable;
+    }
+
+    /**
+     * Preferred implementation for this JVM and hardware platform.
+     * @return VECTOR when the Vector API is available, otherwise SCALAR.
+     */
+    public static Implementation getPreferredImplementation()
+    {
+        return isVectorApiAvailable() ? Implementation.VECTOR : Implementation.SCALAR;
+    }
+
+    /**
+     * Resolves the requested implementation against the capabilities of the runtime environment.
+     * @param requested implementation
+     * @return requested implementation, or SCALAR if VECTOR is requested and the Vector API is not available.
+     */
+    public static Implementation resolve(Implementation requested)
+    {
+        if(requested == Implementation.VECTOR && !isVectorApiAvailable())
+        {
+            return Implementation.SCALAR;
+        }
+
+        return requested != null ? requested : getPreferredImplementation();
+    }
+
+    /**
+     * Separate holder class so that Vector API classes are only loaded after the module presence check.
+     */
+    private static class Species
+    {
+        private static int getPreferredFloatLaneCount()
+        {
+            return FloatVector.SPECIES_PREFERRED.length();
+        }
+    }
+}
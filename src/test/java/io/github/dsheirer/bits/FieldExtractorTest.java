@@ -0,0 +1,81 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.bits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that compiled field extraction matches the bit-at-a-time BinaryMessage field access.
+ */
+class FieldExtractorTest {
+    private static int[] range(int start, int length) {
+        int[] bits = new int[length];
+
+        for(int x = 0; x < length; x++) {
+            bits[x] = start + x;
+        }
+
+        return bits;
+    }
+
+    @Test
+    void compilesContiguousRuns() {
+        assertEquals(1, new FieldExtractor(range(60, 8)).getRunCount());
+        assertEquals(3, new FieldExtractor(new int[]{0, 1, 2, 10, 11, 5}).getRunCount());
+        assertThrows(IllegalArgumentException.class, () -> new FieldExtractor(new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> new FieldExtractor(range(0, 65)));
+    }
+
+    @Test
+    void matchesBinaryMessage() {
+        int[][] fields = new int[][]{
+            range(0, 64),                      //First full word
+            range(56, 16),                     //Crosses the first word boundary
+            range(100, 64),                    //64-bit field crossing a word boundary
+            range(128, 1),                     //First bit of the third word
+            new int[]{63, 64, 127, 128, 195},  //Single bit runs at the word boundaries
+            new int[]{70, 71, 72, 10, 11, 190, 191, 192, 193}
+        };
+
+        Random random = new Random(11);
+
+        for(int iteration = 0; iteration < 50; iteration++) {
+            BinaryMessage binary = PackedBinaryMessageTest.getRandomMessage(random);
+            PackedBinaryMessage packed = PackedBinaryMessage.from(binary);
+
+            for(int[] bits : fields) {
+                FieldExtractor field = new FieldExtractor(bits);
+                long expected = binary.getLong(bits);
+                assertEquals(expected, field.getLong(binary));
+                assertEquals(expected, packed.getLong(field));
+                assertEquals(expected, packed.getLong(bits));
+                assertEquals((int)expected, field.getInt(packed));
+            }
+
+            //Offset access
+            FieldExtractor field = new FieldExtractor(new int[]{0, 1, 2, 3, 20, 21});
+            assertEquals(binary.getLong(new int[]{60, 61, 62, 63, 80, 81}), field.getLong(binary, 60));
+        }
+    }
+}
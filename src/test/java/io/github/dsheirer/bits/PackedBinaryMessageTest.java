@@ -0,0 +1,105 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.bits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies packed bit access at and across the 64-bit word boundaries against BinaryMessage.
+ */
+class PackedBinaryMessageTest {
+    private static final int SIZE = 196;
+
+    static BinaryMessage getRandomMessage(Random random) {
+        BinaryMessage message = new BinaryMessage(SIZE);
+
+        for(int x = 0; x < SIZE; x++) {
+            if(random.nextBoolean()) {
+                message.set(x);
+            }
+        }
+
+        return message;
+    }
+
+    @Test
+    void bitAccessAtWordBoundaries() {
+        PackedBinaryMessage message = new PackedBinaryMessage(SIZE);
+
+        for(int index : new int[]{0, 63, 64, 127, 128, 191, 192, 195}) {
+            message.set(index);
+            assertTrue(message.get(index), "Set " + index);
+            assertFalse(message.get(index == 0 ? 1 : index - 1), "Neighbour of " + index);
+            assertEquals(index, message.nextSetBit(index == 0 ? 0 : index - 1));
+            message.clear(index);
+            assertFalse(message.get(index), "Cleared " + index);
+        }
+
+        assertEquals(-1, message.nextSetBit(0));
+    }
+
+    @Test
+    void fieldsAtAndAcrossWordBoundaries() {
+        PackedBinaryMessage message = new PackedBinaryMessage(SIZE);
+
+        //Full word, last bit of a word, first bit of the next word and fields that straddle the word boundary
+        message.load(64, 64, 0x8123456789ABCDEFL);
+        assertEquals(0x8123456789ABCDEFL, message.getLong(64, 127));
+        assertEquals(1, message.getLong(64, 64));
+        assertEquals(1, message.getLong(127, 127));
+
+        message.load(56, 16, 0xA5C3L);
+        assertEquals(0xA5C3L, message.getLong(56, 71));
+        assertEquals(0xA5C3, message.getInt(56, 71));
+
+        message.load(100, 64, -1L);
+        assertEquals(-1L, message.getLong(100, 163));
+        assertEquals(0, message.getLong(164, 195));
+        assertEquals(64, message.getSubMessage(100, 164).cardinality());
+    }
+
+    @Test
+    void equivalentToBinaryMessage() {
+        Random random = new Random(7);
+
+        for(int iteration = 0; iteration < 50; iteration++) {
+            BinaryMessage binary = getRandomMessage(random);
+            PackedBinaryMessage packed = PackedBinaryMessage.from(binary);
+
+            assertEquals(binary.cardinality(), packed.cardinality());
+            assertEquals(binary.toString(), packed.toString());
+            assertEquals(binary, packed.toBinaryMessage());
+
+            for(int start = 0; start < SIZE; start++) {
+                for(int end = start; end < Math.min(SIZE, start + 64); end++) {
+                    assertEquals(binary.getLong(start, end), packed.getLong(start, end), start + "-" + end);
+                }
+            }
+
+            int start = random.nextInt(SIZE - 100);
+            int end = start + 1 + random.nextInt(100);
+            assertEquals(PackedBinaryMessage.from(binary.getSubMessage(start, end)), packed.getSubMessage(start, end));
+        }
+    }
+}
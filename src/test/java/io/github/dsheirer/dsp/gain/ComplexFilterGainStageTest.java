@@ -0,0 +1,126 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.gain;
+
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
+import io.github.dsheirer.dsp.squelch.PowerMonitor;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.vector.Implementation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bit-exactness tests for the fused filter and gain stage against the separate filter, power monitor and feed-forward
+ * gain control stages that it replaces in the decoders.
+ */
+class ComplexFilterGainStageTest {
+    private static final int SEED = 1234;
+    private static final int TAP_COUNT = 72;
+    private static final int BUFFER_LENGTH = 4096;
+    private static final int BUFFER_COUNT = 64;
+
+    ReusableComplexBufferQueue inputQueue = new ReusableComplexBufferQueue("ComplexFilterGainStageTest");
+
+    static float[][] buffers(Random random) {
+        float[][] buffers = new float[BUFFER_COUNT][BUFFER_LENGTH];
+
+        for(float[] buffer : buffers) {
+            for(int x = 0; x < buffer.length; x++) {
+                buffer[x] = random.nextFloat() * 2.0f - 1.0f;
+            }
+        }
+
+        return buffers;
+    }
+
+    static float[] coefficients(Random random) {
+        float[] coefficients = new float[TAP_COUNT];
+
+        for(int x = 0; x < coefficients.length; x++) {
+            coefficients[x] = (random.nextFloat() * 2.0f - 1.0f) / coefficients.length;
+        }
+
+        return coefficients;
+    }
+
+    void assertEquivalent(float[] coefficients, Implementation implementation) {
+        float[][] buffers = buffers(new Random(SEED));
+
+        ComplexFIRFilter2 filter = coefficients != null ? new ComplexFIRFilter2(coefficients) : null;
+        ComplexFeedForwardGainControl gainControl = new ComplexFeedForwardGainControl(32);
+        ComplexFilterGainStage stage = new ComplexFilterGainStage(coefficients, new PowerMonitor());
+
+        if(filter != null) {
+            filter.setImplementation(implementation);
+        }
+
+        stage.setImplementation(implementation);
+
+        for(int buffer = 0; buffer < buffers.length; buffer++) {
+            float[] input = buffers[buffer];
+
+            //Vary the buffer length so that block boundaries fall at different points in the filter history
+            int length = input.length - 2 * (buffer % 7);
+            float[] samples = new float[length];
+            System.arraycopy(input, 0, samples, 0, length);
+
+            ReusableComplexBuffer filtered = inputQueue.getBuffer(samples, 0);
+
+            if(filter != null) {
+                filtered = filter.filter(filtered);
+            }
+
+            ReusableComplexBuffer reference = gainControl.filter(filtered);
+            ReusableComplexBuffer fused = stage.process(inputQueue.getBuffer(samples, 0));
+
+            float[] expected = reference.getSamplesCopy();
+            float[] actual = fused.getSamplesCopy();
+
+            assertEquals(expected.length, actual.length, "Buffer " + buffer + " length");
+
+            for(int x = 0; x < expected.length; x++) {
+                assertEquals(Float.floatToIntBits(expected[x]), Float.floatToIntBits(actual[x]),
+                        "Buffer " + buffer + " sample " + x + " [" + implementation + "]");
+            }
+
+            reference.decrementUserCount();
+            fused.decrementUserCount();
+        }
+    }
+
+    @Test
+    void filteredScalarMatchesSeparateStages() {
+        assertEquivalent(coefficients(new Random(SEED)), Implementation.SCALAR);
+    }
+
+    @Test
+    void filteredVectorMatchesSeparateStages() {
+        assertEquivalent(coefficients(new Random(SEED)), Implementation.VECTOR);
+    }
+
+    @Test
+    void unfilteredMatchesGainControl() {
+        assertEquivalent(null, Implementation.SCALAR);
+    }
+}
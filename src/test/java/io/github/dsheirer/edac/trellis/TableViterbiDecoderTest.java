@@ -0,0 +1,139 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.edac.trellis;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden vector equivalence tests for the table-driven Viterbi decoders against the path-based Viterbi decoders.
+ */
+class TableViterbiDecoderTest {
+    private static final int SEED = 0x5D8;
+    private static final int ENCODED_BIT_LENGTH = 196;
+    private static final int VECTOR_COUNT = 2000;
+
+    /**
+     * Creates a 196-bit TCM encoded message from random input values with the specified number of random bit errors.
+     */
+    static CorrectedBinaryMessage encode(Random random, int[][] transitionMatrix, int bitErrors) {
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage(ENCODED_BIT_LENGTH);
+        int state = 0;
+
+        for(int x = 0; x < ENCODED_BIT_LENGTH; x += 4) {
+            //Final symbol flushes the encoder with an input of zero
+            int input = (x < ENCODED_BIT_LENGTH - 4) ? random.nextInt(transitionMatrix.length) : 0;
+            int symbol = transitionMatrix[state][input];
+            state = input;
+
+            for(int bit = 0; bit < 4; bit++) {
+                if((symbol & (8 >> bit)) != 0) {
+                    message.set(x + bit);
+                }
+            }
+        }
+
+        for(int x = 0; x < bitErrors; x++) {
+            message.flip(random.nextInt(ENCODED_BIT_LENGTH));
+        }
+
+        return message;
+    }
+
+    /**
+     * Creates a random 196-bit message that is not a valid TCM sequence, to exercise equal-metric tie breaking.
+     */
+    static CorrectedBinaryMessage random(Random random) {
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage(ENCODED_BIT_LENGTH);
+
+        for(int x = 0; x < ENCODED_BIT_LENGTH; x++) {
+            if(random.nextBoolean()) {
+                message.set(x);
+            }
+        }
+
+        return message;
+    }
+
+    static void assertEquivalent(BinaryMessage expected, CorrectedBinaryMessage actual, String vector) {
+        assertEquals(expected.size(), actual.size(), "Message size - " + vector);
+        assertEquals(expected.toString(), actual.toString(), "Message bits - " + vector);
+        assertEquals(expected.getCorrectedBitCount(), actual.getCorrectedBitCount(), "Corrected bit count - " + vector);
+    }
+
+    @Test
+    void test_p25_half_rate_equivalence() {
+        Random random = new Random(SEED);
+        ViterbiDecoder_1_2_P25 reference = new ViterbiDecoder_1_2_P25();
+        TableViterbiDecoder_1_2_P25 decoder = new TableViterbiDecoder_1_2_P25();
+
+        for(int x = 0; x < VECTOR_COUNT; x++) {
+            CorrectedBinaryMessage message = (x % 4 == 3) ? random(random) :
+                    encode(random, P25_1_2_Node.TRANSITION_MATRIX, x % 12);
+            assertEquivalent(reference.decode(message), decoder.decode(message), message.toString());
+        }
+    }
+
+    @Test
+    void test_p25_three_quarter_rate_equivalence() {
+        Random random = new Random(SEED);
+        ViterbiDecoder_3_4_P25 reference = new ViterbiDecoder_3_4_P25();
+        TableViterbiDecoder_3_4_P25 decoder = new TableViterbiDecoder_3_4_P25();
+
+        for(int x = 0; x < VECTOR_COUNT; x++) {
+            CorrectedBinaryMessage message = (x % 4 == 3) ? random(random) :
+                    encode(random, P25_3_4_Node.TRANSITION_MATRIX, x % 12);
+            assertEquivalent(reference.decode(message), decoder.decode(message), message.toString());
+        }
+    }
+
+    @Test
+    void test_dmr_three_quarter_rate_equivalence() {
+        Random random = new Random(SEED);
+        ViterbiDecoder_3_4_DMR reference = new ViterbiDecoder_3_4_DMR();
+        TableViterbiDecoder_3_4_DMR decoder = new TableViterbiDecoder_3_4_DMR();
+
+        for(int x = 0; x < VECTOR_COUNT; x++) {
+            //DMR decoders deinterleave the message, so a random message is a random sequence of encoded symbols
+            CorrectedBinaryMessage message = random(random);
+            assertEquivalent(reference.decode(message), decoder.decode(message), message.toString());
+        }
+    }
+
+    @Test
+    void test_error_free_message_has_no_corrected_bits() {
+        Random random = new Random(SEED);
+        TableViterbiDecoder_3_4_P25 decoder = new TableViterbiDecoder_3_4_P25();
+        CorrectedBinaryMessage decoded = decoder.decode(encode(random, P25_3_4_Node.TRANSITION_MATRIX, 0));
+        assertEquals(144, decoded.size());
+        assertEquals(0, decoded.getCorrectedBitCount());
+    }
+
+    @Test
+    void test_partial_symbol_message_is_rejected() {
+        TableViterbiDecoder_1_2_P25 decoder = new TableViterbiDecoder_1_2_P25();
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(new BinaryMessage(195)));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.module;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.AbstractAudioModule;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierUpdateNotification;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.module.decode.p25.audio.P25P1AudioModule;
+import io.github.dsheirer.module.decode.p25.audio.P25P2AudioModule;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
+import io.github.dsheirer.module.decode.p25.phase2.DecodeConfigP25Phase2;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.decoder.JmbeLibraryPreference;
+import io.github.dsheirer.sample.SampleType;
+import io.github.dsheirer.source.ComplexSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifies that a traffic channel processing chain that is stopped and restarted for a new channel grant does not
+ * carry identifiers from the previous grant into the audio module that labels the next call's audio segments.
+ */
+class ProcessingChainReuseTest {
+    UserPreferences userPreferences = mock(UserPreferences.class);
+    AliasList aliasList = new AliasList("Test Alias List");
+
+    @BeforeEach
+    void setUp() {
+        when(userPreferences.getJmbeLibraryPreference()).thenReturn(mock(JmbeLibraryPreference.class));
+    }
+
+    ProcessingChain chain(DecodeConfiguration decodeConfiguration, Module audioModule) {
+        Channel channel = new Channel("Traffic", Channel.ChannelType.TRAFFIC);
+        channel.setDecodeConfiguration(decodeConfiguration);
+        ProcessingChain processingChain = new ProcessingChain(channel, new AliasModel());
+        processingChain.addModule(audioModule);
+        return processingChain;
+    }
+
+    /**
+     * Starts the chain for a grant to the talkgroup, the same way the channel processing manager binds a pooled chain
+     */
+    void grant(ProcessingChain processingChain, int talkgroup) {
+        processingChain.getChannelState().updateChannelStateIdentifiers(new IdentifierUpdateNotification(
+                APCO25Talkgroup.create(talkgroup), IdentifierUpdateNotification.Operation.ADD, 0));
+
+        ComplexSource source = mock(ComplexSource.class);
+        when(source.getSampleType()).thenReturn(SampleType.COMPLEX);
+        processingChain.setSource(source);
+        processingChain.start();
+    }
+
+    /**
+     * Simulates an identifier provided by the decoder state during a call, such as the talker radio ID
+     */
+    static void decoderIdentifier(AbstractAudioModule audioModule, Identifier identifier) {
+        audioModule.getIdentifierUpdateListener().receive(new IdentifierUpdateNotification(identifier,
+                IdentifierUpdateNotification.Operation.ADD, 0));
+    }
+
+    static boolean contains(AbstractAudioModule audioModule, Identifier identifier) {
+        List<Identifier> identifiers = audioModule.getIdentifierCollection().getIdentifiers();
+        return identifiers.contains(identifier);
+    }
+
+    void assertNoStaleIdentifiers(DecodeConfiguration decodeConfiguration, AbstractAudioModule audioModule,
+                                  Identifier firstCallIdentifier) {
+        ProcessingChain processingChain = chain(decodeConfiguration, audioModule);
+
+        grant(processingChain, 100);
+        decoderIdentifier(audioModule, firstCallIdentifier);
+        assertTrue(contains(audioModule, APCO25Talkgroup.create(100)), "First grant talkgroup");
+        assertTrue(contains(audioModule, firstCallIdentifier), "First call identifier");
+        processingChain.stop();
+
+        grant(processingChain, 200);
+        assertTrue(contains(audioModule, APCO25Talkgroup.create(200)), "Second grant talkgroup");
+        assertFalse(contains(audioModule, APCO25Talkgroup.create(100)), "Stale first grant talkgroup");
+        assertFalse(contains(audioModule, firstCallIdentifier), "Stale first call identifier");
+        processingChain.stop();
+
+        processingChain.dispose();
+    }
+
+    @Test
+    void phase1ChainDoesNotLeakIdentifiers() {
+        assertNoStaleIdentifiers(new DecodeConfigP25Phase1(), new P25P1AudioModule(userPreferences, aliasList),
+                APCO25RadioIdentifier.createFrom(1000));
+    }
+
+    @Test
+    void phase2ChainDoesNotLeakIdentifiers() {
+        //A private call target is not removed by the end of call reset, only by the processing chain reset
+        assertNoStaleIdentifiers(new DecodeConfigP25Phase2(), new P25P2AudioModule(userPreferences, 0, aliasList),
+                APCO25RadioIdentifier.createTo(5000));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.sample.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies power-of-two capacity class pooling, the logical buffer length and the pool-wide retention budget.
+ */
+class ReusableBufferPoolTest {
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(0, ReusableBufferPool.getCapacity(0));
+        assertEquals(1, ReusableBufferPool.getCapacity(1));
+        assertEquals(4, ReusableBufferPool.getCapacity(3));
+        assertEquals(1024, ReusableBufferPool.getCapacity(1024));
+        assertEquals(2048, ReusableBufferPool.getCapacity(1025));
+    }
+
+    @Test
+    void buffersOfDifferentLengthsShareCapacityClass() {
+        ReusableBufferQueue queue = new ReusableBufferQueue("Test");
+
+        ReusableFloatBuffer first = queue.getBuffer(1000);
+        assertEquals(1000, first.getLength());
+        assertEquals(1024, first.getSamples().length);
+        first.decrementUserCount();
+
+        ReusableFloatBuffer second = queue.getBuffer(600);
+        assertSame(first, second, "recycled buffer from the same capacity class");
+        assertEquals(600, second.getLength());
+        assertEquals(600, second.getSamplesCopy().length);
+        assertEquals(1024, second.getSamples().length);
+        second.decrementUserCount();
+
+        assertEquals(1, queue.getBufferPool().getAllocatedCount());
+        assertEquals(1, queue.getBufferPool().getCapacityClassCount());
+    }
+
+    @Test
+    void exactLengthArraysAreReusedForSmallerRequests() {
+        ReusableComplexBufferQueue queue = new ReusableComplexBufferQueue("Test");
+
+        //Buffer wrapping a caller-supplied array that is not a power-of-two length
+        ReusableComplexBuffer wrapped = new ReusableComplexBuffer(queue, new float[1500]);
+        wrapped.incrementUserCount();
+        wrapped.decrementUserCount();
+
+        //1500 can fully satisfy any request up to 1024, but not a request for 2048
+        assertNull(queue.getBufferPool().acquire(1200));
+        assertSame(wrapped, queue.getBufferPool().acquire(1024));
+    }
+
+    @Test
+    void retentionBudgetLimitsRetainedCapacity() {
+        ReusableBufferQueue queue = new ReusableBufferQueue("Test");
+        queue.setRetentionBudget(2048);
+
+        ReusableFloatBuffer[] buffers = new ReusableFloatBuffer[3];
+
+        for(int x = 0; x < buffers.length; x++) {
+            buffers[x] = queue.getBuffer(1000);
+        }
+
+        for(ReusableFloatBuffer buffer : buffers) {
+            buffer.decrementUserCount();
+        }
+
+        ReusableBufferPool<ReusableFloatBuffer> pool = queue.getBufferPool();
+        assertEquals(2, pool.getRetainedCount());
+        assertEquals(2048, pool.getRetainedCapacity());
+
+        assertNotNull(pool.acquire(1000));
+        assertEquals(1024, pool.getRetainedCapacity());
+    }
+
+    @Test
+    void clearDrainsBuffersReleasedOnOtherThreads() throws Exception {
+        ReusableBufferQueue queue = new ReusableBufferQueue("Test");
+        ReusableFloatBuffer buffer = queue.getBuffer(256);
+
+        Thread consumer = new Thread(buffer::decrementUserCount);
+        consumer.start();
+        consumer.join();
+
+        assertEquals(1, queue.getBufferPool().clear().size());
+        assertEquals(0, queue.getBufferPool().getRetainedCount());
+        assertEquals(0, queue.getBufferPool().getRetainedCapacity());
+    }
+}
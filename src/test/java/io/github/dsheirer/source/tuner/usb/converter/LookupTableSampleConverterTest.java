@@ -0,0 +1,94 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.tuner.usb.converter;
+
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the 8-bit lookup table conversion and the fused DC removal stage.
+ */
+class LookupTableSampleConverterTest {
+    private static final int BUFFER_SIZE = 131072;
+
+    /**
+     * Direct native buffer filled with a constant complex sample.
+     */
+    private static ByteBuffer getNativeBuffer(int inphase, int quadrature) {
+        ByteBuffer nativeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        for(int x = 0; x < BUFFER_SIZE; x += 2) {
+            nativeBuffer.put((byte)inphase).put((byte)quadrature);
+        }
+
+        return nativeBuffer.rewind();
+    }
+
+    @Test
+    void convertsWithoutDCRemoval() {
+        ByteSampleConverter converter = new ByteSampleConverter();
+        assertFalse(converter.isDCRemoval());
+
+        ByteBuffer nativeBuffer = ByteBuffer.allocateDirect(8);
+        nativeBuffer.put(new byte[]{0, (byte)127, (byte)255, (byte)200, 1, 2, 3, 4}).rewind();
+
+        //Odd transfer length is trimmed to whole complex samples
+        ReusableComplexBuffer buffer = converter.convert(nativeBuffer, 5);
+        assertArrayEquals(new float[]{-127 / 128.0f, 0.0f, 128 / 128.0f, 73 / 128.0f}, buffer.getSamplesCopy());
+        assertEquals(0, nativeBuffer.position());
+        buffer.decrementUserCount();
+    }
+
+    @Test
+    void dcRemovalConvergesToZero() {
+        ByteSampleConverter converter = new ByteSampleConverter();
+        converter.setDCRemoval(true);
+        ByteBuffer nativeBuffer = getNativeBuffer(200, 60);
+
+        ReusableComplexBuffer buffer = converter.convert(nativeBuffer, BUFFER_SIZE);
+        float[] samples = buffer.getSamples();
+
+        //Running average starts at zero, so the first sample is unchanged and the offset then decays
+        assertEquals(73 / 128.0f, samples[0]);
+        assertEquals(-67 / 128.0f, samples[1]);
+        assertTrue(Math.abs(samples[BUFFER_SIZE - 2]) < Math.abs(samples[0]));
+        buffer.decrementUserCount();
+
+        for(int x = 0; x < 20; x++) {
+            converter.convert(nativeBuffer, BUFFER_SIZE).decrementUserCount();
+        }
+
+        buffer = converter.convert(nativeBuffer, BUFFER_SIZE);
+        samples = buffer.getSamples();
+        assertEquals(0.0f, samples[BUFFER_SIZE - 2], 1e-4f);
+        assertEquals(0.0f, samples[BUFFER_SIZE - 1], 1e-4f);
+        buffer.decrementUserCount();
+
+        //Re-enabling resets the running averages
+        converter.setDCRemoval(true);
+        buffer = converter.convert(nativeBuffer, BUFFER_SIZE);
+        assertEquals(73 / 128.0f, buffer.getSamples()[0]);
+        buffer.decrementUserCount();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the float arc tangent approximations used by the FM demodulator phase discriminator against their
+ * documented maximum error bounds.
+ */
+class ArcTangentTest {
+    private static final int SAMPLE_COUNT = 2_000_000;
+
+    /**
+     * Maximum absolute error of the approximation against the double precision arc tangent, over random arguments
+     * that include near-zero and large ratio arguments.
+     */
+    static double maximumError(boolean polynomial) {
+        Random random = new Random(1234);
+        double maximumError = 0.0;
+
+        for(int x = 0; x < SAMPLE_COUNT; x++) {
+            float i = (float)(random.nextGaussian() * Math.pow(10, random.nextInt(7) - 3));
+            float q = (float)(random.nextGaussian() * Math.pow(10, random.nextInt(7) - 3));
+
+            if(i != 0.0f) {
+                double reference = Math.atan((double)q / (double)i);
+                float actual = polynomial ? ArcTangent.atanPolynomial(q, i) : ArcTangent.atanTable(q, i);
+                maximumError = Math.max(maximumError, Math.abs(actual - reference));
+            }
+        }
+
+        return maximumError;
+    }
+
+    @Test
+    void polynomialWithinMaximumError() {
+        double error = maximumError(true);
+        assertTrue(error <= ArcTangent.POLYNOMIAL_MAXIMUM_ERROR, "Polynomial maximum error " + error);
+    }
+
+    @Test
+    void tableWithinMaximumError() {
+        double error = maximumError(false);
+        assertTrue(error <= ArcTangent.TABLE_MAXIMUM_ERROR, "Lookup table maximum error " + error);
+    }
+
+    @Test
+    void zeroInphase() {
+        assertEquals(0.0f, ArcTangent.atanPolynomial(1.0f, 0.0f));
+        assertEquals(0.0f, ArcTangent.atanTable(1.0f, 0.0f));
+    }
+}
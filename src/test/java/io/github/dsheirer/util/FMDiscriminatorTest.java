@@ -0,0 +1,200 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.bits.SyncPattern;
+import io.github.dsheirer.dsp.fm.FMDemodulator;
+import io.github.dsheirer.dsp.fm.FMDiscriminator;
+import io.github.dsheirer.dsp.fm.SquelchingFMDemodulator;
+import io.github.dsheirer.edac.CRCLTR;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.message.MessageDirection;
+import io.github.dsheirer.module.decode.ltrstandard.LTRStandardDecoder;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the float arc tangent FM discriminators decode identically to the double precision reference for
+ * synthetic NBFM and LTR signals.
+ */
+class FMDiscriminatorTest {
+    private static final int BUFFER_LENGTH = 8192;
+    private static final double NBFM_SAMPLE_RATE = 25000.0;
+    private static final double LTR_SAMPLE_RATE = 8000.0;
+    private static final double LTR_BAUD_RATE = 300.0;
+
+    /**
+     * Creates interleaved complex samples for an FM modulated signal from the instantaneous frequency deviation (Hz)
+     * and amplitude of each sample, with additive gaussian noise.
+     */
+    private static float[] modulate(double[] modulation, double[] amplitudes, double sampleRate, double noise,
+                                    Random random) {
+        float[] samples = new float[modulation.length * 2];
+        double phase = 0.0;
+
+        for(int x = 0; x < modulation.length; x++) {
+            phase += 2.0 * Math.PI * modulation[x] / sampleRate;
+            samples[2 * x] = (float)(amplitudes[x] * Math.cos(phase) + random.nextGaussian() * noise);
+            samples[2 * x + 1] = (float)(amplitudes[x] * Math.sin(phase) + random.nextGaussian() * noise);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Synthetic NBFM voice signal: two tones with 2.5 kHz peak deviation, alternating between one second of signal
+     * and one half-second of noise-only squelch gaps.
+     */
+    private static float[] getNBFMSignal(int sampleCount, Random random) {
+        double[] modulation = new double[sampleCount];
+        double[] amplitudes = new double[sampleCount];
+
+        for(int x = 0; x < sampleCount; x++) {
+            double t = x / NBFM_SAMPLE_RATE;
+            modulation[x] = 1500.0 * Math.sin(2.0 * Math.PI * 440.0 * t) + 1000.0 * Math.sin(2.0 * Math.PI * 1230.0 * t);
+            amplitudes[x] = (x % 37500) < 25000 ? 0.01 : 0.0;
+        }
+
+        return modulate(modulation, amplitudes, NBFM_SAMPLE_RATE, 0.00001, random);
+    }
+
+    /**
+     * Synthetic LTR signal at 8 kHz: continuous 40-bit LTR Standard outbound messages (sync, random payload and a
+     * valid checksum) at 300 baud with 800 Hz deviation, plus a 1 kHz voice tone with 1 kHz deviation and noise.
+     */
+    private static float[] getLTRSignal(int messageCount, Random random) {
+        boolean[] sync = SyncPattern.LTR_STANDARD_OSW.getPattern();
+        List<Boolean> bits = new ArrayList<>();
+
+        for(int message = 0; message < messageCount; message++) {
+            BitSet payload = new BitSet();
+
+            for(int x = sync.length; x < 33; x++) {
+                payload.set(x, random.nextBoolean());
+            }
+
+            int checksum = CRCLTR.getCalculatedChecksum(payload);
+
+            for(int x = 0; x < 7; x++) {
+                payload.set(x + 33, (checksum & (1 << (6 - x))) != 0);
+            }
+
+            for(int x = 0; x < LTRStandardDecoder.LTR_STANDARD_MESSAGE_LENGTH; x++) {
+                bits.add(x < sync.length ? sync[x] : payload.get(x));
+            }
+        }
+
+        double samplesPerBit = LTR_SAMPLE_RATE / LTR_BAUD_RATE;
+        int sampleCount = (int)(bits.size() * samplesPerBit);
+        sampleCount -= sampleCount % 2;
+        double[] modulation = new double[sampleCount];
+        double[] amplitudes = new double[sampleCount];
+
+        for(int x = 0; x < sampleCount; x++) {
+            boolean bit = bits.get(Math.min((int)(x / samplesPerBit), bits.size() - 1));
+            modulation[x] = (bit ? 800.0 : -800.0) + 1000.0 * Math.sin(2.0 * Math.PI * 1000.0 * x / LTR_SAMPLE_RATE);
+            amplitudes[x] = 0.1;
+        }
+
+        return modulate(modulation, amplitudes, LTR_SAMPLE_RATE, 0.01, random);
+    }
+
+    /**
+     * Demodulates the NBFM signal in buffer sized blocks, recording the squelch changed flag for each block.
+     */
+    private static float[] demodulateNBFM(FMDiscriminator discriminator, float[] samples, List<Boolean> squelchChanges) {
+        SquelchingFMDemodulator demodulator = new SquelchingFMDemodulator(0.0004, -78.0, 4);
+        demodulator.setDiscriminator(discriminator);
+        ReusableComplexBufferQueue queue = new ReusableComplexBufferQueue("FMDiscriminatorTest");
+        float[] demodulated = new float[samples.length / 2];
+
+        for(int offset = 0; offset < samples.length; offset += BUFFER_LENGTH) {
+            float[] block = new float[Math.min(BUFFER_LENGTH, samples.length - offset)];
+            System.arraycopy(samples, offset, block, 0, block.length);
+            ReusableFloatBuffer buffer = demodulator.demodulate(queue.getBuffer(block, 0));
+            System.arraycopy(buffer.getSamples(), 0, demodulated, offset / 2, block.length / 2);
+            buffer.decrementUserCount();
+            squelchChanges.add(demodulator.isSquelchChanged());
+        }
+
+        return demodulated;
+    }
+
+    /**
+     * Demodulates and decodes the LTR signal and returns the decoded messages.
+     */
+    private static List<String> decodeLTR(FMDiscriminator discriminator, float[] samples) {
+        FMDemodulator demodulator = new FMDemodulator();
+        demodulator.setDiscriminator(discriminator);
+        ReusableComplexBufferQueue queue = new ReusableComplexBufferQueue("FMDiscriminatorTest");
+        LTRStandardDecoder decoder = new LTRStandardDecoder(null, MessageDirection.OSW);
+        List<String> messages = new ArrayList<>();
+        decoder.setMessageListener((IMessage message) -> messages.add(message.toString()));
+
+        for(int offset = 0; offset < samples.length; offset += BUFFER_LENGTH) {
+            float[] block = new float[Math.min(BUFFER_LENGTH, samples.length - offset)];
+            System.arraycopy(samples, offset, block, 0, block.length);
+            decoder.receive(demodulator.demodulate(queue.getBuffer(block, 0)));
+        }
+
+        return messages;
+    }
+
+    @Test
+    void nbfmMatchesReference() {
+        float[] samples = getNBFMSignal((int)NBFM_SAMPLE_RATE * 12, new Random(1));
+        List<Boolean> referenceChanges = new ArrayList<>();
+        float[] reference = demodulateNBFM(FMDiscriminator.DOUBLE, samples, referenceChanges);
+        assertTrue(referenceChanges.contains(true), "Reference squelch never changed state");
+
+        for(FMDiscriminator discriminator : new FMDiscriminator[]{FMDiscriminator.POLYNOMIAL,
+            FMDiscriminator.LOOKUP_TABLE}) {
+            List<Boolean> changes = new ArrayList<>();
+            float[] demodulated = demodulateNBFM(discriminator, samples, changes);
+            double maximumError = discriminator == FMDiscriminator.POLYNOMIAL ? ArcTangent.POLYNOMIAL_MAXIMUM_ERROR :
+                ArcTangent.TABLE_MAXIMUM_ERROR;
+
+            for(int x = 0; x < demodulated.length; x++) {
+                //Allow for float rounding of the reference value
+                assertEquals(reference[x], demodulated[x], maximumError + 1e-6, discriminator + " sample " + x);
+            }
+
+            assertEquals(referenceChanges, changes, discriminator + " squelch changes");
+        }
+    }
+
+    @Test
+    void ltrDecodesIdenticallyToReference() {
+        float[] samples = getLTRSignal(200, new Random(2));
+        List<String> reference = decodeLTR(FMDiscriminator.DOUBLE, samples);
+        assertTrue(reference.size() > 190, "Reference decoded " + reference.size() + " messages");
+
+        assertEquals(reference, decodeLTR(FMDiscriminator.POLYNOMIAL, samples));
+        assertEquals(reference, decodeLTR(FMDiscriminator.LOOKUP_TABLE, samples));
+    }
+}